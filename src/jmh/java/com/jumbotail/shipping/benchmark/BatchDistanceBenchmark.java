@@ -0,0 +1,77 @@
+package com.jumbotail.shipping.benchmark;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.util.BatchDistanceCalculator;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One origin against N destinations: per-pair DistanceCalculator calls (boxed Location and
+ * primitive overloads) versus the batch kernel over primitive arrays.
+ *
+ * The batch kernel is measured twice, in a fork with jdk.incubator.vector enabled (SIMD)
+ * and in one without it (scalar fallback).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchDistanceBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    private int destinationCount;
+
+    private Location origin;
+    private Location[] destinations;
+    private double[] lats;
+    private double[] lngs;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        origin = new Location(12.9716, 77.5946);
+        destinations = new Location[destinationCount];
+        lats = new double[destinationCount];
+        lngs = new double[destinationCount];
+        out = new double[destinationCount];
+        for (int i = 0; i < destinationCount; i++) {
+            lats[i] = 8.0 + random.nextDouble() * 29.0;
+            lngs[i] = 68.0 + random.nextDouble() * 29.0;
+            destinations[i] = new Location(lats[i], lngs[i]);
+        }
+    }
+
+    @Benchmark
+    public void locationPerPair(Blackhole blackhole) {
+        for (Location destination : destinations) {
+            blackhole.consume(DistanceCalculator.calculateDistance(origin, destination));
+        }
+    }
+
+    @Benchmark
+    public void primitivePerPair(Blackhole blackhole) {
+        for (int i = 0; i < lats.length; i++) {
+            blackhole.consume(DistanceCalculator.calculateDistance(12.9716, 77.5946, lats[i], lngs[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] batchScalar() {
+        BatchDistanceCalculator.distancesFrom(12.9716, 77.5946, lats, lngs, out);
+        return out;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public double[] batchVector() {
+        BatchDistanceCalculator.distancesFrom(12.9716, 77.5946, lats, lngs, out);
+        return out;
+    }
+}
@@ -0,0 +1,100 @@
+package com.jumbotail.shipping.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+import com.jumbotail.shipping.strategy.distance.DistanceMatrixDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a full Distance Matrix block: binding the reply to GoogleDistanceMatrixResponse
+ * as RestTemplate did versus the streaming DistanceMatrixDecoder the Google strategy now
+ * uses for matrix calls.
+ *
+ * Replies carry addresses and "text" fields like the real API. Run with the GC profiler
+ * to see bytes allocated per decode (gc.alloc.rate.norm):
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="DistanceMatrixDecodeBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceMatrixDecodeBenchmark {
+
+    // Origins x destinations: one pair, a warehouse row and a full 100-element block
+    @Param({"1x1", "1x25", "4x25"})
+    private String shape;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private byte[] body;
+    private int rows;
+    private int columns;
+
+    @Setup
+    public void setUp() {
+        rows = Integer.parseInt(shape.substring(0, shape.indexOf('x')));
+        columns = Integer.parseInt(shape.substring(shape.indexOf('x') + 1));
+        Random random = new Random(11);
+
+        StringBuilder json = new StringBuilder("{\"destination_addresses\":[");
+        for (int j = 0; j < columns; j++) {
+            json.append(j > 0 ? "," : "").append("\"").append(100 + j).append(", 4th Cross Road, Indiranagar, Bengaluru, Karnataka 560038, India\"");
+        }
+        json.append("],\"origin_addresses\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i > 0 ? "," : "").append("\"Warehouse ").append(i).append(", Hosur Road, Bengaluru, Karnataka 560068, India\"");
+        }
+        json.append("],\"rows\":[");
+        for (int i = 0; i < rows; i++) {
+            json.append(i > 0 ? "," : "").append("{\"elements\":[");
+            for (int j = 0; j < columns; j++) {
+                int metres = 2_000 + random.nextInt(40_000);
+                int seconds = metres / 8;
+                json.append(j > 0 ? "," : "")
+                        .append("{\"distance\":{\"text\":\"").append(metres / 1000).append(" km\",\"value\":").append(metres)
+                        .append("},\"duration\":{\"text\":\"").append(seconds / 60).append(" mins\",\"value\":").append(seconds)
+                        .append("},\"status\":\"OK\"}");
+            }
+            json.append("]}");
+        }
+        json.append("],\"status\":\"OK\"}");
+        body = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int bindObjectGraph() throws IOException {
+        GoogleDistanceMatrixResponse response = objectMapper.readValue(body, GoogleDistanceMatrixResponse.class);
+        int sum = 0;
+        for (GoogleDistanceMatrixResponse.Row row : response.getRows()) {
+            for (GoogleDistanceMatrixResponse.Element element : row.getElements()) {
+                if ("OK".equals(element.getStatus())) {
+                    sum += element.getDistance().getValue() + element.getDuration().getValue();
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int streamPrimitives() throws IOException {
+        DistanceMatrixDecoder.Matrix matrix = DistanceMatrixDecoder.decode(body, rows, columns);
+        int sum = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                if (matrix.isOk(i, j)) {
+                    sum += matrix.metres(i, j) + matrix.seconds(i, j);
+                }
+            }
+        }
+        return sum;
+    }
+}
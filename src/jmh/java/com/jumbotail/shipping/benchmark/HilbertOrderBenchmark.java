@@ -0,0 +1,78 @@
+package com.jumbotail.shipping.benchmark;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.spatial.HilbertCurve;
+import com.jumbotail.shipping.spatial.KdTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch nearest-warehouse assignment for a synthetic million-customer set, walking the
+ * customers in insertion (random) order versus Hilbert-curve order.
+ *
+ * Customers and warehouses are spread uniformly over India's bounding box. The sorted
+ * variant is measured with and without the cost of sorting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class HilbertOrderBenchmark {
+
+    private static final int CUSTOMER_COUNT = 1_000_000;
+
+    @Param({"1000", "100000"})
+    private int warehouseCount;
+
+    private KdTree<Location> tree;
+    private List<Location> customers;
+    private List<Location> sortedCustomers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        List<Location> warehouses = new ArrayList<>(warehouseCount);
+        for (int i = 0; i < warehouseCount; i++) {
+            warehouses.add(randomIndianLocation(random));
+        }
+        tree = KdTree.build(warehouses, Location::getLat, Location::getLng);
+
+        customers = new ArrayList<>(CUSTOMER_COUNT);
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customers.add(randomIndianLocation(random));
+        }
+        sortedCustomers = HilbertCurve.sort(customers, Location::getLat, Location::getLng);
+    }
+
+    @Benchmark
+    public void insertionOrder(Blackhole blackhole) {
+        assignAll(customers, blackhole);
+    }
+
+    @Benchmark
+    public void hilbertOrder(Blackhole blackhole) {
+        assignAll(sortedCustomers, blackhole);
+    }
+
+    @Benchmark
+    public void hilbertSortThenAssign(Blackhole blackhole) {
+        assignAll(HilbertCurve.sort(customers, Location::getLat, Location::getLng), blackhole);
+    }
+
+    private void assignAll(List<Location> batch, Blackhole blackhole) {
+        for (Location customer : batch) {
+            blackhole.consume(tree.nearest(customer.getLat(), customer.getLng()));
+        }
+    }
+
+    private static Location randomIndianLocation(Random random) {
+        return new Location(8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.jumbotail.shipping.benchmark;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.spatial.KdTree;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-warehouse lookup: the original linear scan over every active warehouse
+ * versus the unit-sphere KD-tree used by WarehouseSpatialIndex.
+ *
+ * Warehouses and queries are spread uniformly over India's bounding box.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearestWarehouseBenchmark {
+
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"100", "10000", "100000"})
+    private int warehouseCount;
+
+    private List<Location> warehouses;
+    private KdTree<Location> tree;
+    private Location[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        warehouses = new ArrayList<>(warehouseCount);
+        for (int i = 0; i < warehouseCount; i++) {
+            warehouses.add(randomIndianLocation(random));
+        }
+        tree = KdTree.build(warehouses, Location::getLat, Location::getLng);
+
+        queries = new Location[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = randomIndianLocation(random);
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        Location query = nextQuery();
+        Location nearest = null;
+        double minDistance = Double.MAX_VALUE;
+        for (Location warehouse : warehouses) {
+            double distance = DistanceCalculator.calculateDistance(query, warehouse);
+            if (distance < minDistance) {
+                minDistance = distance;
+                nearest = warehouse;
+            }
+        }
+        blackhole.consume(nearest);
+    }
+
+    @Benchmark
+    public void kdTree(Blackhole blackhole) {
+        Location query = nextQuery();
+        blackhole.consume(tree.nearest(query.getLat(), query.getLng()));
+    }
+
+    private Location nextQuery() {
+        return queries[next++ & (QUERY_COUNT - 1)];
+    }
+
+    private static Location randomIndianLocation(Random random) {
+        return new Location(8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0);
+    }
+}
@@ -14,13 +14,16 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class CacheConfig {
 
+    public static final int MAXIMUM_SIZE = 500;
+    public static final int EXPIRE_AFTER_WRITE_MINUTES = 10;
+
     @Bean
     public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("nearestWarehouse", "shippingCharge", "shippingEstimate", "productWeight", "warehouseInventoryCheck", "distanceCache");
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager("nearestWarehouse", "shippingCharge", "shippingEstimate", "productWeight", "distanceCache");
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .initialCapacity(100)
-                .maximumSize(500)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
                 .recordStats());
         return cacheManager;
     }
@@ -0,0 +1,26 @@
+package com.jumbotail.shipping.config;
+
+import com.jumbotail.shipping.util.BatchDistanceCalculator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs at startup which batch distance kernel is active, so a deployment started without
+ * {@code --add-modules jdk.incubator.vector} shows up in the startup log rather than on
+ * the first matrix request.
+ */
+@Component
+@Slf4j
+public class DistanceKernelReporter {
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportKernel() {
+        if (BatchDistanceCalculator.isVectorized()) {
+            log.info("Batch distance kernel: SIMD");
+        } else {
+            log.warn("Batch distance kernel: scalar fallback; start the JVM with --add-modules jdk.incubator.vector to use SIMD");
+        }
+    }
+}
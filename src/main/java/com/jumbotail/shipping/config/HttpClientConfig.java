@@ -0,0 +1,26 @@
+package com.jumbotail.shipping.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for outbound map APIs. Connections are pooled and kept alive
+ * by the client, and HTTP/2 is negotiated where the server offers it, so concurrent
+ * requests share a few multiplexed connections.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public HttpClient mapsHttpClient(@Value("${google.maps.http.connect-timeout-ms:5000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.jumbotail.shipping.config;
+
+import com.jumbotail.shipping.standin.DistanceMatrixStandIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Runs a local Distance Matrix stand-in under the {@code standin} profile, which also
+ * points {@code google.maps.base-url} at it, so the Google strategy can be load-tested
+ * without network access or an API key.
+ */
+@Configuration
+@Profile("standin")
+public class StandInConfig {
+
+    @Bean(destroyMethod = "close")
+    public DistanceMatrixStandIn distanceMatrixStandIn(
+            @Value("${google.maps.standin.port:8089}") int port,
+            @Value("${google.maps.standin.recordings:}") String recordings,
+            @Value("${google.maps.standin.record-from:}") String recordFrom,
+            @Value("${google.maps.standin.record-api-key:}") String recordApiKey,
+            @Value("${google.maps.standin.detour-factor:1.3}") double detourFactor,
+            @Value("${google.maps.standin.speed-kmph:40}") double speedKmph,
+            @Value("${google.maps.standin.latency.median-ms:120}") long medianLatencyMs,
+            @Value("${google.maps.standin.latency.p99-ms:600}") long p99LatencyMs,
+            @Value("${google.maps.standin.faults.error-rate:0}") double errorRate,
+            @Value("${google.maps.standin.faults.over-query-limit-rate:0}") double overQueryLimitRate,
+            @Value("${google.maps.standin.faults.stall-rate:0}") double stallRate,
+            @Value("${google.maps.standin.faults.stall-ms:30000}") long stallMs) throws IOException {
+        DistanceMatrixStandIn.Behaviour behaviour = new DistanceMatrixStandIn.Behaviour(detourFactor, speedKmph,
+                medianLatencyMs, p99LatencyMs, errorRate, overQueryLimitRate, stallRate, stallMs);
+        return DistanceMatrixStandIn.start(port, behaviour,
+                recordings.isBlank() ? null : Path.of(recordings),
+                recordFrom.isBlank() ? null : recordFrom, recordApiKey);
+    }
+}
@@ -0,0 +1,83 @@
+package com.jumbotail.shipping.controller;
+
+import com.jumbotail.shipping.dto.NearbyCustomerResponse;
+import com.jumbotail.shipping.service.CustomerCoverageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+
+/**
+ * REST Controller for finding the customers inside an area
+ */
+@RestController
+@RequestMapping("/api/v1/customers")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "2. Master Data Lookups")
+public class CustomerController {
+
+    private final CustomerCoverageService customerCoverageService;
+
+    /**
+     * Get every active customer within a radius of a coordinate
+     *
+     * GET /api/v1/customers/within?lat=12.97&lng=77.59&radiusKm=10
+     *
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param radiusKm Search radius in kilometers
+     * @return Matching customers, nearest first
+     */
+    @GetMapping("/within")
+    public ResponseEntity<List<NearbyCustomerResponse>> getCustomersWithinRadius(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam double radiusKm) {
+
+        log.info("Received request for customers within {} km of ({}, {})", radiusKm, lat, lng);
+
+        return ResponseEntity.ok(customerCoverageService.findCustomersWithinRadius(lat, lng, radiusKm));
+    }
+
+    /**
+     * Get every active customer within a radius of a warehouse
+     *
+     * GET /api/v1/customers/near-warehouse?warehouseId=789&radiusKm=10
+     *
+     * @param warehouseId Warehouse ID
+     * @param radiusKm Delivery radius in kilometers
+     * @return Matching customers, nearest first
+     */
+    @GetMapping("/near-warehouse")
+    public ResponseEntity<List<NearbyCustomerResponse>> getCustomersNearWarehouse(
+            @RequestParam String warehouseId,
+            @RequestParam double radiusKm) {
+
+        log.info("Received request for customers within {} km of warehouse {}", radiusKm, warehouseId);
+
+        return ResponseEntity.ok(customerCoverageService.findCustomersNearWarehouse(warehouseId, radiusKm));
+    }
+
+    /**
+     * Get every active customer inside a latitude/longitude box
+     *
+     * GET /api/v1/customers/in-box?minLat=12.8&minLng=77.4&maxLat=13.1&maxLng=77.8
+     *
+     * @return Matching customers, in no particular order
+     */
+    @GetMapping("/in-box")
+    public ResponseEntity<List<NearbyCustomerResponse>> getCustomersInBoundingBox(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng) {
+
+        log.info("Received request for customers in box ({}, {}) - ({}, {})", minLat, minLng, maxLat, maxLng);
+
+        return ResponseEntity.ok(customerCoverageService.findCustomersInBoundingBox(minLat, minLng, maxLat, maxLng));
+    }
+}
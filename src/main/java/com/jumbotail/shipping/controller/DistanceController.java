@@ -1,13 +1,24 @@
 package com.jumbotail.shipping.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceMatrixRequest;
+import com.jumbotail.shipping.dto.distance.DistanceMatrixRow;
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
 import com.jumbotail.shipping.service.DistanceService;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api/v1/logistics")
@@ -16,7 +27,11 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "3. Logistics Optimization Engine")
 public class DistanceController {
 
+    // Lets batch and prefetch callers declare themselves, so they yield the Google quota to checkout
+    private static final String PRIORITY_HEADER = "X-Request-Priority";
+
     private final DistanceService distanceService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Calculate route distance and Estimated Time of Arrival (ETA)
@@ -29,11 +44,42 @@ public class DistanceController {
             @RequestParam double sourceLng,
             @RequestParam double destLat,
             @RequestParam double destLng,
-            @RequestParam(defaultValue = "HAVERSINE") CalculationMode mode) {
+            @RequestParam(defaultValue = "HAVERSINE") CalculationMode mode,
+            @RequestHeader(value = PRIORITY_HEADER, defaultValue = "INTERACTIVE") RequestPriority priority) {
 
-        log.info("Received request for Distance Calculation. Mode: {}", mode);
+        log.info("Received request for Distance Calculation. Mode: {}, Priority: {}", mode, priority);
 
-        DistanceResponse response = distanceService.calculateDistance(sourceLat, sourceLng, destLat, destLng, mode);
+        DistanceResponse response = GoogleQuotaManager.callAs(priority,
+                () -> distanceService.calculateDistance(sourceLat, sourceLng, destLat, destLng, mode));
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Calculate distances from every origin to every destination, streamed as one JSON
+     * row per origin (newline-delimited JSON) as the rows are computed
+     * 
+     * POST /api/v1/logistics/distance-matrix
+     */
+    @PostMapping(value = "/distance-matrix", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getDistanceMatrix(
+            @Valid @RequestBody DistanceMatrixRequest request,
+            @RequestHeader(value = PRIORITY_HEADER, defaultValue = "BATCH") RequestPriority priority) {
+
+        log.info("Received request for Distance Matrix. Mode: {}, Priority: {}", request.getMode(), priority);
+
+        // Reject bad input before the response is committed
+        distanceService.validateMatrixRequest(request);
+
+        StreamingResponseBody body = out -> GoogleQuotaManager.runAs(priority,
+                () -> distanceService.calculateMatrix(request, (originIndex, row) -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(new DistanceMatrixRow(originIndex, row)));
+                        out.write('\n');
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
@@ -1,17 +1,24 @@
 package com.jumbotail.shipping.controller;
 
+import com.jumbotail.shipping.dto.DailyOrderMatchResponse;
 import com.jumbotail.shipping.dto.LogisticsSimulationRequest;
 import com.jumbotail.shipping.dto.LogisticsSimulationResponse;
 import com.jumbotail.shipping.service.LogisticsSimulationService;
+import com.jumbotail.shipping.service.OrderMatchingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/v1/logistics")
 @RequiredArgsConstructor
@@ -19,6 +26,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class LogisticsController {
 
     private final LogisticsSimulationService logisticsSimulationService;
+    private final OrderMatchingService orderMatchingService;
 
     @PostMapping("/simulate")
     public ResponseEntity<LogisticsSimulationResponse> simulateLogistics(
@@ -27,4 +35,11 @@ public class LogisticsController {
         LogisticsSimulationResponse response = logisticsSimulationService.simulateLogistics(request);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/order-matches")
+    public ResponseEntity<DailyOrderMatchResponse> matchOrdersForDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        return ResponseEntity.ok(orderMatchingService.matchOrdersForDay(date));
+    }
 }
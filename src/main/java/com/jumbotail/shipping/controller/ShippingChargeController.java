@@ -1,7 +1,9 @@
 package com.jumbotail.shipping.controller;
 
+import com.jumbotail.shipping.dto.DeliveryAvailabilityResponse;
 import com.jumbotail.shipping.dto.ShippingChargeRequest;
 import com.jumbotail.shipping.dto.ShippingChargeResponse;
+import com.jumbotail.shipping.service.DeliveryAvailabilityService;
 import com.jumbotail.shipping.service.ShippingChargeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +27,7 @@ import java.util.Map;
 public class ShippingChargeController {
     
     private final ShippingChargeService shippingChargeService;
+    private final DeliveryAvailabilityService deliveryAvailabilityService;
     
     /**
      * Get the shipping charge for a customer from a warehouse
@@ -83,4 +86,23 @@ public class ShippingChargeController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * List the delivery speeds that can be offered for a seller and customer
+     * 
+     * GET /api/v1/shipping-charge/availability?sellerId=123&customerId=456
+     * 
+     * @param sellerId Seller ID
+     * @param customerId Customer ID
+     * @return Fulfilling warehouse and the delivery speeds whose SLA it can meet
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<DeliveryAvailabilityResponse> getDeliveryAvailability(
+            @RequestParam String sellerId,
+            @RequestParam String customerId) {
+        
+        log.debug("Received delivery availability request - sellerId: {}, customerId: {}", sellerId, customerId);
+        
+        return ResponseEntity.ok(deliveryAvailabilityService.getDeliveryAvailability(sellerId, customerId));
+    }
 }
@@ -1,13 +1,21 @@
 package com.jumbotail.shipping.controller;
 
+import com.jumbotail.shipping.dto.NearbyWarehouseResponse;
 import com.jumbotail.shipping.dto.NearestWarehouseResponse;
+import com.jumbotail.shipping.dto.ServiceZoneRequest;
+import com.jumbotail.shipping.dto.ServiceZoneResponse;
+import com.jumbotail.shipping.service.ServiceZoneService;
 import com.jumbotail.shipping.service.WarehouseService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+
 /**
  * REST Controller for warehouse-related operations
  */
@@ -19,25 +27,139 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class WarehouseController {
     
     private final WarehouseService warehouseService;
+    private final ServiceZoneService serviceZoneService;
     
     /**
      * Get the nearest warehouse for a seller based on a product
      * 
      * GET /api/v1/warehouse/nearest?sellerId=123&productId=456
+     * GET /api/v1/warehouse/nearest?sellerId=123&productId=456&minQuantity=10 (only warehouses holding stock)
      * 
      * @param sellerId Seller ID
      * @param productId Product ID
+     * @param minQuantity Optional minimum stock the warehouse must hold
      * @return Nearest warehouse response
      */
     @GetMapping("/nearest")
     public ResponseEntity<NearestWarehouseResponse> getNearestWarehouse(
             @RequestParam String sellerId,
-            @RequestParam String productId) {
+            @RequestParam String productId,
+            @RequestParam(required = false) Integer minQuantity) {
         
-        log.info("Received request for nearest warehouse - sellerId: {}, productId: {}", sellerId, productId);
+        log.info("Received request for nearest warehouse - sellerId: {}, productId: {}, minQuantity: {}", 
+                 sellerId, productId, minQuantity);
         
-        NearestWarehouseResponse response = warehouseService.findNearestWarehouse(sellerId, productId);
+        NearestWarehouseResponse response = minQuantity != null
+                ? warehouseService.findNearestWarehouseWithStock(sellerId, productId, minQuantity)
+                : warehouseService.findNearestWarehouse(sellerId, productId);
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Get the warehouse nearest to a customer
+     * 
+     * GET /api/v1/warehouse/nearest-to-customer?customerId=Cust-123
+     * 
+     * @param customerId Customer ID
+     * @return Nearest warehouse with its distance from the customer
+     */
+    @GetMapping("/nearest-to-customer")
+    public ResponseEntity<NearbyWarehouseResponse> getNearestWarehouseForCustomer(@RequestParam String customerId) {
+        log.info("Received request for nearest warehouse to customer {}", customerId);
+        
+        return ResponseEntity.ok(warehouseService.findNearestWarehouseForCustomer(customerId));
+    }
+    
+    /**
+     * Get the k warehouses nearest to a coordinate
+     * 
+     * GET /api/v1/warehouse/nearest-k?lat=12.97&lng=77.59&k=5
+     * 
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param k Number of warehouses to return
+     * @return Up to k warehouses, nearest first
+     */
+    @GetMapping("/nearest-k")
+    public ResponseEntity<List<NearbyWarehouseResponse>> getNearestWarehouses(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") int k) {
+        
+        log.info("Received request for {} nearest warehouses to ({}, {})", k, lat, lng);
+        
+        return ResponseEntity.ok(warehouseService.findNearestWarehouses(lat, lng, k));
+    }
+    
+    /**
+     * Get every warehouse within a radius of a coordinate
+     * 
+     * GET /api/v1/warehouse/within?lat=12.97&lng=77.59&radiusKm=100
+     * 
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param radiusKm Search radius in kilometers
+     * @return Matching warehouses, nearest first
+     */
+    @GetMapping("/within")
+    public ResponseEntity<List<NearbyWarehouseResponse>> getWarehousesWithinRadius(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam double radiusKm) {
+        
+        log.info("Received request for warehouses within {} km of ({}, {})", radiusKm, lat, lng);
+        
+        return ResponseEntity.ok(warehouseService.findWarehousesWithinRadius(lat, lng, radiusKm));
+    }
+    
+    /**
+     * Define a service zone for a warehouse
+     * 
+     * POST /api/v1/warehouse/{warehouseId}/zones
+     * 
+     * @param warehouseId Warehouse ID
+     * @param request Zone name, optional transport mode and boundary polygon
+     * @return Created zone
+     */
+    @PostMapping("/{warehouseId}/zones")
+    public ResponseEntity<ServiceZoneResponse> createServiceZone(
+            @PathVariable String warehouseId,
+            @Valid @RequestBody ServiceZoneRequest request) {
+        
+        log.info("Received request to create service zone {} for warehouse {}", request.getName(), warehouseId);
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(serviceZoneService.createZone(warehouseId, request));
+    }
+    
+    /**
+     * List the active service zones of a warehouse
+     * 
+     * GET /api/v1/warehouse/{warehouseId}/zones
+     * 
+     * @param warehouseId Warehouse ID
+     * @return Active zones
+     */
+    @GetMapping("/{warehouseId}/zones")
+    public ResponseEntity<List<ServiceZoneResponse>> getServiceZones(@PathVariable String warehouseId) {
+        log.info("Received request for service zones of warehouse {}", warehouseId);
+        
+        return ResponseEntity.ok(serviceZoneService.getZones(warehouseId));
+    }
+    
+    /**
+     * Deactivate a service zone
+     * 
+     * DELETE /api/v1/warehouse/{warehouseId}/zones/{zoneId}
+     * 
+     * @param warehouseId Warehouse ID
+     * @param zoneId Zone ID
+     */
+    @DeleteMapping("/{warehouseId}/zones/{zoneId}")
+    public ResponseEntity<Void> deleteServiceZone(@PathVariable String warehouseId, @PathVariable Long zoneId) {
+        log.info("Received request to delete service zone {} of warehouse {}", zoneId, warehouseId);
+        
+        serviceZoneService.deleteZone(warehouseId, zoneId);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,23 @@
+package com.jumbotail.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of matching every order of a day to its fulfilling warehouse
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderMatchResponse {
+    private LocalDate date;
+    private int orderCount;
+    private int unmatchedCount;    // orders whose seller or customer has no usable location
+    private List<OrderWarehouseMatch> matches;
+}
@@ -0,0 +1,21 @@
+package com.jumbotail.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for the delivery speeds available to a seller/customer pair
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryAvailabilityResponse {
+    private String warehouseId;
+    private String customerId;
+    private List<String> availableSpeeds; // delivery speed codes whose SLA can be met
+}
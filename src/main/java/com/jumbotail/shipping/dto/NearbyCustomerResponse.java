@@ -0,0 +1,22 @@
+package com.jumbotail.shipping.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for radius and bounding-box customer queries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyCustomerResponse {
+    private String customerId;
+    private LocationDTO customerLocation;
+    // Absent for bounding-box queries, which have no centre
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+}
@@ -0,0 +1,19 @@
+package com.jumbotail.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for k-nearest and radius warehouse queries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyWarehouseResponse {
+    private String warehouseId;
+    private LocationDTO warehouseLocation;
+    private Double distanceKm;
+}
@@ -0,0 +1,20 @@
+package com.jumbotail.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One order matched to its fulfilling warehouse by the daily batch join
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderWarehouseMatch {
+    private String orderId;
+    private String warehouseId;
+    private double distanceKm;     // warehouse to customer
+    private String transportMode;
+}
@@ -0,0 +1,28 @@
+package com.jumbotail.shipping.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for defining a warehouse service zone
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceZoneRequest {
+    
+    @NotBlank(message = "Zone name is required")
+    private String name;
+    
+    private String transportMode; // e.g., "MINI_VAN"; omit to restrict every mode
+    
+    @NotNull(message = "Zone boundary is required")
+    @Size(min = 3, message = "Zone boundary must have at least 3 vertices")
+    private List<LocationDTO> boundary;
+}
@@ -0,0 +1,23 @@
+package com.jumbotail.shipping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a warehouse service zone
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceZoneResponse {
+    private Long zoneId;
+    private String warehouseId;
+    private String name;
+    private String transportMode; // null when the zone applies to every mode
+    private List<LocationDTO> boundary;
+}
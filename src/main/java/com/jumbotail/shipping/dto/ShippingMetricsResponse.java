@@ -15,4 +15,7 @@ public class ShippingMetricsResponse {
     private long cacheHits;
     private String mostUsedTransport;
     private long failedRequests;
+    private String googleCircuitState;
+    private long googleShortCircuited;
+    private long googleQuotaRemainingToday;
 }
@@ -2,5 +2,6 @@ package com.jumbotail.shipping.dto.distance;
 
 public enum CalculationMode {
     HAVERSINE,
-    GOOGLE
+    GOOGLE,
+    ROAD_NETWORK
 }
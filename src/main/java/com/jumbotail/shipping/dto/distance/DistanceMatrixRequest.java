@@ -0,0 +1,26 @@
+package com.jumbotail.shipping.dto.distance;
+
+import com.jumbotail.shipping.dto.LocationDTO;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixRequest {
+
+    @NotEmpty(message = "At least one origin is required")
+    private List<LocationDTO> origins;
+
+    @NotEmpty(message = "At least one destination is required")
+    private List<LocationDTO> destinations;
+
+    @Builder.Default
+    private CalculationMode mode = CalculationMode.HAVERSINE;
+}
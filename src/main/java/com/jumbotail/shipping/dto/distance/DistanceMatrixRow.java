@@ -0,0 +1,21 @@
+package com.jumbotail.shipping.dto.distance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of a streamed distance matrix: every destination's distance from one origin,
+ * in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixRow {
+    private Integer originIndex;
+    private List<DistanceResponse> elements;
+}
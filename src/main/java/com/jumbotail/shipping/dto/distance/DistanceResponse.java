@@ -1,5 +1,6 @@
 package com.jumbotail.shipping.dto.distance;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +14,8 @@ public class DistanceResponse {
     private Double distanceKm;
     private String calculationMode;
     private Integer durationMinutes;
+    // Provider that answered a single-pair lookup; HAVERSINE_LATENCY_BUDGET when the
+    // requested provider missed the latency budget
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String provider;
 }
@@ -0,0 +1,10 @@
+package com.jumbotail.shipping.dto.distance;
+
+/**
+ * Who is asking for a distance, in the order they are served when the Google quota runs short.
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    BATCH,
+    PREFETCH
+}
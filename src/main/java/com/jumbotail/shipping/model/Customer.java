@@ -1,5 +1,6 @@
 package com.jumbotail.shipping.model;
 
+import com.jumbotail.shipping.service.spatial.CustomerIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "customers")
+@EntityListeners(CustomerIndexListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
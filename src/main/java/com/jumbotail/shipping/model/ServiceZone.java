@@ -0,0 +1,49 @@
+package com.jumbotail.shipping.model;
+
+import com.jumbotail.shipping.service.spatial.ServiceZoneIndexListener;
+import com.jumbotail.shipping.strategy.TransportMode;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polygonal delivery zone served by a warehouse.
+ * A zone with no transport mode applies to every mode.
+ */
+@Entity
+@Table(name = "service_zones")
+@EntityListeners(ServiceZoneIndexListener.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceZone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private String name; // e.g., "BLR_City_Limits"
+
+    @Enumerated(EnumType.STRING)
+    private TransportMode transportMode; // null = all transport modes
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "service_zone_vertices", joinColumns = @JoinColumn(name = "zone_id"))
+    @OrderColumn(name = "vertex_index")
+    @Builder.Default
+    private List<Location> boundary = new ArrayList<>();
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+}
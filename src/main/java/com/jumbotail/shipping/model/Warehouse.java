@@ -1,16 +1,20 @@
 package com.jumbotail.shipping.model;
 
+import com.jumbotail.shipping.service.spatial.WarehouseIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Warehouse entity representing marketplace warehouses across the country
  */
 @Entity
 @Table(name = "warehouses")
+@EntityListeners(WarehouseIndexListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,4 +36,10 @@ public class Warehouse {
     
     @Column(nullable = false)
     private Boolean active = true;
+
+    // Value of active as last loaded or written, set by WarehouseIndexListener
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Boolean persistedActive;
 }
@@ -1,5 +1,6 @@
 package com.jumbotail.shipping.model;
 
+import com.jumbotail.shipping.service.spatial.InventoryIndexListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "warehouse_inventory")
+@EntityListeners(InventoryIndexListener.class)
 @Data
 @Builder
 @NoArgsConstructor
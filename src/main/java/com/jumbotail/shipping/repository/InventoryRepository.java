@@ -4,6 +4,7 @@ import com.jumbotail.shipping.model.WarehouseInventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +12,6 @@ public interface InventoryRepository extends JpaRepository<WarehouseInventory, L
     
     Optional<WarehouseInventory> findByWarehouseIdAndProductId(Long warehouseId, Long productId);
     
+    List<WarehouseInventory> findByQuantityGreaterThan(Integer quantity);
+    
 }
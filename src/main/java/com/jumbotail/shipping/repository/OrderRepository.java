@@ -1,12 +1,18 @@
 package com.jumbotail.shipping.repository;
 
 import com.jumbotail.shipping.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByOrderId(String orderId);
+
+    @EntityGraph(attributePaths = {"seller", "customer"})
+    List<Order> findByOrderDateGreaterThanEqualAndOrderDateLessThan(LocalDateTime from, LocalDateTime to);
 }
@@ -4,10 +4,12 @@ import com.jumbotail.shipping.model.Seller;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SellerRepository extends JpaRepository<Seller, Long> {
     Optional<Seller> findBySellerId(String sellerId);
     Optional<Seller> findBySellerIdAndActiveTrue(String sellerId);
+    List<Seller> findByActiveTrue();
 }
@@ -0,0 +1,15 @@
+package com.jumbotail.shipping.repository;
+
+import com.jumbotail.shipping.model.ServiceZone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ServiceZoneRepository extends JpaRepository<ServiceZone, Long> {
+    List<ServiceZone> findByActiveTrue();
+    List<ServiceZone> findByWarehouseIdAndActiveTrue(Long warehouseId);
+    Optional<ServiceZone> findByIdAndWarehouseIdAndActiveTrue(Long id, Long warehouseId);
+}
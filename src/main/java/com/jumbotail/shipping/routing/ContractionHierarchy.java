@@ -0,0 +1,568 @@
+package com.jumbotail.shipping.routing;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy over a {@link RoadGraph}, answering fastest-route queries with two
+ * small upward Dijkstra searches instead of one search over the whole graph.
+ *
+ * Nodes are contracted one at a time in order of importance (edge difference plus the
+ * number of already-contracted neighbours, updated lazily). Contracting a node adds a
+ * shortcut between each pair of its remaining neighbours unless a bounded witness search
+ * finds a path at least as fast that avoids it. A query then only ever climbs to more
+ * important nodes: forwards from the source, backwards from the target, meeting at the
+ * top of the fastest route.
+ *
+ * Routes minimise travel time; shortcuts carry the summed length alongside so the route
+ * length comes for free. Paths are not unpacked.
+ *
+ * The hierarchy can be written to and read back from a file, so the expensive build runs
+ * once per road extract. Queries are thread-safe.
+ */
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x52434831; // "RCH1"
+    private static final int FORMAT_VERSION = 1;
+
+    // Witness searches give up after settling this many nodes and add the shortcut instead
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final long fingerprint;
+    private final double[] lats;
+    private final double[] lngs;
+    private final Adjacency forward;
+    private final Adjacency backward;
+    private final ThreadLocal<Search> searches;
+
+    private ContractionHierarchy(long fingerprint, double[] lats, double[] lngs, Adjacency forward, Adjacency backward) {
+        this.fingerprint = fingerprint;
+        this.lats = lats;
+        this.lngs = lngs;
+        this.forward = forward;
+        this.backward = backward;
+        this.searches = ThreadLocal.withInitial(() -> new Search(lats.length));
+    }
+
+    /**
+     * Contract a road graph.
+     *
+     * @param graph graph to contract
+     * @param fingerprint caller-defined tag identifying the source data, stored with the file
+     * @return hierarchy over the same node indices
+     */
+    public static ContractionHierarchy build(RoadGraph graph, long fingerprint) {
+        return new Builder(graph).contract(fingerprint);
+    }
+
+    /**
+     * Read a hierarchy written by {@link #write(Path)}.
+     *
+     * @throws IOException if the file cannot be read or is not a hierarchy of this format
+     */
+    public static ContractionHierarchy read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException(path + " is not a contraction hierarchy file");
+            }
+            long fingerprint = buffer.getLong();
+            int nodes = buffer.getInt();
+            double[] lats = readDoubles(buffer, nodes, path);
+            double[] lngs = readDoubles(buffer, nodes, path);
+            Adjacency forward = Adjacency.read(buffer, nodes, path);
+            Adjacency backward = Adjacency.read(buffer, nodes, path);
+            return new ContractionHierarchy(fingerprint, lats, lngs, forward, backward);
+        } catch (RuntimeException e) {
+            throw new IOException(path + " is not a valid contraction hierarchy file", e);
+        }
+    }
+
+    /**
+     * Write the hierarchy to a file, replacing it atomically.
+     */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(lats.length);
+            writeDoubles(out, lats);
+            writeDoubles(out, lngs);
+            forward.write(out);
+            backward.write(out);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return tag passed to {@link #build}, for checking a cached file against its source
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int nodeCount() {
+        return lats.length;
+    }
+
+    public double lat(int node) {
+        return lats[node];
+    }
+
+    public double lng(int node) {
+        return lngs[node];
+    }
+
+    /**
+     * @return fastest route between two nodes, or null if the target cannot be reached
+     */
+    public RoadRoute route(int source, int target) {
+        if (source == target) {
+            return new RoadRoute(0, 0);
+        }
+        return searches.get().run(forward, backward, source, target);
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int count, Path path) throws IOException {
+        if (count < 0 || buffer.remaining() < (long) count * Double.BYTES) {
+            throw new IOException(path + " is truncated");
+        }
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Upward edges in compressed sparse row form: the edges of node v are
+     * [first[v], first[v + 1]).
+     */
+    private static final class Adjacency {
+
+        final int[] first;
+        final int[] target;
+        final double[] seconds;
+        final double[] metres;
+
+        Adjacency(int[] first, int[] target, double[] seconds, double[] metres) {
+            this.first = first;
+            this.target = target;
+            this.seconds = seconds;
+            this.metres = metres;
+        }
+
+        static Adjacency read(ByteBuffer buffer, int nodes, Path path) throws IOException {
+            int[] first = new int[nodes + 1];
+            if (buffer.remaining() < (long) first.length * Integer.BYTES + Integer.BYTES) {
+                throw new IOException(path + " is truncated");
+            }
+            buffer.asIntBuffer().get(first);
+            buffer.position(buffer.position() + first.length * Integer.BYTES);
+            int edges = buffer.getInt();
+            if (edges < 0 || first[nodes] != edges || buffer.remaining() < (long) edges * (Integer.BYTES + 2 * Double.BYTES)) {
+                throw new IOException(path + " is truncated");
+            }
+            int[] target = new int[edges];
+            buffer.asIntBuffer().get(target);
+            buffer.position(buffer.position() + edges * Integer.BYTES);
+            double[] seconds = readDoubles(buffer, edges, path);
+            double[] metres = readDoubles(buffer, edges, path);
+            return new Adjacency(first, target, seconds, metres);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            for (int value : first) {
+                out.writeInt(value);
+            }
+            out.writeInt(target.length);
+            for (int value : target) {
+                out.writeInt(value);
+            }
+            writeDoubles(out, seconds);
+            writeDoubles(out, metres);
+        }
+    }
+
+    /**
+     * Per-thread scratch space for bidirectional queries; only touched entries are reset.
+     */
+    private static final class Search {
+
+        final double[] forwardSeconds;
+        final double[] forwardMetres;
+        final double[] backwardSeconds;
+        final double[] backwardMetres;
+        final IntList touched = new IntList(256);
+        final NodeHeap forwardHeap = new NodeHeap();
+        final NodeHeap backwardHeap = new NodeHeap();
+
+        Search(int nodes) {
+            forwardSeconds = new double[nodes];
+            forwardMetres = new double[nodes];
+            backwardSeconds = new double[nodes];
+            backwardMetres = new double[nodes];
+            Arrays.fill(forwardSeconds, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardSeconds, Double.POSITIVE_INFINITY);
+        }
+
+        RoadRoute run(Adjacency forward, Adjacency backward, int source, int target) {
+            try {
+                return search(forward, backward, source, target);
+            } finally {
+                for (int i = 0; i < touched.size(); i++) {
+                    int node = touched.get(i);
+                    forwardSeconds[node] = Double.POSITIVE_INFINITY;
+                    backwardSeconds[node] = Double.POSITIVE_INFINITY;
+                }
+                touched.clear();
+                forwardHeap.clear();
+                backwardHeap.clear();
+            }
+        }
+
+        private RoadRoute search(Adjacency forward, Adjacency backward, int source, int target) {
+            reach(forwardSeconds, forwardMetres, forwardHeap, source, 0, 0);
+            reach(backwardSeconds, backwardMetres, backwardHeap, target, 0, 0);
+
+            double bestSeconds = Double.POSITIVE_INFINITY;
+            double bestMetres = 0;
+            while (true) {
+                boolean forwardOpen = !forwardHeap.isEmpty() && forwardHeap.peekKey() < bestSeconds;
+                boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.peekKey() < bestSeconds;
+                if (!forwardOpen && !backwardOpen) {
+                    break;
+                }
+                boolean goForward = forwardOpen && (!backwardOpen || forwardHeap.peekKey() <= backwardHeap.peekKey());
+                double[] seconds = goForward ? forwardSeconds : backwardSeconds;
+                double[] metres = goForward ? forwardMetres : backwardMetres;
+                double[] otherSeconds = goForward ? backwardSeconds : forwardSeconds;
+                double[] otherMetres = goForward ? backwardMetres : forwardMetres;
+                NodeHeap heap = goForward ? forwardHeap : backwardHeap;
+                Adjacency edges = goForward ? forward : backward;
+                Adjacency downward = goForward ? backward : forward;
+
+                double key = heap.peekKey();
+                int node = heap.pop();
+                if (key > seconds[node] || stalled(downward, seconds, node, key)) {
+                    continue;
+                }
+                double total = key + otherSeconds[node];
+                if (total < bestSeconds) {
+                    bestSeconds = total;
+                    bestMetres = metres[node] + otherMetres[node];
+                }
+                for (int e = edges.first[node]; e < edges.first[node + 1]; e++) {
+                    reach(seconds, metres, heap, edges.target[e], key + edges.seconds[e], metres[node] + edges.metres[e]);
+                }
+            }
+            return bestSeconds == Double.POSITIVE_INFINITY ? null : new RoadRoute(bestMetres, bestSeconds);
+        }
+
+        /**
+         * Stall-on-demand: a node reached more cheaply through a higher neighbour than by
+         * this search cannot lie on a fastest route climbing from here, so its edges are not
+         * relaxed. The opposite direction's edges at a node are exactly the edges arriving
+         * from higher neighbours.
+         */
+        private static boolean stalled(Adjacency downward, double[] seconds, int node, double key) {
+            for (int e = downward.first[node]; e < downward.first[node + 1]; e++) {
+                if (seconds[downward.target[e]] + downward.seconds[e] < key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void reach(double[] seconds, double[] metres, NodeHeap heap, int node, double arrival, double length) {
+            if (arrival < seconds[node]) {
+                if (forwardSeconds[node] == Double.POSITIVE_INFINITY && backwardSeconds[node] == Double.POSITIVE_INFINITY) {
+                    touched.add(node);
+                }
+                seconds[node] = arrival;
+                metres[node] = length;
+                heap.push(node, arrival);
+            }
+        }
+    }
+
+    /**
+     * Contracts a graph node by node, keeping every original edge and shortcut in growable
+     * arrays with per-node in and out lists.
+     */
+    private static final class Builder {
+
+        private final int nodes;
+        private final double[] lats;
+        private final double[] lngs;
+        private final IntList[] outEdges;
+        private final IntList[] inEdges;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private double[] seconds = new double[1024];
+        private double[] metres = new double[1024];
+        private int edges;
+
+        private final boolean[] contracted;
+        private final int[] rank;
+        private final int[] contractedNeighbours;
+        private final int[] level;
+
+        // Witness search scratch
+        private final double[] reached;
+        private final IntList reachedNodes = new IntList(256);
+        private final NodeHeap heap = new NodeHeap();
+        private final IntList pendingIncoming = new IntList();
+        private final IntList pendingOutgoing = new IntList();
+
+        Builder(RoadGraph graph) {
+            nodes = graph.nodeCount();
+            lats = new double[nodes];
+            lngs = new double[nodes];
+            outEdges = new IntList[nodes];
+            inEdges = new IntList[nodes];
+            for (int v = 0; v < nodes; v++) {
+                lats[v] = graph.lat(v);
+                lngs[v] = graph.lng(v);
+                outEdges[v] = new IntList();
+                inEdges[v] = new IntList();
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                addEdge(graph.edgeFrom(e), graph.edgeTo(e), graph.edgeSeconds(e), graph.edgeMetres(e));
+            }
+            contracted = new boolean[nodes];
+            rank = new int[nodes];
+            contractedNeighbours = new int[nodes];
+            level = new int[nodes];
+            reached = new double[nodes];
+            Arrays.fill(reached, Double.POSITIVE_INFINITY);
+        }
+
+        ContractionHierarchy contract(long fingerprint) {
+            NodeHeap queue = new NodeHeap();
+            for (int v = 0; v < nodes; v++) {
+                queue.push(v, priority(v));
+            }
+
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.pop();
+                // Lazy update: re-queue if the node became less attractive since it was queued
+                double current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.push(v, current);
+                    continue;
+                }
+                // The priority check just found v's shortcuts
+                addPendingShortcuts();
+                contracted[v] = true;
+                rank[v] = order++;
+                // Neighbours forget their edges to v, so later searches never scan them
+                IntList out = outEdges[v];
+                for (int i = 0; i < out.size(); i++) {
+                    int x = to[out.get(i)];
+                    inEdges[x].removeIf(e -> from[e] == v);
+                    neighbourContracted(x, v);
+                }
+                IntList in = inEdges[v];
+                for (int i = 0; i < in.size(); i++) {
+                    int u = from[in.get(i)];
+                    outEdges[u].removeIf(e -> to[e] == v);
+                    neighbourContracted(u, v);
+                }
+            }
+            return new ContractionHierarchy(fingerprint, lats, lngs, upward(true), upward(false));
+        }
+
+        private void neighbourContracted(int neighbour, int v) {
+            contractedNeighbours[neighbour]++;
+            level[neighbour] = Math.max(level[neighbour], level[v] + 1);
+        }
+
+        private double priority(int v) {
+            int shortcuts = findShortcuts(v);
+            int degree = outEdges[v].size() + inEdges[v].size();
+            return 2 * (shortcuts - degree) + contractedNeighbours[v] + level[v];
+        }
+
+        /**
+         * Find the shortcuts contracting v would need, leaving them pending until
+         * {@link #addPendingShortcuts()}.
+         *
+         * @return number of shortcuts
+         */
+        private int findShortcuts(int v) {
+            IntList in = inEdges[v];
+            IntList out = outEdges[v];
+            pendingIncoming.clear();
+            pendingOutgoing.clear();
+
+            for (int i = 0; i < in.size(); i++) {
+                int incoming = in.get(i);
+                int u = from[incoming];
+                if (contracted[u]) {
+                    continue;
+                }
+                double maxOut = -1;
+                for (int j = 0; j < out.size(); j++) {
+                    int x = to[out.get(j)];
+                    if (!contracted[x] && x != u) {
+                        maxOut = Math.max(maxOut, seconds[out.get(j)]);
+                    }
+                }
+                if (maxOut < 0) {
+                    continue;
+                }
+
+                witnessSearch(u, v, seconds[incoming] + maxOut);
+                for (int j = 0; j < out.size(); j++) {
+                    int outgoing = out.get(j);
+                    int x = to[outgoing];
+                    if (contracted[x] || x == u) {
+                        continue;
+                    }
+                    if (reached[x] > seconds[incoming] + seconds[outgoing]) {
+                        pendingIncoming.add(incoming);
+                        pendingOutgoing.add(outgoing);
+                    }
+                }
+                clearWitnessSearch();
+            }
+
+            return pendingIncoming.size();
+        }
+
+        private void addPendingShortcuts() {
+            for (int i = 0; i < pendingIncoming.size(); i++) {
+                int incoming = pendingIncoming.get(i);
+                int outgoing = pendingOutgoing.get(i);
+                addEdge(from[incoming], to[outgoing],
+                        seconds[incoming] + seconds[outgoing], metres[incoming] + metres[outgoing]);
+            }
+        }
+
+        private void witnessSearch(int source, int avoid, double limit) {
+            reached[source] = 0;
+            reachedNodes.add(source);
+            heap.push(source, 0);
+            int settled = 0;
+            while (!heap.isEmpty()) {
+                double key = heap.peekKey();
+                int node = heap.pop();
+                if (key > reached[node]) {
+                    continue;
+                }
+                if (key > limit || ++settled > WITNESS_SETTLE_LIMIT) {
+                    break;
+                }
+                IntList out = outEdges[node];
+                for (int i = 0; i < out.size(); i++) {
+                    int e = out.get(i);
+                    int next = to[e];
+                    if (next == avoid || contracted[next]) {
+                        continue;
+                    }
+                    double arrival = key + seconds[e];
+                    if (arrival < reached[next]) {
+                        if (reached[next] == Double.POSITIVE_INFINITY) {
+                            reachedNodes.add(next);
+                        }
+                        reached[next] = arrival;
+                        heap.push(next, arrival);
+                    }
+                }
+            }
+        }
+
+        private void clearWitnessSearch() {
+            for (int i = 0; i < reachedNodes.size(); i++) {
+                reached[reachedNodes.get(i)] = Double.POSITIVE_INFINITY;
+            }
+            reachedNodes.clear();
+            heap.clear();
+        }
+
+        /**
+         * Add an edge, or lower an existing edge between the same nodes if this one is faster.
+         */
+        private void addEdge(int u, int x, double edgeSeconds, double edgeMetres) {
+            if (u == x) {
+                return;
+            }
+            IntList out = outEdges[u];
+            for (int i = 0; i < out.size(); i++) {
+                int e = out.get(i);
+                if (to[e] == x) {
+                    if (edgeSeconds < seconds[e]) {
+                        seconds[e] = edgeSeconds;
+                        metres[e] = edgeMetres;
+                    }
+                    return;
+                }
+            }
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+                seconds = Arrays.copyOf(seconds, edges * 2);
+                metres = Arrays.copyOf(metres, edges * 2);
+            }
+            from[edges] = u;
+            to[edges] = x;
+            seconds[edges] = edgeSeconds;
+            metres[edges] = edgeMetres;
+            out.add(edges);
+            inEdges[x].add(edges);
+            edges++;
+        }
+
+        /**
+         * Forward: edges u -> x with x ranked above u, stored at u. Backward: edges u -> x
+         * with u ranked above x, stored at x and pointing to u.
+         */
+        private Adjacency upward(boolean forwardDirection) {
+            int[] first = new int[nodes + 1];
+            for (int e = 0; e < edges; e++) {
+                if (forwardDirection == (rank[to[e]] > rank[from[e]])) {
+                    first[(forwardDirection ? from[e] : to[e]) + 1]++;
+                }
+            }
+            for (int v = 0; v < nodes; v++) {
+                first[v + 1] += first[v];
+            }
+            int count = first[nodes];
+            int[] target = new int[count];
+            double[] edgeSeconds = new double[count];
+            double[] edgeMetres = new double[count];
+            int[] next = Arrays.copyOf(first, nodes);
+            for (int e = 0; e < edges; e++) {
+                if (forwardDirection == (rank[to[e]] > rank[from[e]])) {
+                    int owner = forwardDirection ? from[e] : to[e];
+                    int slot = next[owner]++;
+                    target[slot] = forwardDirection ? to[e] : from[e];
+                    edgeSeconds[slot] = seconds[e];
+                    edgeMetres[slot] = metres[e];
+                }
+            }
+            return new Adjacency(first, target, edgeSeconds, edgeMetres);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.jumbotail.shipping.routing;
+
+import com.jumbotail.shipping.spatial.GeoHash;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Learned road detour factors (road distance / great-circle distance) per pair of
+ * geohash cells, with the road pace (seconds per road km) alongside.
+ *
+ * Each pair keeps a running count, mean and sum of squared deviations (Welford), so
+ * samples are folded in as they arrive and never stored. Pairs are unordered: A to B and
+ * B to A share one entry. Entries live in an open-addressing hash table of primitive
+ * arrays and persist as 24-byte records.
+ *
+ * Not thread-safe; callers synchronise.
+ */
+public final class DetourFactorTable {
+
+    /**
+     * Confident estimate for a cell pair.
+     *
+     * @param factor mean road / great-circle distance ratio
+     * @param secondsPerKm mean travel time per road km
+     * @param samples number of samples behind the estimate
+     * @param relativeError half-width of the 95 % prediction interval of a single ratio,
+     *                      relative to the factor
+     */
+    public record Estimate(double factor, double secondsPerKm, int samples, double relativeError) {
+    }
+
+    public static final int MAX_CELL_BITS = 30;
+
+    private static final int MAGIC = 0x44544631; // "DTF1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int RECORD_BYTES = 24;
+    private static final long EMPTY = -1L;
+    private static final double Z_95 = 1.96;
+
+    private final int cellBits;
+    private long[] keys;
+    private int[] counts;
+    private double[] means;
+    private double[] squaredDeviations;
+    private double[] paces;
+    private int size;
+
+    /**
+     * @param cellBits geohash precision of the cells, 1 to {@link #MAX_CELL_BITS}
+     */
+    public DetourFactorTable(int cellBits) {
+        if (cellBits < 1 || cellBits > MAX_CELL_BITS) {
+            throw new IllegalArgumentException("cellBits must be between 1 and " + MAX_CELL_BITS);
+        }
+        this.cellBits = cellBits;
+        allocate(64);
+    }
+
+    /**
+     * Read a table written by {@link #write(Path)}.
+     *
+     * @throws IOException if the file cannot be read or is not a table of this format
+     */
+    public static DetourFactorTable read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException(path + " is not a detour factor table");
+        }
+        int cellBits = buffer.getInt();
+        int entries = buffer.getInt();
+        if (cellBits < 1 || cellBits > MAX_CELL_BITS || entries < 0 || buffer.remaining() != (long) entries * RECORD_BYTES) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+        DetourFactorTable table = new DetourFactorTable(cellBits);
+        for (int i = 0; i < entries; i++) {
+            long key = buffer.getLong();
+            int count = buffer.getInt();
+            float mean = buffer.getFloat();
+            float squaredDeviation = buffer.getFloat();
+            float pace = buffer.getFloat();
+            if (key < 0 || count <= 0) {
+                throw new IOException(path + " is corrupt");
+            }
+            int slot = table.slotFor(key);
+            table.keys[slot] = key;
+            table.counts[slot] = count;
+            table.means[slot] = mean;
+            table.squaredDeviations[slot] = squaredDeviation;
+            table.paces[slot] = pace;
+            table.size++;
+            table.growIfNeeded();
+        }
+        return table;
+    }
+
+    /**
+     * Write the table to a file, replacing it atomically.
+     */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(cellBits);
+            out.writeInt(size);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    out.writeLong(keys[slot]);
+                    out.writeInt(counts[slot]);
+                    out.writeFloat((float) means[slot]);
+                    out.writeFloat((float) squaredDeviations[slot]);
+                    out.writeFloat((float) paces[slot]);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int cellBits() {
+        return cellBits;
+    }
+
+    /**
+     * @return number of cell pairs with at least one sample
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return key of the unordered pair of cells containing the two points
+     */
+    public long pairKey(double latA, double lngA, double latB, double lngB) {
+        long a = GeoHash.encode(latA, lngA, cellBits);
+        long b = GeoHash.encode(latB, lngB, cellBits);
+        return Math.min(a, b) << MAX_CELL_BITS | Math.max(a, b);
+    }
+
+    /**
+     * Fold one observed route into its pair's running statistics.
+     *
+     * @param ratio road distance / great-circle distance
+     * @param secondsPerKm travel time per road km
+     */
+    public void record(long key, double ratio, double secondsPerKm) {
+        int slot = slotFor(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        int count = ++counts[slot];
+        double delta = ratio - means[slot];
+        means[slot] += delta / count;
+        squaredDeviations[slot] += delta * (ratio - means[slot]);
+        paces[slot] += (secondsPerKm - paces[slot]) / count;
+        growIfNeeded();
+    }
+
+    /**
+     * @return samples recorded for the pair, 0 if none
+     */
+    public int samples(long key) {
+        int slot = slotFor(key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * @param minSamples fewest samples to trust
+     * @param maxRelativeError widest relative 95 % prediction interval to trust
+     * @return estimate for the pair, or null if it has too few or too scattered samples
+     */
+    public Estimate estimate(long key, int minSamples, double maxRelativeError) {
+        int slot = slotFor(key);
+        int count = counts[slot];
+        if (keys[slot] == EMPTY || count < Math.max(2, minSamples)) {
+            return null;
+        }
+        double mean = means[slot];
+        double standardDeviation = Math.sqrt(squaredDeviations[slot] / (count - 1));
+        double relativeError = Z_95 * standardDeviation * Math.sqrt(1.0 + 1.0 / count) / mean;
+        if (relativeError > maxRelativeError) {
+            return null;
+        }
+        return new Estimate(mean, paces[slot], count, relativeError);
+    }
+
+    private int slotFor(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void growIfNeeded() {
+        if (size * 2 <= keys.length) {
+            return;
+        }
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        double[] oldMeans = means;
+        double[] oldSquaredDeviations = squaredDeviations;
+        double[] oldPaces = paces;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                means[slot] = oldMeans[i];
+                squaredDeviations[slot] = oldSquaredDeviations[i];
+                paces[slot] = oldPaces[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new int[capacity];
+        means = new double[capacity];
+        squaredDeviations = new double[capacity];
+        paces = new double[capacity];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,53 @@
+package com.jumbotail.shipping.routing;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Growable list of primitive ints.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Remove every value matching the filter, keeping the order of the rest.
+     */
+    void removeIf(IntPredicate filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (!filter.test(values[i])) {
+                values[kept++] = values[i];
+            }
+        }
+        size = kept;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.jumbotail.shipping.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of nodes keyed by a double, for Dijkstra searches. There is no
+ * decrease-key: a node is pushed again with its better key and the caller skips stale
+ * entries when they surface.
+ */
+final class NodeHeap {
+
+    private double[] keys = new double[64];
+    private int[] nodes = new int[64];
+    private int size;
+
+    void push(int node, double key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            nodes[i] = nodes[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return smallest key; the heap must not be empty
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * @return node with the smallest key, read {@link #peekKey()} first for its key
+     */
+    int pop() {
+        int top = nodes[0];
+        size--;
+        if (size > 0) {
+            double key = keys[size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+        return top;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,312 @@
+package com.jumbotail.shipping.routing;
+
+import com.jumbotail.shipping.util.DistanceCalculator;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the drivable road network out of an OpenStreetMap XML extract (.osm, or .osm.gz).
+ *
+ * Ways tagged with a motor-vehicle highway class become edges between consecutive nodes,
+ * both ways unless the way is one-way. Travel time uses the way's numeric maxspeed, or a
+ * default speed for its highway class. Only the largest connected component is kept, so a
+ * point never snaps onto an island (a private compound, a clipped fragment at the edge of
+ * the extract) from which nothing else is reachable.
+ *
+ * Nodes must precede the ways that reference them, as in every standard extract.
+ */
+public final class OsmRoadGraphReader {
+
+    // Free-flow speeds in km/h by highway class
+    private static final Map<String, Double> SPEEDS_KMH = Map.ofEntries(
+            Map.entry("motorway", 100.0),
+            Map.entry("motorway_link", 60.0),
+            Map.entry("trunk", 80.0),
+            Map.entry("trunk_link", 50.0),
+            Map.entry("primary", 60.0),
+            Map.entry("primary_link", 40.0),
+            Map.entry("secondary", 50.0),
+            Map.entry("secondary_link", 35.0),
+            Map.entry("tertiary", 40.0),
+            Map.entry("tertiary_link", 30.0),
+            Map.entry("unclassified", 30.0),
+            Map.entry("road", 30.0),
+            Map.entry("residential", 25.0),
+            Map.entry("service", 15.0),
+            Map.entry("living_street", 10.0));
+
+    private static final double MPH_TO_KMH = 1.609344;
+
+    private OsmRoadGraphReader() {
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not OSM XML
+     */
+    public static RoadGraph read(Path path) throws IOException {
+        try (InputStream in = open(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * @throws IOException if the stream cannot be read or is not OSM XML
+     */
+    public static RoadGraph read(InputStream in) throws IOException {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                return parse(xml);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Invalid OSM XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        return path.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    private static RoadGraph parse(XMLStreamReader xml) throws XMLStreamException {
+        Map<Long, Integer> nodeIndex = new HashMap<>();
+        GraphBuilder graph = new GraphBuilder();
+        Way way = null;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "node" -> {
+                        long id = Long.parseLong(xml.getAttributeValue(null, "id"));
+                        double lat = Double.parseDouble(xml.getAttributeValue(null, "lat"));
+                        double lng = Double.parseDouble(xml.getAttributeValue(null, "lon"));
+                        nodeIndex.put(id, graph.addNode(lat, lng));
+                    }
+                    case "way" -> way = new Way();
+                    case "nd" -> {
+                        if (way != null) {
+                            Integer node = nodeIndex.get(Long.parseLong(xml.getAttributeValue(null, "ref")));
+                            way.nodes.add(node != null ? node : -1);
+                        }
+                    }
+                    case "tag" -> {
+                        if (way != null) {
+                            way.tags.put(xml.getAttributeValue(null, "k"), xml.getAttributeValue(null, "v"));
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                if (way != null) {
+                    addWay(graph, way);
+                }
+                way = null;
+            }
+        }
+        return graph.largestComponent();
+    }
+
+    private static void addWay(GraphBuilder graph, Way way) {
+        Double defaultSpeed = SPEEDS_KMH.get(way.tags.get("highway"));
+        if (defaultSpeed == null || isClosedToCars(way.tags)) {
+            return;
+        }
+        double speedKmh = parseMaxSpeed(way.tags.get("maxspeed"), defaultSpeed);
+        String oneway = way.tags.getOrDefault("oneway", "");
+        boolean impliedOneway = way.tags.get("highway").startsWith("motorway")
+                || "roundabout".equals(way.tags.get("junction"));
+        boolean reverseOnly = "-1".equals(oneway);
+        boolean forwardOnly = "yes".equals(oneway) || "true".equals(oneway) || "1".equals(oneway)
+                || (impliedOneway && !"no".equals(oneway) && !reverseOnly);
+
+        for (int i = 1; i < way.nodes.size(); i++) {
+            int a = way.nodes.get(i - 1);
+            int b = way.nodes.get(i);
+            // A reference outside the extract breaks the way at that point
+            if (a < 0 || b < 0 || a == b) {
+                continue;
+            }
+            double metres = DistanceCalculator.calculateDistance(graph.lat(a), graph.lng(a), graph.lat(b), graph.lng(b)) * 1000;
+            double seconds = metres / (speedKmh / 3.6);
+            if (!reverseOnly) {
+                graph.addEdge(a, b, metres, seconds);
+            }
+            if (!forwardOnly) {
+                graph.addEdge(b, a, metres, seconds);
+            }
+        }
+    }
+
+    private static boolean isClosedToCars(Map<String, String> tags) {
+        String access = tags.getOrDefault("motor_vehicle", tags.getOrDefault("access", ""));
+        return "no".equals(access) || "private".equals(access) || "area".equals(tags.get("area"))
+                || "yes".equals(tags.get("area"));
+    }
+
+    /**
+     * @return the leading number of a maxspeed tag in km/h ("50", "30 mph"), or the default
+     *         for anything else ("signals", "IN:urban")
+     */
+    static double parseMaxSpeed(String maxSpeed, double defaultKmh) {
+        if (maxSpeed == null) {
+            return defaultKmh;
+        }
+        int end = 0;
+        while (end < maxSpeed.length() && Character.isDigit(maxSpeed.charAt(end))) {
+            end++;
+        }
+        if (end == 0) {
+            return defaultKmh;
+        }
+        double speed = Double.parseDouble(maxSpeed.substring(0, end));
+        if (maxSpeed.endsWith("mph")) {
+            speed *= MPH_TO_KMH;
+        }
+        return speed > 0 ? speed : defaultKmh;
+    }
+
+    private static final class Way {
+        final IntList nodes = new IntList(16);
+        final Map<String, String> tags = new HashMap<>();
+    }
+
+    /**
+     * Accumulates every node of the extract and the road edges between them, then keeps only
+     * the nodes of the largest connected component, renumbered densely.
+     */
+    private static final class GraphBuilder {
+
+        private double[] lats = new double[1024];
+        private double[] lngs = new double[1024];
+        private int nodes;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private double[] metres = new double[1024];
+        private double[] seconds = new double[1024];
+        private int edges;
+
+        int addNode(double lat, double lng) {
+            if (nodes == lats.length) {
+                lats = Arrays.copyOf(lats, nodes * 2);
+                lngs = Arrays.copyOf(lngs, nodes * 2);
+            }
+            lats[nodes] = lat;
+            lngs[nodes] = lng;
+            return nodes++;
+        }
+
+        double lat(int node) {
+            return lats[node];
+        }
+
+        double lng(int node) {
+            return lngs[node];
+        }
+
+        void addEdge(int a, int b, double edgeMetres, double edgeSeconds) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+                metres = Arrays.copyOf(metres, edges * 2);
+                seconds = Arrays.copyOf(seconds, edges * 2);
+            }
+            from[edges] = a;
+            to[edges] = b;
+            metres[edges] = edgeMetres;
+            seconds[edges] = edgeSeconds;
+            edges++;
+        }
+
+        RoadGraph largestComponent() {
+            // Union-find over edges, ignoring direction
+            int[] parent = new int[nodes];
+            for (int v = 0; v < nodes; v++) {
+                parent[v] = v;
+            }
+            for (int e = 0; e < edges; e++) {
+                int a = root(parent, from[e]);
+                int b = root(parent, to[e]);
+                if (a != b) {
+                    parent[a] = b;
+                }
+            }
+            int[] size = new int[nodes];
+            boolean[] onRoad = new boolean[nodes];
+            for (int e = 0; e < edges; e++) {
+                onRoad[from[e]] = true;
+                onRoad[to[e]] = true;
+            }
+            int largest = -1;
+            for (int v = 0; v < nodes; v++) {
+                if (onRoad[v]) {
+                    int r = root(parent, v);
+                    if (++size[r] > (largest < 0 ? 0 : size[largest])) {
+                        largest = r;
+                    }
+                }
+            }
+
+            int[] renumbered = new int[nodes];
+            int kept = 0;
+            for (int v = 0; v < nodes; v++) {
+                renumbered[v] = onRoad[v] && root(parent, v) == largest ? kept++ : -1;
+            }
+            double[] keptLats = new double[kept];
+            double[] keptLngs = new double[kept];
+            for (int v = 0; v < nodes; v++) {
+                if (renumbered[v] >= 0) {
+                    keptLats[renumbered[v]] = lats[v];
+                    keptLngs[renumbered[v]] = lngs[v];
+                }
+            }
+            int keptEdges = 0;
+            for (int e = 0; e < edges; e++) {
+                if (renumbered[from[e]] >= 0) {
+                    keptEdges++;
+                }
+            }
+            int[] keptFrom = new int[keptEdges];
+            int[] keptTo = new int[keptEdges];
+            double[] keptMetres = new double[keptEdges];
+            double[] keptSeconds = new double[keptEdges];
+            int i = 0;
+            for (int e = 0; e < edges; e++) {
+                if (renumbered[from[e]] >= 0) {
+                    keptFrom[i] = renumbered[from[e]];
+                    keptTo[i] = renumbered[to[e]];
+                    keptMetres[i] = metres[e];
+                    keptSeconds[i] = seconds[e];
+                    i++;
+                }
+            }
+            return new RoadGraph(keptLats, keptLngs, keptFrom, keptTo, keptMetres, keptSeconds);
+        }
+
+        private static int root(int[] parent, int v) {
+            while (parent[v] != v) {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.jumbotail.shipping.routing;
+
+/**
+ * Directed road graph as flat arrays: node coordinates plus one entry per drivable edge,
+ * carrying its length and free-flow travel time. A two-way road is two edges.
+ *
+ * Immutable by convention; the arrays are shared, not copied.
+ */
+public final class RoadGraph {
+
+    private final double[] lats;
+    private final double[] lngs;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeMetres;
+    private final double[] edgeSeconds;
+
+    /**
+     * @param lats node latitudes in degrees
+     * @param lngs node longitudes in degrees
+     * @param edgeFrom tail node of each edge
+     * @param edgeTo head node of each edge
+     * @param edgeMetres length of each edge
+     * @param edgeSeconds travel time of each edge
+     */
+    public RoadGraph(double[] lats, double[] lngs,
+                     int[] edgeFrom, int[] edgeTo, double[] edgeMetres, double[] edgeSeconds) {
+        if (lats.length != lngs.length) {
+            throw new IllegalArgumentException("lats and lngs must have the same length");
+        }
+        int edges = edgeFrom.length;
+        if (edgeTo.length != edges || edgeMetres.length != edges || edgeSeconds.length != edges) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        this.lats = lats;
+        this.lngs = lngs;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeMetres = edgeMetres;
+        this.edgeSeconds = edgeSeconds;
+    }
+
+    public int nodeCount() {
+        return lats.length;
+    }
+
+    public int edgeCount() {
+        return edgeFrom.length;
+    }
+
+    public double lat(int node) {
+        return lats[node];
+    }
+
+    public double lng(int node) {
+        return lngs[node];
+    }
+
+    public int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    public double edgeMetres(int edge) {
+        return edgeMetres[edge];
+    }
+
+    public double edgeSeconds(int edge) {
+        return edgeSeconds[edge];
+    }
+}
@@ -0,0 +1,69 @@
+package com.jumbotail.shipping.routing;
+
+import com.jumbotail.shipping.spatial.KdTree;
+import com.jumbotail.shipping.spatial.Neighbor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Point-to-point road routing: snaps both points to their nearest road node and routes
+ * between the nodes over a {@link ContractionHierarchy}.
+ *
+ * The stretch from each point to its node is added as a straight line at
+ * {@link #ACCESS_SPEED_KMH}, covering the driveway or lane the extract does not map.
+ */
+public final class RoadNetwork {
+
+    public static final double ACCESS_SPEED_KMH = 20.0;
+
+    private final ContractionHierarchy hierarchy;
+    private final KdTree<Integer> nodes;
+
+    public RoadNetwork(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<Integer> ids = new ArrayList<>(hierarchy.nodeCount());
+        for (int node = 0; node < hierarchy.nodeCount(); node++) {
+            ids.add(node);
+        }
+        this.nodes = KdTree.build(ids, hierarchy::lat, hierarchy::lng);
+    }
+
+    /**
+     * @return a tag that changes whenever the file is replaced or edited, for
+     *         {@link ContractionHierarchy#build(RoadGraph, long)}
+     */
+    public static long fingerprint(Path source) throws IOException {
+        return Files.size(source) * 31 + Files.getLastModifiedTime(source).toMillis();
+    }
+
+    public int nodeCount() {
+        return hierarchy.nodeCount();
+    }
+
+    /**
+     * @param maxSnapKm furthest either point may be from the road network
+     * @return fastest road route, or empty if a point is further than maxSnapKm from any
+     *         road or the target cannot be reached from the source
+     */
+    public Optional<RoadRoute> route(double srcLat, double srcLng, double destLat, double destLng, double maxSnapKm) {
+        Optional<Neighbor<Integer>> source = nodes.nearest(srcLat, srcLng);
+        Optional<Neighbor<Integer>> target = nodes.nearest(destLat, destLng);
+        if (source.isEmpty() || target.isEmpty()
+                || source.get().distanceKm() > maxSnapKm || target.get().distanceKm() > maxSnapKm) {
+            return Optional.empty();
+        }
+
+        RoadRoute road = hierarchy.route(source.get().item(), target.get().item());
+        if (road == null) {
+            return Optional.empty();
+        }
+        double accessMetres = (source.get().distanceKm() + target.get().distanceKm()) * 1000;
+        return Optional.of(new RoadRoute(road.metres() + accessMetres,
+                road.seconds() + accessMetres / (ACCESS_SPEED_KMH / 3.6)));
+    }
+}
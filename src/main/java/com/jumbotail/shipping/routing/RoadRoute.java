@@ -0,0 +1,10 @@
+package com.jumbotail.shipping.routing;
+
+/**
+ * Fastest route between two points.
+ *
+ * @param metres length of the route
+ * @param seconds free-flow travel time of the route
+ */
+public record RoadRoute(double metres, double seconds) {
+}
@@ -0,0 +1,260 @@
+package com.jumbotail.shipping.routing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent cache of road routes between points snapped to a square grid, kept as an
+ * append-only log of fixed-size records.
+ *
+ * Points are snapped to cells of about {@code snapMetres} on a side (the cell is a fixed
+ * number of degrees, so cells narrow slightly away from the equator), and a route is
+ * keyed by its directed pair of cells: A to B and B to A are separate entries because
+ * one-way streets make them differ. Opening the log replays it into an open-addressing
+ * hash table in memory; a later record for a lane replaces the earlier one. Each put
+ * appends one 32-byte record, so a crash loses at most the record being written, and a
+ * torn tail is dropped on the next open. When superseded records outnumber live ones
+ * the log is rewritten on open.
+ *
+ * Not thread-safe; callers synchronise.
+ */
+public final class RouteLog implements Closeable {
+
+    private static final int MAGIC = 0x52544C31; // "RTL1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 32;
+    private static final double METRES_PER_DEGREE = 111_320.0;
+
+    private final Path path;
+    private final int snapMetres;
+    private final double cellDegrees;
+    private FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    // Parallel arrays indexed by slot; a slot is empty while its day is 0
+    private long[] origins;
+    private long[] destinations;
+    private int[] metres;
+    private int[] seconds;
+    private int[] days;
+    private int size;
+
+    private RouteLog(Path path, int snapMetres) {
+        this.path = path;
+        this.snapMetres = snapMetres;
+        this.cellDegrees = snapMetres / METRES_PER_DEGREE;
+        allocate(1024);
+    }
+
+    /**
+     * Open the log at a path, creating it if absent.
+     *
+     * @param snapMetres grid cell size; must match the size the log was written with
+     * @throws IOException if the file cannot be read or written, is not a route log, or
+     *                     was written with another cell size
+     */
+    public static RouteLog open(Path path, int snapMetres) throws IOException {
+        if (snapMetres < 1) {
+            throw new IllegalArgumentException("snapMetres must be positive");
+        }
+        RouteLog log = new RouteLog(path, snapMetres);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        long records = Files.exists(path) ? log.replay() : 0;
+        boolean torn = records > 0 && (Files.size(path) - HEADER_BYTES) % RECORD_BYTES != 0;
+        if (records == 0 || torn || records > 2L * log.size) {
+            log.rewrite();
+        }
+        log.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return log;
+    }
+
+    public int snapMetres() {
+        return snapMetres;
+    }
+
+    /**
+     * @return number of cached lanes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param oldestDay earliest epoch day (days since 1970-01-01) still considered fresh
+     * @return cached route between the points' cells, or null if none or older than oldestDay
+     */
+    public RoadRoute get(double srcLat, double srcLng, double destLat, double destLng, int oldestDay) {
+        long origin = cell(srcLat, srcLng);
+        long destination = cell(destLat, destLng);
+        int slot = slotFor(origin, destination);
+        if (days[slot] == 0 || days[slot] < oldestDay) {
+            return null;
+        }
+        return new RoadRoute(metres[slot], seconds[slot]);
+    }
+
+    /**
+     * Cache a route between the points' cells, replacing any earlier one, and append it to the log.
+     *
+     * @param day epoch day the route was observed
+     */
+    public void put(double srcLat, double srcLng, double destLat, double destLng, RoadRoute route, int day)
+            throws IOException {
+        long origin = cell(srcLat, srcLng);
+        long destination = cell(destLat, destLng);
+        int routeMetres = (int) Math.round(route.metres());
+        int routeSeconds = (int) Math.round(route.seconds());
+        store(origin, destination, routeMetres, routeSeconds, Math.max(1, day));
+
+        record.clear();
+        record.putLong(origin).putLong(destination).putInt(routeMetres).putInt(routeSeconds).putInt(Math.max(1, day)).putInt(0);
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return key of the grid cell containing the point
+     */
+    long cell(double lat, double lng) {
+        long row = (long) Math.floor((lat + 90.0) / cellDegrees);
+        long column = (long) Math.floor((lng + 180.0) / cellDegrees);
+        return row << 32 | column;
+    }
+
+    private long replay() throws IOException {
+        long records = 0;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (in.read(header) != HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException(path + " is not a route log");
+            }
+            if (header.getInt(8) != snapMetres) {
+                throw new IOException(path + " snaps to " + header.getInt(8) + " m, not " + snapMetres + " m");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+            while (in.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_BYTES) {
+                    long origin = buffer.getLong();
+                    long destination = buffer.getLong();
+                    int routeMetres = buffer.getInt();
+                    int routeSeconds = buffer.getInt();
+                    int day = buffer.getInt();
+                    buffer.getInt();
+                    if (day > 0) {
+                        store(origin, destination, routeMetres, routeSeconds, day);
+                        records++;
+                    }
+                }
+                buffer.compact();
+            }
+        }
+        return records;
+    }
+
+    // Write the live lanes to a fresh log, dropping superseded records and any torn tail
+    private void rewrite() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(snapMetres).putInt(0);
+            for (int slot = 0; slot < days.length; slot++) {
+                if (days[slot] == 0) {
+                    continue;
+                }
+                if (buffer.remaining() < RECORD_BYTES) {
+                    drain(out, buffer);
+                }
+                buffer.putLong(origins[slot]).putLong(destinations[slot])
+                        .putInt(metres[slot]).putInt(seconds[slot]).putInt(days[slot]).putInt(0);
+            }
+            drain(out, buffer);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void store(long origin, long destination, int routeMetres, int routeSeconds, int day) {
+        int slot = slotFor(origin, destination);
+        if (days[slot] == 0) {
+            origins[slot] = origin;
+            destinations[slot] = destination;
+            size++;
+        }
+        metres[slot] = routeMetres;
+        seconds[slot] = routeSeconds;
+        days[slot] = day;
+        if (size * 2 > days.length) {
+            grow();
+        }
+    }
+
+    private int slotFor(long origin, long destination) {
+        int mask = days.length - 1;
+        int slot = (int) mix(origin * 31 + destination) & mask;
+        while (days[slot] != 0 && (origins[slot] != origin || destinations[slot] != destination)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldOrigins = origins;
+        long[] oldDestinations = destinations;
+        int[] oldMetres = metres;
+        int[] oldSeconds = seconds;
+        int[] oldDays = days;
+        allocate(oldDays.length * 2);
+        for (int i = 0; i < oldDays.length; i++) {
+            if (oldDays[i] != 0) {
+                int slot = slotFor(oldOrigins[i], oldDestinations[i]);
+                origins[slot] = oldOrigins[i];
+                destinations[slot] = oldDestinations[i];
+                metres[slot] = oldMetres[i];
+                seconds[slot] = oldSeconds[i];
+                days[slot] = oldDays[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        origins = new long[capacity];
+        destinations = new long[capacity];
+        metres = new int[capacity];
+        seconds = new int[capacity];
+        days = new int[capacity];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
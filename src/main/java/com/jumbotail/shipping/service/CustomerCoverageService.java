@@ -0,0 +1,99 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.NearbyCustomerResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.service.spatial.CustomerGeoIndex;
+import com.jumbotail.shipping.service.spatial.CustomerSite;
+import com.jumbotail.shipping.spatial.Neighbor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service answering "which customers fall inside this area" from the customer geohash index,
+ * so fleet planning and bulk re-quoting only touch the affected Kirana stores.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerCoverageService {
+
+    private final CustomerGeoIndex customerGeoIndex;
+    private final WarehouseService warehouseService;
+
+    /**
+     * Find active customers within a radius of a coordinate
+     * 
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param radiusKm Search radius in kilometers
+     * @return Matching customers with their distance, nearest first
+     */
+    public List<NearbyCustomerResponse> findCustomersWithinRadius(double lat, double lng, double radiusKm) {
+        validateCoordinates(lat, lng);
+        if (!(radiusKm > 0)) {
+            throw new InvalidRequestException("radiusKm must be greater than 0");
+        }
+        
+        List<Neighbor<CustomerSite>> customers = customerGeoIndex.findWithin(lat, lng, radiusKm);
+        log.debug("Found {} customers within {} km of ({}, {})", customers.size(), radiusKm, lat, lng);
+        return customers.stream()
+                .map(neighbor -> toResponse(neighbor.item(), Math.round(neighbor.distanceKm() * 100.0) / 100.0))
+                .toList();
+    }
+
+    /**
+     * Find active customers inside a warehouse's delivery radius
+     * 
+     * @param warehouseId Warehouse ID
+     * @param radiusKm Delivery radius in kilometers
+     * @return Matching customers with their distance from the warehouse, nearest first
+     */
+    public List<NearbyCustomerResponse> findCustomersNearWarehouse(String warehouseId, double radiusKm) {
+        Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(warehouseId);
+        
+        if (warehouse.getLocation() == null || warehouse.getLocation().getLat() == null ||
+            warehouse.getLocation().getLng() == null) {
+            throw new ResourceNotFoundException("Warehouse location not available for warehouseId: " + warehouseId);
+        }
+        
+        return findCustomersWithinRadius(warehouse.getLocation().getLat(), warehouse.getLocation().getLng(), radiusKm);
+    }
+
+    /**
+     * Find active customers inside a latitude/longitude box.
+     * A box with minLng greater than maxLng crosses the antimeridian.
+     * 
+     * @return Matching customers, in no particular order
+     */
+    public List<NearbyCustomerResponse> findCustomersInBoundingBox(double minLat, double minLng, double maxLat, double maxLng) {
+        validateCoordinates(minLat, minLng);
+        validateCoordinates(maxLat, maxLng);
+        if (minLat > maxLat) {
+            throw new InvalidRequestException("minLat must not be greater than maxLat");
+        }
+        
+        return customerGeoIndex.findInBoundingBox(minLat, minLng, maxLat, maxLng).stream()
+                .map(site -> toResponse(site, null))
+                .toList();
+    }
+
+    private static NearbyCustomerResponse toResponse(CustomerSite site, Double distanceKm) {
+        return NearbyCustomerResponse.builder()
+                .customerId(site.customerId())
+                .customerLocation(new LocationDTO(site.lat(), site.lng()))
+                .distanceKm(distanceKm)
+                .build();
+    }
+
+    private void validateCoordinates(double lat, double lng) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new InvalidRequestException("Invalid coordinates: (" + lat + ", " + lng + ")");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.DeliveryAvailabilityResponse;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Seller;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.repository.SellerRepository;
+import com.jumbotail.shipping.service.spatial.IsochroneIndex;
+import com.jumbotail.shipping.service.spatial.ServiceZoneIndex;
+import com.jumbotail.shipping.service.spatial.WarehouseAssignmentIndex;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
+import com.jumbotail.shipping.strategy.DeliverySpeed;
+import com.jumbotail.shipping.strategy.TransportMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service answering which delivery speeds can be offered at checkout.
+ * Uses precomputed isochrone bitmaps, so no distance or pricing work is done per call.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryAvailabilityService {
+    
+    private final SellerRepository sellerRepository;
+    private final CustomerRepository customerRepository;
+    private final WarehouseAssignmentIndex warehouseAssignmentIndex;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final IsochroneIndex isochroneIndex;
+    private final ServiceZoneIndex serviceZoneIndex;
+    
+    /**
+     * Find the delivery speeds whose SLA the seller's nearest warehouse can meet for a customer
+     * 
+     * @param sellerId Seller ID
+     * @param customerId Customer ID
+     * @return Fulfilling warehouse and available delivery speeds
+     */
+    @Transactional(readOnly = true)
+    public DeliveryAvailabilityResponse getDeliveryAvailability(String sellerId, String customerId) {
+        Seller seller = sellerRepository.findBySellerIdAndActiveTrue(sellerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller not found with ID: " + sellerId));
+        Customer customer = customerRepository.findByCustomerIdAndActiveTrue(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with ID: " + customerId));
+        
+        if (seller.getLocation() == null || seller.getLocation().getLat() == null ||
+            seller.getLocation().getLng() == null) {
+            throw new ResourceNotFoundException("Seller location not available for sellerId: " + sellerId);
+        }
+        if (customer.getLocation() == null || customer.getLocation().getLat() == null ||
+            customer.getLocation().getLng() == null) {
+            throw new ResourceNotFoundException("Customer location not available for customerId: " + customerId);
+        }
+        
+        WarehouseSite warehouse = warehouseAssignmentIndex.findSellerAssignment(seller.getId())
+                .or(() -> warehouseSpatialIndex.findNearest(seller.getLocation().getLat(), seller.getLocation().getLng()))
+                .orElseThrow(() -> new ResourceNotFoundException("No active warehouses found in the system"))
+                .item();
+        
+        double lat = customer.getLocation().getLat();
+        double lng = customer.getLocation().getLng();
+        List<String> available = new ArrayList<>();
+        for (DeliverySpeed speed : DeliverySpeed.values()) {
+            TransportMode mode = isochroneIndex.reachableMode(warehouse.id(), lat, lng, speed);
+            if (mode != null && serviceZoneIndex.isServiceable(warehouse.id(), lat, lng, mode)) {
+                available.add(speed.getCode());
+            }
+        }
+        
+        log.debug("Delivery speeds available from warehouse {} to customer {}: {}", 
+                  warehouse.warehouseId(), customerId, available);
+        
+        return DeliveryAvailabilityResponse.builder()
+                .warehouseId(warehouse.warehouseId())
+                .customerId(customerId)
+                .availableSpeeds(available)
+                .build();
+    }
+}
@@ -1,32 +1,191 @@
 package com.jumbotail.shipping.service;
 
+import com.jumbotail.shipping.dto.LocationDTO;
 import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceMatrixRequest;
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
 import com.jumbotail.shipping.strategy.distance.DistanceStrategyFactory;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DistanceService {
 
+    public static final String LATENCY_BUDGET_FALLBACK = "HAVERSINE_LATENCY_BUDGET";
+
+    // Upper bound on origins x destinations for a single matrix request
+    private static final int MAX_MATRIX_ELEMENTS = 100_000;
+    // Lookups waiting for a provider thread; beyond this they are answered by Haversine at once
+    private static final int PROVIDER_QUEUE_CAPACITY = 512;
+
     private final DistanceStrategyFactory strategyFactory;
+    private final CacheManager cacheManager;
+    private final long latencyBudgetMs;
+    private final ThreadPoolExecutor providerExecutor;
+
+    public DistanceService(DistanceStrategyFactory strategyFactory,
+                           CacheManager cacheManager,
+                           @Value("${shipping.distance.latency-budget-ms:800}") long latencyBudgetMs,
+                           @Value("${shipping.distance.provider-threads:16}") int providerThreads) {
+        this.strategyFactory = strategyFactory;
+        this.cacheManager = cacheManager;
+        this.latencyBudgetMs = latencyBudgetMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.max(1, providerThreads);
+        this.providerExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PROVIDER_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "distance-provider-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
     /**
      * Calculates the distance and duration using the specified mode strategy.
      * Caches the result to avoid redundant expensive API calls.
+     *
+     * Providers other than Haversine get {@code shipping.distance.latency-budget-ms} to
+     * answer. Past the budget the Haversine estimate is returned instead (provider
+     * {@link #LATENCY_BUDGET_FALLBACK}) while the slow provider finishes in the
+     * background and puts its answer into {@code distanceCache} for the next lookup.
+     *
+     * Only answers from the requested provider are cached. A fallback given because the
+     * caller's quota was spent, the circuit was open or the road network was still loading
+     * says nothing about what the next caller would get, and the cache key carries neither
+     * the caller's priority nor the provider's state.
      */
-    @Cacheable(value = "distanceCache")
+    @Cacheable(value = "distanceCache", unless = "#result.provider != #mode.name()")
     public DistanceResponse calculateDistance(double srcLat, double srcLng, double destLat, double destLng, CalculationMode mode) {
         
         log.info("Computing distance for [{},{}] to [{},{}], Mode: {}", srcLat, srcLng, destLat, destLng, mode);
 
         DistanceStrategy strategy = strategyFactory.getStrategy(mode);
-        
-        return strategy.calculate(srcLat, srcLng, destLat, destLng);
+        if (mode == CalculationMode.HAVERSINE || latencyBudgetMs <= 0) {
+            return answeredBy(strategy.calculate(srcLat, srcLng, destLat, destLng));
+        }
+
+        CompletableFuture<DistanceResponse> pending;
+        try {
+            pending = strategy.calculateAsync(srcLat, srcLng, destLat, destLng, providerExecutor)
+                    .thenApply(DistanceService::answeredBy);
+        } catch (RejectedExecutionException e) {
+            log.warn("Distance providers saturated. Answering {} with Haversine.", mode);
+            return hedge(srcLat, srcLng, destLat, destLng);
+        }
+
+        try {
+            return pending.get(latencyBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.info("{} missed the {} ms latency budget. Answering with Haversine.", mode, latencyBudgetMs);
+            SimpleKey key = new SimpleKey(srcLat, srcLng, destLat, destLng, mode);
+            pending.thenAccept(late -> {
+                Cache cache = cacheManager.getCache("distanceCache");
+                if (cache != null && mode.name().equals(late.getProvider())) {
+                    cache.put(key, late);
+                }
+            });
+            return hedge(srcLat, srcLng, destLat, destLng);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return hedge(srcLat, srcLng, destLat, destLng);
+        } catch (ExecutionException e) {
+            log.error("{} failed. Answering with Haversine. Error: {}", mode, e.getCause().getMessage());
+            return answeredBy(strategyFactory.getStrategy(CalculationMode.HAVERSINE).calculate(srcLat, srcLng, destLat, destLng));
+        }
+    }
+
+    /**
+     * Checks a matrix request up front, so a streamed response never fails on bad input
+     * after it has started.
+     */
+    public void validateMatrixRequest(DistanceMatrixRequest request) {
+        List<LocationDTO> origins = request.getOrigins();
+        List<LocationDTO> destinations = request.getDestinations();
+        if (origins == null || origins.isEmpty() || destinations == null || destinations.isEmpty()) {
+            throw new InvalidRequestException("At least one origin and one destination are required");
+        }
+        if ((long) origins.size() * destinations.size() > MAX_MATRIX_ELEMENTS) {
+            throw new InvalidRequestException("A distance matrix may have at most " + MAX_MATRIX_ELEMENTS + " elements");
+        }
+        origins.forEach(DistanceService::validateLocation);
+        destinations.forEach(DistanceService::validateLocation);
+    }
+
+    /**
+     * Calculates the distance and duration from every origin to every destination, handing
+     * each origin's row to the handler as soon as the strategy has it. Bypasses the
+     * single-pair cache.
+     */
+    public void calculateMatrix(DistanceMatrixRequest request, DistanceStrategy.RowHandler handler) {
+        validateMatrixRequest(request);
+        CalculationMode mode = request.getMode() != null ? request.getMode() : CalculationMode.HAVERSINE;
+
+        log.info("Computing distance matrix of {} x {}, Mode: {}",
+                request.getOrigins().size(), request.getDestinations().size(), mode);
+
+        List<LocationDTO> origins = request.getOrigins();
+        List<LocationDTO> destinations = request.getDestinations();
+        double[] originLats = new double[origins.size()];
+        double[] originLngs = new double[origins.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            originLats[i] = origins.get(i).getLat();
+            originLngs[i] = origins.get(i).getLng();
+        }
+        double[] destinationLats = new double[destinations.size()];
+        double[] destinationLngs = new double[destinations.size()];
+        for (int j = 0; j < destinations.size(); j++) {
+            destinationLats[j] = destinations.get(j).getLat();
+            destinationLngs[j] = destinations.get(j).getLng();
+        }
+
+        strategyFactory.getStrategy(mode)
+                .calculateMatrix(originLats, originLngs, destinationLats, destinationLngs, handler);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        providerExecutor.shutdownNow();
+    }
+
+    private DistanceResponse hedge(double srcLat, double srcLng, double destLat, double destLng) {
+        DistanceResponse response = strategyFactory.getStrategy(CalculationMode.HAVERSINE)
+                .calculate(srcLat, srcLng, destLat, destLng);
+        response.setProvider(LATENCY_BUDGET_FALLBACK);
+        return response;
+    }
+
+    private static DistanceResponse answeredBy(DistanceResponse response) {
+        response.setProvider(response.getCalculationMode());
+        return response;
+    }
+
+    private static void validateLocation(LocationDTO location) {
+        if (location == null || location.getLat() == null || location.getLng() == null) {
+            throw new InvalidRequestException("Every origin and destination needs lat and lng");
+        }
+        double lat = location.getLat();
+        double lng = location.getLng();
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new InvalidRequestException("Invalid coordinates: (" + lat + ", " + lng + ")");
+        }
     }
 }
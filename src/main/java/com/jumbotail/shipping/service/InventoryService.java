@@ -1,40 +1,27 @@
 package com.jumbotail.shipping.service;
 
 import com.jumbotail.shipping.model.Order;
-import com.jumbotail.shipping.model.OrderItem;
-import com.jumbotail.shipping.repository.InventoryRepository;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseStockIndex;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
 
-    private final InventoryRepository inventoryRepository;
+    private final WarehouseStockIndex warehouseStockIndex;
 
     /**
-     * Checks if a warehouse has sufficient stock for ALL items in an order.
-     * Caches the result to avoid redundant DB queries during the recommendation simulation loop.
+     * Finds every active warehouse that can fulfil ALL items of an order on its own.
+     * Answered from per-product stock sets, so warehouses missing any item are never visited.
      *
-     * @param warehouseId the warehouse to check
      * @param order the order containing items to check
-     * @return true if all items are in stock with sufficient quantity, false otherwise
+     * @return warehouses with sufficient stock, in no particular order
      */
-    @Cacheable(value = "warehouseInventoryCheck", key = "#warehouseId + '_' + #order.id")
-    public boolean hasSufficientStockForOrder(Long warehouseId, Order order) {
-        for (OrderItem item : order.getItems()) {
-            boolean hasStock = hasSufficientStock(warehouseId, item.getProduct().getId(), item.getQuantity());
-            if (!hasStock) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean hasSufficientStock(Long warehouseId, Long productId, int requiredQuantity) {
-        return inventoryRepository.findByWarehouseIdAndProductId(warehouseId, productId)
-                .map(inventory -> inventory.getQuantity() >= requiredQuantity)
-                .orElse(false);
+    public List<WarehouseSite> findWarehousesWithStockForOrder(Order order) {
+        return warehouseStockIndex.findStockedWarehouses(WarehouseStockIndex.requiredQuantities(order));
     }
 }
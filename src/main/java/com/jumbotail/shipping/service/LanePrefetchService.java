@@ -0,0 +1,182 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Order;
+import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.spatial.RouteCacheStore;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
+import com.jumbotail.shipping.spatial.SpatialJoin;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategyFactory;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Off-peak prefetch of Google road distances for the warehouse-to-customer lanes recent
+ * orders actually used, so that peak-hour quotes find them in the route cache instead of
+ * calling Google.
+ *
+ * Each order's lane runs from the warehouse nearest its seller to its customer, as in
+ * {@link OrderMatchingService}. Lanes already in the route cache are skipped, the rest are
+ * taken busiest first up to {@code max-lanes}, and each warehouse's lanes go to Google as
+ * one matrix request from that warehouse, which the Google strategy splits into calls of
+ * 25 destinations. Every element billed is a lane that was asked for. The calls are made
+ * at prefetch priority, so the job yields the quota to live traffic, and the answers
+ * land in the route cache through the Google strategy.
+ */
+@Service
+@Slf4j
+public class LanePrefetchService {
+
+    private record Lane(WarehouseSite warehouse, double customerLat, double customerLng) {
+    }
+
+    private final OrderRepository orderRepository;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final RouteCacheStore routeCache;
+    private final DistanceStrategyFactory strategyFactory;
+    private final boolean enabled;
+    private final int lookbackDays;
+    private final int maxLanes;
+
+    public LanePrefetchService(OrderRepository orderRepository,
+                               WarehouseSpatialIndex warehouseSpatialIndex,
+                               RouteCacheStore routeCache,
+                               DistanceStrategyFactory strategyFactory,
+                               @Value("${shipping.lane-prefetch.enabled:true}") boolean enabled,
+                               @Value("${shipping.lane-prefetch.lookback-days:14}") int lookbackDays,
+                               @Value("${shipping.lane-prefetch.max-lanes:20000}") int maxLanes) {
+        this.orderRepository = orderRepository;
+        this.warehouseSpatialIndex = warehouseSpatialIndex;
+        this.routeCache = routeCache;
+        this.strategyFactory = strategyFactory;
+        this.enabled = enabled;
+        this.lookbackDays = lookbackDays;
+        this.maxLanes = maxLanes;
+    }
+
+    @Scheduled(cron = "${shipping.lane-prefetch.cron:0 30 2 * * *}", zone = "${shipping.lane-prefetch.zone:Asia/Kolkata}")
+    public void prefetchOffPeak() {
+        if (enabled) {
+            prefetch(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Fetch road distances for the uncached lanes of orders placed in the lookback window.
+     *
+     * @param now end of the lookback window
+     * @return number of lanes Google answered
+     */
+    public int prefetch(LocalDateTime now) {
+        long startTime = System.currentTimeMillis();
+        List<Lane> lanes = uncachedLanes(now);
+        if (lanes.isEmpty()) {
+            log.info("Lane prefetch: every recent lane is already cached");
+            return 0;
+        }
+
+        Map<WarehouseSite, List<Lane>> byWarehouse = new LinkedHashMap<>();
+        for (Lane lane : lanes) {
+            byWarehouse.computeIfAbsent(lane.warehouse(), warehouse -> new ArrayList<>()).add(lane);
+        }
+
+        DistanceStrategy google = strategyFactory.getStrategy(CalculationMode.GOOGLE);
+        AtomicInteger answered = new AtomicInteger();
+        GoogleQuotaManager.runAs(RequestPriority.PREFETCH, () -> {
+            for (Map.Entry<WarehouseSite, List<Lane>> entry : byWarehouse.entrySet()) {
+                WarehouseSite warehouse = entry.getKey();
+                List<Lane> warehouseLanes = entry.getValue();
+                double[] lats = new double[warehouseLanes.size()];
+                double[] lngs = new double[warehouseLanes.size()];
+                for (int i = 0; i < lats.length; i++) {
+                    lats[i] = warehouseLanes.get(i).customerLat();
+                    lngs[i] = warehouseLanes.get(i).customerLng();
+                }
+                google.calculateMatrix(new double[]{warehouse.lat()}, new double[]{warehouse.lng()}, lats, lngs,
+                        (originIndex, row) -> {
+                            for (DistanceResponse element : row) {
+                                if (CalculationMode.GOOGLE.name().equals(element.getCalculationMode())) {
+                                    answered.incrementAndGet();
+                                }
+                            }
+                        });
+            }
+        });
+
+        log.info("Lane prefetch: Google answered {} of {} uncached lanes from {} warehouses in {} ms",
+                answered.get(), lanes.size(), byWarehouse.size(), System.currentTimeMillis() - startTime);
+        return answered.get();
+    }
+
+    /**
+     * @return distinct lanes of recent orders missing from the route cache, busiest first
+     */
+    private List<Lane> uncachedLanes(LocalDateTime now) {
+        List<Order> orders = orderRepository.findByOrderDateGreaterThanEqualAndOrderDateLessThan(
+                now.minusDays(lookbackDays), now);
+        List<WarehouseSite> warehouses = new ArrayList<>(warehouseSpatialIndex.sitesById().values());
+        if (orders.isEmpty() || warehouses.isEmpty()) {
+            return List.of();
+        }
+
+        // Join each distinct seller to its nearest warehouse once
+        Map<Long, Integer> sellerSlots = new HashMap<>();
+        List<Location> sellerLocations = new ArrayList<>();
+        for (Order order : orders) {
+            Location location = order.getSeller().getLocation();
+            if (isUsable(location) && isUsable(order.getCustomer().getLocation())) {
+                sellerSlots.computeIfAbsent(order.getSeller().getId(), id -> {
+                    sellerLocations.add(location);
+                    return sellerLocations.size() - 1;
+                });
+            }
+        }
+        double[] lats = new double[sellerLocations.size()];
+        double[] lngs = new double[sellerLocations.size()];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = sellerLocations.get(i).getLat();
+            lngs[i] = sellerLocations.get(i).getLng();
+        }
+        SpatialJoin.Result joined = SpatialJoin.nearest(warehouses, WarehouseSite::lat, WarehouseSite::lng, lats, lngs);
+
+        Map<Lane, Integer> orderCounts = new HashMap<>();
+        for (Order order : orders) {
+            Integer slot = sellerSlots.get(order.getSeller().getId());
+            if (slot == null || !isUsable(order.getCustomer().getLocation())) {
+                continue;
+            }
+            Location customer = order.getCustomer().getLocation();
+            Lane lane = new Lane(warehouses.get(joined.siteIndexes()[slot]), customer.getLat(), customer.getLng());
+            orderCounts.merge(lane, 1, Integer::sum);
+        }
+
+        return orderCounts.entrySet().stream()
+                .sorted(Map.Entry.<Lane, Integer>comparingByValue(Comparator.reverseOrder()))
+                .map(Map.Entry::getKey)
+                .filter(lane -> routeCache.get(lane.warehouse().lat(), lane.warehouse().lng(),
+                        lane.customerLat(), lane.customerLng()).isEmpty())
+                .limit(maxLanes)
+                .toList();
+    }
+
+    private static boolean isUsable(Location location) {
+        return location != null && location.getLat() != null && location.getLng() != null;
+    }
+}
@@ -9,6 +9,7 @@ import com.jumbotail.shipping.exception.ResourceNotFoundException;
 import com.jumbotail.shipping.model.Order;
 import com.jumbotail.shipping.model.Warehouse;
 import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.spatial.DistanceMatrixStore;
 import com.jumbotail.shipping.strategy.TransportMode;
 import com.jumbotail.shipping.util.DistanceCalculator;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class LogisticsSimulationService {
 
     private final OrderRepository orderRepository;
     private final WarehouseService warehouseService;
+    private final DistanceMatrixStore distanceMatrixStore;
 
     public LogisticsSimulationResponse simulateLogistics(LogisticsSimulationRequest request) {
         log.info("Simulating logistics for orderId: {} with priority: {}", request.getOrderId(), request.getPriority());
@@ -50,8 +52,9 @@ public class LogisticsSimulationService {
 
         Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(nearestWarehouse.getWarehouseId());
 
-        // 4. Calculate Distance
-        double distance = DistanceCalculator.calculateDistance(warehouse.getLocation(), order.getCustomer().getLocation());
+        // 4. Read the precomputed distance, computing it on a miss
+        double distance = distanceMatrixStore.find(warehouse, order.getCustomer())
+                .orElseGet(() -> DistanceCalculator.calculateDistance(warehouse.getLocation(), order.getCustomer().getLocation()));
         double totalWeight = order.getTotalWeight();
 
         // 5. Generate Options for all Transport Modes
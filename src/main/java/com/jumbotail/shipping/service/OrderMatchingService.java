@@ -0,0 +1,108 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.DailyOrderMatchResponse;
+import com.jumbotail.shipping.dto.OrderWarehouseMatch;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Order;
+import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
+import com.jumbotail.shipping.spatial.SpatialJoin;
+import com.jumbotail.shipping.strategy.TransportMode;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for bulk order-to-warehouse matching.
+ * Replaces one findNearestWarehouse call per order with a single load of the day's orders
+ * and one spatial join over their distinct sellers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderMatchingService {
+    
+    private final OrderRepository orderRepository;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    
+    /**
+     * Match every order placed on a day to the warehouse nearest its seller
+     * 
+     * @param date Order date
+     * @return Fulfilling warehouse, warehouse-to-customer distance and transport mode per order
+     */
+    @Transactional(readOnly = true)
+    public DailyOrderMatchResponse matchOrdersForDay(LocalDate date) {
+        long startTime = System.currentTimeMillis();
+        List<Order> orders = orderRepository.findByOrderDateGreaterThanEqualAndOrderDateLessThan(
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        
+        List<WarehouseSite> warehouses = new ArrayList<>(warehouseSpatialIndex.sitesById().values());
+        if (warehouses.isEmpty() && !orders.isEmpty()) {
+            throw new ResourceNotFoundException("No active warehouses found in the system");
+        }
+        
+        // 1. Join each distinct seller once; a day's orders share far fewer sellers than rows
+        Map<Long, Integer> sellerSlots = new HashMap<>();
+        List<Location> sellerLocations = new ArrayList<>();
+        for (Order order : orders) {
+            Location location = order.getSeller().getLocation();
+            if (isUsable(location) && isUsable(order.getCustomer().getLocation())) {
+                sellerSlots.computeIfAbsent(order.getSeller().getId(), id -> {
+                    sellerLocations.add(location);
+                    return sellerLocations.size() - 1;
+                });
+            }
+        }
+        double[] lats = new double[sellerLocations.size()];
+        double[] lngs = new double[sellerLocations.size()];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = sellerLocations.get(i).getLat();
+            lngs[i] = sellerLocations.get(i).getLng();
+        }
+        SpatialJoin.Result joined = SpatialJoin.nearest(warehouses, WarehouseSite::lat, WarehouseSite::lng, lats, lngs);
+        
+        // 2. Measure each order from its seller's warehouse to the customer
+        List<OrderWarehouseMatch> matches = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Integer slot = sellerSlots.get(order.getSeller().getId());
+            if (slot == null || !isUsable(order.getCustomer().getLocation())) {
+                continue;
+            }
+            WarehouseSite warehouse = warehouses.get(joined.siteIndexes()[slot]);
+            Location customer = order.getCustomer().getLocation();
+            double distance = DistanceCalculator.calculateDistance(warehouse.lat(), warehouse.lng(),
+                    customer.getLat(), customer.getLng());
+            matches.add(OrderWarehouseMatch.builder()
+                    .orderId(order.getOrderId())
+                    .warehouseId(warehouse.warehouseId())
+                    .distanceKm(Math.round(distance * 100.0) / 100.0)
+                    .transportMode(TransportMode.getTransportMode(distance).getName())
+                    .build());
+        }
+        
+        log.info("Matched {} of {} orders for {} across {} sellers in {} ms", 
+                 matches.size(), orders.size(), date, lats.length, System.currentTimeMillis() - startTime);
+        
+        return DailyOrderMatchResponse.builder()
+                .date(date)
+                .orderCount(orders.size())
+                .unmatchedCount(orders.size() - matches.size())
+                .matches(matches)
+                .build();
+    }
+    
+    private static boolean isUsable(Location location) {
+        return location != null && location.getLat() != null && location.getLng() != null;
+    }
+}
@@ -7,6 +7,9 @@ import com.jumbotail.shipping.exception.ResourceNotFoundException;
 import com.jumbotail.shipping.model.Order;
 import com.jumbotail.shipping.model.Warehouse;
 import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.outage.CachedLane;
+import com.jumbotail.shipping.service.outage.CachedLaneIndex;
+import com.jumbotail.shipping.service.spatial.DistanceMatrixStore;
 import com.jumbotail.shipping.strategy.DeliverySpeed;
 import com.jumbotail.shipping.strategy.TransportMode;
 import com.jumbotail.shipping.util.DistanceCalculator;
@@ -27,6 +30,9 @@ public class OrderShippingService {
     private final OrderRepository orderRepository;
     private final WarehouseService warehouseService;
     private final ShippingMetricsService shippingMetricsService;
+    private final ServiceZoneService serviceZoneService;
+    private final CachedLaneIndex cachedLaneIndex;
+    private final DistanceMatrixStore distanceMatrixStore;
     
     /**
      * Calculate a rich shipping estimate for an existing order
@@ -64,11 +70,16 @@ public class OrderShippingService {
             
             Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(nearestWarehouse.getWarehouseId());
             
-            // 4. Calculate Distance (Warehouse to Customer)
-            double distance = DistanceCalculator.calculateDistance(warehouse.getLocation(), order.getCustomer().getLocation());
+            // 4. Reject unserviceable pairs before any distance or pricing work
+            serviceZoneService.checkServiceable(warehouse, order.getCustomer().getLocation());
             
-            // 5. Determine Transport Mode and Shipping Charge
+            // 5. Read the precomputed distance (Warehouse to Customer), computing it on a miss
+            double distance = distanceMatrixStore.find(warehouse, order.getCustomer())
+                    .orElseGet(() -> DistanceCalculator.calculateDistance(warehouse.getLocation(), order.getCustomer().getLocation()));
+            
+            // 6. Determine Transport Mode and Shipping Charge
             TransportMode mode = TransportMode.getTransportMode(distance);
+            serviceZoneService.checkServiceable(warehouse, order.getCustomer().getLocation(), mode);
             finalTransportMode = mode.getName();
             double totalWeight = order.getTotalWeight();
             
@@ -76,14 +87,14 @@ public class OrderShippingService {
             double speedCharge = speed.calculateAdditionalCharge(totalWeight);
             double totalCharge = Math.round((baseCharge + speedCharge) * 100.0) / 100.0;
             
-            // 6. Estimate Delivery Time
+            // 7. Estimate Delivery Time
             // Formula: handlingTime + (distance / speed * speedFactor)
-            double transportHours = (distance / mode.getAverageSpeed()) * speed.getTimeFactor();
-            double estimatedHours = Math.round((speed.getHandlingHours() + transportHours) * 10.0) / 10.0;
+            double estimatedHours = Math.round(speed.estimateDeliveryHours(distance, mode) * 10.0) / 10.0;
             
             log.info("Estimate for order {}: {} Rs, {} hours via {}", 
                      orderId, totalCharge, estimatedHours, mode.getName());
             
+            cachedLaneIndex.record(warehouse.getWarehouseId(), CachedLane.shippingEstimate(orderId, speedCode));
             success = true;
             return OrderShippingEstimateResponse.builder()
                     .orderId(orderId)
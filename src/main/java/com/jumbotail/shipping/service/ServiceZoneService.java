@@ -0,0 +1,160 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.ServiceZoneRequest;
+import com.jumbotail.shipping.dto.ServiceZoneResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.ServiceZone;
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.repository.ServiceZoneRepository;
+import com.jumbotail.shipping.service.spatial.ServiceZoneIndex;
+import com.jumbotail.shipping.strategy.TransportMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service for warehouse serviceability zones.
+ * Quote paths call the check methods before doing any distance or pricing work.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceZoneService {
+    
+    private final ServiceZoneRepository serviceZoneRepository;
+    private final ServiceZoneIndex serviceZoneIndex;
+    private final WarehouseService warehouseService;
+    
+    /**
+     * Reject a warehouse/customer pair that no transport mode may serve
+     * 
+     * @param warehouse Fulfilling warehouse
+     * @param customerLocation Delivery location
+     * @throws InvalidRequestException if the location is outside every applicable zone
+     */
+    public void checkServiceable(Warehouse warehouse, Location customerLocation) {
+        if (serviceZoneIndex.serviceableModes(warehouse.getId(), customerLocation.getLat(), customerLocation.getLng()).isEmpty()) {
+            throw new InvalidRequestException("Location (" + customerLocation.getLat() + ", " + customerLocation.getLng() +
+                                              ") is outside the service zones of warehouse " + warehouse.getWarehouseId());
+        }
+    }
+    
+    /**
+     * Reject a warehouse/customer pair that the chosen transport mode may not serve
+     * 
+     * @param warehouse Fulfilling warehouse
+     * @param customerLocation Delivery location
+     * @param mode Transport mode selected for the distance
+     * @throws InvalidRequestException if the location is outside the mode's zones
+     */
+    public void checkServiceable(Warehouse warehouse, Location customerLocation, TransportMode mode) {
+        if (!serviceZoneIndex.isServiceable(warehouse.getId(), customerLocation.getLat(), customerLocation.getLng(), mode)) {
+            throw new InvalidRequestException("Warehouse " + warehouse.getWarehouseId() + " does not serve location (" +
+                                              customerLocation.getLat() + ", " + customerLocation.getLng() + ") by " + mode.getName());
+        }
+    }
+    
+    /**
+     * Define a new service zone for a warehouse
+     * 
+     * @param warehouseId Warehouse ID
+     * @param request Zone definition
+     * @return Created zone
+     */
+    @Caching(evict = {
+            @CacheEvict(value = "shippingCharge", allEntries = true),
+            @CacheEvict(value = "shippingEstimate", allEntries = true)
+    })
+    @Transactional
+    public ServiceZoneResponse createZone(String warehouseId, ServiceZoneRequest request) {
+        Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(warehouseId);
+        
+        TransportMode mode = null;
+        if (request.getTransportMode() != null && !request.getTransportMode().trim().isEmpty()) {
+            try {
+                mode = TransportMode.valueOf(request.getTransportMode().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Invalid transport mode: " + request.getTransportMode() +
+                                                  ". Must be one of MINI_VAN, TRUCK, AEROPLANE");
+            }
+        }
+        
+        List<Location> boundary = new ArrayList<>();
+        for (LocationDTO vertex : request.getBoundary()) {
+            if (vertex == null || vertex.getLat() == null || vertex.getLng() == null ||
+                vertex.getLat() < -90 || vertex.getLat() > 90 || vertex.getLng() < -180 || vertex.getLng() > 180) {
+                throw new InvalidRequestException("Zone boundary contains an invalid vertex: " + vertex);
+            }
+            boundary.add(new Location(vertex.getLat(), vertex.getLng()));
+        }
+        
+        ServiceZone zone = serviceZoneRepository.save(ServiceZone.builder()
+                .warehouseId(warehouse.getId())
+                .name(request.getName())
+                .transportMode(mode)
+                .boundary(boundary)
+                .active(true)
+                .build());
+        
+        log.info("Created service zone {} ({}) for warehouse {} with {} vertices",
+                 zone.getId(), zone.getName(), warehouseId, boundary.size());
+        return toResponse(zone, warehouseId);
+    }
+    
+    /**
+     * List the active service zones of a warehouse
+     * 
+     * @param warehouseId Warehouse ID
+     * @return Active zones
+     */
+    @Transactional(readOnly = true)
+    public List<ServiceZoneResponse> getZones(String warehouseId) {
+        Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(warehouseId);
+        return serviceZoneRepository.findByWarehouseIdAndActiveTrue(warehouse.getId()).stream()
+                .map(zone -> toResponse(zone, warehouseId))
+                .toList();
+    }
+    
+    /**
+     * Deactivate a service zone
+     * 
+     * @param warehouseId Warehouse ID
+     * @param zoneId Zone ID
+     */
+    @Caching(evict = {
+            @CacheEvict(value = "shippingCharge", allEntries = true),
+            @CacheEvict(value = "shippingEstimate", allEntries = true)
+    })
+    @Transactional
+    public void deleteZone(String warehouseId, Long zoneId) {
+        Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(warehouseId);
+        ServiceZone zone = serviceZoneRepository.findByIdAndWarehouseIdAndActiveTrue(zoneId, warehouse.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service zone " + zoneId + " not found for warehouseId: " + warehouseId));
+        
+        zone.setActive(false);
+        serviceZoneRepository.save(zone);
+        log.info("Deactivated service zone {} for warehouse {}", zoneId, warehouseId);
+    }
+    
+    private ServiceZoneResponse toResponse(ServiceZone zone, String warehouseId) {
+        return ServiceZoneResponse.builder()
+                .zoneId(zone.getId())
+                .warehouseId(warehouseId)
+                .name(zone.getName())
+                .transportMode(zone.getTransportMode() != null ? zone.getTransportMode().name() : null)
+                .boundary(zone.getBoundary().stream()
+                        .map(vertex -> new LocationDTO(vertex.getLat(), vertex.getLng()))
+                        .toList())
+                .build();
+    }
+}
@@ -14,11 +14,15 @@ import com.jumbotail.shipping.model.Warehouse;
 import com.jumbotail.shipping.repository.CustomerRepository;
 import com.jumbotail.shipping.repository.ProductRepository;
 import com.jumbotail.shipping.repository.SellerRepository;
+import com.jumbotail.shipping.service.outage.CachedLane;
+import com.jumbotail.shipping.service.outage.CachedLaneIndex;
+import com.jumbotail.shipping.service.spatial.DistanceMatrixStore;
 import com.jumbotail.shipping.strategy.DeliverySpeed;
 import com.jumbotail.shipping.strategy.TransportMode;
-import com.jumbotail.shipping.util.DistanceCalculator;
+import com.jumbotail.shipping.util.DistanceMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +42,12 @@ public class ShippingChargeService {
     private final SellerRepository sellerRepository;
     private final ProductRepository productRepository;
     private final ShippingMetricsService shippingMetricsService;
+    private final ServiceZoneService serviceZoneService;
+    private final CachedLaneIndex cachedLaneIndex;
+    private final DistanceMatrixStore distanceMatrixStore;
+    
+    @Value("${shipping.distance.mode.shipping-charge:HAVERSINE}")
+    private DistanceMode distanceMode = DistanceMode.HAVERSINE;
     
     /**
      * Calculate shipping charge from warehouse to customer
@@ -86,8 +96,14 @@ public class ShippingChargeService {
                 throw new ResourceNotFoundException("Customer location not available for customerId: " + customerId);
             }
             
-            // Calculate distance
-            double distance = DistanceCalculator.calculateDistance(warehouse.getLocation(), customer.getLocation());
+            // Reject unserviceable pairs before any distance or pricing work
+            serviceZoneService.checkServiceable(warehouse, customer.getLocation());
+            
+            // Read the precomputed distance, computing it on a miss
+            double distance = distanceMatrixStore.find(warehouse, customer)
+                    .orElseGet(() -> warehouseService.calculateDistance(warehouse, customer.getLocation(), distanceMode));
+            TransportMode transportMode = TransportMode.getTransportMode(distance);
+            serviceZoneService.checkServiceable(warehouse, customer.getLocation(), transportMode);
             
             // Get product weight if productId is provided
             double weight = 1.0; // Default weight in kg
@@ -104,8 +120,9 @@ public class ShippingChargeService {
                 log.warn("ProductId not provided, using default weight {} kg for shipping charge calculation", weight);
             }
             
-            finalTransportMode = TransportMode.getTransportMode(distance).getName();
+            finalTransportMode = transportMode.getName();
             Double charge = calculateShippingChargeInternal(distance, weight, speed);
+            cachedLaneIndex.record(warehouseId, CachedLane.warehouseShippingCharge(warehouseId, customerId, deliverySpeed, productId));
             success = true;
             return charge;
         } finally {
@@ -172,9 +189,15 @@ public class ShippingChargeService {
             // Get warehouse entity
             Warehouse warehouse = warehouseService.getWarehouseByWarehouseId(nearestWarehouse.getWarehouseId());
             
-            // Calculate distance from warehouse to customer
-            double distance = DistanceCalculator.calculateDistance(warehouse.getLocation(), customer.getLocation());
-            finalTransportMode = TransportMode.getTransportMode(distance).getName();
+            // Reject unserviceable pairs before any distance or pricing work
+            serviceZoneService.checkServiceable(warehouse, customer.getLocation());
+            
+            // Read the precomputed distance from warehouse to customer, computing it on a miss
+            double distance = distanceMatrixStore.find(warehouse, customer)
+                    .orElseGet(() -> warehouseService.calculateDistance(warehouse, customer.getLocation(), distanceMode));
+            TransportMode transportMode = TransportMode.getTransportMode(distance);
+            serviceZoneService.checkServiceable(warehouse, customer.getLocation(), transportMode);
+            finalTransportMode = transportMode.getName();
             
             // Get product weight
             double weight = product.getAttributes() != null && product.getAttributes().getWeight() != null
@@ -187,6 +210,8 @@ public class ShippingChargeService {
             log.info("Shipping charge calculated: {} Rs for distance: {} km, weight: {} kg", 
                      shippingCharge, distance, weight);
             
+            cachedLaneIndex.record(nearestWarehouse.getWarehouseId(), CachedLane.sellerShippingCharge(
+                    request.getSellerId(), request.getCustomerId(), request.getDeliverySpeed()));
             success = true;
             return ShippingChargeResponse.builder()
                     .shippingCharge(shippingCharge)
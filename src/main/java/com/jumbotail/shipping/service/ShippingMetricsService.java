@@ -2,6 +2,8 @@ package com.jumbotail.shipping.service;
 
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.jumbotail.shipping.dto.ShippingMetricsResponse;
+import com.jumbotail.shipping.strategy.distance.GoogleCircuitBreaker;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -22,6 +24,8 @@ public class ShippingMetricsService {
     private final ConcurrentHashMap<String, AtomicLong> transportModeUsage = new ConcurrentHashMap<>();
 
     private final CacheManager cacheManager;
+    private final GoogleCircuitBreaker googleCircuitBreaker;
+    private final GoogleQuotaManager googleQuotaManager;
 
     public void recordMetrics(long latencyMs, String transportMode, boolean success) {
         totalRequests.incrementAndGet();
@@ -58,6 +62,9 @@ public class ShippingMetricsService {
                 .cacheHits(cacheHits)
                 .mostUsedTransport(mostUsed)
                 .failedRequests(failures)
+                .googleCircuitState(googleCircuitBreaker != null ? String.valueOf(googleCircuitBreaker.state()) : null)
+                .googleShortCircuited(googleCircuitBreaker != null ? googleCircuitBreaker.shortCircuited() : 0)
+                .googleQuotaRemainingToday(googleQuotaManager != null ? googleQuotaManager.remainingToday() : 0)
                 .build();
     }
 
@@ -1,16 +1,29 @@
 package com.jumbotail.shipping.service;
 
 import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.NearbyWarehouseResponse;
 import com.jumbotail.shipping.dto.NearestWarehouseResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Customer;
 import com.jumbotail.shipping.model.Location;
 import com.jumbotail.shipping.model.Product;
 import com.jumbotail.shipping.model.Seller;
 import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.repository.CustomerRepository;
 import com.jumbotail.shipping.repository.ProductRepository;
 import com.jumbotail.shipping.repository.SellerRepository;
 import com.jumbotail.shipping.repository.WarehouseRepository;
+import com.jumbotail.shipping.service.outage.CachedLane;
+import com.jumbotail.shipping.service.outage.CachedLaneIndex;
+import com.jumbotail.shipping.service.spatial.WarehouseAssignmentIndex;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
+import com.jumbotail.shipping.service.spatial.WarehouseStockIndex;
+import com.jumbotail.shipping.spatial.Neighbor;
 import com.jumbotail.shipping.util.DistanceCalculator;
+import com.jumbotail.shipping.util.DistanceMode;
+import com.jumbotail.shipping.util.PreparedLocation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -18,6 +31,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for warehouse-related operations
@@ -27,13 +41,20 @@ import java.util.List;
 @Slf4j
 public class WarehouseService {
     
+    private static final int MAX_NEARBY_RESULTS = 100;
+    
     private final WarehouseRepository warehouseRepository;
     private final SellerRepository sellerRepository;
     private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final WarehouseAssignmentIndex warehouseAssignmentIndex;
+    private final CachedLaneIndex cachedLaneIndex;
+    private final WarehouseStockIndex warehouseStockIndex;
     
     /**
      * Find the nearest warehouse for a seller based on a product
-     * Uses caching to improve performance
+     * Uses caching to improve performance; cache misses read the precomputed seller assignment
      * 
      * @param sellerId Seller ID
      * @param productId Product ID
@@ -58,48 +79,128 @@ public class WarehouseService {
             throw new ResourceNotFoundException("Seller location not available for sellerId: " + sellerId);
         }
         
-        // Get all active warehouses
-        List<Warehouse> warehouses = warehouseRepository.findByActiveTrue();
+        // Read the precomputed assignment; the spatial index covers sellers saved but not yet indexed
+        Neighbor<WarehouseSite> nearest = warehouseAssignmentIndex.findSellerAssignment(seller.getId())
+                .or(() -> warehouseSpatialIndex.findNearest(seller.getLocation().getLat(), seller.getLocation().getLng()))
+                .orElseThrow(() -> new ResourceNotFoundException("No active warehouses found in the system"));
         
-        if (warehouses.isEmpty()) {
-            throw new ResourceNotFoundException("No active warehouses found in the system");
-        }
+        WarehouseSite nearestWarehouse = nearest.item();
+        
+        log.info("Nearest warehouse found: {} at distance: {} km", 
+                 nearestWarehouse.warehouseId(), nearest.distanceKm());
+        
+        LocationDTO locationDTO = new LocationDTO(nearestWarehouse.lat(), nearestWarehouse.lng());
+        cachedLaneIndex.record(nearestWarehouse.warehouseId(), CachedLane.nearestWarehouse(sellerId, productId));
+        
+        return NearestWarehouseResponse.builder()
+                .warehouseId(nearestWarehouse.warehouseId())
+                .warehouseLocation(locationDTO)
+                .build();
+    }
+    
+    /**
+     * Find the nearest warehouse to a seller that actually holds the product in the required quantity.
+     * Not cached, since stock levels change far more often than warehouse locations.
+     * 
+     * @param sellerId Seller ID
+     * @param productId Product ID
+     * @param quantity Minimum quantity the warehouse must hold
+     * @return Nearest stocked warehouse response
+     */
+    @Transactional(readOnly = true)
+    public NearestWarehouseResponse findNearestWarehouseWithStock(String sellerId, String productId, int quantity) {
+        log.info("Finding nearest warehouse with stock for sellerId: {}, productId: {}, quantity: {}", 
+                 sellerId, productId, quantity);
         
-        // Find nearest warehouse
-        Warehouse nearestWarehouse = null;
-        double minDistance = Double.MAX_VALUE;
-        
-        for (Warehouse warehouse : warehouses) {
-            if (warehouse.getLocation() == null || warehouse.getLocation().getLat() == null ||
-                warehouse.getLocation().getLng() == null) {
-                log.warn("Warehouse {} has invalid location, skipping", warehouse.getWarehouseId());
-                continue;
-            }
-            
-            double distance = DistanceCalculator.calculateDistance(seller.getLocation(), warehouse.getLocation());
-            
-            if (distance < minDistance) {
-                minDistance = distance;
-                nearestWarehouse = warehouse;
-            }
+        if (quantity < 1) {
+            throw new InvalidRequestException("Quantity must be at least 1");
         }
         
-        if (nearestWarehouse == null) {
-            throw new ResourceNotFoundException("No warehouse with valid location found");
+        Seller seller = sellerRepository.findBySellerIdAndActiveTrue(sellerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller not found with ID: " + sellerId));
+        
+        Product product = productRepository.findByProductIdAndActiveTrue(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+        
+        if (seller.getLocation() == null || seller.getLocation().getLat() == null || 
+            seller.getLocation().getLng() == null) {
+            throw new ResourceNotFoundException("Seller location not available for sellerId: " + sellerId);
         }
         
-        log.info("Nearest warehouse found: {} at distance: {} km", 
-                 nearestWarehouse.getWarehouseId(), minDistance);
+        Neighbor<WarehouseSite> nearest = warehouseStockIndex
+                .findNearestStocked(seller.getLocation().getLat(), seller.getLocation().getLng(),
+                                    Map.of(product.getId(), quantity))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "No active warehouse holds " + quantity + " units of product: " + productId));
+        
+        WarehouseSite nearestWarehouse = nearest.item();
         
-        Location warehouseLocation = nearestWarehouse.getLocation();
-        LocationDTO locationDTO = new LocationDTO(warehouseLocation.getLat(), warehouseLocation.getLng());
+        log.info("Nearest stocked warehouse found: {} at distance: {} km", 
+                 nearestWarehouse.warehouseId(), nearest.distanceKm());
         
         return NearestWarehouseResponse.builder()
-                .warehouseId(nearestWarehouse.getWarehouseId())
-                .warehouseLocation(locationDTO)
+                .warehouseId(nearestWarehouse.warehouseId())
+                .warehouseLocation(new LocationDTO(nearestWarehouse.lat(), nearestWarehouse.lng()))
                 .build();
     }
     
+    /**
+     * Find the warehouse nearest to a customer from the precomputed assignment table
+     * 
+     * @param customerId Customer ID
+     * @return Nearest warehouse with its distance from the customer
+     */
+    @Transactional(readOnly = true)
+    public NearbyWarehouseResponse findNearestWarehouseForCustomer(String customerId) {
+        Customer customer = customerRepository.findByCustomerIdAndActiveTrue(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with ID: " + customerId));
+        
+        if (customer.getLocation() == null || customer.getLocation().getLat() == null ||
+            customer.getLocation().getLng() == null) {
+            throw new ResourceNotFoundException("Customer location not available for customerId: " + customerId);
+        }
+        
+        Neighbor<WarehouseSite> nearest = warehouseAssignmentIndex.findCustomerAssignment(customer.getId())
+                .or(() -> warehouseSpatialIndex.findNearest(customer.getLocation().getLat(), customer.getLocation().getLng()))
+                .orElseThrow(() -> new ResourceNotFoundException("No active warehouses found in the system"));
+        
+        return toNearbyResponses(List.of(nearest)).get(0);
+    }
+    
+    /**
+     * Find the k active warehouses nearest to a coordinate
+     * 
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param k Number of warehouses to return (1 to MAX_NEARBY_RESULTS)
+     * @return Up to k warehouses, nearest first
+     */
+    public List<NearbyWarehouseResponse> findNearestWarehouses(double lat, double lng, int k) {
+        validateCoordinates(lat, lng);
+        if (k < 1 || k > MAX_NEARBY_RESULTS) {
+            throw new InvalidRequestException("k must be between 1 and " + MAX_NEARBY_RESULTS);
+        }
+        
+        return toNearbyResponses(warehouseSpatialIndex.findNearest(lat, lng, k));
+    }
+    
+    /**
+     * Find every active warehouse within a radius of a coordinate
+     * 
+     * @param lat Latitude
+     * @param lng Longitude
+     * @param radiusKm Search radius in kilometers
+     * @return Matching warehouses, nearest first
+     */
+    public List<NearbyWarehouseResponse> findWarehousesWithinRadius(double lat, double lng, double radiusKm) {
+        validateCoordinates(lat, lng);
+        if (!(radiusKm > 0)) {
+            throw new InvalidRequestException("radiusKm must be greater than 0");
+        }
+        
+        return toNearbyResponses(warehouseSpatialIndex.findWithin(lat, lng, radiusKm));
+    }
+    
     /**
      * Get warehouse by ID
      * 
@@ -123,4 +224,35 @@ public class WarehouseService {
         return warehouseRepository.findByWarehouseIdAndActiveTrue(warehouseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Warehouse not found with ID: " + warehouseId));
     }
+    
+    /**
+     * Distance from a warehouse to a location. Indexed warehouses reuse the prepared coordinate
+     * held by the spatial index, so only the destination is converted per call.
+     * 
+     * @param warehouse Warehouse entity with a location
+     * @param destination Destination location
+     * @param mode Haversine, or the equirectangular fast mode for short hops
+     * @return Distance in kilometers
+     */
+    public double calculateDistance(Warehouse warehouse, Location destination, DistanceMode mode) {
+        WarehouseSite site = warehouseSpatialIndex.sitesById().get(warehouse.getId());
+        PreparedLocation origin = site != null ? site.location() : PreparedLocation.of(warehouse.getLocation());
+        return DistanceCalculator.calculateDistance(origin, PreparedLocation.of(destination), mode);
+    }
+    
+    private void validateCoordinates(double lat, double lng) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new InvalidRequestException("Invalid coordinates: (" + lat + ", " + lng + ")");
+        }
+    }
+    
+    private List<NearbyWarehouseResponse> toNearbyResponses(List<Neighbor<WarehouseSite>> neighbors) {
+        return neighbors.stream()
+                .map(neighbor -> NearbyWarehouseResponse.builder()
+                        .warehouseId(neighbor.item().warehouseId())
+                        .warehouseLocation(new LocationDTO(neighbor.item().lat(), neighbor.item().lng()))
+                        .distanceKm(Math.round(neighbor.distanceKm() * 100.0) / 100.0)
+                        .build())
+                .toList();
+    }
 }
@@ -0,0 +1,56 @@
+package com.jumbotail.shipping.service.outage;
+
+import java.util.List;
+
+/**
+ * One cached answer that depends on a warehouse, with the arguments needed to rebuild it.
+ * The cache key is built exactly as the matching {@code @Cacheable} key expression builds it.
+ *
+ * @param kind which cached computation this is
+ * @param args the computation's arguments, in key order
+ */
+public record CachedLane(Kind kind, List<String> args) {
+
+    public enum Kind {
+        NEAREST_WAREHOUSE("nearestWarehouse"),
+        SHIPPING_ESTIMATE("shippingEstimate"),
+        SELLER_SHIPPING_CHARGE("shippingCharge"),
+        WAREHOUSE_SHIPPING_CHARGE("shippingCharge");
+
+        private final String cacheName;
+
+        Kind(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+    }
+
+    public static CachedLane nearestWarehouse(String sellerId, String productId) {
+        return new CachedLane(Kind.NEAREST_WAREHOUSE, List.of(sellerId, productId));
+    }
+
+    public static CachedLane shippingEstimate(String orderId, String speedCode) {
+        return new CachedLane(Kind.SHIPPING_ESTIMATE, List.of(orderId, speedCode != null ? speedCode : "standard"));
+    }
+
+    public static CachedLane sellerShippingCharge(String sellerId, String customerId, String deliverySpeed) {
+        return new CachedLane(Kind.SELLER_SHIPPING_CHARGE, List.of(sellerId, customerId, deliverySpeed));
+    }
+
+    public static CachedLane warehouseShippingCharge(String warehouseId, String customerId, String deliverySpeed,
+                                                     String productId) {
+        return new CachedLane(Kind.WAREHOUSE_SHIPPING_CHARGE,
+                List.of(warehouseId, customerId, deliverySpeed, productId != null ? productId : "default"));
+    }
+
+    public String cacheName() {
+        return kind.getCacheName();
+    }
+
+    public String cacheKey() {
+        return String.join("_", args);
+    }
+}
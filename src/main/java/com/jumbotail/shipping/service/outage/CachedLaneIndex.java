@@ -0,0 +1,69 @@
+package com.jumbotail.shipping.service.outage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jumbotail.shipping.config.CacheConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reverse index from warehouse ID to the cached lanes whose answer names that warehouse.
+ *
+ * Services record a lane when they compute a cacheable answer. Entries expire on the same
+ * schedule as the caches themselves, so the index never outgrows what is actually cached.
+ */
+@Component
+public class CachedLaneIndex {
+
+    private final Map<String, Set<CachedLane>> lanesByWarehouse = new ConcurrentHashMap<>();
+    private final Cache<CachedLane, String> warehouseByLane = Caffeine.newBuilder()
+            .maximumSize(CacheConfig.MAXIMUM_SIZE * 4L)
+            .expireAfterWrite(CacheConfig.EXPIRE_AFTER_WRITE_MINUTES, TimeUnit.MINUTES)
+            .executor(Runnable::run)
+            .<CachedLane, String>removalListener((lane, warehouseId, cause) -> unlink(warehouseId, lane))
+            .build();
+
+    /**
+     * @param warehouseId external warehouse ID the cached answer names
+     * @param lane cached answer
+     */
+    public void record(String warehouseId, CachedLane lane) {
+        warehouseByLane.put(lane, warehouseId);
+        lanesByWarehouse.compute(warehouseId, (id, lanes) -> {
+            Set<CachedLane> updated = lanes != null ? lanes : ConcurrentHashMap.newKeySet();
+            updated.add(lane);
+            return updated;
+        });
+    }
+
+    /**
+     * @param warehouseId external warehouse ID
+     * @return lanes currently recorded against the warehouse
+     */
+    public List<CachedLane> lanesFor(String warehouseId) {
+        warehouseByLane.cleanUp();
+        Set<CachedLane> lanes = lanesByWarehouse.get(warehouseId);
+        return lanes == null ? Collections.emptyList() : new ArrayList<>(lanes);
+    }
+
+    public void remove(CachedLane lane) {
+        warehouseByLane.invalidate(lane);
+    }
+
+    private void unlink(String warehouseId, CachedLane lane) {
+        if (warehouseId == null) {
+            return;
+        }
+        lanesByWarehouse.computeIfPresent(warehouseId, (id, lanes) -> {
+            lanes.remove(lane);
+            return lanes.isEmpty() ? null : lanes;
+        });
+    }
+}
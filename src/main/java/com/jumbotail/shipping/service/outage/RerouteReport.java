@@ -0,0 +1,16 @@
+package com.jumbotail.shipping.service.outage;
+
+/**
+ * Outcome of re-routing the dependants of a deactivated warehouse.
+ *
+ * @param warehouseId external warehouse ID
+ * @param customersReassigned customers moved to another warehouse
+ * @param sellersReassigned sellers moved to another warehouse
+ * @param lanesEvicted cached answers evicted
+ * @param lanesReprimed evicted answers recomputed and cached again
+ * @param lanesFailed evicted answers that could not be recomputed
+ * @param elapsedMs wall-clock time of the whole job
+ */
+public record RerouteReport(String warehouseId, int customersReassigned, int sellersReassigned,
+                            int lanesEvicted, int lanesReprimed, int lanesFailed, long elapsedMs) {
+}
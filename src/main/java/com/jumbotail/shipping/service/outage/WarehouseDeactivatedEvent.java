@@ -0,0 +1,14 @@
+package com.jumbotail.shipping.service.outage;
+
+import java.util.Set;
+
+/**
+ * Published when a warehouse is deactivated or deleted.
+ *
+ * @param id warehouse internal ID
+ * @param warehouseId external warehouse ID
+ * @param customerIds internal IDs of the customers assigned to the warehouse just before the change
+ * @param sellerIds internal IDs of the sellers assigned to the warehouse just before the change
+ */
+public record WarehouseDeactivatedEvent(Long id, String warehouseId, Set<Long> customerIds, Set<Long> sellerIds) {
+}
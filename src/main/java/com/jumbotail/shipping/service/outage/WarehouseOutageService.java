@@ -0,0 +1,154 @@
+package com.jumbotail.shipping.service.outage;
+
+import com.jumbotail.shipping.dto.ShippingChargeRequest;
+import com.jumbotail.shipping.service.OrderShippingService;
+import com.jumbotail.shipping.service.ShippingChargeService;
+import com.jumbotail.shipping.service.WarehouseService;
+import com.jumbotail.shipping.service.spatial.WarehouseAssignmentIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-routes everything that depended on a warehouse once it goes out of service.
+ *
+ * The job runs after the deactivating transaction commits. It reassigns the warehouse's
+ * customers and sellers, evicts every cached answer that named the warehouse, and then
+ * recomputes those answers on a small fixed pool so the next request finds a warm cache
+ * instead of every affected customer falling through to the slow path at once.
+ */
+@Service
+@Slf4j
+public class WarehouseOutageService {
+    
+    private final CachedLaneIndex cachedLaneIndex;
+    private final WarehouseAssignmentIndex warehouseAssignmentIndex;
+    private final CacheManager cacheManager;
+    private final WarehouseService warehouseService;
+    private final OrderShippingService orderShippingService;
+    private final ShippingChargeService shippingChargeService;
+    private final ExecutorService executor;
+    
+    public WarehouseOutageService(CachedLaneIndex cachedLaneIndex,
+                                  WarehouseAssignmentIndex warehouseAssignmentIndex,
+                                  CacheManager cacheManager,
+                                  WarehouseService warehouseService,
+                                  OrderShippingService orderShippingService,
+                                  ShippingChargeService shippingChargeService,
+                                  @Value("${shipping.outage.reroute-parallelism:4}") int parallelism) {
+        this.cachedLaneIndex = cachedLaneIndex;
+        this.warehouseAssignmentIndex = warehouseAssignmentIndex;
+        this.cacheManager = cacheManager;
+        this.warehouseService = warehouseService;
+        this.orderShippingService = orderShippingService;
+        this.shippingChargeService = shippingChargeService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "warehouse-reroute-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWarehouseDeactivated(WarehouseDeactivatedEvent event) {
+        reroute(event).whenComplete((report, ex) -> {
+            if (ex != null) {
+                log.error("Re-routing for warehouse {} failed", event.warehouseId(), ex);
+            } else {
+                log.info("Re-routed warehouse {}: {}", event.warehouseId(), report);
+            }
+        });
+    }
+    
+    /**
+     * Reassign and re-prime everything that depended on a deactivated warehouse.
+     * Stale answers are evicted before this method returns; recomputation continues on the pool.
+     * 
+     * @param event Deactivated warehouse and its dependants at the time of the change
+     * @return Report completed once every evicted answer has been recomputed or has failed
+     */
+    public CompletableFuture<RerouteReport> reroute(WarehouseDeactivatedEvent event) {
+        long startTime = System.currentTimeMillis();
+        
+        // 1. Apply the warehouse change now so its customers and sellers are reassigned up front
+        warehouseAssignmentIndex.refresh();
+        
+        // 2. Evict every cached answer that named the warehouse
+        List<CachedLane> lanes = cachedLaneIndex.lanesFor(event.warehouseId());
+        List<CachedLane> nearestLanes = new ArrayList<>();
+        List<CachedLane> dependentLanes = new ArrayList<>();
+        for (CachedLane lane : lanes) {
+            Cache cache = cacheManager.getCache(lane.cacheName());
+            if (cache != null) {
+                cache.evict(lane.cacheKey());
+            }
+            cachedLaneIndex.remove(lane);
+            
+            switch (lane.kind()) {
+                case NEAREST_WAREHOUSE -> nearestLanes.add(lane);
+                case SHIPPING_ESTIMATE, SELLER_SHIPPING_CHARGE -> dependentLanes.add(lane);
+                case WAREHOUSE_SHIPPING_CHARGE -> { } // quotes for the closed warehouse itself are not rebuilt
+            }
+        }
+        
+        // 3. Re-prime nearest-warehouse answers first, since estimates and charges read them
+        AtomicInteger reprimed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        return reprimeAll(nearestLanes, reprimed, failed)
+                .thenCompose(ignored -> reprimeAll(dependentLanes, reprimed, failed))
+                .thenApply(ignored -> new RerouteReport(event.warehouseId(),
+                        event.customerIds().size(), event.sellerIds().size(),
+                        lanes.size(), reprimed.get(), failed.get(),
+                        System.currentTimeMillis() - startTime));
+    }
+    
+    private CompletableFuture<Void> reprimeAll(List<CachedLane> lanes, AtomicInteger reprimed, AtomicInteger failed) {
+        CompletableFuture<?>[] futures = lanes.stream()
+                .map(lane -> CompletableFuture.runAsync(() -> {
+                    if (reprime(lane)) {
+                        reprimed.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures);
+    }
+    
+    private boolean reprime(CachedLane lane) {
+        List<String> args = lane.args();
+        try {
+            switch (lane.kind()) {
+                case NEAREST_WAREHOUSE -> warehouseService.findNearestWarehouse(args.get(0), args.get(1));
+                case SHIPPING_ESTIMATE -> orderShippingService.getShippingEstimate(args.get(0), args.get(1));
+                case SELLER_SHIPPING_CHARGE -> shippingChargeService.calculateShippingChargeForSellerAndCustomer(
+                        new ShippingChargeRequest(args.get(0), args.get(1), args.get(2)));
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // The lane may no longer be valid (order deleted, customer now unserviceable, ...)
+            log.debug("Could not re-prime {} {}: {}", lane.cacheName(), lane.cacheKey(), e.getMessage());
+            return false;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -5,15 +5,20 @@ import com.jumbotail.shipping.dto.recommendation.RecommendationOption;
 import com.jumbotail.shipping.dto.recommendation.RecommendationResponse;
 import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.model.Location;
 import com.jumbotail.shipping.model.Order;
-import com.jumbotail.shipping.model.Warehouse;
 import com.jumbotail.shipping.repository.OrderRepository;
-import com.jumbotail.shipping.repository.WarehouseRepository;
 import com.jumbotail.shipping.service.InventoryService;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
 import com.jumbotail.shipping.strategy.TransportMode;
+import com.jumbotail.shipping.util.BatchDistanceCalculator;
 import com.jumbotail.shipping.util.DistanceCalculator;
+import com.jumbotail.shipping.util.DistanceMode;
+import com.jumbotail.shipping.util.PreparedLocation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -26,11 +31,14 @@ import java.util.List;
 public class LogisticsDecisionService {
 
     private final OrderRepository orderRepository;
-    private final WarehouseRepository warehouseRepository;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
     private final InventoryService inventoryService;
     private final DeliveryTimeEstimator deliveryTimeEstimator;
     private final OptionScorer optionScorer;
 
+    @Value("${shipping.distance.mode.recommendation:HAVERSINE}")
+    private DistanceMode distanceMode = DistanceMode.HAVERSINE;
+
     public RecommendationResponse recommendLogistics(Long orderEntityId, OptimizationPriority priority) {
         log.info("Generating logistics recommendation for Order ID: {}, Priority: {}", orderEntityId, priority);
 
@@ -44,28 +52,29 @@ public class LogisticsDecisionService {
 
         double totalWeight = order.getTotalWeight();
 
-        // 2. Fetch all active warehouses
-        List<Warehouse> activeWarehouses = warehouseRepository.findByActiveTrue();
-        if (activeWarehouses.isEmpty()) {
+        // 2. Fetch the active warehouses that can fulfil every item of the order
+        if (warehouseSpatialIndex.size() == 0) {
             throw new InvalidRequestException("No active warehouses available for fulfillment");
         }
+        List<WarehouseSite> stockedWarehouses = inventoryService.findWarehousesWithStockForOrder(order);
+        Location customerLocation = order.getCustomer().getLocation();
+        if (customerLocation == null || customerLocation.getLat() == null || customerLocation.getLng() == null) {
+            throw new ResourceNotFoundException("Customer location not available for order " + orderEntityId);
+        }
 
         List<RecommendationOption> generatedOptions = new ArrayList<>();
 
-        // 3. The Core Simulation Loop
-        for (Warehouse warehouse : activeWarehouses) {
-            
-            // Step 3a: Filter by Inventory 
-            boolean hasStock = inventoryService.hasSufficientStockForOrder(warehouse.getId(), order);
-            if (!hasStock) {
-                log.debug("Warehouse {} excluded: Insufficient stock for order {}", warehouse.getWarehouseId(), orderEntityId);
-                continue; 
-            }
+        // 3. Calculate every distance up front (inventory was already filtered by the stock index)
+        double[] distances = distanceMode == DistanceMode.FAST
+                ? preparedDistances(customerLocation, stockedWarehouses)
+                : batchDistances(customerLocation, stockedWarehouses);
 
-            // Step 3b: Calculate Distance
-            double distance = DistanceCalculator.calculateDistance(warehouse.getLocation(), order.getCustomer().getLocation());
+        // 4. The Core Simulation Loop
+        for (int i = 0; i < stockedWarehouses.size(); i++) {
+            WarehouseSite warehouse = stockedWarehouses.get(i);
+            double distance = distances[i];
 
-            // Step 3c: Simulate all transport modes for this warehouse
+            // Simulate all transport modes for this warehouse
             for (TransportMode mode : TransportMode.values()) {
                 
                 // Real-world logic: Transport mode has min/max distances
@@ -81,7 +90,7 @@ public class LogisticsDecisionService {
                 double estimatedHours = Math.round(deliveryTimeEstimator.estimateDeliveryHours(distance, mode) * 10.0) / 10.0;
 
                 RecommendationOption option = RecommendationOption.builder()
-                        .warehouseId(warehouse.getId())
+                        .warehouseId(warehouse.id())
                         .transportMode(mode)
                         .estimatedCost(estimatedCost)
                         .estimatedDeliveryHours(estimatedHours)
@@ -96,13 +105,13 @@ public class LogisticsDecisionService {
             throw new InvalidRequestException("No valid logistics options found for Order " + orderEntityId + ". Check inventory or distances blockages.");
         }
 
-        // 4. Score the options
+        // 5. Score the options
         optionScorer.scoreOptions(generatedOptions, priority);
 
-        // 5. Rank the options (lowest score is best)
+        // 6. Rank the options (lowest score is best)
         generatedOptions.sort(Comparator.comparingDouble(RecommendationOption::getScore));
 
-        // 6. Build the Response
+        // 7. Build the Response
         RecommendationOption bestMatch = generatedOptions.get(0);
         List<RecommendationOption> alternatives = generatedOptions.subList(1, generatedOptions.size());
 
@@ -111,4 +120,32 @@ public class LogisticsDecisionService {
                 .alternatives(alternatives)
                 .build();
     }
+
+    /**
+     * Haversine for every warehouse in one vectorised batch.
+     */
+    private static double[] batchDistances(Location customerLocation, List<WarehouseSite> warehouses) {
+        double[] warehouseLats = new double[warehouses.size()];
+        double[] warehouseLngs = new double[warehouses.size()];
+        for (int i = 0; i < warehouseLats.length; i++) {
+            warehouseLats[i] = warehouses.get(i).lat();
+            warehouseLngs[i] = warehouses.get(i).lng();
+        }
+        double[] distances = new double[warehouseLats.length];
+        BatchDistanceCalculator.distancesFrom(customerLocation.getLat(), customerLocation.getLng(),
+                warehouseLats, warehouseLngs, distances);
+        return distances;
+    }
+
+    /**
+     * Fast mode against the sites' prepared locations: nearby warehouses cost no trigonometry.
+     */
+    private static double[] preparedDistances(Location customerLocation, List<WarehouseSite> warehouses) {
+        PreparedLocation customer = PreparedLocation.of(customerLocation);
+        double[] distances = new double[warehouses.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = DistanceCalculator.calculateDistance(warehouses.get(i).location(), customer, DistanceMode.FAST);
+        }
+        return distances;
+    }
 }
@@ -0,0 +1,321 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.spatial.HilbertCurve;
+import com.jumbotail.shipping.spatial.KdTree;
+import com.jumbotail.shipping.spatial.Neighbor;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Materialised point-to-nearest-warehouse assignment, i.e. the Voronoi partition of a
+ * point set over the active warehouses, with a reverse index from warehouse to its points.
+ *
+ * Point inserts, moves and deletes are applied one at a time. When the warehouse snapshot
+ * changes, only the affected Voronoi cells are revisited: points of a removed or moved
+ * warehouse are reassigned, and for an added warehouse W a point p of cell V can only
+ * switch if d(p, V) > d(V, W) / 2, so cells whose radius is within that bound are skipped
+ * without touching their points. Several added warehouses are applied in turn, each
+ * against the cells as left by the previous one.
+ */
+@Slf4j
+final class AssignmentTable {
+
+    private final String name;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final Supplier<List<Point>> loader;
+
+    private final IndexVersion version = new IndexVersion();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private KdTree<WarehouseSite> tree;
+    private volatile long loadedVersion = -1;
+    private volatile Map<Long, WarehouseSite> loadedWarehouses;
+
+    AssignmentTable(String name, WarehouseSpatialIndex warehouseSpatialIndex, Supplier<List<Point>> loader) {
+        this.name = name;
+        this.warehouseSpatialIndex = warehouseSpatialIndex;
+        this.loader = loader;
+    }
+
+    /**
+     * @return assigned warehouse and its distance, or empty if the point is not indexed or
+     *         no warehouse is active
+     */
+    Optional<Neighbor<WarehouseSite>> get(Long pointId) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(pointId);
+            return entry == null || entry.warehouse == null
+                    ? Optional.empty()
+                    : Optional.of(new Neighbor<>(entry.warehouse, entry.distanceKm));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return IDs of the points currently assigned to the warehouse
+     */
+    Set<Long> assignedTo(Long warehouseId) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            Cell cell = cells.get(warehouseId);
+            return cell == null ? Collections.emptySet() : new HashSet<>(cell.members);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Points assigned to the warehouse as of the last applied warehouse snapshot. Never loads
+     * or refreshes the table, so it is safe to call while an entity flush is in progress.
+     *
+     * @return IDs of the points last assigned to the warehouse; empty if the table is not loaded
+     */
+    Set<Long> peekAssignedTo(Long warehouseId) {
+        lock.readLock().lock();
+        try {
+            Cell cell = cells.get(warehouseId);
+            return cell == null ? Collections.emptySet() : new HashSet<>(cell.members);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply any pending point or warehouse changes now rather than on the next read.
+     */
+    void refresh() {
+        ensureCurrent();
+    }
+
+    void upsert(Point point) {
+        write(() -> {
+            unassign(point.id());
+            Entry entry = new Entry(point.lat(), point.lng());
+            entries.put(point.id(), entry);
+            assignNearest(point.id(), entry);
+        });
+    }
+
+    void remove(Long pointId) {
+        write(() -> {
+            unassign(pointId);
+            entries.remove(pointId);
+        });
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loadedVersion != version.get()) {
+                // Not loaded yet: the next load reads this change from the table
+                version.bump();
+                return;
+            }
+            change.run();
+            version.bumpOnRollback();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureCurrent() {
+        if (loadedVersion == version.get() && loadedWarehouses == warehouseSpatialIndex.sitesById()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long target = version.get();
+            Map<Long, WarehouseSite> warehouses = warehouseSpatialIndex.sitesById();
+            if (loadedVersion == target && loadedWarehouses == warehouses) {
+                return;
+            }
+            tree = KdTree.build(new ArrayList<>(warehouses.values()), WarehouseSite::lat, WarehouseSite::lng);
+            if (loadedVersion != target) {
+                reload();
+            } else {
+                applyWarehouseChanges(loadedWarehouses, warehouses);
+            }
+            loadedVersion = target;
+            loadedWarehouses = warehouses;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        entries.clear();
+        cells.clear();
+        // Hilbert order keeps consecutive lookups in the same part of the tree
+        for (Point point : HilbertCurve.sort(loader.get(), Point::lat, Point::lng)) {
+            Entry entry = new Entry(point.lat(), point.lng());
+            entries.put(point.id(), entry);
+            assignNearest(point.id(), entry);
+        }
+        log.debug("Loaded {} warehouse assignments for {} points", name, entries.size());
+    }
+
+    private void applyWarehouseChanges(Map<Long, WarehouseSite> previous, Map<Long, WarehouseSite> current) {
+        List<WarehouseSite> added = new ArrayList<>();
+        Set<Long> removed = new HashSet<>();
+        for (WarehouseSite site : current.values()) {
+            WarehouseSite old = previous.get(site.id());
+            if (old == null) {
+                added.add(site);
+            } else if (old.lat() != site.lat() || old.lng() != site.lng()) {
+                removed.add(site.id());
+                added.add(site);
+            } else if (!old.equals(site)) {
+                relabel(site);
+            }
+        }
+        for (Long id : previous.keySet()) {
+            if (!current.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+
+        // Points of removed or moved warehouses are reassigned against the new tree
+        int recomputed = 0;
+        for (Long warehouseId : removed) {
+            Cell cell = cells.remove(warehouseId);
+            if (cell == null) {
+                continue;
+            }
+            for (Long pointId : HilbertCurve.sort(cell.members, id -> entries.get(id).lat, id -> entries.get(id).lng)) {
+                assignNearest(pointId, entries.get(pointId));
+                recomputed++;
+            }
+        }
+
+        // Points of other cells can only move into a new cell if they lie beyond the bisector bound.
+        // Added sites are applied one at a time and each scans the cells of those added before
+        // it, so a point taken by one new site is still compared with the next.
+        for (WarehouseSite site : added) {
+            for (Map.Entry<Long, Cell> neighbour : new ArrayList<>(cells.entrySet())) {
+                if (neighbour.getKey().equals(site.id())) {
+                    continue;
+                }
+                WarehouseSite owner = current.get(neighbour.getKey());
+                Cell cell = neighbour.getValue();
+                double bound = DistanceCalculator.calculateDistance(owner.lat(), owner.lng(), site.lat(), site.lng()) / 2.0;
+                if (cell.radiusKm <= bound) {
+                    continue;
+                }
+                recomputed += steal(cell, site, bound);
+            }
+        }
+
+        log.debug("Updated {} warehouse assignments: {} warehouses added or moved, {} removed or moved, {} points recomputed",
+                  name, added.size(), removed.size(), recomputed);
+    }
+
+    /**
+     * Move points of the cell that are closer to the new site, and tighten the cell radius.
+     *
+     * @return number of points whose distance was recomputed
+     */
+    private int steal(Cell cell, WarehouseSite site, double bound) {
+        int recomputed = 0;
+        double radius = 0.0;
+        Iterator<Long> members = cell.members.iterator();
+        while (members.hasNext()) {
+            Long pointId = members.next();
+            Entry entry = entries.get(pointId);
+            if (entry.distanceKm > bound) {
+                recomputed++;
+                double distance = DistanceCalculator.calculateDistance(entry.lat, entry.lng, site.lat(), site.lng());
+                if (distance < entry.distanceKm) {
+                    members.remove();
+                    entry.warehouse = site;
+                    entry.distanceKm = distance;
+                    addToCell(pointId, entry);
+                    continue;
+                }
+            }
+            radius = Math.max(radius, entry.distanceKm);
+        }
+        cell.radiusKm = radius;
+        return recomputed;
+    }
+
+    private void relabel(WarehouseSite site) {
+        Cell cell = cells.get(site.id());
+        if (cell != null) {
+            cell.members.forEach(pointId -> entries.get(pointId).warehouse = site);
+        }
+    }
+
+    private void assignNearest(Long pointId, Entry entry) {
+        Optional<Neighbor<WarehouseSite>> nearest = tree.nearest(entry.lat, entry.lng);
+        entry.warehouse = nearest.map(Neighbor::item).orElse(null);
+        entry.distanceKm = nearest.map(Neighbor::distanceKm).orElse(Double.NaN);
+        if (entry.warehouse != null) {
+            addToCell(pointId, entry);
+        }
+    }
+
+    private void addToCell(Long pointId, Entry entry) {
+        Cell cell = cells.computeIfAbsent(entry.warehouse.id(), id -> new Cell());
+        cell.members.add(pointId);
+        cell.radiusKm = Math.max(cell.radiusKm, entry.distanceKm);
+    }
+
+    private void unassign(Long pointId) {
+        Entry entry = entries.get(pointId);
+        if (entry == null || entry.warehouse == null) {
+            return;
+        }
+        Cell cell = cells.get(entry.warehouse.id());
+        if (cell != null) {
+            cell.members.remove(pointId);
+            if (cell.members.isEmpty()) {
+                cells.remove(entry.warehouse.id());
+            }
+        }
+    }
+
+    /**
+     * A point to assign, keyed by its internal ID.
+     */
+    record Point(Long id, double lat, double lng) {
+    }
+
+    private static final class Entry {
+        final double lat;
+        final double lng;
+        WarehouseSite warehouse;
+        double distanceKm;
+
+        Entry(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    /**
+     * Points assigned to one warehouse. The radius is an upper bound on their distance
+     * to it; it is tightened whenever the cell is scanned.
+     */
+    private static final class Cell {
+        final Set<Long> members = new HashSet<>();
+        double radiusKm;
+    }
+}
@@ -0,0 +1,152 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.spatial.GeoHash;
+import com.jumbotail.shipping.spatial.GeoHashGrid;
+import com.jumbotail.shipping.spatial.Neighbor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Geohash-cell index of active customer locations.
+ *
+ * Loaded from the customers table on first use and then maintained incrementally by
+ * {@link CustomerIndexListener} as customers are inserted, updated or deleted. A rolled-back
+ * transaction forces a full reload on the next query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerGeoIndex {
+
+    // 30 bits: cells of roughly 1.2 km x 0.6 km at the equator
+    private static final int STORAGE_BITS = 30;
+
+    private final CustomerRepository customerRepository;
+
+    private final IndexVersion version = new IndexVersion();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final GeoHashGrid<Long, CustomerSite> grid = new GeoHashGrid<>(STORAGE_BITS);
+    private volatile long loadedVersion = -1;
+
+    /**
+     * Find every active customer within a great-circle radius.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param radiusKm search radius in kilometers
+     * @return matching customers, nearest first
+     */
+    public List<Neighbor<CustomerSite>> findWithin(double lat, double lng, double radiusKm) {
+        return read(g -> g.within(lat, lng, radiusKm));
+    }
+
+    /**
+     * Find every active customer inside a latitude/longitude box.
+     *
+     * @return matching customers, in no particular order
+     */
+    public List<CustomerSite> findInBoundingBox(double minLat, double minLng, double maxLat, double maxLng) {
+        return read(g -> g.inBoundingBox(minLat, minLng, maxLat, maxLng));
+    }
+
+    /**
+     * @return every geohash cell holding at least one customer, in ascending key order
+     */
+    public long[] occupiedCells() {
+        return read(GeoHashGrid::cells);
+    }
+
+    /**
+     * @return geohash cell a coordinate falls in, at the precision of {@link #occupiedCells()}
+     */
+    public static long cellOf(double lat, double lng) {
+        return GeoHash.encode(lat, lng, STORAGE_BITS);
+    }
+
+    public static int cellBits() {
+        return STORAGE_BITS;
+    }
+
+    /**
+     * @return number of indexed customers
+     */
+    public int size() {
+        return read(GeoHashGrid::size);
+    }
+
+    /**
+     * Apply an inserted or updated customer. Inactive customers and customers without a
+     * usable location are dropped from the index.
+     */
+    public void upsert(Customer customer) {
+        write(() -> {
+            if (CustomerSite.isIndexable(customer)) {
+                CustomerSite site = CustomerSite.of(customer);
+                grid.put(site.id(), site, site.lat(), site.lng());
+            } else {
+                grid.remove(customer.getId());
+            }
+        });
+    }
+
+    public void remove(Long customerId) {
+        write(() -> grid.remove(customerId));
+    }
+
+    private <R> R read(Function<GeoHashGrid<Long, CustomerSite>, R> query) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return query.apply(grid);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loadedVersion != version.get()) {
+                // Not loaded yet: the next load reads this change from the table
+                version.bump();
+                return;
+            }
+            change.run();
+            version.bumpOnRollback();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loadedVersion == version.get()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long target = version.get();
+            if (loadedVersion == target) {
+                return;
+            }
+            grid.clear();
+            for (Customer customer : customerRepository.findByActiveTrue()) {
+                if (CustomerSite.isIndexable(customer)) {
+                    CustomerSite site = CustomerSite.of(customer);
+                    grid.put(site.id(), site, site.lat(), site.lng());
+                }
+            }
+            loadedVersion = target;
+            log.debug("Loaded customer geo index with {} customers", grid.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
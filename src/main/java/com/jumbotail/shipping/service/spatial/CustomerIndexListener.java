@@ -0,0 +1,38 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that applies customer inserts, updates and deletes to the
+ * customer geohash index, the warehouse assignment table and the distance matrix as they
+ * are flushed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerIndexListener {
+
+    private final ObjectProvider<CustomerGeoIndex> geoIndex;
+    private final ObjectProvider<WarehouseAssignmentIndex> assignmentIndex;
+    private final ObjectProvider<DistanceMatrixStore> distanceMatrix;
+
+    @PostPersist
+    @PostUpdate
+    public void onCustomerSaved(Customer customer) {
+        geoIndex.ifAvailable(index -> index.upsert(customer));
+        assignmentIndex.ifAvailable(index -> index.upsertCustomer(customer));
+        distanceMatrix.ifAvailable(matrix -> matrix.upsertCustomer(customer));
+    }
+
+    @PostRemove
+    public void onCustomerRemoved(Customer customer) {
+        geoIndex.ifAvailable(index -> index.remove(customer.getId()));
+        assignmentIndex.ifAvailable(index -> index.removeCustomer(customer.getId()));
+        distanceMatrix.ifAvailable(matrix -> matrix.removeCustomer(customer.getId()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+
+/**
+ * Immutable snapshot of the customer fields the spatial indexes need.
+ *
+ * @param id internal primary key
+ * @param customerId external customer ID
+ * @param lat latitude in degrees
+ * @param lng longitude in degrees
+ */
+public record CustomerSite(Long id, String customerId, double lat, double lng) {
+
+    static CustomerSite of(Customer customer) {
+        return new CustomerSite(customer.getId(), customer.getCustomerId(),
+                customer.getLocation().getLat(), customer.getLocation().getLng());
+    }
+
+    static boolean isIndexable(Customer customer) {
+        return Boolean.TRUE.equals(customer.getActive()) && customer.getLocation() != null
+                && customer.getLocation().getLat() != null && customer.getLocation().getLng() != null;
+    }
+}
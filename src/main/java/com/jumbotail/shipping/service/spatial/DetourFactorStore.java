@@ -0,0 +1,144 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.routing.DetourFactorTable;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Road detour factors learned from Google Distance Matrix answers, per pair of geohash
+ * cells, so that regions Google has answered consistently can be estimated locally as
+ * great-circle distance x factor instead of calling the API again.
+ *
+ * An estimate is given only once a cell pair has {@code min-samples} samples and the 95 %
+ * prediction interval of a single ratio is within {@code max-relative-error} of the
+ * mean, so scattered regions (rivers, ghats, sparse road grids) keep going to Google.
+ * Hops under {@link #MIN_LEARN_KM} are neither learned nor estimated, since access roads
+ * dominate their ratio. One in every {@code refresh-every} confident lookups is still sent
+ * to Google, so a learned region keeps tracking new roads and closures.
+ *
+ * The table is read from its file on first use and written back every
+ * {@code flush-every} samples and on shutdown.
+ */
+@Component
+@Slf4j
+public class DetourFactorStore {
+
+    public static final double MIN_LEARN_KM = 1.0;
+
+    // Ratios outside this range are geocoding errors, ferries or detours around closures
+    private static final double MIN_RATIO = 0.95;
+    private static final double MAX_RATIO = 5.0;
+
+    private final boolean enabled;
+    private final Path path;
+    private final int cellBits;
+    private final int minSamples;
+    private final double maxRelativeError;
+    private final int flushEvery;
+    private final int refreshEvery;
+
+    private DetourFactorTable table;
+    private int unflushed;
+    private long confidentLookups;
+
+    public DetourFactorStore(@Value("${shipping.detour-factor.enabled:true}") boolean enabled,
+                             @Value("${shipping.detour-factor.path:data/detour-factors.bin}") String path,
+                             @Value("${shipping.detour-factor.cell-bits:20}") int cellBits,
+                             @Value("${shipping.detour-factor.min-samples:30}") int minSamples,
+                             @Value("${shipping.detour-factor.max-relative-error:0.15}") double maxRelativeError,
+                             @Value("${shipping.detour-factor.flush-every:100}") int flushEvery,
+                             @Value("${shipping.detour-factor.refresh-every:50}") int refreshEvery) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.cellBits = cellBits;
+        this.minSamples = minSamples;
+        this.maxRelativeError = maxRelativeError;
+        this.flushEvery = Math.max(1, flushEvery);
+        this.refreshEvery = refreshEvery;
+    }
+
+    /**
+     * @return learned estimate for the pair's cells, or empty if the pair is too short, its
+     *         cells are not yet known with enough confidence, or this lookup is a refresh
+     */
+    public synchronized Optional<DetourFactorTable.Estimate> estimate(double srcLat, double srcLng,
+                                                                      double destLat, double destLng) {
+        if (!enabled || DistanceCalculator.calculateDistance(srcLat, srcLng, destLat, destLng) < MIN_LEARN_KM) {
+            return Optional.empty();
+        }
+        DetourFactorTable loaded = table();
+        DetourFactorTable.Estimate estimate =
+                loaded.estimate(loaded.pairKey(srcLat, srcLng, destLat, destLng), minSamples, maxRelativeError);
+        if (estimate == null || (refreshEvery > 0 && ++confidentLookups % refreshEvery == 0)) {
+            return Optional.empty();
+        }
+        return Optional.of(estimate);
+    }
+
+    /**
+     * Learn from one road distance returned by Google.
+     *
+     * @param roadKm road distance
+     * @param durationMinutes road travel time
+     */
+    public synchronized void record(double srcLat, double srcLng, double destLat, double destLng,
+                                    double roadKm, double durationMinutes) {
+        if (!enabled) {
+            return;
+        }
+        double greatCircleKm = DistanceCalculator.calculateDistance(srcLat, srcLng, destLat, destLng);
+        double ratio = roadKm / greatCircleKm;
+        if (greatCircleKm < MIN_LEARN_KM || !(ratio >= MIN_RATIO && ratio <= MAX_RATIO)) {
+            return;
+        }
+        DetourFactorTable loaded = table();
+        loaded.record(loaded.pairKey(srcLat, srcLng, destLat, destLng), ratio, durationMinutes * 60 / roadKm);
+        if (++unflushed >= flushEvery) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        if (table == null || unflushed == 0) {
+            return;
+        }
+        try {
+            table.write(path);
+            unflushed = 0;
+        } catch (IOException e) {
+            log.warn("Could not write detour factors to {}: {}", path, e.toString());
+        }
+    }
+
+    private DetourFactorTable table() {
+        if (table == null) {
+            table = load();
+        }
+        return table;
+    }
+
+    private DetourFactorTable load() {
+        if (Files.exists(path)) {
+            try {
+                DetourFactorTable read = DetourFactorTable.read(path);
+                if (read.cellBits() == cellBits) {
+                    log.info("Loaded detour factors for {} cell pairs from {}", read.size(), path);
+                    return read;
+                }
+                log.info("Detour factors in {} use {}-bit cells, not {}; starting afresh", path, read.cellBits(), cellBits);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable detour factors {}: {}", path, e.getMessage());
+            }
+        }
+        return new DetourFactorTable(cellBits);
+    }
+}
@@ -0,0 +1,510 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.spatial.MappedDistanceMatrix;
+import com.jumbotail.shipping.util.BatchDistanceCalculator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Precomputed warehouse-to-customer distances for every active warehouse and customer, kept
+ * in a {@link MappedDistanceMatrix} so the cells stay off the Java heap and survive restarts.
+ *
+ * Warehouses are rows and customers are columns, each given a dense slot on first sight.
+ * A lookup is two hash probes for the slots and a single off-heap load for the distance,
+ * which is stored in whole metres (so within 0.5 m of the Haversine distance).
+ *
+ * The file is opened on first use and reconciled with the tables on a background thread:
+ * slots whose owner is gone are freed, and only owners that are new or have moved since the
+ * file was written are recomputed, one row or column at a time. Lookups are served from the
+ * file meanwhile. After that, warehouse and customer changes are applied as they are flushed
+ * (see {@link WarehouseIndexListener} and {@link CustomerIndexListener}), and a rolled-back
+ * transaction starts another background reconcile. After an unclean shutdown every cell is
+ * recomputed.
+ *
+ * A lookup misses, and callers compute the distance themselves, when either side is not in
+ * the matrix or is still waiting to be recomputed, the caller's coordinates differ from the
+ * ones the cell was computed for, the file has reached its size limit, or the store is
+ * disabled or could not open its file.
+ */
+@Component
+@Slf4j
+public class DistanceMatrixStore {
+
+    private static final int INITIAL_ROWS = 64;
+    private static final int INITIAL_COLS = 1024;
+
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final CustomerRepository customerRepository;
+    private final boolean enabled;
+    private final Path path;
+
+    private final IndexVersion version = new IndexVersion();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Slots rows = new Slots();
+    private final Slots cols = new Slots();
+    private MappedDistanceMatrix matrix;
+    private boolean unavailable;
+    private boolean fullWarned;
+    private volatile long loadedVersion = -1;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    // Runs reconciles off the request path, on a daemon thread of its own
+    private Executor reconciler = task -> {
+        Thread thread = new Thread(task, "distance-matrix-reconciler");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    public DistanceMatrixStore(WarehouseSpatialIndex warehouseSpatialIndex,
+                               CustomerRepository customerRepository,
+                               @Value("${shipping.distance-matrix.enabled:true}") boolean enabled,
+                               @Value("${shipping.distance-matrix.path:data/distance-matrix.bin}") String path) {
+        this.warehouseSpatialIndex = warehouseSpatialIndex;
+        this.customerRepository = customerRepository;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+    }
+
+    /**
+     * @param warehouse warehouse entity
+     * @param customer customer entity
+     * @return distance in kilometers from the warehouse to the customer, or empty if the
+     *         pair is not in the matrix
+     */
+    public OptionalDouble find(Warehouse warehouse, Customer customer) {
+        if (!enabled) {
+            return OptionalDouble.empty();
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            if (matrix == null) {
+                return OptionalDouble.empty();
+            }
+            int row = rows.slotOf(warehouse.getId(), warehouse.getLocation());
+            int col = cols.slotOf(customer.getId(), customer.getLocation());
+            if (row < 0 || col < 0 || rows.dirty.get(row) || cols.dirty.get(col)) {
+                return OptionalDouble.empty();
+            }
+            int metres = matrix.get(row, col);
+            return metres == MappedDistanceMatrix.UNKNOWN ? OptionalDouble.empty() : OptionalDouble.of(metres / 1000.0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply an inserted or updated warehouse. Inactive warehouses and warehouses without a
+     * usable location are dropped from the matrix.
+     */
+    public void upsertWarehouse(Warehouse warehouse) {
+        write(() -> {
+            if (isIndexable(warehouse)) {
+                int row = assignRow(warehouse.getId(), warehouse.getLocation().getLat(), warehouse.getLocation().getLng());
+                if (row >= 0) {
+                    computeRow(row);
+                }
+            } else {
+                freeRow(warehouse.getId());
+            }
+        });
+    }
+
+    public void removeWarehouse(Long warehouseId) {
+        write(() -> freeRow(warehouseId));
+    }
+
+    /**
+     * Apply an inserted or updated customer. Inactive customers and customers without a
+     * usable location are dropped from the matrix.
+     */
+    public void upsertCustomer(Customer customer) {
+        write(() -> {
+            if (CustomerSite.isIndexable(customer)) {
+                int col = assignCol(customer.getId(), customer.getLocation().getLat(), customer.getLocation().getLng());
+                if (col >= 0) {
+                    computeCol(col);
+                }
+            } else {
+                freeCol(customer.getId());
+            }
+        });
+    }
+
+    public void removeCustomer(Long customerId) {
+        write(() -> freeCol(customerId));
+    }
+
+    /**
+     * Flush the matrix and mark the file cleanly closed.
+     */
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (matrix != null) {
+                matrix.close();
+                matrix = null;
+            }
+        } catch (IOException e) {
+            log.warn("Could not close distance matrix {}: {}", path, e.toString());
+        } finally {
+            loadedVersion = -1;
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loadedVersion != version.get() || matrix == null) {
+                // Not loaded yet: the next load reconciles this change from the tables
+                version.bump();
+                return;
+            }
+            change.run();
+            version.bumpOnRollback();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Open the file if this is the first use, and start a background reconcile if the
+     * tables have changed since the last one.
+     */
+    private void ensureLoaded() {
+        if (loadedVersion == version.get()) {
+            return;
+        }
+        if (matrix == null && !unavailable) {
+            lock.writeLock().lock();
+            try {
+                if (matrix == null && !unavailable) {
+                    open();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (reconciling.compareAndSet(false, true)) {
+            reconciler.execute(() -> {
+                try {
+                    reconcile();
+                } catch (RuntimeException e) {
+                    log.warn("Could not reconcile distance matrix {}: {}", path, e.toString());
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        }
+    }
+
+    private void open() {
+        try {
+            matrix = MappedDistanceMatrix.open(path, INITIAL_ROWS, INITIAL_COLS);
+        } catch (IOException e) {
+            log.warn("Distance matrix {} unavailable, distances will be computed per request: {}", path, e.toString());
+            unavailable = true;
+            return;
+        }
+        boolean clean = matrix.wasCleanlyClosed();
+        matrix.markOpen();
+        rows.load(matrix.rowCapacity(), matrix::rowId, matrix::rowLat, matrix::rowLng);
+        cols.load(matrix.colCapacity(), matrix::colId, matrix::colLat, matrix::colLng);
+        if (!clean) {
+            // New file, or the last run crashed mid-write: keep the slots, recompute every cell
+            rows.markAllDirty();
+        }
+        log.info("Opened distance matrix {} with {} warehouses x {} customers", path, rows.size(), cols.size());
+    }
+
+    /**
+     * Bring the slots in line with the active warehouses and customers, recomputing only the
+     * rows and columns whose owner is new or has moved. The tables are read and the cells
+     * recomputed without holding the lock for the whole pass, so lookups keep being served;
+     * changes flushed meanwhile bump the version and are picked up by the next reconcile.
+     */
+    private void reconcile() {
+        long target = version.get();
+        Map<Long, WarehouseSite> warehouses = warehouseSpatialIndex.sitesById();
+        Map<Long, Customer> customers = new HashMap<>();
+        for (Customer customer : customerRepository.findByActiveTrue()) {
+            if (CustomerSite.isIndexable(customer)) {
+                customers.put(customer.getId(), customer);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (matrix == null) {
+                loadedVersion = target;
+                return;
+            }
+            rows.retainOnly(warehouses::containsKey, row -> matrix.setRow(row, 0L, 0.0, 0.0));
+            for (WarehouseSite site : warehouses.values()) {
+                assignRow(site.id(), site.lat(), site.lng());
+            }
+            cols.retainOnly(customers::containsKey, col -> matrix.setCol(col, 0L, 0.0, 0.0));
+            for (Customer customer : customers.values()) {
+                assignCol(customer.getId(), customer.getLocation().getLat(), customer.getLocation().getLng());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int recomputedRows = recomputeDirty(rows, this::computeRow);
+        int recomputedCols = recomputeDirty(cols, this::computeCol);
+        loadedVersion = target;
+        log.debug("Reconciled distance matrix: {} warehouses, {} customers, recomputed {} rows and {} columns",
+                rows.size(), cols.size(), recomputedRows, recomputedCols);
+    }
+
+    /**
+     * Recompute the dirty slots of one axis, taking the lock for one slot at a time.
+     *
+     * @return slots recomputed
+     */
+    private int recomputeDirty(Slots slots, IntConsumer compute) {
+        int recomputed = 0;
+        while (true) {
+            lock.writeLock().lock();
+            try {
+                int slot = slots.dirty.nextSetBit(0);
+                if (matrix == null || slot < 0) {
+                    return recomputed;
+                }
+                compute.accept(slot);
+                recomputed++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the warehouse's row, marked dirty if new or moved; -1 if the matrix is full
+     */
+    private int assignRow(Long id, double lat, double lng) {
+        if (rows.isFullFor(id) && !grow(rows.capacity() * 2, cols.capacity())) {
+            return -1;
+        }
+        int row = rows.assign(id, lat, lng);
+        matrix.setRow(row, id, lat, lng);
+        return row;
+    }
+
+    /**
+     * @return the customer's column, marked dirty if new or moved; -1 if the matrix is full
+     */
+    private int assignCol(Long id, double lat, double lng) {
+        if (cols.isFullFor(id) && !grow(rows.capacity(), cols.capacity() * 2)) {
+            return -1;
+        }
+        int col = cols.assign(id, lat, lng);
+        matrix.setCol(col, id, lat, lng);
+        return col;
+    }
+
+    private void freeRow(Long id) {
+        int row = rows.free(id);
+        if (row >= 0) {
+            matrix.setRow(row, 0L, 0.0, 0.0);
+        }
+    }
+
+    private void freeCol(Long id) {
+        int col = cols.free(id);
+        if (col >= 0) {
+            matrix.setCol(col, 0L, 0.0, 0.0);
+        }
+    }
+
+    private boolean grow(int rowCapacity, int colCapacity) {
+        try {
+            if (matrix.ensureCapacity(rowCapacity, colCapacity)) {
+                rows.resize(matrix.rowCapacity());
+                cols.resize(matrix.colCapacity());
+                return true;
+            }
+        } catch (IOException e) {
+            log.warn("Could not grow distance matrix {}: {}", path, e.toString());
+            return false;
+        }
+        if (!fullWarned) {
+            log.warn("Distance matrix {} is at its size limit; new warehouses and customers are computed per request", path);
+            fullWarned = true;
+        }
+        return false;
+    }
+
+    private void computeRow(int row) {
+        double[] distances = new double[cols.capacity()];
+        BatchDistanceCalculator.distancesFrom(rows.lats[row], rows.lngs[row], cols.lats, cols.lngs, distances);
+        int[] metres = new int[distances.length];
+        for (int col = 0; col < metres.length; col++) {
+            metres[col] = cols.ids[col] != 0 ? (int) Math.round(distances[col] * 1000.0) : MappedDistanceMatrix.UNKNOWN;
+        }
+        matrix.putRow(row, metres);
+        rows.dirty.clear(row);
+    }
+
+    private void computeCol(int col) {
+        double[] distances = new double[rows.capacity()];
+        BatchDistanceCalculator.distancesFrom(cols.lats[col], cols.lngs[col], rows.lats, rows.lngs, distances);
+        for (int row = 0; row < distances.length; row++) {
+            if (rows.ids[row] != 0) {
+                matrix.put(row, col, (int) Math.round(distances[row] * 1000.0));
+            }
+        }
+        cols.dirty.clear(col);
+    }
+
+    private static boolean isIndexable(Warehouse warehouse) {
+        return Boolean.TRUE.equals(warehouse.getActive()) && warehouse.getLocation() != null
+                && warehouse.getLocation().getLat() != null && warehouse.getLocation().getLng() != null;
+    }
+
+    /**
+     * On-heap mirror of one axis of the matrix: owner ID to dense slot, plus the coordinates
+     * the slot was computed for, laid out as primitive arrays for the batch kernel.
+     */
+    private static final class Slots {
+
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+        private final BitSet dirty = new BitSet();
+        private long[] ids = new long[0];
+        private double[] lats = new double[0];
+        private double[] lngs = new double[0];
+        private int used;
+
+        void load(int capacity, IntToLongFunction id, IntToDoubleFunction lat, IntToDoubleFunction lng) {
+            resize(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                ids[slot] = id.applyAsLong(slot);
+                lats[slot] = lat.applyAsDouble(slot);
+                lngs[slot] = lng.applyAsDouble(slot);
+                if (ids[slot] != 0) {
+                    slotById.put(ids[slot], slot);
+                    used = slot + 1;
+                }
+            }
+            for (int slot = used - 1; slot >= 0; slot--) {
+                if (ids[slot] == 0) {
+                    freeSlots.push(slot);
+                }
+            }
+        }
+
+        int size() {
+            return slotById.size();
+        }
+
+        int capacity() {
+            return ids.length;
+        }
+
+        /**
+         * @return slot holding the owner at exactly this coordinate, or -1
+         */
+        int slotOf(Long id, Location location) {
+            Integer slot = slotById.get(id);
+            if (slot == null || location == null || location.getLat() == null || location.getLng() == null
+                    || lats[slot] != location.getLat() || lngs[slot] != location.getLng()) {
+                return -1;
+            }
+            return slot;
+        }
+
+        /**
+         * @return true if assigning the owner needs a slot past the current capacity
+         */
+        boolean isFullFor(Long id) {
+            return !slotById.containsKey(id) && freeSlots.isEmpty() && used == ids.length;
+        }
+
+        /**
+         * Find or allocate the owner's slot and record its coordinate, marking the slot dirty
+         * if it is new or the coordinate changed.
+         */
+        int assign(Long id, double lat, double lng) {
+            Integer existing = slotById.get(id);
+            if (existing != null && lats[existing] == lat && lngs[existing] == lng) {
+                return existing;
+            }
+            int slot = existing != null ? existing : freeSlots.isEmpty() ? used++ : freeSlots.pop();
+            slotById.put(id, slot);
+            ids[slot] = id;
+            lats[slot] = lat;
+            lngs[slot] = lng;
+            dirty.set(slot);
+            return slot;
+        }
+
+        /**
+         * @return the freed slot, or -1 if the owner had none
+         */
+        int free(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return -1;
+            }
+            ids[slot] = 0;
+            lats[slot] = 0.0;
+            lngs[slot] = 0.0;
+            dirty.clear(slot);
+            freeSlots.push(slot);
+            return slot;
+        }
+
+        /**
+         * Free the slot of every owner the predicate rejects.
+         */
+        void retainOnly(Predicate<Long> keep, IntConsumer onFreed) {
+            for (Long id : List.copyOf(slotById.keySet())) {
+                if (!keep.test(id)) {
+                    onFreed.accept(free(id));
+                }
+            }
+        }
+
+        void markAllDirty() {
+            slotById.values().forEach(dirty::set);
+        }
+
+        void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            lats = Arrays.copyOf(lats, capacity);
+            lngs = Arrays.copyOf(lngs, capacity);
+        }
+    }
+}
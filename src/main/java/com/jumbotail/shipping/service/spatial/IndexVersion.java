@@ -0,0 +1,56 @@
+package com.jumbotail.shipping.service.spatial;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic change counter shared by the lazily rebuilt in-memory indexes.
+ *
+ * An index snapshot is valid only for the version it was built from. Bumping the
+ * version inside a transaction bumps it again once the transaction completes, so a
+ * snapshot that saw uncommitted rows never outlives a rollback. Incrementally maintained
+ * indexes use {@link #bumpOnRollback()} instead, since their in-memory edits are already
+ * correct once the transaction commits.
+ */
+public class IndexVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long get() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(IndexVersion.this);
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Bump the version only if the surrounding transaction rolls back. Outside a transaction
+     * this does nothing.
+     */
+    public void bumpOnRollback() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        version.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+}
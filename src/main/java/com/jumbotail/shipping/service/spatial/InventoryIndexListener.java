@@ -0,0 +1,31 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.WarehouseInventory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that applies inventory row writes to the warehouse stock index as
+ * they are flushed.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryIndexListener {
+
+    private final ObjectProvider<WarehouseStockIndex> stockIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onInventorySaved(WarehouseInventory inventory) {
+        stockIndex.ifAvailable(index -> index.upsert(inventory));
+    }
+
+    @PostRemove
+    public void onInventoryRemoved(WarehouseInventory inventory) {
+        stockIndex.ifAvailable(index -> index.remove(inventory));
+    }
+}
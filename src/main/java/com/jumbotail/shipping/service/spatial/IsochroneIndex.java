@@ -0,0 +1,217 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.spatial.GeoHash;
+import com.jumbotail.shipping.strategy.DeliverySpeed;
+import com.jumbotail.shipping.strategy.TransportMode;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precomputed delivery isochrones: for every active warehouse, transport mode and delivery
+ * speed, the set of geohash cells holding customers to which a delivery from the warehouse
+ * to the cell centre uses that mode and meets the speed's SLA.
+ *
+ * "Can this warehouse deliver express here?" then costs one binary search for the cell and
+ * one probe per mode. Delivery time uses {@link DeliverySpeed#estimateDeliveryHours},
+ * the same estimate order quotes use, and the mode is the one
+ * {@link TransportMode#getTransportMode} picks for the distance. Because a cell is judged
+ * by its centre, an answer can differ from a full estimate for points within about 0.7 km
+ * of an SLA or mode boundary.
+ *
+ * A cell has exactly one mode per warehouse, so most sets are small: a set holding under
+ * one cell in 32 is kept as a sorted index list, the rest as bitmaps.
+ *
+ * The sets are rebuilt on a background thread when the warehouse set changes, or once
+ * enough lookups fall in cells that held no customer at build time. Until the rebuild
+ * lands lookups are served from the previous build, and warehouses added or moved since
+ * then, like points in unindexed cells, are evaluated directly. A rebuild reuses the sets
+ * of warehouses that have not moved if the customer cells are unchanged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IsochroneIndex {
+
+    private static final TransportMode[] MODES = TransportMode.values();
+    private static final DeliverySpeed[] SPEEDS = DeliverySpeed.values();
+    private static final int MIN_MISSES_BEFORE_REBUILD = 64;
+
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+    private final CustomerGeoIndex customerGeoIndex;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    // Runs rebuilds off the checkout path, on a daemon thread of its own
+    private Executor builder = task -> {
+        Thread thread = new Thread(task, "isochrone-builder");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param speed delivery speed
+     * @return transport mode that meets the speed's SLA from the warehouse to the point, or
+     *         null if the SLA cannot be met or the warehouse is not indexed
+     */
+    public TransportMode reachableMode(Long warehouseId, double lat, double lng, DeliverySpeed speed) {
+        WarehouseSite site = warehouseSpatialIndex.sitesById().get(warehouseId);
+        if (site == null) {
+            return null;
+        }
+        Snapshot current = current();
+        if (current == null || !site.equals(current.sites.get(warehouseId))) {
+            return evaluate(site, lat, lng, speed);
+        }
+        int cell = Arrays.binarySearch(current.cells, CustomerGeoIndex.cellOf(lat, lng));
+        if (cell < 0) {
+            current.misses.incrementAndGet();
+            return evaluate(site, lat, lng, speed);
+        }
+        CellSet[] reach = current.reach.get(warehouseId);
+        for (TransportMode mode : MODES) {
+            if (reach[slot(mode, speed)].contains(cell)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param speed delivery speed
+     * @return true if the warehouse can meet the speed's SLA at the point
+     */
+    public boolean isReachable(Long warehouseId, double lat, double lng, DeliverySpeed speed) {
+        return reachableMode(warehouseId, lat, lng, speed) != null;
+    }
+
+    /**
+     * @return the latest build, after starting a rebuild if it is stale; null before the
+     *         first build lands
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current) || !rebuilding.compareAndSet(false, true)) {
+            return current;
+        }
+        builder.execute(() -> {
+            try {
+                snapshot = buildSnapshot(snapshot);
+            } catch (RuntimeException e) {
+                log.warn("Isochrone index rebuild failed, serving the previous build: {}", e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return snapshot;
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null
+                && current.sites == warehouseSpatialIndex.sitesById()
+                && current.misses.get() < Math.max(MIN_MISSES_BEFORE_REBUILD, current.cells.length / 10);
+    }
+
+    private Snapshot buildSnapshot(Snapshot previous) {
+        Map<Long, WarehouseSite> sites = warehouseSpatialIndex.sitesById();
+        long[] cells = customerGeoIndex.occupiedCells();
+        boolean sameCells = previous != null && Arrays.equals(previous.cells, cells);
+        int bits = CustomerGeoIndex.cellBits();
+        double[] lats = new double[cells.length];
+        double[] lngs = new double[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            lats[i] = GeoHash.centerLat(cells[i], bits);
+            lngs[i] = GeoHash.centerLng(cells[i], bits);
+        }
+
+        Map<Long, CellSet[]> reach = new HashMap<>();
+        BitSet[] scratch = new BitSet[MODES.length * SPEEDS.length];
+        for (int s = 0; s < scratch.length; s++) {
+            scratch[s] = new BitSet(cells.length);
+        }
+        int reused = 0;
+        for (WarehouseSite site : sites.values()) {
+            if (sameCells && site.equals(previous.sites.get(site.id()))) {
+                reach.put(site.id(), previous.reach.get(site.id()));
+                reused++;
+                continue;
+            }
+            for (int i = 0; i < cells.length; i++) {
+                double distance = DistanceCalculator.calculateDistance(site.lat(), site.lng(), lats[i], lngs[i]);
+                TransportMode mode = TransportMode.getTransportMode(distance);
+                for (DeliverySpeed speed : SPEEDS) {
+                    if (speed.estimateDeliveryHours(distance, mode) <= speed.getSlaHours()) {
+                        scratch[slot(mode, speed)].set(i);
+                    }
+                }
+            }
+            CellSet[] slots = new CellSet[scratch.length];
+            for (int s = 0; s < scratch.length; s++) {
+                slots[s] = CellSet.of(scratch[s], cells.length);
+                scratch[s].clear();
+            }
+            reach.put(site.id(), slots);
+        }
+
+        log.debug("Rebuilt isochrone index for {} warehouses ({} reused) over {} customer cells",
+                sites.size(), reused, cells.length);
+        return new Snapshot(sites, cells, Collections.unmodifiableMap(reach), new AtomicInteger());
+    }
+
+    private static TransportMode evaluate(WarehouseSite site, double lat, double lng, DeliverySpeed speed) {
+        double distance = DistanceCalculator.calculateDistance(site.lat(), site.lng(), lat, lng);
+        TransportMode mode = TransportMode.getTransportMode(distance);
+        return speed.estimateDeliveryHours(distance, mode) <= speed.getSlaHours() ? mode : null;
+    }
+
+    private static int slot(TransportMode mode, DeliverySpeed speed) {
+        return mode.ordinal() * SPEEDS.length + speed.ordinal();
+    }
+
+    /**
+     * Cells a warehouse reaches in one slot, as indexes into the snapshot's cells: a sorted
+     * list when there are few, since an int per member beats a bit per cell below one in 32,
+     * and a bitmap trimmed to the last member otherwise.
+     */
+    private record CellSet(int[] members, BitSet bitmap) {
+
+        static CellSet of(BitSet cells, int cellCount) {
+            int count = cells.cardinality();
+            if ((long) count * Integer.SIZE < cellCount) {
+                return new CellSet(cells.stream().toArray(), null);
+            }
+            return new CellSet(null, BitSet.valueOf(cells.toLongArray()));
+        }
+
+        boolean contains(int cell) {
+            return bitmap != null ? bitmap.get(cell) : Arrays.binarySearch(members, cell) >= 0;
+        }
+    }
+
+    /**
+     * @param sites warehouse snapshot the sets were built from, compared by identity
+     * @param cells occupied customer cells in ascending order
+     * @param reach per-warehouse cell sets indexed by {@link #slot}
+     * @param misses lookups that fell outside {@code cells} since the build
+     */
+    private record Snapshot(Map<Long, WarehouseSite> sites, long[] cells,
+                            Map<Long, CellSet[]> reach, AtomicInteger misses) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.routing.RoadRoute;
+import com.jumbotail.shipping.routing.RouteLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Road routes answered by Google, kept on disk across restarts so the same lanes are not
+ * paid for again every day.
+ *
+ * Endpoints are snapped to a grid of {@code snap-metres} cells, so repeat lookups for the
+ * same warehouse and shop hit even when their coordinates wobble by a few metres. Routes
+ * older than {@code max-age-days} are treated as missing so changed roads are picked up.
+ * The log is opened on first use; if it cannot be opened, or was written with another
+ * grid size, it is set aside and a new one is started.
+ */
+@Component
+@Slf4j
+public class RouteCacheStore {
+
+    private final boolean enabled;
+    private final Path path;
+    private final int snapMetres;
+    private final int maxAgeDays;
+
+    private RouteLog routeLog;
+    private boolean unavailable;
+
+    public RouteCacheStore(@Value("${shipping.route-cache.enabled:true}") boolean enabled,
+                           @Value("${shipping.route-cache.path:data/route-cache.log}") String path,
+                           @Value("${shipping.route-cache.snap-metres:50}") int snapMetres,
+                           @Value("${shipping.route-cache.max-age-days:30}") int maxAgeDays) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.snapMetres = snapMetres;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    /**
+     * @return cached route between the points' grid cells, or empty if none is fresh
+     */
+    public synchronized Optional<RoadRoute> get(double srcLat, double srcLng, double destLat, double destLng) {
+        RouteLog cache = routeLog();
+        if (cache == null) {
+            return Optional.empty();
+        }
+        int oldestDay = (int) LocalDate.now().toEpochDay() - maxAgeDays;
+        return Optional.ofNullable(cache.get(srcLat, srcLng, destLat, destLng, oldestDay));
+    }
+
+    /**
+     * Remember a route answered by Google.
+     */
+    public synchronized void put(double srcLat, double srcLng, double destLat, double destLng, RoadRoute route) {
+        RouteLog cache = routeLog();
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.put(srcLat, srcLng, destLat, destLng, route, (int) LocalDate.now().toEpochDay());
+        } catch (IOException e) {
+            log.warn("Could not append to route cache {}: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * @return number of cached lanes, 0 if the cache is disabled or unavailable
+     */
+    public synchronized int size() {
+        RouteLog cache = routeLog();
+        return cache != null ? cache.size() : 0;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (routeLog != null) {
+            try {
+                routeLog.close();
+            } catch (IOException e) {
+                log.warn("Could not close route cache {}: {}", path, e.toString());
+            }
+        }
+    }
+
+    private RouteLog routeLog() {
+        if (routeLog == null && enabled && !unavailable) {
+            routeLog = open();
+            unavailable = routeLog == null;
+        }
+        return routeLog;
+    }
+
+    private RouteLog open() {
+        try {
+            RouteLog opened = RouteLog.open(path, snapMetres);
+            log.info("Loaded {} cached routes from {}", opened.size(), path);
+            return opened;
+        } catch (IOException e) {
+            log.warn("Setting aside unusable route cache {}: {}", path, e.getMessage());
+        }
+        try {
+            Files.move(path, path.resolveSibling(path.getFileName() + ".bad"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            return RouteLog.open(path, snapMetres);
+        } catch (IOException e) {
+            log.error("Route cache {} is unavailable: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
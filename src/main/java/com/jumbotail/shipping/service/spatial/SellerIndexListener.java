@@ -0,0 +1,31 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Seller;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that applies seller inserts, updates and deletes to the
+ * warehouse assignment table as they are flushed.
+ */
+@Component
+@RequiredArgsConstructor
+public class SellerIndexListener {
+
+    private final ObjectProvider<WarehouseAssignmentIndex> assignmentIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSellerSaved(Seller seller) {
+        assignmentIndex.ifAvailable(index -> index.upsertSeller(seller));
+    }
+
+    @PostRemove
+    public void onSellerRemoved(Seller seller) {
+        assignmentIndex.ifAvailable(index -> index.removeSeller(seller.getId()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.ServiceZone;
+import com.jumbotail.shipping.repository.ServiceZoneRepository;
+import com.jumbotail.shipping.spatial.Polygon;
+import com.jumbotail.shipping.spatial.RTree;
+import com.jumbotail.shipping.strategy.TransportMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-warehouse R-trees over active service zone polygons.
+ *
+ * A transport mode is restricted for a warehouse once any zone for that mode (or any
+ * all-mode zone) exists; a restricted mode serves a point only if one of those zones
+ * contains it. Modes without zones stay unrestricted, so warehouses with no zones at all
+ * serve everywhere. The trees are rebuilt lazily after any zone changes
+ * (see {@link ServiceZoneIndexListener}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ServiceZoneIndex {
+
+    private static final Set<TransportMode> ALL_MODES = Collections.unmodifiableSet(EnumSet.allOf(TransportMode.class));
+
+    private final ServiceZoneRepository serviceZoneRepository;
+
+    private final IndexVersion version = new IndexVersion();
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return transport modes the warehouse may use to deliver to the point; empty if none
+     */
+    public Set<TransportMode> serviceableModes(Long warehouseId, double lat, double lng) {
+        WarehouseZones zones = current().byWarehouse.get(warehouseId);
+        if (zones == null) {
+            return ALL_MODES;
+        }
+        EnumSet<TransportMode> modes = EnumSet.allOf(TransportMode.class);
+        modes.removeAll(zones.restrictedModes);
+        zones.tree.search(lat, lng, zone -> {
+            if (!modes.containsAll(zone.modes) && zone.polygon.contains(lat, lng)) {
+                modes.addAll(zone.modes);
+            }
+        });
+        return modes;
+    }
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param mode transport mode
+     * @return true if the warehouse may deliver to the point with the given mode
+     */
+    public boolean isServiceable(Long warehouseId, double lat, double lng, TransportMode mode) {
+        WarehouseZones zones = current().byWarehouse.get(warehouseId);
+        if (zones == null || !zones.restrictedModes.contains(mode)) {
+            return true;
+        }
+        boolean[] found = new boolean[1];
+        zones.tree.search(lat, lng, zone -> {
+            if (!found[0] && zone.modes.contains(mode) && zone.polygon.contains(lat, lng)) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Mark the index stale; it is rebuilt on the next lookup.
+     */
+    public void invalidate() {
+        version.bump();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long target = version.get();
+            if (current == null || current.version != target) {
+                current = buildSnapshot(target);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot buildSnapshot(long target) {
+        Map<Long, List<ZoneShape>> shapesByWarehouse = new HashMap<>();
+        int skipped = 0;
+        for (ServiceZone zone : serviceZoneRepository.findByActiveTrue()) {
+            Polygon polygon = toPolygon(zone);
+            if (polygon == null) {
+                log.warn("Service zone {} has an invalid boundary, skipping", zone.getId());
+                skipped++;
+                continue;
+            }
+            Set<TransportMode> modes = zone.getTransportMode() == null
+                    ? ALL_MODES
+                    : Collections.unmodifiableSet(EnumSet.of(zone.getTransportMode()));
+            shapesByWarehouse.computeIfAbsent(zone.getWarehouseId(), k -> new ArrayList<>())
+                    .add(new ZoneShape(modes, polygon));
+        }
+
+        Map<Long, WarehouseZones> byWarehouse = new HashMap<>();
+        shapesByWarehouse.forEach((warehouseId, shapes) -> {
+            EnumSet<TransportMode> restricted = EnumSet.noneOf(TransportMode.class);
+            shapes.forEach(shape -> restricted.addAll(shape.modes));
+            byWarehouse.put(warehouseId, new WarehouseZones(restricted,
+                    RTree.build(shapes, shape -> shape.polygon.bounds())));
+        });
+
+        log.debug("Rebuilt service zone index for {} warehouses ({} zones skipped)", byWarehouse.size(), skipped);
+        return new Snapshot(target, byWarehouse);
+    }
+
+    private static Polygon toPolygon(ServiceZone zone) {
+        List<Location> boundary = zone.getBoundary();
+        if (boundary == null || boundary.size() < 3) {
+            return null;
+        }
+        double[] lats = new double[boundary.size()];
+        double[] lngs = new double[boundary.size()];
+        for (int i = 0; i < boundary.size(); i++) {
+            Location vertex = boundary.get(i);
+            if (vertex == null || vertex.getLat() == null || vertex.getLng() == null) {
+                return null;
+            }
+            lats[i] = vertex.getLat();
+            lngs[i] = vertex.getLng();
+        }
+        return Polygon.of(lats, lngs);
+    }
+
+    private record ZoneShape(Set<TransportMode> modes, Polygon polygon) {
+    }
+
+    private record WarehouseZones(Set<TransportMode> restrictedModes, RTree<ZoneShape> tree) {
+    }
+
+    private record Snapshot(long version, Map<Long, WarehouseZones> byWarehouse) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.ServiceZone;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that keeps the service zone index in step with the service zones table.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceZoneIndexListener {
+
+    private final ObjectProvider<ServiceZoneIndex> zoneIndex;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onZoneChanged(ServiceZone zone) {
+        zoneIndex.ifAvailable(ServiceZoneIndex::invalidate);
+    }
+}
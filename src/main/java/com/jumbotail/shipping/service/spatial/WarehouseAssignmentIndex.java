@@ -0,0 +1,147 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Seller;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.repository.SellerRepository;
+import com.jumbotail.shipping.spatial.Neighbor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Precomputed nearest-warehouse assignment for every active customer and seller.
+ *
+ * Reads are a hash lookup. Customer and seller changes are applied as they are flushed
+ * (see {@link CustomerIndexListener} and {@link SellerIndexListener}); warehouse changes are
+ * picked up from {@link WarehouseSpatialIndex} on the next read and only revisit the
+ * customers and sellers in the affected cells.
+ */
+@Component
+public class WarehouseAssignmentIndex {
+
+    private final AssignmentTable customers;
+    private final AssignmentTable sellers;
+
+    public WarehouseAssignmentIndex(WarehouseSpatialIndex warehouseSpatialIndex,
+                                    CustomerRepository customerRepository,
+                                    SellerRepository sellerRepository) {
+        this.customers = new AssignmentTable("customer", warehouseSpatialIndex, () -> {
+            List<AssignmentTable.Point> points = new ArrayList<>();
+            for (Customer customer : customerRepository.findByActiveTrue()) {
+                if (CustomerSite.isIndexable(customer)) {
+                    points.add(toPoint(customer.getId(), customer.getLocation()));
+                }
+            }
+            return points;
+        });
+        this.sellers = new AssignmentTable("seller", warehouseSpatialIndex, () -> {
+            List<AssignmentTable.Point> points = new ArrayList<>();
+            for (Seller seller : sellerRepository.findByActiveTrue()) {
+                if (isIndexable(seller)) {
+                    points.add(toPoint(seller.getId(), seller.getLocation()));
+                }
+            }
+            return points;
+        });
+    }
+
+    /**
+     * @param customerId customer internal ID
+     * @return nearest active warehouse and its distance, or empty if the customer is not indexed
+     */
+    public Optional<Neighbor<WarehouseSite>> findCustomerAssignment(Long customerId) {
+        return customers.get(customerId);
+    }
+
+    /**
+     * @param sellerId seller internal ID
+     * @return nearest active warehouse and its distance, or empty if the seller is not indexed
+     */
+    public Optional<Neighbor<WarehouseSite>> findSellerAssignment(Long sellerId) {
+        return sellers.get(sellerId);
+    }
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @return internal IDs of the customers the warehouse is nearest to
+     */
+    public Set<Long> customersAssignedTo(Long warehouseId) {
+        return customers.assignedTo(warehouseId);
+    }
+
+    /**
+     * @param warehouseId warehouse internal ID
+     * @return internal IDs of the sellers the warehouse is nearest to
+     */
+    public Set<Long> sellersAssignedTo(Long warehouseId) {
+        return sellers.assignedTo(warehouseId);
+    }
+
+    /**
+     * Customers assigned to the warehouse before any change not yet applied. Safe to call
+     * from an entity listener, since it never queries the database.
+     *
+     * @param warehouseId warehouse internal ID
+     * @return internal IDs of the customers last assigned to the warehouse
+     */
+    public Set<Long> customersLastAssignedTo(Long warehouseId) {
+        return customers.peekAssignedTo(warehouseId);
+    }
+
+    /**
+     * Sellers assigned to the warehouse before any change not yet applied. Safe to call
+     * from an entity listener, since it never queries the database.
+     *
+     * @param warehouseId warehouse internal ID
+     * @return internal IDs of the sellers last assigned to the warehouse
+     */
+    public Set<Long> sellersLastAssignedTo(Long warehouseId) {
+        return sellers.peekAssignedTo(warehouseId);
+    }
+
+    /**
+     * Apply pending customer, seller and warehouse changes now rather than on the next read.
+     */
+    public void refresh() {
+        customers.refresh();
+        sellers.refresh();
+    }
+
+    public void upsertCustomer(Customer customer) {
+        if (CustomerSite.isIndexable(customer)) {
+            customers.upsert(toPoint(customer.getId(), customer.getLocation()));
+        } else {
+            customers.remove(customer.getId());
+        }
+    }
+
+    public void removeCustomer(Long customerId) {
+        customers.remove(customerId);
+    }
+
+    public void upsertSeller(Seller seller) {
+        if (isIndexable(seller)) {
+            sellers.upsert(toPoint(seller.getId(), seller.getLocation()));
+        } else {
+            sellers.remove(seller.getId());
+        }
+    }
+
+    public void removeSeller(Long sellerId) {
+        sellers.remove(sellerId);
+    }
+
+    private static boolean isIndexable(Seller seller) {
+        return Boolean.TRUE.equals(seller.getActive()) && seller.getLocation() != null
+                && seller.getLocation().getLat() != null && seller.getLocation().getLng() != null;
+    }
+
+    private static AssignmentTable.Point toPoint(Long id, Location location) {
+        return new AssignmentTable.Point(id, location.getLat(), location.getLng());
+    }
+}
@@ -0,0 +1,75 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.service.outage.WarehouseDeactivatedEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * JPA entity listener that keeps the warehouse spatial index and distance matrix in step
+ * with the table.
+ * The index is resolved lazily because Hibernate creates listeners while the
+ * EntityManagerFactory (which the index's repository depends on) is still being built.
+ *
+ * Deactivating or deleting a warehouse also publishes a {@link WarehouseDeactivatedEvent}
+ * carrying the customers and sellers it served, captured before the indexes move on. Only
+ * the change from active to inactive counts: the entity remembers the flag it was loaded
+ * or last written with, so later edits of an inactive warehouse publish nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarehouseIndexListener {
+
+    private final ObjectProvider<WarehouseSpatialIndex> spatialIndex;
+    private final ObjectProvider<WarehouseAssignmentIndex> assignmentIndex;
+    private final ObjectProvider<DistanceMatrixStore> distanceMatrix;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onWarehouseLoaded(Warehouse warehouse) {
+        warehouse.setPersistedActive(warehouse.getActive());
+    }
+
+    @PostPersist
+    public void onWarehouseCreated(Warehouse warehouse) {
+        spatialIndex.ifAvailable(WarehouseSpatialIndex::invalidate);
+        distanceMatrix.ifAvailable(matrix -> matrix.upsertWarehouse(warehouse));
+        warehouse.setPersistedActive(warehouse.getActive());
+    }
+
+    @PostUpdate
+    public void onWarehouseUpdated(Warehouse warehouse) {
+        spatialIndex.ifAvailable(WarehouseSpatialIndex::invalidate);
+        distanceMatrix.ifAvailable(matrix -> matrix.upsertWarehouse(warehouse));
+        // An unknown previous flag is treated as active, so a deactivation is never missed
+        boolean wasActive = !Boolean.FALSE.equals(warehouse.getPersistedActive());
+        if (wasActive && !Boolean.TRUE.equals(warehouse.getActive())) {
+            publishDeactivated(warehouse);
+        }
+        warehouse.setPersistedActive(warehouse.getActive());
+    }
+
+    @PostRemove
+    public void onWarehouseRemoved(Warehouse warehouse) {
+        spatialIndex.ifAvailable(WarehouseSpatialIndex::invalidate);
+        distanceMatrix.ifAvailable(matrix -> matrix.removeWarehouse(warehouse.getId()));
+        publishDeactivated(warehouse);
+    }
+
+    private void publishDeactivated(Warehouse warehouse) {
+        WarehouseAssignmentIndex index = assignmentIndex.getIfAvailable();
+        Set<Long> customerIds = index != null ? index.customersLastAssignedTo(warehouse.getId()) : Collections.emptySet();
+        Set<Long> sellerIds = index != null ? index.sellersLastAssignedTo(warehouse.getId()) : Collections.emptySet();
+        eventPublisher.publishEvent(new WarehouseDeactivatedEvent(
+                warehouse.getId(), warehouse.getWarehouseId(), customerIds, sellerIds));
+    }
+}
@@ -0,0 +1,26 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.util.PreparedLocation;
+
+/**
+ * Immutable snapshot of the warehouse fields the spatial index needs.
+ * Kept separate from the JPA entity so index reads never touch a persistence context.
+ *
+ * @param id internal primary key
+ * @param warehouseId external warehouse ID
+ * @param lat latitude in degrees
+ * @param lng longitude in degrees
+ * @param location the same coordinate prepared once for repeated distance calculations
+ */
+public record WarehouseSite(Long id, String warehouseId, double lat, double lng, PreparedLocation location) {
+
+    public WarehouseSite(Long id, String warehouseId, double lat, double lng) {
+        this(id, warehouseId, lat, lng, PreparedLocation.of(lat, lng));
+    }
+
+    static WarehouseSite of(Warehouse warehouse) {
+        return new WarehouseSite(warehouse.getId(), warehouse.getWarehouseId(),
+                warehouse.getLocation().getLat(), warehouse.getLocation().getLng());
+    }
+}
@@ -0,0 +1,137 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.repository.WarehouseRepository;
+import com.jumbotail.shipping.spatial.KdTree;
+import com.jumbotail.shipping.spatial.Neighbor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory KD-tree over active warehouse locations.
+ *
+ * The tree is built lazily on first use and rebuilt on the next lookup after any warehouse
+ * is inserted, updated or removed (see {@link WarehouseIndexListener}), so nearest lookups
+ * cost O(log n) instead of a full {@code findByActiveTrue()} scan.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WarehouseSpatialIndex {
+
+    private final WarehouseRepository warehouseRepository;
+
+    private final IndexVersion version = new IndexVersion();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Find the active warehouse nearest to the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return nearest warehouse and its great-circle distance, or empty if none are indexed
+     */
+    public Optional<Neighbor<WarehouseSite>> findNearest(double lat, double lng) {
+        return currentTree().nearest(lat, lng);
+    }
+
+    /**
+     * Find the k active warehouses nearest to the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param k maximum number of warehouses to return
+     * @return up to k warehouses, nearest first
+     */
+    public List<Neighbor<WarehouseSite>> findNearest(double lat, double lng, int k) {
+        return currentTree().nearest(lat, lng, k);
+    }
+
+    /**
+     * Find every active warehouse within a great-circle radius of the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param radiusKm search radius in kilometers
+     * @return matching warehouses, nearest first
+     */
+    public List<Neighbor<WarehouseSite>> findWithin(double lat, double lng, double radiusKm) {
+        return currentTree().within(lat, lng, radiusKm);
+    }
+
+    /**
+     * @return number of active warehouses with a usable location
+     */
+    public int size() {
+        return currentTree().size();
+    }
+
+    /**
+     * Mark the index stale; it is rebuilt on the next lookup.
+     */
+    public void invalidate() {
+        version.bump();
+    }
+
+    /**
+     * Indexed warehouses keyed by internal ID. The returned map is immutable and is replaced
+     * (never mutated) on rebuild, so dependent indexes can detect a rebuild by identity.
+     *
+     * @return current warehouse snapshot
+     */
+    public Map<Long, WarehouseSite> sitesById() {
+        return current().sitesById;
+    }
+
+    private KdTree<WarehouseSite> currentTree() {
+        return current().tree;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long target = version.get();
+            if (current == null || current.version != target) {
+                current = buildSnapshot(target);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot buildSnapshot(long target) {
+        List<Warehouse> warehouses = warehouseRepository.findByActiveTrue();
+        List<WarehouseSite> sites = new ArrayList<>(warehouses.size());
+
+        for (Warehouse warehouse : warehouses) {
+            if (warehouse.getLocation() == null || warehouse.getLocation().getLat() == null ||
+                warehouse.getLocation().getLng() == null) {
+                log.warn("Warehouse {} has invalid location, skipping", warehouse.getWarehouseId());
+                continue;
+            }
+            sites.add(WarehouseSite.of(warehouse));
+        }
+
+        Map<Long, WarehouseSite> sitesById = new HashMap<>();
+        sites.forEach(site -> sitesById.put(site.id(), site));
+
+        log.debug("Rebuilt warehouse spatial index with {} of {} active warehouses", sites.size(), warehouses.size());
+        return new Snapshot(target, KdTree.build(sites, WarehouseSite::lat, WarehouseSite::lng),
+                Collections.unmodifiableMap(sitesById));
+    }
+
+    private record Snapshot(long version, KdTree<WarehouseSite> tree, Map<Long, WarehouseSite> sitesById) {
+    }
+}
@@ -0,0 +1,278 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Order;
+import com.jumbotail.shipping.model.OrderItem;
+import com.jumbotail.shipping.model.WarehouseInventory;
+import com.jumbotail.shipping.repository.InventoryRepository;
+import com.jumbotail.shipping.spatial.KdTree;
+import com.jumbotail.shipping.spatial.Neighbor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Per-product view of warehouse stock, built from {@link WarehouseInventory}.
+ *
+ * For every product the index keeps the quantity held by each active warehouse plus a
+ * KD-tree over just the warehouses that hold it. A stock-aware nearest search walks the
+ * tree of the scarcest requested product and checks the other products' quantities as it
+ * goes, so warehouses that can never fulfil the request are never distance-checked.
+ *
+ * Stock is loaded from the inventory table on first use and then maintained incrementally
+ * by {@link InventoryIndexListener} as rows are written. A write only drops the product's
+ * tree, which is rebuilt from memory the next time the product is looked up, as are the
+ * trees of products looked up after the warehouse set changes. A rolled-back transaction
+ * forces a full reload on the next query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WarehouseStockIndex {
+
+    private final InventoryRepository inventoryRepository;
+    private final WarehouseSpatialIndex warehouseSpatialIndex;
+
+    private final IndexVersion version = new IndexVersion();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // In-stock inventory rows by row ID, to turn a row write into a quantity change
+    private final Map<Long, StockRow> rows = new HashMap<>();
+    // Product ID to warehouse ID to quantity, over every warehouse active or not
+    private final Map<Long, Map<Long, Integer>> quantitiesByProduct = new HashMap<>();
+    private final Map<Long, ProductStock> byProduct = new ConcurrentHashMap<>();
+    private volatile long loadedVersion = -1;
+
+    /**
+     * Find the nearest active warehouse that holds every requested product in the requested quantity.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param requiredQuantities product internal ID to required quantity
+     * @return nearest fulfilling warehouse and its distance, or empty if no warehouse qualifies
+     */
+    public Optional<Neighbor<WarehouseSite>> findNearestStocked(double lat, double lng,
+                                                                     Map<Long, Integer> requiredQuantities) {
+        if (requiredQuantities.isEmpty()) {
+            return warehouseSpatialIndex.findNearest(lat, lng);
+        }
+        return read(warehouses -> {
+            Map<Long, ProductStock> stocks = stocksOf(requiredQuantities, warehouses);
+            ProductStock scarcest = scarcest(stocks, requiredQuantities);
+            if (scarcest == null) {
+                return Optional.empty();
+            }
+            return scarcest.tree.nearest(lat, lng, site -> canFulfil(stocks, site.id(), requiredQuantities));
+        });
+    }
+
+    /**
+     * List every active warehouse that holds every requested product in the requested quantity.
+     *
+     * @param requiredQuantities product internal ID to required quantity
+     * @return fulfilling warehouses, in no particular order
+     */
+    public List<WarehouseSite> findStockedWarehouses(Map<Long, Integer> requiredQuantities) {
+        if (requiredQuantities.isEmpty()) {
+            return new ArrayList<>(warehouseSpatialIndex.sitesById().values());
+        }
+        return read(warehouses -> {
+            Map<Long, ProductStock> stocks = stocksOf(requiredQuantities, warehouses);
+            ProductStock scarcest = scarcest(stocks, requiredQuantities);
+            if (scarcest == null) {
+                return Collections.emptyList();
+            }
+            List<WarehouseSite> stocked = new ArrayList<>();
+            for (Long warehouseId : scarcest.quantities.keySet()) {
+                if (canFulfil(stocks, warehouseId, requiredQuantities)) {
+                    stocked.add(warehouses.get(warehouseId));
+                }
+            }
+            return stocked;
+        });
+    }
+
+    /**
+     * Apply an inserted or updated inventory row.
+     */
+    public void upsert(WarehouseInventory inventory) {
+        write(() -> {
+            removeRow(inventory.getId());
+            if (inventory.getQuantity() != null && inventory.getQuantity() > 0) {
+                addRow(inventory.getId(), new StockRow(inventory.getWarehouseId(), inventory.getProductId(),
+                        inventory.getQuantity()));
+            }
+        });
+    }
+
+    public void remove(WarehouseInventory inventory) {
+        write(() -> removeRow(inventory.getId()));
+    }
+
+    /**
+     * Total quantity required per product across all items of an order.
+     *
+     * @param order order to fulfil
+     * @return product internal ID to required quantity
+     */
+    public static Map<Long, Integer> requiredQuantities(Order order) {
+        Map<Long, Integer> required = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            required.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return required;
+    }
+
+    private <R> R read(Function<Map<Long, WarehouseSite>, R> query) {
+        ensureLoaded();
+        Map<Long, WarehouseSite> warehouses = warehouseSpatialIndex.sitesById();
+        lock.readLock().lock();
+        try {
+            return query.apply(warehouses);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (loadedVersion != version.get()) {
+                // Not loaded yet: the next load reads this change from the table
+                version.bump();
+                return;
+            }
+            change.run();
+            version.bumpOnRollback();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loadedVersion == version.get()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long target = version.get();
+            if (loadedVersion == target) {
+                return;
+            }
+            rows.clear();
+            quantitiesByProduct.clear();
+            byProduct.clear();
+            for (WarehouseInventory inventory : inventoryRepository.findByQuantityGreaterThan(0)) {
+                addRow(inventory.getId(), new StockRow(inventory.getWarehouseId(), inventory.getProductId(),
+                        inventory.getQuantity()));
+            }
+            loadedVersion = target;
+            log.debug("Loaded warehouse stock index with {} in-stock rows across {} products",
+                    rows.size(), quantitiesByProduct.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addRow(Long rowId, StockRow row) {
+        rows.put(rowId, row);
+        quantitiesByProduct.computeIfAbsent(row.productId, k -> new HashMap<>())
+                .merge(row.warehouseId, row.quantity, Integer::sum);
+        byProduct.remove(row.productId);
+    }
+
+    private void removeRow(Long rowId) {
+        StockRow row = rowId != null ? rows.remove(rowId) : null;
+        if (row == null) {
+            return;
+        }
+        Map<Long, Integer> quantities = quantitiesByProduct.get(row.productId);
+        quantities.computeIfPresent(row.warehouseId, (k, held) -> held == row.quantity ? null : held - row.quantity);
+        if (quantities.isEmpty()) {
+            quantitiesByProduct.remove(row.productId);
+        }
+        byProduct.remove(row.productId);
+    }
+
+    /**
+     * Must be called under the read lock. Trees built for another warehouse set are rebuilt.
+     *
+     * @return stock per requested product; products no active warehouse holds are left out
+     */
+    private Map<Long, ProductStock> stocksOf(Map<Long, Integer> requiredQuantities, Map<Long, WarehouseSite> warehouses) {
+        Map<Long, ProductStock> stocks = new HashMap<>();
+        for (Long productId : requiredQuantities.keySet()) {
+            ProductStock stock = byProduct.get(productId);
+            if (stock == null || stock.warehouses != warehouses) {
+                stock = buildStock(productId, warehouses);
+                byProduct.put(productId, stock);
+            }
+            if (!stock.quantities.isEmpty()) {
+                stocks.put(productId, stock);
+            }
+        }
+        return stocks;
+    }
+
+    private ProductStock buildStock(Long productId, Map<Long, WarehouseSite> warehouses) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        List<WarehouseSite> sites = new ArrayList<>();
+        quantitiesByProduct.getOrDefault(productId, Map.of()).forEach((warehouseId, quantity) -> {
+            WarehouseSite site = warehouses.get(warehouseId);
+            if (site != null) {
+                quantities.put(warehouseId, quantity);
+                sites.add(site);
+            }
+        });
+        return new ProductStock(warehouses, quantities, KdTree.build(sites, WarehouseSite::lat, WarehouseSite::lng));
+    }
+
+    /**
+     * @return stock of the requested product held by the fewest warehouses, or null if any
+     *         requested product is held by none
+     */
+    private static ProductStock scarcest(Map<Long, ProductStock> stocks, Map<Long, Integer> requiredQuantities) {
+        if (stocks.size() < requiredQuantities.size()) {
+            return null;
+        }
+        ProductStock scarcest = null;
+        for (ProductStock stock : stocks.values()) {
+            if (scarcest == null || stock.quantities.size() < scarcest.quantities.size()) {
+                scarcest = stock;
+            }
+        }
+        return scarcest;
+    }
+
+    private static boolean canFulfil(Map<Long, ProductStock> stocks, Long warehouseId, Map<Long, Integer> requiredQuantities) {
+        for (Map.Entry<Long, Integer> required : requiredQuantities.entrySet()) {
+            ProductStock stock = stocks.get(required.getKey());
+            if (stock == null || stock.quantities.getOrDefault(warehouseId, 0) < required.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record StockRow(Long warehouseId, Long productId, int quantity) {
+    }
+
+    /**
+     * @param warehouses warehouse snapshot the tree was built from, compared by identity
+     * @param quantities quantity held per active warehouse
+     * @param tree active warehouses holding the product
+     */
+    private record ProductStock(Map<Long, WarehouseSite> warehouses, Map<Long, Integer> quantities,
+                                KdTree<WarehouseSite> tree) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.jumbotail.shipping.spatial;
+
+/**
+ * Axis-aligned latitude/longitude rectangle. Boxes do not wrap the antimeridian.
+ *
+ * @param minLat southern edge in degrees
+ * @param minLng western edge in degrees
+ * @param maxLat northern edge in degrees
+ * @param maxLng eastern edge in degrees
+ */
+public record BoundingBox(double minLat, double minLng, double maxLat, double maxLng) {
+
+    public boolean contains(double lat, double lng) {
+        return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
+    }
+
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minLat, other.minLat), Math.min(minLng, other.minLng),
+                Math.max(maxLat, other.maxLat), Math.max(maxLng, other.maxLng));
+    }
+
+    public double centerLat() {
+        return (minLat + maxLat) / 2.0;
+    }
+
+    public double centerLng() {
+        return (minLng + maxLng) / 2.0;
+    }
+}
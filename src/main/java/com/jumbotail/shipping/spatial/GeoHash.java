@@ -0,0 +1,140 @@
+package com.jumbotail.shipping.spatial;
+
+/**
+ * Binary geohash cells packed into a long.
+ *
+ * Longitude and latitude are each quantised onto a power-of-two grid and their bits are
+ * interleaved longitude-first, exactly like a base32 geohash (5 bits per character). Because
+ * a coarser cell is a prefix of every finer cell inside it, all cells under a coarse cell
+ * occupy one contiguous key range: {@code [prefix << shift, (prefix + 1) << shift)}.
+ */
+public final class GeoHash {
+
+    public static final int MAX_BITS = 60;
+
+    private GeoHash() {
+    }
+
+    /**
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param bits total precision in bits (1 to {@link #MAX_BITS})
+     * @return cell containing the coordinate
+     */
+    public static long encode(double lat, double lng, int bits) {
+        return interleave(lngIndex(lng, lngBits(bits)), latIndex(lat, latBits(bits)), bits);
+    }
+
+    /**
+     * Build a cell key from its column (longitude) and row (latitude) indexes.
+     *
+     * @param lngIndex column index, 0 to 2^lngBits(bits) - 1
+     * @param latIndex row index, 0 to 2^latBits(bits) - 1
+     * @param bits total precision in bits
+     * @return cell key
+     */
+    public static long interleave(long lngIndex, long latIndex, int bits) {
+        int lngBits = lngBits(bits);
+        int latBits = latBits(bits);
+        long hash = 0;
+        for (int i = 0; i < bits; i++) {
+            long bit = (i & 1) == 0
+                    ? (lngIndex >>> (lngBits - 1 - (i >> 1))) & 1L
+                    : (latIndex >>> (latBits - 1 - (i >> 1))) & 1L;
+            hash = (hash << 1) | bit;
+        }
+        return hash;
+    }
+
+    /**
+     * @return number of longitude bits in a hash of the given precision
+     */
+    public static int lngBits(int bits) {
+        return (bits + 1) / 2;
+    }
+
+    /**
+     * @return number of latitude bits in a hash of the given precision
+     */
+    public static int latBits(int bits) {
+        return bits / 2;
+    }
+
+    /**
+     * @return column index of the longitude on a grid with 2^lngBits columns
+     */
+    public static long lngIndex(double lng, int lngBits) {
+        return quantise((lng + 180.0) / 360.0, lngBits);
+    }
+
+    /**
+     * @return row index of the latitude on a grid with 2^latBits rows
+     */
+    public static long latIndex(double lat, int latBits) {
+        return quantise((lat + 90.0) / 180.0, latBits);
+    }
+
+    /**
+     * @return latitude of the centre of the cell, in degrees
+     */
+    public static double centerLat(long hash, int bits) {
+        long row = deinterleave(hash, bits, 1);
+        return -90.0 + (row + 0.5) * cellHeightDegrees(bits);
+    }
+
+    /**
+     * @return longitude of the centre of the cell, in degrees
+     */
+    public static double centerLng(long hash, int bits) {
+        long col = deinterleave(hash, bits, 0);
+        return -180.0 + (col + 0.5) * cellWidthDegrees(bits);
+    }
+
+    /**
+     * @return width of a cell in degrees of longitude
+     */
+    public static double cellWidthDegrees(int bits) {
+        return 360.0 / (1L << lngBits(bits));
+    }
+
+    /**
+     * @return height of a cell in degrees of latitude
+     */
+    public static double cellHeightDegrees(int bits) {
+        return 180.0 / (1L << latBits(bits));
+    }
+
+    /**
+     * Render a hash whose precision is a multiple of 5 bits as a standard base32 geohash string.
+     */
+    public static String toBase32(long hash, int bits) {
+        if (bits % 5 != 0) {
+            throw new IllegalArgumentException("Base32 geohash needs a multiple of 5 bits, got " + bits);
+        }
+        String alphabet = "0123456789bcdefghjkmnpqrstuvwxyz";
+        char[] chars = new char[bits / 5];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = alphabet.charAt((int) (hash & 31));
+            hash >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Collect every other bit of the hash, starting at the given offset from the most
+     * significant end (0 = longitude, 1 = latitude).
+     */
+    private static long deinterleave(long hash, int bits, int offset) {
+        long index = 0;
+        for (int i = offset; i < bits; i += 2) {
+            index = (index << 1) | ((hash >>> (bits - 1 - i)) & 1L);
+        }
+        return index;
+    }
+
+    private static long quantise(double fraction, int bits) {
+        long cells = 1L << bits;
+        long index = (long) Math.floor(fraction * cells);
+        return Math.max(0, Math.min(cells - 1, index));
+    }
+}
@@ -0,0 +1,229 @@
+package com.jumbotail.shipping.spatial;
+
+import com.jumbotail.shipping.util.DistanceCalculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Mutable point index bucketed by geohash cell, supporting incremental insert, move and remove.
+ *
+ * Points are stored at a fixed fine precision in a sorted map. A query picks the coarsest
+ * precision at which its bounding box still covers only a handful of cells and scans each
+ * coarse cell as one contiguous key range, so a 1 km query and a 500 km query both touch
+ * a bounded number of map ranges. Candidates are then filtered exactly.
+ *
+ * Not thread-safe; callers synchronise.
+ *
+ * @param <K> key identifying a point
+ * @param <T> payload carried by each point
+ */
+public class GeoHashGrid<K, T> {
+
+    private static final double KM_PER_DEGREE = 6371.0 * Math.PI / 180.0;
+    private static final int MAX_QUERY_CELLS = 64;
+
+    private final int storageBits;
+    private final NavigableMap<Long, Map<K, Entry<T>>> cells = new TreeMap<>();
+    private final Map<K, Entry<T>> entries = new HashMap<>();
+
+    /**
+     * @param storageBits precision points are stored at; must be even so both axes share it
+     */
+    public GeoHashGrid(int storageBits) {
+        if (storageBits <= 0 || storageBits > GeoHash.MAX_BITS || storageBits % 2 != 0) {
+            throw new IllegalArgumentException("storageBits must be an even number between 2 and " + GeoHash.MAX_BITS);
+        }
+        this.storageBits = storageBits;
+    }
+
+    /**
+     * Insert a point, or move it if the key is already present.
+     */
+    public void put(K key, T item, double lat, double lng) {
+        remove(key);
+        long cell = GeoHash.encode(lat, lng, storageBits);
+        Entry<T> entry = new Entry<>(item, lat, lng, cell);
+        entries.put(key, entry);
+        cells.computeIfAbsent(cell, c -> new HashMap<>()).put(key, entry);
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(K key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        Map<K, Entry<T>> bucket = cells.get(entry.cell);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+        return true;
+    }
+
+    public T get(K key) {
+        Entry<T> entry = entries.get(key);
+        return entry == null ? null : entry.item;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * @return fine-precision cell a key is stored in, or null if absent
+     */
+    public Long cellOf(K key) {
+        Entry<T> entry = entries.get(key);
+        return entry == null ? null : entry.cell;
+    }
+
+    /**
+     * @return every non-empty fine-precision cell, in ascending key order
+     */
+    public long[] cells() {
+        long[] keys = new long[cells.size()];
+        int i = 0;
+        for (Long cell : cells.keySet()) {
+            keys[i++] = cell;
+        }
+        return keys;
+    }
+
+    public int storageBits() {
+        return storageBits;
+    }
+
+    /**
+     * Find every point within a great-circle radius.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param radiusKm search radius in kilometers
+     * @return matching points, nearest first
+     */
+    public List<Neighbor<T>> within(double lat, double lng, double radiusKm) {
+        if (radiusKm < 0 || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = lat - dLat;
+        double maxLat = lat + dLat;
+
+        double minLng = -180.0;
+        double maxLng = 180.0;
+        double angular = radiusKm / 6371.0;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        if (minLat > -90.0 && maxLat < 90.0 && angular < Math.PI / 2 && Math.sin(angular) < cosLat) {
+            double dLng = Math.toDegrees(Math.asin(Math.sin(angular) / cosLat));
+            minLng = lng - dLng;
+            maxLng = lng + dLng;
+        }
+
+        List<Neighbor<T>> result = new ArrayList<>();
+        for (Entry<T> entry : candidates(Math.max(minLat, -90.0), minLng, Math.min(maxLat, 90.0), maxLng)) {
+            double distance = DistanceCalculator.calculateDistance(lat, lng, entry.lat, entry.lng);
+            if (distance <= radiusKm) {
+                result.add(new Neighbor<>(entry.item, distance));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    /**
+     * Find every point inside a latitude/longitude box. A box with minLng greater than maxLng
+     * is taken to cross the antimeridian.
+     *
+     * @return matching points, in no particular order
+     */
+    public List<T> inBoundingBox(double minLat, double minLng, double maxLat, double maxLng) {
+        if (minLat > maxLat || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double unwrappedMaxLng = maxLng < minLng ? maxLng + 360.0 : maxLng;
+
+        List<T> result = new ArrayList<>();
+        for (Entry<T> entry : candidates(minLat, minLng, maxLat, unwrappedMaxLng)) {
+            double entryLng = entry.lng < minLng ? entry.lng + 360.0 : entry.lng;
+            if (entry.lat >= minLat && entry.lat <= maxLat && entryLng <= unwrappedMaxLng) {
+                result.add(entry.item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collect entries from every stored cell overlapping the box. Longitudes may run past
+     * +/-180 and are split into in-range segments.
+     */
+    private List<Entry<T>> candidates(double minLat, double minLng, double maxLat, double maxLng) {
+        List<double[]> lngSegments = new ArrayList<>(2);
+        if (maxLng - minLng >= 360.0) {
+            lngSegments.add(new double[]{-180.0, 180.0});
+        } else if (minLng < -180.0) {
+            lngSegments.add(new double[]{minLng + 360.0, 180.0});
+            lngSegments.add(new double[]{-180.0, maxLng});
+        } else if (maxLng > 180.0) {
+            lngSegments.add(new double[]{minLng, 180.0});
+            lngSegments.add(new double[]{-180.0, maxLng - 360.0});
+        } else {
+            lngSegments.add(new double[]{minLng, maxLng});
+        }
+
+        int bits = queryBits(minLat, maxLat, lngSegments);
+        int shift = storageBits - bits;
+        long rowMin = GeoHash.latIndex(minLat, GeoHash.latBits(bits));
+        long rowMax = GeoHash.latIndex(maxLat, GeoHash.latBits(bits));
+
+        // At coarse precision the two segments of a nearly full-width box can share a column
+        long lastCol = -1;
+        List<Entry<T>> result = new ArrayList<>();
+        lngSegments.sort(Comparator.comparingDouble(segment -> segment[0]));
+        for (double[] segment : lngSegments) {
+            long colMin = Math.max(lastCol + 1, GeoHash.lngIndex(segment[0], GeoHash.lngBits(bits)));
+            long colMax = GeoHash.lngIndex(segment[1], GeoHash.lngBits(bits));
+            lastCol = Math.max(lastCol, colMax);
+            for (long col = colMin; col <= colMax; col++) {
+                for (long row = rowMin; row <= rowMax; row++) {
+                    long prefix = GeoHash.interleave(col, row, bits);
+                    for (Map<K, Entry<T>> bucket : cells.subMap(prefix << shift, (prefix + 1) << shift).values()) {
+                        result.addAll(bucket.values());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int queryBits(double minLat, double maxLat, List<double[]> lngSegments) {
+        for (int bits = storageBits; bits > 2; bits -= 2) {
+            long rows = GeoHash.latIndex(maxLat, GeoHash.latBits(bits)) - GeoHash.latIndex(minLat, GeoHash.latBits(bits)) + 1;
+            long cols = 0;
+            for (double[] segment : lngSegments) {
+                cols += GeoHash.lngIndex(segment[1], GeoHash.lngBits(bits)) - GeoHash.lngIndex(segment[0], GeoHash.lngBits(bits)) + 1;
+            }
+            if (rows * cols <= MAX_QUERY_CELLS) {
+                return bits;
+            }
+        }
+        return 2;
+    }
+
+    private record Entry<T>(T item, double lat, double lng, long cell) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.jumbotail.shipping.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hilbert-curve keys for latitude/longitude pairs.
+ *
+ * Longitude and latitude are quantised onto a 2^16 x 2^16 grid (cells of roughly 600 m x
+ * 300 m at the equator) and mapped to their distance along a Hilbert curve filling it.
+ * Points that are close on the curve are close on the map, and unlike Z-order (geohash)
+ * the curve never jumps across the grid, so walking a batch in key order keeps consecutive
+ * items spatially adjacent. Batch jobs sort their work this way so that neighbouring
+ * lookups hit the same index nodes and warm caches.
+ */
+public final class HilbertCurve {
+
+    public static final int ORDER = 16;
+
+    private HilbertCurve() {
+    }
+
+    /**
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return position of the coordinate's cell along the curve, 0 to 2^32 - 1
+     */
+    public static long key(double lat, double lng) {
+        return encode(GeoHash.lngIndex(lng, ORDER), GeoHash.latIndex(lat, ORDER), ORDER);
+    }
+
+    /**
+     * @param x column index, 0 to 2^order - 1
+     * @param y row index, 0 to 2^order - 1
+     * @param order bits per axis (1 to 31)
+     * @return position of the cell along a curve over a 2^order x 2^order grid
+     */
+    public static long encode(long x, long y, int order) {
+        long mask = (1L << order) - 1;
+        long d = 0;
+        for (int i = order - 1; i >= 0; i--) {
+            long rx = (x >>> i) & 1;
+            long ry = (y >>> i) & 1;
+            d = (d << 2) | ((3 * rx) ^ ry);
+            // Rotate the quadrant so the sub-curve is entered and left at the right corners.
+            // Written with masks rather than branches: the bits are effectively random.
+            long flip = -(rx & (ry ^ 1));
+            x ^= mask & flip;
+            y ^= mask & flip;
+            long swap = (x ^ y) & -(ry ^ 1);
+            x ^= swap;
+            y ^= swap;
+        }
+        return d;
+    }
+
+    /**
+     * Copy items into Hilbert-curve order. Keys are computed once and sorted as primitives,
+     * each packed with the item's position into a single long. Keys use all 32 high bits, so
+     * the sign bit is flipped to make the signed sort order the unsigned key order.
+     *
+     * @param items items to order
+     * @param lat latitude accessor in degrees
+     * @param lng longitude accessor in degrees
+     * @return new list in ascending key order
+     */
+    public static <T> List<T> sort(Collection<T> items, ToDoubleFunction<T> lat, ToDoubleFunction<T> lng) {
+        List<T> source = new ArrayList<>(items);
+        long[] packed = new long[source.size()];
+        for (int i = 0; i < packed.length; i++) {
+            T item = source.get(i);
+            packed[i] = ((key(lat.applyAsDouble(item), lng.applyAsDouble(item)) << 32) | i) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(packed);
+
+        List<T> result = new ArrayList<>(packed.length);
+        for (long entry : packed) {
+            result.add(source.get((int) entry));
+        }
+        return result;
+    }
+}
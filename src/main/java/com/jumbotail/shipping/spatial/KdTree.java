@@ -0,0 +1,375 @@
+package com.jumbotail.shipping.spatial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable 3-d tree over points on the unit sphere.
+ *
+ * Latitude/longitude pairs are projected onto unit vectors so that straight-line (chord)
+ * distance is monotonic in great-circle distance. Nearest-neighbour answers are therefore
+ * exactly the ones a Haversine scan would give, without any special handling at the poles
+ * or the antimeridian.
+ *
+ * The tree is stored implicitly: every sub-range [lo, hi) of the arrays is a node whose
+ * median element sits at the middle index, which keeps the structure allocation-free after
+ * the build.
+ *
+ * @param <T> payload carried by each point
+ */
+public final class KdTree<T> {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final byte[] axes;
+    private final List<T> items;
+
+    private KdTree(double[] xs, double[] ys, double[] zs, byte[] axes, List<T> items) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.axes = axes;
+        this.items = items;
+    }
+
+    /**
+     * Build a balanced tree in O(n log n).
+     *
+     * @param source points to index
+     * @param lat latitude accessor in degrees
+     * @param lng longitude accessor in degrees
+     * @return immutable tree
+     */
+    public static <T> KdTree<T> build(List<T> source, ToDoubleFunction<T> lat, ToDoubleFunction<T> lng) {
+        int n = source.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] zs = new double[n];
+        List<T> items = new ArrayList<>(source);
+
+        for (int i = 0; i < n; i++) {
+            T item = items.get(i);
+            double latRad = Math.toRadians(lat.applyAsDouble(item));
+            double lngRad = Math.toRadians(lng.applyAsDouble(item));
+            double cosLat = Math.cos(latRad);
+            xs[i] = cosLat * Math.cos(lngRad);
+            ys[i] = cosLat * Math.sin(lngRad);
+            zs[i] = Math.sin(latRad);
+        }
+
+        KdTree<T> tree = new KdTree<>(xs, ys, zs, new byte[n], items);
+        tree.buildRange(0, n);
+        return tree;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Find the point closest to the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return nearest point with its great-circle distance, or empty if the tree is empty
+     */
+    public Optional<Neighbor<T>> nearest(double lat, double lng) {
+        return nearest(lat, lng, item -> true);
+    }
+
+    /**
+     * Find the closest point accepted by the filter. Rejected points are skipped during the
+     * walk, while subtrees that cannot beat the best accepted point so far are still pruned.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param filter predicate a point must satisfy to be returned
+     * @return nearest accepted point, or empty if no point passes the filter
+     */
+    public Optional<Neighbor<T>> nearest(double lat, double lng, Predicate<? super T> filter) {
+        if (isEmpty()) {
+            return Optional.empty();
+        }
+        Query query = new Query(lat, lng);
+        searchNearest(0, size(), query, filter);
+        if (query.bestIndex < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Neighbor<>(items.get(query.bestIndex), chordToKm(query.bestChordSq)));
+    }
+
+    private void searchNearest(int lo, int hi, Query query, Predicate<? super T> filter) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+
+        double chordSq = query.chordSqTo(xs[mid], ys[mid], zs[mid]);
+        if (chordSq < query.bestChordSq && filter.test(items.get(mid))) {
+            query.bestChordSq = chordSq;
+            query.bestIndex = mid;
+        }
+
+        double delta = query.coordinate(axes[mid]) - coordinate(axes[mid], mid);
+        int nearLo = delta < 0 ? lo : mid + 1;
+        int nearHi = delta < 0 ? mid : hi;
+        int farLo = delta < 0 ? mid + 1 : lo;
+        int farHi = delta < 0 ? hi : mid;
+
+        searchNearest(nearLo, nearHi, query, filter);
+        if (delta * delta < query.bestChordSq) {
+            searchNearest(farLo, farHi, query, filter);
+        }
+    }
+
+    /**
+     * Find the k points closest to the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param k maximum number of points to return
+     * @return up to k points, nearest first
+     */
+    public List<Neighbor<T>> nearest(double lat, double lng, int k) {
+        if (k <= 0 || isEmpty()) {
+            return Collections.emptyList();
+        }
+        BoundedNeighbors best = new BoundedNeighbors(Math.min(k, size()));
+        searchKNearest(0, size(), new Query(lat, lng), best);
+
+        List<Neighbor<T>> result = new ArrayList<>(best.count);
+        for (int i = 0; i < best.count; i++) {
+            result.add(new Neighbor<>(items.get(best.indexes[i]), chordToKm(best.chordSqs[i])));
+        }
+        return result;
+    }
+
+    /**
+     * Find every point within a great-circle radius of the given coordinate.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param radiusKm search radius in kilometers
+     * @return matching points, nearest first
+     */
+    public List<Neighbor<T>> within(double lat, double lng, double radiusKm) {
+        if (radiusKm < 0 || isEmpty()) {
+            return Collections.emptyList();
+        }
+        double halfAngle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI) / 2.0;
+        double chord = 2.0 * Math.sin(halfAngle);
+        List<Neighbor<T>> result = new ArrayList<>();
+        searchWithin(0, size(), new Query(lat, lng), chord * chord, result);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    private void searchKNearest(int lo, int hi, Query query, BoundedNeighbors best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        best.offer(mid, query.chordSqTo(xs[mid], ys[mid], zs[mid]));
+
+        double delta = query.coordinate(axes[mid]) - coordinate(axes[mid], mid);
+        if (delta < 0) {
+            searchKNearest(lo, mid, query, best);
+            if (delta * delta < best.bound()) {
+                searchKNearest(mid + 1, hi, query, best);
+            }
+        } else {
+            searchKNearest(mid + 1, hi, query, best);
+            if (delta * delta < best.bound()) {
+                searchKNearest(lo, mid, query, best);
+            }
+        }
+    }
+
+    private void searchWithin(int lo, int hi, Query query, double radiusChordSq, List<Neighbor<T>> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double chordSq = query.chordSqTo(xs[mid], ys[mid], zs[mid]);
+        if (chordSq <= radiusChordSq) {
+            result.add(new Neighbor<>(items.get(mid), chordToKm(chordSq)));
+        }
+
+        double delta = query.coordinate(axes[mid]) - coordinate(axes[mid], mid);
+        boolean planeInRange = delta * delta <= radiusChordSq;
+        if (delta < 0 || planeInRange) {
+            searchWithin(lo, mid, query, radiusChordSq, result);
+        }
+        if (delta >= 0 || planeInRange) {
+            searchWithin(mid + 1, hi, query, radiusChordSq, result);
+        }
+    }
+
+    private void buildRange(int lo, int hi) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        byte axis = widestAxis(lo, hi);
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, axis);
+        axes[mid] = axis;
+        buildRange(lo, mid);
+        buildRange(mid + 1, hi);
+    }
+
+    private byte widestAxis(int lo, int hi) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = lo; i < hi; i++) {
+            min[0] = Math.min(min[0], xs[i]);
+            max[0] = Math.max(max[0], xs[i]);
+            min[1] = Math.min(min[1], ys[i]);
+            max[1] = Math.max(max[1], ys[i]);
+            min[2] = Math.min(min[2], zs[i]);
+            max[2] = Math.max(max[2], zs[i]);
+        }
+        byte axis = 0;
+        for (byte a = 1; a < 3; a++) {
+            if (max[a] - min[a] > max[axis] - min[axis]) {
+                axis = a;
+            }
+        }
+        return axis;
+    }
+
+    /**
+     * Quickselect so that index k holds the median along the axis, smaller values to its left.
+     */
+    private void select(int left, int right, int k, byte axis) {
+        while (left < right) {
+            double pivot = coordinate(axis, (left + right) >>> 1);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(axis, i) < pivot) {
+                    i++;
+                }
+                while (coordinate(axis, j) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+        double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+        double z = zs[i];
+        zs[i] = zs[j];
+        zs[j] = z;
+        items.set(i, items.set(j, items.get(i)));
+    }
+
+    private double coordinate(byte axis, int index) {
+        return switch (axis) {
+            case 0 -> xs[index];
+            case 1 -> ys[index];
+            default -> zs[index];
+        };
+    }
+
+    static double chordToKm(double chordSq) {
+        double halfChord = Math.min(1.0, Math.sqrt(chordSq) / 2.0);
+        return 2.0 * EARTH_RADIUS_KM * Math.asin(halfChord);
+    }
+
+    /**
+     * Mutable search state; one instance per query so the tree itself stays thread-safe.
+     */
+    private static final class Query {
+        final double x;
+        final double y;
+        final double z;
+        double bestChordSq = Double.MAX_VALUE;
+        int bestIndex = -1;
+
+        Query(double lat, double lng) {
+            double latRad = Math.toRadians(lat);
+            double lngRad = Math.toRadians(lng);
+            double cosLat = Math.cos(latRad);
+            this.x = cosLat * Math.cos(lngRad);
+            this.y = cosLat * Math.sin(lngRad);
+            this.z = Math.sin(latRad);
+        }
+
+        double coordinate(byte axis) {
+            return switch (axis) {
+                case 0 -> x;
+                case 1 -> y;
+                default -> z;
+            };
+        }
+
+        double chordSqTo(double px, double py, double pz) {
+            double dx = px - x;
+            double dy = py - y;
+            double dz = pz - z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * Fixed-capacity list of the best candidates so far, kept sorted by chord distance.
+     */
+    private static final class BoundedNeighbors {
+        final int[] indexes;
+        final double[] chordSqs;
+        int count;
+
+        BoundedNeighbors(int capacity) {
+            this.indexes = new int[capacity];
+            this.chordSqs = new double[capacity];
+        }
+
+        double bound() {
+            return count < indexes.length ? Double.MAX_VALUE : chordSqs[count - 1];
+        }
+
+        void offer(int index, double chordSq) {
+            if (chordSq >= bound()) {
+                return;
+            }
+            int position = count < indexes.length ? count++ : count - 1;
+            while (position > 0 && chordSqs[position - 1] > chordSq) {
+                indexes[position] = indexes[position - 1];
+                chordSqs[position] = chordSqs[position - 1];
+                position--;
+            }
+            indexes[position] = index;
+            chordSqs[position] = chordSq;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.jumbotail.shipping.spatial;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Dense row x column matrix of distances in whole metres, held in a memory-mapped file so
+ * the cells live outside the Java heap and survive restarts.
+ *
+ * Every row and column slot records the ID it belongs to (0 for a free slot; IDs are
+ * generated from 1) and the coordinate its distances were computed for, so an owner can
+ * check on reopen which slots are still valid. The file is locked while open, and a flag in
+ * the header records whether it was closed cleanly; after a crash the cells may hold
+ * partial writes and should be recomputed.
+ *
+ * Layout: a 64-byte header, the row table and column table (id, lat, lng per slot) and then
+ * the cells, row-major. The whole file must fit one mapping, so it is limited to 2 GB.
+ *
+ * Not thread-safe; callers synchronise.
+ */
+public final class MappedDistanceMatrix implements Closeable {
+
+    public static final int UNKNOWN = -1;
+
+    private static final int MAGIC = 0x444D5831; // "DMX1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 24;
+    private static final long MAX_BYTES = Integer.MAX_VALUE;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_ROWS = 8;
+    private static final int OFFSET_COLS = 12;
+    private static final int OFFSET_CLEAN = 16;
+
+    private final Path path;
+    private FileChannel channel;
+    private FileLock fileLock;
+    private MappedByteBuffer buffer;
+    private IntBuffer cells;
+    private int rowCapacity;
+    private int colCapacity;
+    private boolean cleanlyClosed;
+
+    private MappedDistanceMatrix(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Open the matrix at a path, creating a new empty one if the file is missing or not a
+     * matrix of this format.
+     *
+     * @param path file to map
+     * @param initialRows row capacity for a new file
+     * @param initialCols column capacity for a new file
+     * @throws IOException if the file cannot be mapped or is locked by another process
+     */
+    public static MappedDistanceMatrix open(Path path, int initialRows, int initialCols) throws IOException {
+        MappedDistanceMatrix matrix = new MappedDistanceMatrix(path);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        matrix.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            matrix.fileLock = tryLock(matrix.channel);
+            if (matrix.fileLock == null) {
+                throw new IOException("Distance matrix " + path + " is locked by another process");
+            }
+            if (!matrix.mapExisting()) {
+                matrix.channel.truncate(0);
+                matrix.format(initialRows, initialCols);
+            }
+        } catch (IOException | RuntimeException e) {
+            matrix.channel.close();
+            throw e;
+        }
+        return matrix;
+    }
+
+    /**
+     * @return bytes a file with the given capacities occupies
+     */
+    public static long bytesFor(int rows, int cols) {
+        return cellsOffset(rows, cols) + (long) rows * cols * Integer.BYTES;
+    }
+
+    /**
+     * @return true if a file with the given capacities fits a single mapping
+     */
+    public static boolean fits(int rows, int cols) {
+        return bytesFor(rows, cols) <= MAX_BYTES;
+    }
+
+    /**
+     * @return true if the file was closed cleanly the last time it was open; false for a
+     *         new file or after a crash
+     */
+    public boolean wasCleanlyClosed() {
+        return cleanlyClosed;
+    }
+
+    /**
+     * Record that the file is in use, so a crash before {@link #close()} is detected on the
+     * next open.
+     */
+    public void markOpen() {
+        buffer.putInt(OFFSET_CLEAN, 0);
+        buffer.force();
+    }
+
+    public int rowCapacity() {
+        return rowCapacity;
+    }
+
+    public int colCapacity() {
+        return colCapacity;
+    }
+
+    public long rowId(int row) {
+        return buffer.getLong(rowOffset(row));
+    }
+
+    public double rowLat(int row) {
+        return buffer.getDouble(rowOffset(row) + 8);
+    }
+
+    public double rowLng(int row) {
+        return buffer.getDouble(rowOffset(row) + 16);
+    }
+
+    public long colId(int col) {
+        return buffer.getLong(colOffset(col));
+    }
+
+    public double colLat(int col) {
+        return buffer.getDouble(colOffset(col) + 8);
+    }
+
+    public double colLng(int col) {
+        return buffer.getDouble(colOffset(col) + 16);
+    }
+
+    /**
+     * @param id owner ID, or 0 to free the slot
+     */
+    public void setRow(int row, long id, double lat, double lng) {
+        writeSlot(rowOffset(row), id, lat, lng);
+    }
+
+    /**
+     * @param id owner ID, or 0 to free the slot
+     */
+    public void setCol(int col, long id, double lat, double lng) {
+        writeSlot(colOffset(col), id, lat, lng);
+    }
+
+    /**
+     * @return distance in metres, or {@link #UNKNOWN}
+     */
+    public int get(int row, int col) {
+        return cells.get(row * colCapacity + col);
+    }
+
+    public void put(int row, int col, int metres) {
+        cells.put(row * colCapacity + col, metres);
+    }
+
+    /**
+     * @param metres one value per column slot
+     */
+    public void putRow(int row, int[] metres) {
+        cells.put(row * colCapacity, metres, 0, colCapacity);
+    }
+
+    /**
+     * Grow the file to at least the given capacities, copying every slot and cell. New cells
+     * are {@link #UNKNOWN}. The file is rewritten to a temporary sibling and moved into
+     * place, so a crash mid-copy leaves the old file intact.
+     *
+     * @return false if the grown file would not fit a single mapping; nothing changes then
+     */
+    public boolean ensureCapacity(int rows, int cols) throws IOException {
+        if (rows <= rowCapacity && cols <= colCapacity) {
+            return true;
+        }
+        int newRows = Math.max(rows, rowCapacity);
+        int newCols = Math.max(cols, colCapacity);
+        if (!fits(newRows, newCols)) {
+            return false;
+        }
+
+        Path grown = path.resolveSibling(path.getFileName() + ".grow");
+        MappedDistanceMatrix target = new MappedDistanceMatrix(grown);
+        target.channel = FileChannel.open(grown, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            target.format(newRows, newCols);
+            for (int row = 0; row < rowCapacity; row++) {
+                target.setRow(row, rowId(row), rowLat(row), rowLng(row));
+                int[] values = new int[colCapacity];
+                cells.get(row * colCapacity, values);
+                target.cells.put(row * newCols, values);
+            }
+            for (int col = 0; col < colCapacity; col++) {
+                target.setCol(col, colId(col), colLat(col), colLng(col));
+            }
+            target.buffer.putInt(OFFSET_CLEAN, 0);
+            target.buffer.force();
+        } finally {
+            target.channel.close();
+        }
+
+        // The old mapping is released once unreachable; replacing the file under it is safe
+        fileLock.release();
+        channel.close();
+        Files.move(grown, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileLock = channel.lock();
+        map(newRows, newCols);
+        return true;
+    }
+
+    /**
+     * Flush all cells, mark the file cleanly closed and release it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        buffer.force();
+        buffer.putInt(OFFSET_CLEAN, 1);
+        buffer.force();
+        fileLock.release();
+        channel.close();
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Already open elsewhere in this JVM
+            return null;
+        }
+    }
+
+    private boolean mapExisting() throws IOException {
+        long size = channel.size();
+        if (size < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        int rows = header.getInt(OFFSET_ROWS);
+        int cols = header.getInt(OFFSET_COLS);
+        if (header.getInt(OFFSET_MAGIC) != MAGIC || header.getInt(OFFSET_VERSION) != FORMAT_VERSION
+                || rows <= 0 || cols <= 0 || !fits(rows, cols) || size != bytesFor(rows, cols)) {
+            return false;
+        }
+        map(rows, cols);
+        cleanlyClosed = buffer.getInt(OFFSET_CLEAN) == 1;
+        return true;
+    }
+
+    private void format(int rows, int cols) throws IOException {
+        if (!fits(rows, cols)) {
+            throw new IOException("Distance matrix of " + rows + " x " + cols + " exceeds " + MAX_BYTES + " bytes");
+        }
+        map(rows, cols);
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        buffer.putInt(OFFSET_VERSION, FORMAT_VERSION);
+        buffer.putInt(OFFSET_ROWS, rows);
+        buffer.putInt(OFFSET_COLS, cols);
+        buffer.putInt(OFFSET_CLEAN, 0);
+        int[] unknown = new int[cols];
+        Arrays.fill(unknown, UNKNOWN);
+        for (int row = 0; row < rows; row++) {
+            cells.put(row * cols, unknown);
+        }
+        cleanlyClosed = false;
+    }
+
+    private void map(int rows, int cols) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(rows, cols));
+        int offset = (int) cellsOffset(rows, cols);
+        cells = buffer.slice(offset, buffer.capacity() - offset).asIntBuffer();
+        rowCapacity = rows;
+        colCapacity = cols;
+    }
+
+    private void writeSlot(int offset, long id, double lat, double lng) {
+        buffer.putLong(offset, id);
+        buffer.putDouble(offset + 8, lat);
+        buffer.putDouble(offset + 16, lng);
+    }
+
+    private int rowOffset(int row) {
+        return HEADER_BYTES + row * SLOT_BYTES;
+    }
+
+    private int colOffset(int col) {
+        return HEADER_BYTES + rowCapacity * SLOT_BYTES + col * SLOT_BYTES;
+    }
+
+    private static long cellsOffset(int rows, int cols) {
+        return HEADER_BYTES + (long) (rows + cols) * SLOT_BYTES;
+    }
+}
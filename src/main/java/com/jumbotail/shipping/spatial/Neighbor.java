@@ -0,0 +1,10 @@
+package com.jumbotail.shipping.spatial;
+
+/**
+ * A point returned from a spatial query together with its great-circle distance.
+ *
+ * @param item the matched point
+ * @param distanceKm great-circle distance from the query coordinate in kilometers
+ */
+public record Neighbor<T>(T item, double distanceKm) {
+}
@@ -0,0 +1,90 @@
+package com.jumbotail.shipping.spatial;
+
+import java.util.List;
+
+/**
+ * Immutable simple polygon in latitude/longitude degrees with a fast containment test.
+ *
+ * Edges are treated as straight lines in lat/lng space, which is how zones are drawn on a
+ * map and is accurate for city- and state-sized zones. Polygons must not cross the antimeridian.
+ */
+public final class Polygon {
+
+    private final double[] lats;
+    private final double[] lngs;
+    private final BoundingBox bounds;
+
+    private Polygon(double[] lats, double[] lngs) {
+        this.lats = lats;
+        this.lngs = lngs;
+        double minLat = Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double maxLng = -Double.MAX_VALUE;
+        for (int i = 0; i < lats.length; i++) {
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLng = Math.min(minLng, lngs[i]);
+            maxLng = Math.max(maxLng, lngs[i]);
+        }
+        this.bounds = new BoundingBox(minLat, minLng, maxLat, maxLng);
+    }
+
+    /**
+     * @param lats vertex latitudes in degrees
+     * @param lngs vertex longitudes in degrees, same length as lats
+     * @return polygon over the vertices; the ring is closed implicitly
+     */
+    public static Polygon of(double[] lats, double[] lngs) {
+        if (lats.length != lngs.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must have the same length");
+        }
+        if (lats.length < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 vertices, got " + lats.length);
+        }
+        return new Polygon(lats.clone(), lngs.clone());
+    }
+
+    /**
+     * @param vertices ring of {lat, lng} pairs
+     * @return polygon over the vertices; the ring is closed implicitly
+     */
+    public static Polygon of(List<double[]> vertices) {
+        double[] lats = new double[vertices.size()];
+        double[] lngs = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            lats[i] = vertices.get(i)[0];
+            lngs[i] = vertices.get(i)[1];
+        }
+        return of(lats, lngs);
+    }
+
+    public BoundingBox bounds() {
+        return bounds;
+    }
+
+    public int vertexCount() {
+        return lats.length;
+    }
+
+    /**
+     * Even-odd ray casting test, short-circuited by the bounding box.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @return true if the point lies inside the polygon
+     */
+    public boolean contains(double lat, double lng) {
+        if (!bounds.contains(lat, lng)) {
+            return false;
+        }
+        boolean inside = false;
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if ((lats[i] > lat) != (lats[j] > lat)
+                    && lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
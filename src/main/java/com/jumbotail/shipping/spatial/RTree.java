@@ -0,0 +1,129 @@
+package com.jumbotail.shipping.spatial;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable R-tree over latitude/longitude bounding boxes, bulk-loaded with
+ * Sort-Tile-Recursive packing.
+ *
+ * STR packing fills every node to capacity and keeps sibling boxes from overlapping much,
+ * so a point query visits only a few nodes per level. The tree is rebuilt rather than
+ * updated, which suits data that changes rarely and is read on every request.
+ *
+ * @param <T> payload carried by each box
+ */
+public final class RTree<T> {
+
+    private static final int NODE_CAPACITY = 16;
+
+    private final Node root;
+    private final int size;
+
+    private RTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Bulk-load a tree in O(n log n).
+     *
+     * @param source items to index
+     * @param bounds bounding box accessor
+     * @return immutable tree
+     */
+    public static <T> RTree<T> build(List<T> source, Function<T, BoundingBox> bounds) {
+        if (source.isEmpty()) {
+            return new RTree<>(null, 0);
+        }
+        List<Node> level = new ArrayList<>(source.size());
+        for (T item : source) {
+            level.add(new Node(bounds.apply(item), item, null));
+        }
+        while (level.size() > 1) {
+            level = pack(level);
+        }
+        return new RTree<>(level.get(0), source.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visit every item whose bounding box contains the point.
+     *
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     * @param visitor called once per matching item
+     */
+    public void search(double lat, double lng, Consumer<? super T> visitor) {
+        if (root != null) {
+            search(root, lat, lng, visitor);
+        }
+    }
+
+    /**
+     * @return every item whose bounding box contains the point
+     */
+    public List<T> search(double lat, double lng) {
+        List<T> result = new ArrayList<>();
+        search(lat, lng, result::add);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void search(Node node, double lat, double lng, Consumer<? super T> visitor) {
+        if (!node.bounds.contains(lat, lng)) {
+            return;
+        }
+        if (node.children == null) {
+            visitor.accept((T) node.item);
+            return;
+        }
+        for (Node child : node.children) {
+            search(child, lat, lng, visitor);
+        }
+    }
+
+    /**
+     * Group one level into parent nodes: sort by longitude into vertical slices, then by
+     * latitude within each slice, and cut each slice into runs of NODE_CAPACITY.
+     */
+    private static List<Node> pack(List<Node> level) {
+        int parentCount = (level.size() + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+
+        List<Node> sorted = new ArrayList<>(level);
+        sorted.sort(Comparator.comparingDouble(node -> node.bounds.centerLng()));
+
+        List<Node> parents = new ArrayList<>(parentCount);
+        for (int sliceStart = 0; sliceStart < sorted.size(); sliceStart += sliceSize) {
+            List<Node> slice = new ArrayList<>(sorted.subList(sliceStart, Math.min(sliceStart + sliceSize, sorted.size())));
+            slice.sort(Comparator.comparingDouble(node -> node.bounds.centerLat()));
+            for (int start = 0; start < slice.size(); start += NODE_CAPACITY) {
+                Node[] children = slice.subList(start, Math.min(start + NODE_CAPACITY, slice.size())).toArray(new Node[0]);
+                BoundingBox bounds = children[0].bounds;
+                for (int i = 1; i < children.length; i++) {
+                    bounds = bounds.union(children[i].bounds);
+                }
+                parents.add(new Node(bounds, null, children));
+            }
+        }
+        return parents;
+    }
+
+    /**
+     * Leaf entries carry an item and no children; inner nodes carry children and no item.
+     */
+    private record Node(BoundingBox bounds, Object item, Node[] children) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.jumbotail.shipping.spatial;
+
+import com.jumbotail.shipping.util.DistanceCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Batch nearest-site join: matches many query points to their nearest site in one sorted
+ * sweep over a uniform latitude/longitude grid, instead of one independent nearest search
+ * per query.
+ *
+ * Queries are sorted by grid cell and processed cell by cell. For each occupied cell the
+ * nearest site to the cell centre gives an upper bound d0 on every query's answer, so only
+ * sites within d0 + 2r of the centre (r = centre-to-corner distance) can win anywhere in
+ * the cell. That short candidate list is found once per cell with a KD-tree radius search
+ * and scanned for each query in the cell, so answers are exactly those of a per-query
+ * nearest search while the tree is walked once per cell rather than once per query.
+ * Candidates are compared by chord length between unit vectors, as in {@link KdTree}, so
+ * the scan needs no trigonometry beyond projecting each query once.
+ */
+public final class SpatialJoin {
+
+    private static final int QUERIES_PER_CELL = 8;
+
+    private SpatialJoin() {
+    }
+
+    /**
+     * Match every query point to its nearest site.
+     *
+     * @param sites sites to match against
+     * @param lat site latitude accessor in degrees
+     * @param lng site longitude accessor in degrees
+     * @param queryLats query latitudes in degrees
+     * @param queryLngs query longitudes in degrees, same length as queryLats
+     * @return per-query index of the nearest site and its great-circle distance
+     */
+    public static <T> Result nearest(List<T> sites, ToDoubleFunction<T> lat, ToDoubleFunction<T> lng,
+                                     double[] queryLats, double[] queryLngs) {
+        if (queryLats.length != queryLngs.length) {
+            throw new IllegalArgumentException("Query latitude and longitude arrays differ in length");
+        }
+        int n = queryLats.length;
+        int[] siteIndexes = new int[n];
+        double[] distances = new double[n];
+        Arrays.fill(siteIndexes, -1);
+        Arrays.fill(distances, Double.NaN);
+        if (n == 0 || sites.isEmpty()) {
+            return new Result(siteIndexes, distances);
+        }
+
+        double[] siteXyz = new double[sites.size() * 3];
+        List<Integer> ids = new ArrayList<>(sites.size());
+        for (int i = 0; i < sites.size(); i++) {
+            project(lat.applyAsDouble(sites.get(i)), lng.applyAsDouble(sites.get(i)), siteXyz, i * 3);
+            ids.add(i);
+        }
+        KdTree<Integer> tree = KdTree.build(ids, i -> lat.applyAsDouble(sites.get(i)), i -> lng.applyAsDouble(sites.get(i)));
+
+        Grid grid = Grid.over(queryLats, queryLngs, Math.max(1, Math.min(sites.size(), n / QUERIES_PER_CELL)));
+
+        // Sort queries by cell, packing the cell number above the query position
+        long[] packed = new long[n];
+        for (int q = 0; q < n; q++) {
+            packed[q] = ((long) grid.cellOf(queryLats[q], queryLngs[q]) << 32) | q;
+        }
+        Arrays.sort(packed);
+
+        double[] queryXyz = new double[3];
+        int start = 0;
+        while (start < n) {
+            int cell = (int) (packed[start] >>> 32);
+            int end = start + 1;
+            while (end < n && (int) (packed[end] >>> 32) == cell) {
+                end++;
+            }
+
+            if (end - start == 1) {
+                // Lone query in its cell: a direct search is cheaper than a candidate list
+                int q = (int) packed[start];
+                Neighbor<Integer> nearest = tree.nearest(queryLats[q], queryLngs[q]).orElseThrow();
+                siteIndexes[q] = nearest.item();
+                distances[q] = nearest.distanceKm();
+                start = end;
+                continue;
+            }
+
+            double centerLat = grid.centerLat(cell);
+            double centerLng = grid.centerLng(cell);
+            double bound = tree.nearest(centerLat, centerLng).orElseThrow().distanceKm();
+            List<Neighbor<Integer>> inRange = tree.within(centerLat, centerLng, bound + 2.0 * grid.cornerKm(cell));
+            int[] candidates = new int[inRange.size()];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = inRange.get(i).item();
+            }
+
+            for (int i = start; i < end; i++) {
+                int q = (int) packed[i];
+                project(queryLats[q], queryLngs[q], queryXyz, 0);
+                int best = -1;
+                double bestChordSq = Double.MAX_VALUE;
+                for (int s : candidates) {
+                    double dx = siteXyz[s * 3] - queryXyz[0];
+                    double dy = siteXyz[s * 3 + 1] - queryXyz[1];
+                    double dz = siteXyz[s * 3 + 2] - queryXyz[2];
+                    double chordSq = dx * dx + dy * dy + dz * dz;
+                    if (chordSq < bestChordSq) {
+                        bestChordSq = chordSq;
+                        best = s;
+                    }
+                }
+                siteIndexes[q] = best;
+                distances[q] = KdTree.chordToKm(bestChordSq);
+            }
+            start = end;
+        }
+        return new Result(siteIndexes, distances);
+    }
+
+    private static void project(double lat, double lng, double[] xyz, int offset) {
+        double latRad = Math.toRadians(lat);
+        double lngRad = Math.toRadians(lng);
+        double cosLat = Math.cos(latRad);
+        xyz[offset] = cosLat * Math.cos(lngRad);
+        xyz[offset + 1] = cosLat * Math.sin(lngRad);
+        xyz[offset + 2] = Math.sin(latRad);
+    }
+
+    /**
+     * @param siteIndexes per query, index into the site list of its nearest site
+     * @param distancesKm per query, great-circle distance to that site in kilometers
+     */
+    public record Result(int[] siteIndexes, double[] distancesKm) {
+    }
+
+    /**
+     * Uniform grid over the queries' bounding box, numbered row by row.
+     */
+    private record Grid(double minLat, double minLng, double cellHeight, double cellWidth, int rows, int cols) {
+
+        static Grid over(double[] lats, double[] lngs, int targetCells) {
+            double minLat = 90.0;
+            double maxLat = -90.0;
+            double minLng = 180.0;
+            double maxLng = -180.0;
+            for (int i = 0; i < lats.length; i++) {
+                minLat = Math.min(minLat, lats[i]);
+                maxLat = Math.max(maxLat, lats[i]);
+                minLng = Math.min(minLng, lngs[i]);
+                maxLng = Math.max(maxLng, lngs[i]);
+            }
+            double height = Math.max(maxLat - minLat, 1e-6);
+            double width = Math.max(maxLng - minLng, 1e-6);
+            int rows = (int) Math.max(1, Math.min(targetCells, Math.round(Math.sqrt(targetCells * height / width))));
+            int cols = Math.max(1, targetCells / rows);
+            return new Grid(minLat, minLng, height / rows, width / cols, rows, cols);
+        }
+
+        int cellOf(double lat, double lng) {
+            int row = Math.min(rows - 1, (int) ((lat - minLat) / cellHeight));
+            int col = Math.min(cols - 1, (int) ((lng - minLng) / cellWidth));
+            return row * cols + col;
+        }
+
+        double centerLat(int cell) {
+            return minLat + (cell / cols + 0.5) * cellHeight;
+        }
+
+        double centerLng(int cell) {
+            return minLng + (cell % cols + 0.5) * cellWidth;
+        }
+
+        /**
+         * @return distance from the cell centre to its farthest corner, with a small margin
+         *         since on large cells the farthest point need not be exactly a corner
+         */
+        double cornerKm(int cell) {
+            double lat = centerLat(cell);
+            double lng = centerLng(cell);
+            double corner = 0.0;
+            for (int dy = -1; dy <= 1; dy += 2) {
+                for (int dx = -1; dx <= 1; dx += 2) {
+                    corner = Math.max(corner, DistanceCalculator.calculateDistance(lat, lng,
+                            lat + dy * cellHeight / 2.0, lng + dx * cellWidth / 2.0));
+                }
+            }
+            return corner * 1.01;
+        }
+    }
+}
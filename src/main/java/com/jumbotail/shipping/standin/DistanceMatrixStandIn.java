@@ -0,0 +1,345 @@
+package com.jumbotail.shipping.standin;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Google Distance Matrix API, for load tests and benchmarks of the
+ * Google strategy on machines without network access or an API key.
+ *
+ * Answers {@code GET /maps/api/distancematrix/json?origins=...&destinations=...} in the
+ * API's JSON format and enforces its limits of 25 origins, 25 destinations and 100
+ * elements. Each element is replayed from recorded answers if there is one, and otherwise
+ * synthesised as the great-circle distance times a detour factor, driven at a fixed
+ * speed. Given an upstream URL, requests are instead passed through to the real API and
+ * its elements recorded for later replay.
+ *
+ * Replies are delayed by a log-normal latency drawn from the configured median and 99th
+ * percentile. A share of requests can be failed with HTTP 500, answered with
+ * {@code OVER_QUERY_LIMIT}, or stalled for a long time to exercise client timeouts.
+ * Delayed replies are sent from a scheduler, so thousands of requests can be pending at
+ * once without a thread each.
+ */
+@Slf4j
+public final class DistanceMatrixStandIn implements Closeable {
+
+    public static final String PATH = "/maps/api/distancematrix/json";
+
+    private static final int MAX_PLACES = 25;
+    private static final int MAX_ELEMENTS = 100;
+    // z-score of the 99th percentile of a normal distribution
+    private static final double Z_99 = 2.326;
+
+    /**
+     * How the stand-in behaves.
+     *
+     * @param detourFactor       road distance as a multiple of great-circle distance
+     * @param speedKmph          average speed synthesised durations assume
+     * @param medianLatencyMs    median reply latency; 0 replies at once
+     * @param p99LatencyMs       99th percentile reply latency; equal to the median for a fixed delay
+     * @param errorRate          share of requests failed with HTTP 500
+     * @param overQueryLimitRate share of requests answered with status OVER_QUERY_LIMIT
+     * @param stallRate          share of requests held for stallMs before being answered
+     * @param stallMs            how long stalled requests are held
+     */
+    public record Behaviour(double detourFactor, double speedKmph, long medianLatencyMs, long p99LatencyMs,
+                            double errorRate, double overQueryLimitRate, double stallRate, long stallMs) {
+
+        /**
+         * Synthesised distances with no added latency or faults.
+         */
+        public static Behaviour ideal() {
+            return new Behaviour(1.3, 40, 0, 0, 0, 0, 0, 0);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledThreadPoolExecutor replies;
+    private final ObjectMapper objectMapper;
+    private final Behaviour behaviour;
+    private final RecordedElements recordings;
+    private final String upstreamUrl;
+    private final String upstreamKey;
+    private final HttpClient upstream;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong elements = new AtomicLong();
+
+    private DistanceMatrixStandIn(HttpServer server, Behaviour behaviour, RecordedElements recordings,
+                                  String upstreamUrl, String upstreamKey, ObjectMapper objectMapper) {
+        this.server = server;
+        this.behaviour = behaviour;
+        this.recordings = recordings;
+        this.upstreamUrl = upstreamUrl;
+        this.upstreamKey = upstreamKey;
+        this.objectMapper = objectMapper;
+        this.upstream = upstreamUrl != null ? HttpClient.newHttpClient() : null;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(upstreamUrl != null ? 16 : 4, runnable -> {
+            Thread thread = new Thread(runnable, "distance-standin-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replies = new ScheduledThreadPoolExecutor(2, runnable -> {
+            Thread thread = new Thread(runnable, "distance-standin-reply-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.replies.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Start a stand-in on a local port.
+     *
+     * @param port        port to listen on, 0 for any free port
+     * @param recordings  file of recorded elements to replay, or null to synthesise everything
+     * @param upstreamUrl real Distance Matrix URL to pass requests through to and record
+     *                    from, or null to answer locally
+     * @param upstreamKey API key for upstream requests
+     */
+    public static DistanceMatrixStandIn start(int port, Behaviour behaviour, Path recordings,
+                                              String upstreamUrl, String upstreamKey) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        DistanceMatrixStandIn standIn = new DistanceMatrixStandIn(server, behaviour,
+                RecordedElements.load(recordings, objectMapper), upstreamUrl, upstreamKey, objectMapper);
+        server.createContext(PATH, standIn::handle);
+        server.setExecutor(standIn.handlers);
+        server.start();
+        log.info("Distance Matrix stand-in listening on {} ({} recorded elements, {})", standIn.url(),
+                standIn.recordings.size(), upstreamUrl != null ? "recording from " + upstreamUrl : "replaying");
+        return standIn;
+    }
+
+    /**
+     * @return URL to use as {@code google.maps.base-url}
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    /**
+     * @return requests received so far
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * @return elements answered so far, which is what Google would have billed
+     */
+    public long elements() {
+        return elements.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        replies.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        try {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            double[][] origins = parsePlaces(query.get("origins"));
+            double[][] destinations = parsePlaces(query.get("destinations"));
+
+            double fault = ThreadLocalRandom.current().nextDouble();
+            if (fault < behaviour.errorRate()) {
+                reply(exchange, 500, "{\"status\":\"UNKNOWN_ERROR\"}".getBytes(StandardCharsets.UTF_8), latencyMs());
+                return;
+            }
+            fault -= behaviour.errorRate();
+            if (fault < behaviour.overQueryLimitRate()) {
+                reply(exchange, 200, status("OVER_QUERY_LIMIT"), latencyMs());
+                return;
+            }
+            fault -= behaviour.overQueryLimitRate();
+            long delayMs = fault < behaviour.stallRate() ? behaviour.stallMs() : latencyMs();
+
+            if (origins == null || destinations == null) {
+                reply(exchange, 200, status("INVALID_REQUEST"), delayMs);
+            } else if (origins.length > MAX_PLACES || destinations.length > MAX_PLACES) {
+                reply(exchange, 200, status("MAX_DIMENSIONS_EXCEEDED"), delayMs);
+            } else if (origins.length * destinations.length > MAX_ELEMENTS) {
+                reply(exchange, 200, status("MAX_ELEMENTS_EXCEEDED"), delayMs);
+            } else if (upstream != null) {
+                reply(exchange, 200, passThrough(query, origins, destinations), 0);
+            } else {
+                elements.addAndGet((long) origins.length * destinations.length);
+                reply(exchange, 200, objectMapper.writeValueAsBytes(answer(origins, destinations)), delayMs);
+            }
+        } catch (Exception e) {
+            log.warn("Distance Matrix stand-in failed a request: {}", e.toString());
+            reply(exchange, 500, "{\"status\":\"UNKNOWN_ERROR\"}".getBytes(StandardCharsets.UTF_8), 0);
+        }
+    }
+
+    private GoogleDistanceMatrixResponse answer(double[][] origins, double[][] destinations) {
+        List<GoogleDistanceMatrixResponse.Row> rows = new ArrayList<>(origins.length);
+        for (double[] origin : origins) {
+            List<GoogleDistanceMatrixResponse.Element> row = new ArrayList<>(destinations.length);
+            for (double[] destination : destinations) {
+                GoogleDistanceMatrixResponse.Element recorded = recordings.get(origin[0], origin[1], destination[0], destination[1]);
+                row.add(recorded != null ? recorded : synthesise(origin, destination));
+            }
+            GoogleDistanceMatrixResponse.Row matrixRow = new GoogleDistanceMatrixResponse.Row();
+            matrixRow.setElements(row);
+            rows.add(matrixRow);
+        }
+        GoogleDistanceMatrixResponse response = new GoogleDistanceMatrixResponse();
+        response.setStatus("OK");
+        response.setRows(rows);
+        return response;
+    }
+
+    private GoogleDistanceMatrixResponse.Element synthesise(double[] origin, double[] destination) {
+        double roadKm = DistanceCalculator.calculateDistance(origin[0], origin[1], destination[0], destination[1])
+                * behaviour.detourFactor();
+        int seconds = (int) Math.round(roadKm / behaviour.speedKmph() * 3600);
+
+        GoogleDistanceMatrixResponse.Distance distance = new GoogleDistanceMatrixResponse.Distance();
+        distance.setValue((int) Math.round(roadKm * 1000));
+        distance.setText(String.format(Locale.ROOT, "%.1f km", roadKm));
+        GoogleDistanceMatrixResponse.Duration duration = new GoogleDistanceMatrixResponse.Duration();
+        duration.setValue(seconds);
+        duration.setText(Math.max(1, seconds / 60) + " mins");
+        GoogleDistanceMatrixResponse.Element element = new GoogleDistanceMatrixResponse.Element();
+        element.setStatus("OK");
+        element.setDistance(distance);
+        element.setDuration(duration);
+        return element;
+    }
+
+    // Forward to the real API with our key and keep every OK element it returns
+    private byte[] passThrough(Map<String, String> query, double[][] origins, double[][] destinations)
+            throws IOException, InterruptedException {
+        URI uri = URI.create(upstreamUrl
+                + "?origins=" + URLEncoder.encode(query.get("origins"), StandardCharsets.UTF_8)
+                + "&destinations=" + URLEncoder.encode(query.get("destinations"), StandardCharsets.UTF_8)
+                + "&key=" + URLEncoder.encode(upstreamKey, StandardCharsets.UTF_8));
+        HttpResponse<byte[]> response = upstream.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        GoogleDistanceMatrixResponse parsed = objectMapper.readValue(response.body(), GoogleDistanceMatrixResponse.class);
+        if ("OK".equals(parsed.getStatus()) && parsed.getRows() != null) {
+            for (int i = 0; i < Math.min(origins.length, parsed.getRows().size()); i++) {
+                List<GoogleDistanceMatrixResponse.Element> row = parsed.getRows().get(i).getElements();
+                for (int j = 0; row != null && j < Math.min(destinations.length, row.size()); j++) {
+                    if ("OK".equals(row.get(j).getStatus())) {
+                        recordings.record(origins[i][0], origins[i][1], destinations[j][0], destinations[j][1], row.get(j));
+                    }
+                }
+            }
+            elements.addAndGet((long) origins.length * destinations.length);
+        }
+        return response.body();
+    }
+
+    private long latencyMs() {
+        long median = behaviour.medianLatencyMs();
+        if (median <= 0) {
+            return 0;
+        }
+        double sigma = Math.log(Math.max(behaviour.p99LatencyMs(), median) / (double) median) / Z_99;
+        return Math.round(median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    private byte[] status(String status) {
+        return ("{\"rows\":[],\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void reply(HttpExchange exchange, int code, byte[] body, long delayMs) {
+        if (delayMs <= 0) {
+            send(exchange, code, body);
+        } else {
+            replies.schedule(() -> send(exchange, code, body), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(code, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // The client gave up waiting
+            log.debug("Distance Matrix stand-in could not reply: {}", e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * @return lat/lng pairs of a {@code lat,lng|lat,lng} list, or null if missing or not all coordinates
+     */
+    private static double[][] parsePlaces(String places) {
+        if (places == null || places.isBlank()) {
+            return null;
+        }
+        String[] parts = places.split("\\|");
+        double[][] parsed = new double[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            String[] latLng = parts[i].split(",");
+            if (latLng.length != 2) {
+                return null;
+            }
+            try {
+                parsed[i] = new double[]{Double.parseDouble(latLng[0].trim()), Double.parseDouble(latLng[1].trim())};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jumbotail.shipping.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distance Matrix elements recorded from the real API, replayed by the stand-in server.
+ *
+ * Stored as one JSON line per origin and destination pair, so recordings from several
+ * sessions can simply be concatenated. Points are matched to 5 decimal places (about a
+ * metre), and a later line for a pair replaces an earlier one.
+ */
+final class RecordedElements {
+
+    record Recording(double[] origin, double[] destination, GoogleDistanceMatrixResponse.Element element) {
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Map<String, GoogleDistanceMatrixResponse.Element> elements = new ConcurrentHashMap<>();
+
+    private RecordedElements(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param path recordings file, created on the first recording if absent; null keeps
+     *             nothing and records nothing
+     */
+    static RecordedElements load(Path path, ObjectMapper objectMapper) throws IOException {
+        RecordedElements recorded = new RecordedElements(path, objectMapper);
+        if (path != null && Files.exists(path)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (!line.isBlank()) {
+                    Recording recording = objectMapper.readValue(line, Recording.class);
+                    recorded.elements.put(key(recording.origin()[0], recording.origin()[1],
+                            recording.destination()[0], recording.destination()[1]), recording.element());
+                }
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * @return the recorded element for the pair, or null if none
+     */
+    GoogleDistanceMatrixResponse.Element get(double originLat, double originLng, double destinationLat, double destinationLng) {
+        return elements.get(key(originLat, originLng, destinationLat, destinationLng));
+    }
+
+    /**
+     * Keep an element answered by the real API and append it to the recordings file.
+     */
+    synchronized void record(double originLat, double originLng, double destinationLat, double destinationLng,
+                             GoogleDistanceMatrixResponse.Element element) throws IOException {
+        elements.put(key(originLat, originLng, destinationLat, destinationLng), element);
+        if (path == null) {
+            return;
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Recording recording = new Recording(new double[]{originLat, originLng},
+                new double[]{destinationLat, destinationLng}, element);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(objectMapper.writeValueAsString(recording));
+            out.newLine();
+        }
+    }
+
+    int size() {
+        return elements.size();
+    }
+
+    private static String key(double originLat, double originLng, double destinationLat, double destinationLng) {
+        return String.format(Locale.ROOT, "%.5f,%.5f|%.5f,%.5f", originLat, originLng, destinationLat, destinationLng);
+    }
+}
@@ -4,21 +4,24 @@ package com.jumbotail.shipping.strategy;
  * Enum representing different delivery speeds
  */
 public enum DeliverySpeed {
-    STANDARD("standard", 10.0, 0.0, 24.0, 1.2), // 24h handling, 1.2x time factor
-    EXPRESS("express", 10.0, 1.2, 4.0, 0.8);    // 4h handling, 0.8x time factor
+    STANDARD("standard", 10.0, 0.0, 24.0, 1.2, 48.0), // 24h handling, 1.2x time factor, 48h promise
+    EXPRESS("express", 10.0, 1.2, 4.0, 0.8, 8.0);     // 4h handling, 0.8x time factor, 8h promise
     
     private final String code;
     private final double standardCharge; // Standard courier charge in Rs
     private final double extraPerKg;    // Extra charge per kg in Rs
     private final double handlingHours;  // Fixed handling time in hours
     private final double timeFactor;    // Multiplier for transport time
+    private final double slaHours;      // Promised delivery time in hours
     
-    DeliverySpeed(String code, double standardCharge, double extraPerKg, double handlingHours, double timeFactor) {
+    DeliverySpeed(String code, double standardCharge, double extraPerKg, double handlingHours, double timeFactor,
+                  double slaHours) {
         this.code = code;
         this.standardCharge = standardCharge;
         this.extraPerKg = extraPerKg;
         this.handlingHours = handlingHours;
         this.timeFactor = timeFactor;
+        this.slaHours = slaHours;
     }
     
     /**
@@ -53,6 +56,17 @@ public enum DeliverySpeed {
         return standardCharge + (extraPerKg * weight);
     }
     
+    /**
+     * Estimate delivery time: handling time plus transport time scaled by the speed's time factor
+     * 
+     * @param distance Distance in kilometers
+     * @param transportMode Transport mode used for the distance
+     * @return Estimated delivery time in hours
+     */
+    public double estimateDeliveryHours(double distance, TransportMode transportMode) {
+        return handlingHours + (distance / transportMode.getAverageSpeed()) * timeFactor;
+    }
+    
     public String getCode() {
         return code;
     }
@@ -72,4 +86,8 @@ public enum DeliverySpeed {
     public double getTimeFactor() {
         return timeFactor;
     }
+
+    public double getSlaHours() {
+        return slaHours;
+    }
 }
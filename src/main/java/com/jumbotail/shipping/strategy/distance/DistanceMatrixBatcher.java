@@ -0,0 +1,198 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces single-pair Distance Matrix lookups that arrive within a short window into
+ * shared multi-origin / multi-destination calls, and hands each caller its own element.
+ *
+ * When the window closes, the waiting pairs are packed first-fit into groups within the
+ * API limits (25 origins, 25 destinations, 100 elements). Google bills every element of
+ * the origins x destinations grid, so a pair only joins a group while at least
+ * {@code minFill} of the group's grid is elements someone asked for: at 1.0, pairs that
+ * share an origin or a destination are merged and nothing unrequested is paid for.
+ * Identical pairs in one window share a single element.
+ */
+@Slf4j
+final class DistanceMatrixBatcher {
+
+    /**
+     * Start one Distance Matrix call.
+     *
+     * @return completes with the decoded response, with null or exceptionally if the call failed
+     */
+    @FunctionalInterface
+    interface MatrixCall {
+        CompletableFuture<DistanceMatrixDecoder.Matrix> fetch(double[] originLats, double[] originLngs,
+                                                              double[] destinationLats, double[] destinationLngs);
+    }
+
+    private record Place(double lat, double lng) {
+    }
+
+    private record Pending(Place origin, Place destination, CompletableFuture<DistanceMatrixDecoder.Element> result) {
+    }
+
+    private final MatrixCall call;
+    private final long windowMicros;
+    private final double minFill;
+    private final int maxPlaces;
+    private final int maxElements;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private List<Pending> pending = new ArrayList<>();
+
+    /**
+     * @param windowMicros how long the first pair of a batch waits for others
+     * @param minFill smallest share of a call's elements that must have been requested
+     * @param threads threads that close windows and start calls
+     */
+    DistanceMatrixBatcher(MatrixCall call, long windowMicros, double minFill, int threads,
+                          int maxPlaces, int maxElements) {
+        this.call = call;
+        this.windowMicros = windowMicros;
+        this.minFill = minFill;
+        this.maxPlaces = maxPlaces;
+        this.maxElements = maxElements;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "distance-matrix-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a pair for the next call.
+     *
+     * @return the pair's element, or null if the call failed
+     */
+    CompletableFuture<DistanceMatrixDecoder.Element> submit(double srcLat, double srcLng,
+                                                            double destLat, double destLng) {
+        Pending pair = new Pending(new Place(srcLat, srcLng), new Place(destLat, destLng), new CompletableFuture<>());
+        boolean first;
+        boolean full;
+        synchronized (this) {
+            pending.add(pair);
+            first = pending.size() == 1;
+            full = pending.size() >= maxElements;
+        }
+        if (full) {
+            executor.execute(this::flush);
+        } else if (first) {
+            executor.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+        }
+        return pair.result();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        List<Pending> abandoned;
+        synchronized (this) {
+            abandoned = pending;
+            pending = new ArrayList<>();
+        }
+        abandoned.forEach(pair -> pair.result().complete(null));
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (Pending pair : batch) {
+            Group target = null;
+            for (Group group : groups) {
+                if (group.accepts(pair)) {
+                    target = group;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new Group();
+                groups.add(target);
+            }
+            target.add(pair);
+        }
+
+        groups.forEach(Group::run);
+    }
+
+    private final class Group {
+        private final Map<Place, Integer> origins = new LinkedHashMap<>();
+        private final Map<Place, Integer> destinations = new LinkedHashMap<>();
+        private final Set<Long> requested = new HashSet<>();
+        private final List<Pending> pairs = new ArrayList<>();
+
+        boolean accepts(Pending pair) {
+            Integer origin = origins.get(pair.origin());
+            Integer destination = destinations.get(pair.destination());
+            int originCount = origins.size() + (origin == null ? 1 : 0);
+            int destinationCount = destinations.size() + (destination == null ? 1 : 0);
+            if (originCount > maxPlaces || destinationCount > maxPlaces || originCount * destinationCount > maxElements) {
+                return false;
+            }
+            boolean known = origin != null && destination != null && requested.contains(cell(origin, destination));
+            int requestedCount = requested.size() + (known ? 0 : 1);
+            return requestedCount >= minFill * originCount * destinationCount;
+        }
+
+        void add(Pending pair) {
+            int origin = origins.computeIfAbsent(pair.origin(), place -> origins.size());
+            int destination = destinations.computeIfAbsent(pair.destination(), place -> destinations.size());
+            requested.add(cell(origin, destination));
+            pairs.add(pair);
+        }
+
+        void run() {
+            CompletableFuture<DistanceMatrixDecoder.Matrix> response;
+            try {
+                response = call.fetch(lats(origins), lngs(origins), lats(destinations), lngs(destinations));
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((answer, error) -> {
+                if (error != null) {
+                    log.error("Batched Distance Matrix call failed. Error: {}", error.getMessage());
+                } else if (pairs.size() > 1) {
+                    log.debug("Answered {} pairs with one {} x {} Distance Matrix call",
+                            pairs.size(), origins.size(), destinations.size());
+                }
+                for (Pending pair : pairs) {
+                    pair.result().complete(answer != null
+                            ? answer.element(origins.get(pair.origin()), destinations.get(pair.destination()))
+                            : null);
+                }
+            });
+        }
+
+        private static long cell(int origin, int destination) {
+            return (long) origin << 32 | destination;
+        }
+
+        private static double[] lats(Map<Place, Integer> places) {
+            return places.keySet().stream().mapToDouble(Place::lat).toArray();
+        }
+
+        private static double[] lngs(Map<Place, Integer> places) {
+            return places.keySet().stream().mapToDouble(Place::lng).toArray();
+        }
+    }
+}
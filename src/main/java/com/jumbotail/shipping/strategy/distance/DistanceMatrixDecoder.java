@@ -0,0 +1,227 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming decoder for Distance Matrix replies that keeps only what the strategy uses:
+ * the reply status and, per element, its status, distance and duration.
+ *
+ * Binding a reply to {@link com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse}
+ * allocates the address lists, the "text" strings and an object per element, row, distance
+ * and duration. This walks the tokens once into primitive arrays sized from the request,
+ * skipping everything else. Field names are canonicalised by Jackson and element statuses
+ * are matched against the parser's character buffer, so a reply costs the arrays, the
+ * parser and the reply status string.
+ */
+public final class DistanceMatrixDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final String[] ELEMENT_STATUSES = {
+            "OK", "NOT_FOUND", "ZERO_RESULTS", "MAX_ROUTE_LENGTH_EXCEEDED", "UNKNOWN", "MISSING"};
+    private static final char[][] ELEMENT_STATUS_CHARS = new char[4][];
+
+    static {
+        for (int i = 0; i < ELEMENT_STATUS_CHARS.length; i++) {
+            ELEMENT_STATUS_CHARS[i] = ELEMENT_STATUSES[i].toCharArray();
+        }
+    }
+
+    private static final byte OK = 0;
+    private static final byte UNKNOWN = 4;
+    private static final byte MISSING = 5;
+
+    private DistanceMatrixDecoder() {
+    }
+
+    /**
+     * One element of a reply, for a caller that asked about a single pair.
+     *
+     * @param status  element status, as for {@link Matrix#elementStatus}
+     * @param metres  route length, or -1 if the element had none
+     * @param seconds route duration, or -1 if the element had none
+     */
+    public record Element(String status, int metres, int seconds) {
+
+        /**
+         * @return true if the status is OK and the element carries both a distance and a duration
+         */
+        public boolean isOk() {
+            return "OK".equals(status) && metres >= 0 && seconds >= 0;
+        }
+    }
+
+    /**
+     * Decoded reply. Elements are addressed by their row and column in the request; any
+     * the reply left out read as not OK.
+     */
+    public static final class Matrix {
+
+        private final int rows;
+        private final int columns;
+        private final int[] metres;
+        private final int[] seconds;
+        private final byte[] statuses;
+        private String status;
+
+        private Matrix(int rows, int columns) {
+            this.rows = rows;
+            this.columns = columns;
+            this.metres = new int[rows * columns];
+            this.seconds = new int[rows * columns];
+            this.statuses = new byte[rows * columns];
+            Arrays.fill(metres, -1);
+            Arrays.fill(seconds, -1);
+            Arrays.fill(statuses, MISSING);
+        }
+
+        /**
+         * @return the top-level status of the reply, or null if it had none
+         */
+        public String status() {
+            return status;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public int columns() {
+            return columns;
+        }
+
+        /**
+         * @return true if the element's status is OK and it carries both a distance and a duration
+         */
+        public boolean isOk(int row, int column) {
+            int i = row * columns + column;
+            return statuses[i] == OK && metres[i] >= 0 && seconds[i] >= 0;
+        }
+
+        /**
+         * @return the element's status, "UNKNOWN" for one this decoder does not know and
+         *         "MISSING" if the reply left the element out
+         */
+        public String elementStatus(int row, int column) {
+            return ELEMENT_STATUSES[statuses[row * columns + column]];
+        }
+
+        public Element element(int row, int column) {
+            return new Element(elementStatus(row, column), metres(row, column), seconds(row, column));
+        }
+
+        public int metres(int row, int column) {
+            return metres[row * columns + column];
+        }
+
+        public int seconds(int row, int column) {
+            return seconds[row * columns + column];
+        }
+    }
+
+    /**
+     * @param body    reply body as returned by the API
+     * @param rows    number of origins in the request
+     * @param columns number of destinations in the request
+     * @throws IOException if the body is not a JSON object
+     */
+    public static Matrix decode(byte[] body, int rows, int columns) throws IOException {
+        Matrix matrix = new Matrix(rows, columns);
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Distance Matrix reply is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(field) && value == JsonToken.VALUE_STRING) {
+                    matrix.status = parser.getText();
+                } else if ("rows".equals(field) && value == JsonToken.START_ARRAY) {
+                    readRows(parser, matrix);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static void readRows(JsonParser parser, Matrix matrix) throws IOException {
+        int row = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), row++) {
+            if (token != JsonToken.START_OBJECT || row >= matrix.rows) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("elements".equals(field) && value == JsonToken.START_ARRAY) {
+                    readElements(parser, matrix, row);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readElements(JsonParser parser, Matrix matrix, int row) throws IOException {
+        int column = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), column++) {
+            if (token != JsonToken.START_OBJECT || column >= matrix.columns) {
+                parser.skipChildren();
+                continue;
+            }
+            int i = row * matrix.columns + column;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("status".equals(field) && value == JsonToken.VALUE_STRING) {
+                    matrix.statuses[i] = statusCode(parser);
+                } else if ("distance".equals(field) && value == JsonToken.START_OBJECT) {
+                    matrix.metres[i] = readValue(parser);
+                } else if ("duration".equals(field) && value == JsonToken.START_OBJECT) {
+                    matrix.seconds[i] = readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the "value" of a distance or duration object, or -1 if it has none
+     */
+    private static int readValue(JsonParser parser) throws IOException {
+        int value = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("value".equals(field) && token.isNumeric()) {
+                value = parser.getValueAsInt(-1);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    private static byte statusCode(JsonParser parser) throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (byte code = 0; code < ELEMENT_STATUS_CHARS.length; code++) {
+            char[] expected = ELEMENT_STATUS_CHARS[code];
+            if (expected.length == length && Arrays.equals(text, offset, offset + length, expected, 0, length)) {
+                return code;
+            }
+        }
+        return UNKNOWN;
+    }
+}
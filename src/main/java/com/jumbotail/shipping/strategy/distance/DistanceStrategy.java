@@ -2,6 +2,11 @@ package com.jumbotail.shipping.strategy.distance;
 
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface DistanceStrategy {
     
     /**
@@ -14,4 +19,53 @@ public interface DistanceStrategy {
      * @return DistanceResponse containing distance in km and duration in minutes
      */
     DistanceResponse calculate(double srcLat, double srcLng, double destLat, double destLng);
+
+    /**
+     * Calculates the distance without holding the caller's thread.
+     * The default runs {@link #calculate} on the given executor; strategies with
+     * non-blocking I/O override it and leave the executor unused.
+     *
+     * @param executor Runs blocking work
+     * @return DistanceResponse once available
+     * @throws java.util.concurrent.RejectedExecutionException if the executor is saturated
+     */
+    default CompletableFuture<DistanceResponse> calculateAsync(double srcLat, double srcLng, double destLat, double destLng,
+                                                               Executor executor) {
+        return CompletableFuture.supplyAsync(() -> calculate(srcLat, srcLng, destLat, destLng), executor);
+    }
+
+    /**
+     * Calculates the distance from every origin to every destination, handing each origin's
+     * row to the handler as soon as it is complete, in origin order.
+     * The default calls {@link #calculate} once per pair; strategies override it to batch.
+     *
+     * @param originLats      Origin latitudes
+     * @param originLngs      Origin longitudes, same length as originLats
+     * @param destinationLats Destination latitudes
+     * @param destinationLngs Destination longitudes, same length as destinationLats
+     * @param handler         Receives one row per origin
+     */
+    default void calculateMatrix(double[] originLats, double[] originLngs,
+                                 double[] destinationLats, double[] destinationLngs, RowHandler handler) {
+        for (int i = 0; i < originLats.length; i++) {
+            List<DistanceResponse> row = new ArrayList<>(destinationLats.length);
+            for (int j = 0; j < destinationLats.length; j++) {
+                row.add(calculate(originLats[i], originLngs[i], destinationLats[j], destinationLngs[j]));
+            }
+            handler.onRow(i, row);
+        }
+    }
+
+    /**
+     * Receives a distance matrix one origin row at a time.
+     */
+    @FunctionalInterface
+    interface RowHandler {
+
+        /**
+         * @param originIndex Position of the origin in the request
+         * @param row         Distance to each destination, in request order
+         */
+        void onRow(int originIndex, List<DistanceResponse> row);
+    }
 }
@@ -16,6 +16,8 @@ public class DistanceStrategyFactory {
         switch (mode) {
             case GOOGLE:
                 return strategies.get("googleDistanceStrategy");
+            case ROAD_NETWORK:
+                return strategies.get("roadNetworkDistanceStrategy");
             case HAVERSINE:
             default:
                 return strategies.get("haversineDistanceStrategy");
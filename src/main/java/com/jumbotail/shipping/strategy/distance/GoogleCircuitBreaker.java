@@ -0,0 +1,189 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker in front of the Google Distance Matrix API, so that an outage costs one
+ * timeout per window rather than one per request.
+ *
+ * While CLOSED every lookup may call Google, and the outcome and latency of the last
+ * {@code window-size} calls are kept. Once at least {@code minimum-calls} are in the
+ * window and the share of failed calls reaches {@code failure-rate}, or the share of calls
+ * slower than {@code slow-call-ms} reaches {@code slow-call-rate}, the breaker OPENs and
+ * lookups go straight to the fallback. After {@code open-ms} it turns HALF_OPEN and lets
+ * {@code probe-calls} lookups through: if all of them are fast and succeed it closes
+ * again, otherwise it reopens for another {@code open-ms}.
+ */
+@Component
+@Slf4j
+public class GoogleCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long slowCallNanos;
+    private final double slowCallRate;
+    private final long openNanos;
+    private final int probeCalls;
+    private final LongSupplier clock;
+
+    // Ring of the outcomes of the last windowSize calls made while closed
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long shortCircuited;
+
+    @Autowired
+    public GoogleCircuitBreaker(@Value("${google.maps.circuit-breaker.window-size:50}") int windowSize,
+                                @Value("${google.maps.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                                @Value("${google.maps.circuit-breaker.failure-rate:0.5}") double failureRate,
+                                @Value("${google.maps.circuit-breaker.slow-call-ms:2000}") long slowCallMs,
+                                @Value("${google.maps.circuit-breaker.slow-call-rate:0.8}") double slowCallRate,
+                                @Value("${google.maps.circuit-breaker.open-ms:30000}") long openMs,
+                                @Value("${google.maps.circuit-breaker.probe-calls:3}") int probeCalls) {
+        this(windowSize, minimumCalls, failureRate, slowCallMs, slowCallRate, openMs, probeCalls, System::nanoTime);
+    }
+
+    GoogleCircuitBreaker(int windowSize, int minimumCalls, double failureRate, long slowCallMs, double slowCallRate,
+                         long openMs, int probeCalls, LongSupplier clock) {
+        if (windowSize < 1 || probeCalls < 1) {
+            throw new IllegalArgumentException("windowSize and probeCalls must be positive");
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRate = failureRate;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.slowCallRate = slowCallRate;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.probeCalls = probeCalls;
+        this.clock = clock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * Ask to call Google. Every permitted call must be followed by {@link #record}.
+     *
+     * @return false if the lookup should go straight to the fallback
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                shortCircuited++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            log.info("Google circuit breaker half-open, probing with {} calls", probeCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= probeCalls) {
+                shortCircuited++;
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Give back a permit from {@link #tryAcquire} that was not used to call Google.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * Report how a permitted call went.
+     *
+     * @param success false if the call failed or Google answered with a non-OK status
+     * @param elapsedNanos time from the call's start until its answer or failure
+     */
+    public synchronized void record(boolean success, long elapsedNanos) {
+        boolean slowCall = elapsedNanos >= slowCallNanos;
+        switch (state) {
+            case OPEN -> {
+                // Calls started before the breaker opened say nothing new
+            }
+            case HALF_OPEN -> {
+                if (!success || slowCall) {
+                    open("probe " + (success ? "took " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms" : "failed"));
+                } else if (++probesSucceeded >= probeCalls) {
+                    clearWindow();
+                    state = State.CLOSED;
+                    log.info("Google circuit breaker closed after {} successful probes", probesSucceeded);
+                }
+            }
+            case CLOSED -> {
+                if (recorded == windowSize) {
+                    failures -= failed[next] ? 1 : 0;
+                    slowCalls -= slow[next] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                failed[next] = !success;
+                slow[next] = slowCall;
+                failures += success ? 0 : 1;
+                slowCalls += slowCall ? 1 : 0;
+                next = (next + 1) % windowSize;
+
+                if (recorded >= minimumCalls) {
+                    if (failures >= failureRate * recorded) {
+                        open(failures + " of the last " + recorded + " calls failed");
+                    } else if (slowCalls >= slowCallRate * recorded) {
+                        open(slowCalls + " of the last " + recorded + " calls were slow");
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return lookups sent to the fallback because the breaker was open
+     */
+    public synchronized long shortCircuited() {
+        return shortCircuited;
+    }
+
+    private void open(String reason) {
+        log.warn("Google circuit breaker open for {} ms: {}", TimeUnit.NANOSECONDS.toMillis(openNanos), reason);
+        clearWindow();
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void clearWindow() {
+        Arrays.fill(failed, false);
+        Arrays.fill(slow, false);
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking Google Distance Matrix client on {@link HttpClient}.
+ *
+ * No thread waits on a call: the request is handed to the HTTP client and the returned
+ * future completes when the response has arrived and been decoded with
+ * {@link DistanceMatrixDecoder}. At most
+ * {@code max-concurrent} calls are in flight; further calls wait in a queue of up to
+ * {@code max-queued} and are started as earlier ones finish, and beyond that are rejected.
+ */
+@Component
+@Slf4j
+public class GoogleDistanceMatrixClient {
+
+    private final HttpClient httpClient;
+    private final String apiUrl;
+    private final String apiKey;
+    private final Duration timeout;
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    public GoogleDistanceMatrixClient(HttpClient httpClient,
+                                      @Value("${google.maps.base-url:" + GoogleMapsDistanceStrategy.GOOGLE_MAPS_API_URL + "}") String apiUrl,
+                                      @Value("${google.maps.api-key:UNSET}") String apiKey,
+                                      @Value("${google.maps.http.timeout-ms:5000}") long timeoutMs,
+                                      @Value("${google.maps.http.max-concurrent:32}") int maxConcurrent,
+                                      @Value("${google.maps.http.max-queued:1000}") int maxQueued) {
+        this.httpClient = httpClient;
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * Request distances from every origin to every destination.
+     *
+     * @return the decoded response, whatever its status; completes exceptionally on
+     *         transport errors, non-200 replies, unparseable bodies and when the queue is full
+     */
+    public CompletableFuture<DistanceMatrixDecoder.Matrix> fetch(double[] originLats, double[] originLngs,
+                                                                 double[] destinationLats, double[] destinationLngs) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .queryParam("origins", joinPlaces(originLats, originLngs))
+                .queryParam("destinations", joinPlaces(destinationLats, destinationLngs))
+                .queryParam("key", apiKey)
+                .build()
+                .toUri();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+
+        CompletableFuture<DistanceMatrixDecoder.Matrix> result = new CompletableFuture<>();
+        Runnable send = () -> {
+            CompletableFuture<HttpResponse<byte[]>> sent;
+            try {
+                sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                // The call never started (e.g. the client's executor rejected it): free its slot
+                release();
+                result.completeExceptionally(e);
+                return;
+            }
+            sent.whenComplete((response, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    complete(result, response, originLats.length, destinationLats.length);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (inFlight >= maxConcurrent) {
+                if (waiting.size() >= maxQueued) {
+                    result.completeExceptionally(new RejectedExecutionException(
+                            "Distance Matrix queue is full (" + maxQueued + " waiting)"));
+                } else {
+                    waiting.add(send);
+                }
+                return result;
+            }
+            inFlight++;
+        }
+        send.run();
+        return result;
+    }
+
+    /**
+     * @return calls currently in flight
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private static void complete(CompletableFuture<DistanceMatrixDecoder.Matrix> result, HttpResponse<byte[]> response,
+                                 int rows, int columns) {
+        if (response.statusCode() != 200) {
+            result.completeExceptionally(new IOException("Distance Matrix API answered HTTP " + response.statusCode()));
+            return;
+        }
+        try {
+            result.complete(DistanceMatrixDecoder.decode(response.body(), rows, columns));
+        } catch (IOException e) {
+            result.completeExceptionally(new UncheckedIOException(e));
+        }
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        // The finished call's slot passes straight to the next waiting call
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private static String joinPlaces(double[] lats, double[] lngs) {
+        StringJoiner places = new StringJoiner("|");
+        for (int i = 0; i < lats.length; i++) {
+            places.add(lats[i] + "," + lngs[i]);
+        }
+        return places.toString();
+    }
+}
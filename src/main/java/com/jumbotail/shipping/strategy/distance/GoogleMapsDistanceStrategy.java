@@ -3,6 +3,13 @@ package com.jumbotail.shipping.strategy.distance;
 import com.jumbotail.shipping.dto.distance.CalculationMode;
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
 import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+import com.jumbotail.shipping.routing.DetourFactorTable;
+import com.jumbotail.shipping.routing.RoadRoute;
+import com.jumbotail.shipping.service.spatial.DetourFactorStore;
+import com.jumbotail.shipping.service.spatial.RouteCacheStore;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,7 +18,11 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Component("googleDistanceStrategy")
 @RequiredArgsConstructor
@@ -21,21 +32,89 @@ public class GoogleMapsDistanceStrategy implements DistanceStrategy {
     private final RestTemplate restTemplate;
     // Injecting the Haversine strategy so we can fallback to it seamlessly if Google fails
     private final HaversineDistanceStrategy fallbackStrategy;
+    // Learned road/great-circle ratios that let well-sampled regions skip the API call
+    private final DetourFactorStore detourFactors;
+    // Non-blocking client for async and batched lookups
+    private final GoogleDistanceMatrixClient matrixClient;
+    // Google answers kept on disk, consulted before any network call
+    private final RouteCacheStore routeCache;
+    // Sends lookups straight to the fallback while Google is failing or slow
+    private final GoogleCircuitBreaker circuitBreaker;
+    // Shares the API quota between interactive, batch and prefetch callers
+    private final GoogleQuotaManager quota;
 
     @Value("${google.maps.api-key:UNSET}")
     private String apiKey;
 
-    private static final String GOOGLE_MAPS_API_URL = "https://maps.googleapis.com/maps/api/distancematrix/json";
+    // Points at a local stand-in server for load tests without network access
+    @Value("${google.maps.base-url:" + GOOGLE_MAPS_API_URL + "}")
+    private String apiUrl = GOOGLE_MAPS_API_URL;
+
+    // Single-pair lookups arriving within this window share one Distance Matrix call (0 disables)
+    @Value("${google.maps.batch.window-micros:5000}")
+    private long batchWindowMicros;
+
+    @Value("${google.maps.batch.min-fill:1.0}")
+    private double batchMinFill;
+
+    @Value("${google.maps.batch.threads:1}")
+    private int batchThreads;
+
+    private DistanceMatrixBatcher batcher;
+
+    static final String GOOGLE_MAPS_API_URL = "https://maps.googleapis.com/maps/api/distancematrix/json";
+
+    // Distance Matrix API limits: 25 origins, 25 destinations and 100 elements per request
+    private static final int MAX_PLACES_PER_REQUEST = 25;
+    private static final int MAX_ELEMENTS_PER_REQUEST = 100;
+
+    static final String LEARNED_DETOUR = "LEARNED_DETOUR";
+
+    @PostConstruct
+    void startBatching() {
+        if (batchWindowMicros > 0) {
+            batcher = new DistanceMatrixBatcher(this::fetchMatrix, batchWindowMicros, batchMinFill, batchThreads,
+                    MAX_PLACES_PER_REQUEST, MAX_ELEMENTS_PER_REQUEST);
+        }
+    }
+
+    @PreDestroy
+    void stopBatching() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
 
     @Override
     public DistanceResponse calculate(double srcLat, double srcLng, double destLat, double destLng) {
+        DistanceResponse local = answerLocally(srcLat, srcLng, destLat, destLng);
+        if (local != null) {
+            return local;
+        }
+
         if ("UNSET".equals(apiKey) || apiKey.isBlank()) {
             log.warn("Google Maps API key is not configured. Falling back to Haversine calculation.");
             return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
         }
 
+        if (!mayCallGoogle(1)) {
+            return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
+        }
+        long started = System.nanoTime();
+
+        if (batcher != null) {
+            DistanceMatrixDecoder.Element element = batcher.submit(srcLat, srcLng, destLat, destLng).join();
+            circuitBreaker.record(element != null, System.nanoTime() - started);
+            if (element == null || !element.isOk()) {
+                log.warn("Google returned no usable element: {}. Falling back to Haversine.",
+                        element != null ? element.status() : "NULL");
+                return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
+            }
+            return learnFrom(element.metres(), element.seconds(), srcLat, srcLng, destLat, destLng);
+        }
+
         try {
-            URI uri = UriComponentsBuilder.fromHttpUrl(GOOGLE_MAPS_API_URL)
+            URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
                     .queryParam("origins", srcLat + "," + srcLng)
                     .queryParam("destinations", destLat + "," + destLng)
                     .queryParam("key", apiKey)
@@ -45,6 +124,7 @@ public class GoogleMapsDistanceStrategy implements DistanceStrategy {
             log.debug("Calling Google Distance Matrix API: {}", uri.toString().replaceAll("key=[^&]+", "key=***"));
 
             GoogleDistanceMatrixResponse response = restTemplate.getForObject(uri, GoogleDistanceMatrixResponse.class);
+            circuitBreaker.record(response != null && "OK".equals(response.getStatus()), System.nanoTime() - started);
 
             if (response != null && "OK".equals(response.getStatus())) {
                 return parseGoogleResponse(response, srcLat, srcLng, destLat, destLng);
@@ -55,11 +135,198 @@ public class GoogleMapsDistanceStrategy implements DistanceStrategy {
             }
             
         } catch (Exception e) {
+            circuitBreaker.record(false, System.nanoTime() - started);
             log.error("Failed to calculate distance using Google Maps API. Falling back to Haversine. Error: {}", e.getMessage());
             return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
         }
     }
 
+    /**
+     * Same answers as {@link #calculate}, without holding any thread while Google responds
+     * or while the caller waits for its quota.
+     */
+    @Override
+    public CompletableFuture<DistanceResponse> calculateAsync(double srcLat, double srcLng, double destLat, double destLng,
+                                                              Executor executor) {
+        DistanceResponse local = answerLocally(srcLat, srcLng, destLat, destLng);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+
+        if ("UNSET".equals(apiKey) || apiKey.isBlank()) {
+            log.warn("Google Maps API key is not configured. Falling back to Haversine calculation.");
+            return CompletableFuture.completedFuture(fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng));
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng));
+        }
+        return quota.acquireAsync(GoogleQuotaManager.currentPriority(), 1).thenCompose(granted -> {
+            if (!granted) {
+                circuitBreaker.release();
+                return CompletableFuture.completedFuture(fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng));
+            }
+            return callGoogleAsync(srcLat, srcLng, destLat, destLng);
+        });
+    }
+
+    private CompletableFuture<DistanceResponse> callGoogleAsync(double srcLat, double srcLng, double destLat, double destLng) {
+        long started = System.nanoTime();
+        CompletableFuture<DistanceMatrixDecoder.Element> element = batcher != null
+                ? batcher.submit(srcLat, srcLng, destLat, destLng)
+                : fetchMatrix(new double[]{srcLat}, new double[]{srcLng}, new double[]{destLat}, new double[]{destLng})
+                        .thenApply(matrix -> matrix != null ? matrix.element(0, 0) : null);
+        return element.handle((answer, error) -> {
+            circuitBreaker.record(error == null && answer != null, System.nanoTime() - started);
+            if (error != null || answer == null || !answer.isOk()) {
+                log.warn("Google returned no usable element: {}. Falling back to Haversine.",
+                        error != null ? error.getMessage() : answer != null ? answer.status() : "NULL");
+                return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
+            }
+            return learnFrom(answer.metres(), answer.seconds(), srcLat, srcLng, destLat, destLng);
+        });
+    }
+
+    /**
+     * Calls the API once per block of up to 100 elements rather than once per pair. Each
+     * block of origins is handed on as soon as all of its destinations are in. Blocks whose
+     * routes are all in the route cache make no call, and nor does any block while the
+     * circuit breaker is open or the caller's quota is spent. Failed requests and elements fall back to Haversine like
+     * single-pair calls.
+     */
+    @Override
+    public void calculateMatrix(double[] originLats, double[] originLngs,
+                                double[] destinationLats, double[] destinationLngs, RowHandler handler) {
+        if ("UNSET".equals(apiKey) || apiKey.isBlank()) {
+            log.warn("Google Maps API key is not configured. Falling back to Haversine calculation.");
+            fallbackStrategy.calculateMatrix(originLats, originLngs, destinationLats, destinationLngs, handler);
+            return;
+        }
+
+        int destinationBlock = Math.min(MAX_PLACES_PER_REQUEST, destinationLats.length);
+        int originBlock = Math.max(1, Math.min(MAX_PLACES_PER_REQUEST, MAX_ELEMENTS_PER_REQUEST / destinationBlock));
+
+        for (int originStart = 0; originStart < originLats.length; originStart += originBlock) {
+            int originEnd = Math.min(originLats.length, originStart + originBlock);
+            DistanceResponse[][] rows = new DistanceResponse[originEnd - originStart][destinationLats.length];
+
+            for (int destinationStart = 0; destinationStart < destinationLats.length; destinationStart += destinationBlock) {
+                int destinationEnd = Math.min(destinationLats.length, destinationStart + destinationBlock);
+                fillBlock(originLats, originLngs, originStart, originEnd,
+                          destinationLats, destinationLngs, destinationStart, destinationEnd, rows);
+            }
+
+            for (int i = originStart; i < originEnd; i++) {
+                handler.onRow(i, Arrays.asList(rows[i - originStart]));
+            }
+        }
+    }
+
+    private void fillBlock(double[] originLats, double[] originLngs, int originStart, int originEnd,
+                           double[] destinationLats, double[] destinationLngs, int destinationStart, int destinationEnd,
+                           DistanceResponse[][] rows) {
+        boolean allCached = true;
+        for (int i = originStart; i < originEnd; i++) {
+            for (int j = destinationStart; j < destinationEnd; j++) {
+                Optional<RoadRoute> cached = routeCache.get(originLats[i], originLngs[i], destinationLats[j], destinationLngs[j]);
+                rows[i - originStart][j] = cached.map(GoogleMapsDistanceStrategy::toResponse).orElse(null);
+                allCached &= cached.isPresent();
+            }
+        }
+        if (allCached) {
+            return;
+        }
+
+        int elements = (originEnd - originStart) * (destinationEnd - destinationStart);
+        DistanceMatrixDecoder.Matrix matrix = mayCallGoogle(elements)
+                ? fetchBlock(originLats, originLngs, originStart, originEnd,
+                             destinationLats, destinationLngs, destinationStart, destinationEnd)
+                : null;
+
+        for (int i = originStart; i < originEnd; i++) {
+            for (int j = destinationStart; j < destinationEnd; j++) {
+                if (matrix != null && matrix.isOk(i - originStart, j - destinationStart)) {
+                    rows[i - originStart][j] = learnFrom(matrix.metres(i - originStart, j - destinationStart),
+                            matrix.seconds(i - originStart, j - destinationStart),
+                            originLats[i], originLngs[i], destinationLats[j], destinationLngs[j]);
+                } else if (rows[i - originStart][j] == null) {
+                    rows[i - originStart][j] = fallbackStrategy.calculate(originLats[i], originLngs[i], destinationLats[j], destinationLngs[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ask the circuit breaker, then the quota of the current caller's priority, whether a
+     * call of this many elements may go to Google.
+     */
+    private boolean mayCallGoogle(int elements) {
+        if (!circuitBreaker.tryAcquire()) {
+            return false;
+        }
+        if (!quota.tryAcquire(GoogleQuotaManager.currentPriority(), elements)) {
+            circuitBreaker.release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Blocks carry up to 100 elements, so the reply is decoded with {@link DistanceMatrixDecoder}
+     * instead of being bound to {@link GoogleDistanceMatrixResponse}.
+     *
+     * @return the block's decoded reply, or null if the call failed or Google answered with a non-OK status
+     */
+    private DistanceMatrixDecoder.Matrix fetchBlock(double[] originLats, double[] originLngs, int originStart, int originEnd,
+                                                    double[] destinationLats, double[] destinationLngs,
+                                                    int destinationStart, int destinationEnd) {
+        long started = System.nanoTime();
+        try {
+            URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                    .queryParam("origins", joinPlaces(originLats, originLngs, originStart, originEnd))
+                    .queryParam("destinations", joinPlaces(destinationLats, destinationLngs, destinationStart, destinationEnd))
+                    .queryParam("key", apiKey)
+                    .build()
+                    .toUri();
+
+            byte[] body = restTemplate.getForObject(uri, byte[].class);
+            DistanceMatrixDecoder.Matrix matrix = body != null
+                    ? DistanceMatrixDecoder.decode(body, originEnd - originStart, destinationEnd - destinationStart)
+                    : null;
+            circuitBreaker.record(matrix != null && "OK".equals(matrix.status()), System.nanoTime() - started);
+            if (matrix == null || !"OK".equals(matrix.status())) {
+                log.warn("Google API returned non-OK status for a matrix block: {}. Falling back to Haversine.",
+                        matrix != null ? matrix.status() : "NULL");
+                return null;
+            }
+            return matrix;
+        } catch (Exception e) {
+            circuitBreaker.record(false, System.nanoTime() - started);
+            log.error("Failed to calculate a matrix block using Google Maps API. Falling back to Haversine. Error: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private CompletableFuture<DistanceMatrixDecoder.Matrix> fetchMatrix(double[] originLats, double[] originLngs,
+                                                                        double[] destinationLats, double[] destinationLngs) {
+        return matrixClient.fetch(originLats, originLngs, destinationLats, destinationLngs)
+                .thenApply(matrix -> {
+                    if (!"OK".equals(matrix.status())) {
+                        log.warn("Google API returned non-OK status: {}. Falling back to Haversine.", matrix.status());
+                        return null;
+                    }
+                    return matrix;
+                });
+    }
+
+    private static String joinPlaces(double[] lats, double[] lngs, int start, int end) {
+        StringJoiner places = new StringJoiner("|");
+        for (int i = start; i < end; i++) {
+            places.add(lats[i] + "," + lngs[i]);
+        }
+        return places.toString();
+    }
+
     private DistanceResponse parseGoogleResponse(GoogleDistanceMatrixResponse response, double srcLat, double srcLng, double destLat, double destLng) {
         try {
             GoogleDistanceMatrixResponse.Element element = response.getRows().get(0).getElements().get(0);
@@ -69,20 +336,57 @@ public class GoogleMapsDistanceStrategy implements DistanceStrategy {
                 return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
             }
 
-            // Convert meters to kilometers
-            double distanceKm = element.getDistance().getValue() / 1000.0;
-            // Convert seconds to minutes
-            int durationMinutes = element.getDuration().getValue() / 60;
-
-            return DistanceResponse.builder()
-                    .distanceKm(Math.round(distanceKm * 100.0) / 100.0)
-                    .durationMinutes(durationMinutes)
-                    .calculationMode(CalculationMode.GOOGLE.name())
-                    .build();
+            return learnFrom(element, srcLat, srcLng, destLat, destLng);
                     
         } catch (Exception e) {
             log.error("Failed parsing Google JSON response structure. Falling back. Error: {}", e.getMessage());
             return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
         }
     }
+
+    /**
+     * @return an answer from the route cache or a confident detour factor, or null if
+     *         Google has to be asked
+     */
+    private DistanceResponse answerLocally(double srcLat, double srcLng, double destLat, double destLng) {
+        Optional<RoadRoute> cached = routeCache.get(srcLat, srcLng, destLat, destLng);
+        if (cached.isPresent()) {
+            return toResponse(cached.get());
+        }
+        Optional<DetourFactorTable.Estimate> learned = detourFactors.estimate(srcLat, srcLng, destLat, destLng);
+        return learned.map(estimate -> learnedResponse(srcLat, srcLng, destLat, destLng, estimate)).orElse(null);
+    }
+
+    private DistanceResponse learnFrom(GoogleDistanceMatrixResponse.Element element,
+                                       double srcLat, double srcLng, double destLat, double destLng) {
+        return learnFrom(element.getDistance().getValue(), element.getDuration().getValue(),
+                srcLat, srcLng, destLat, destLng);
+    }
+
+    private DistanceResponse learnFrom(int metres, int seconds,
+                                       double srcLat, double srcLng, double destLat, double destLng) {
+        detourFactors.record(srcLat, srcLng, destLat, destLng, metres / 1000.0, seconds / 60.0);
+        RoadRoute route = new RoadRoute(metres, seconds);
+        routeCache.put(srcLat, srcLng, destLat, destLng, route);
+        return toResponse(route);
+    }
+
+    private static DistanceResponse learnedResponse(double srcLat, double srcLng, double destLat, double destLng,
+                                                    DetourFactorTable.Estimate estimate) {
+        double distanceKm = DistanceCalculator.calculateDistance(srcLat, srcLng, destLat, destLng) * estimate.factor();
+
+        return DistanceResponse.builder()
+                .distanceKm(Math.round(distanceKm * 100.0) / 100.0)
+                .durationMinutes((int) (distanceKm * estimate.secondsPerKm() / 60))
+                .calculationMode(LEARNED_DETOUR)
+                .build();
+    }
+
+    private static DistanceResponse toResponse(RoadRoute route) {
+        return DistanceResponse.builder()
+                .distanceKm(Math.round(route.metres() / 10.0) / 100.0)
+                .durationMinutes((int) (route.seconds() / 60))
+                .calculationMode(CalculationMode.GOOGLE.name())
+                .build();
+    }
 }
@@ -0,0 +1,202 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Shares the outbound Google Distance Matrix quota between callers of different priority,
+ * so that a large batch job cannot spend the budget live checkout quotes depend on.
+ *
+ * Elements are drawn from a per-second and a per-day budget. Interactive callers may use
+ * all of both. Batch callers must leave {@code batch-reserve} of each budget untouched
+ * and prefetch callers {@code prefetch-reserve}, so as the budgets run down prefetch is
+ * turned away first, then batch, and interactive last. A caller that finds the per-second
+ * budget short waits for it to refill, up to the wait allowed for its priority; a caller
+ * that would eat into the day's reserve is turned away at once. Turned away callers fall
+ * back to Haversine. Asynchronous lookups wait through {@link #acquireAsync}, so a batch
+ * caller's wait does not hold a request thread.
+ *
+ * The priority of the current request is carried on the calling thread, set with
+ * {@link #callAs} or {@link #runAs}; unlabelled callers are interactive.
+ */
+@Component
+@Slf4j
+public class GoogleQuotaManager {
+
+    private static final ThreadLocal<RequestPriority> PRIORITY = ThreadLocal.withInitial(() -> RequestPriority.INTERACTIVE);
+
+    private final Bucket perSecond;
+    private final Bucket perDay;
+    private final long perSecondCapacity;
+    private final long perDayCapacity;
+    private final Map<RequestPriority, Double> reserves = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Long> maxWaitNanos = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, AtomicLong> denied = new EnumMap<>(RequestPriority.class);
+
+    public GoogleQuotaManager(@Value("${google.maps.quota.per-second:1000}") long perSecond,
+                              @Value("${google.maps.quota.per-day:100000}") long perDay,
+                              @Value("${google.maps.quota.batch-reserve:0.2}") double batchReserve,
+                              @Value("${google.maps.quota.prefetch-reserve:0.5}") double prefetchReserve,
+                              @Value("${google.maps.quota.interactive-wait-ms:100}") long interactiveWaitMs,
+                              @Value("${google.maps.quota.batch-wait-ms:5000}") long batchWaitMs,
+                              @Value("${google.maps.quota.prefetch-wait-ms:5000}") long prefetchWaitMs) {
+        if (perSecond < 1 || perDay < 1) {
+            throw new IllegalArgumentException("Google quota budgets must be positive");
+        }
+        this.perSecondCapacity = perSecond;
+        this.perDayCapacity = perDay;
+        this.perSecond = Bucket.builder()
+                .addLimit(Bandwidth.classic(perSecond, Refill.greedy(perSecond, Duration.ofSeconds(1))))
+                .build();
+        this.perDay = Bucket.builder()
+                .addLimit(Bandwidth.classic(perDay, Refill.intervally(perDay, Duration.ofDays(1))))
+                .build();
+        reserves.put(RequestPriority.INTERACTIVE, 0.0);
+        reserves.put(RequestPriority.BATCH, batchReserve);
+        reserves.put(RequestPriority.PREFETCH, prefetchReserve);
+        maxWaitNanos.put(RequestPriority.INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(interactiveWaitMs));
+        maxWaitNanos.put(RequestPriority.BATCH, TimeUnit.MILLISECONDS.toNanos(batchWaitMs));
+        maxWaitNanos.put(RequestPriority.PREFETCH, TimeUnit.MILLISECONDS.toNanos(prefetchWaitMs));
+        for (RequestPriority priority : RequestPriority.values()) {
+            denied.put(priority, new AtomicLong());
+        }
+    }
+
+    /**
+     * Run a task with Google lookups made on this thread charged at the given priority.
+     */
+    public static <T> T callAs(RequestPriority priority, Supplier<T> task) {
+        RequestPriority previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            return task.get();
+        } finally {
+            PRIORITY.set(previous);
+        }
+    }
+
+    public static void runAs(RequestPriority priority, Runnable task) {
+        callAs(priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return priority of Google lookups made on this thread
+     */
+    public static RequestPriority currentPriority() {
+        return PRIORITY.get();
+    }
+
+    /**
+     * Take budget for a call of the given number of elements, waiting on this thread for the
+     * per-second budget up to the priority's limit.
+     *
+     * @return false if the call should not be made
+     */
+    public boolean tryAcquire(RequestPriority priority, int elements) {
+        long deadline = System.nanoTime() + maxWaitNanos.get(priority);
+        while (true) {
+            long waitNanos = take(priority, elements);
+            if (waitNanos <= 0) {
+                return waitNanos == 0;
+            }
+            if (System.nanoTime() + waitNanos > deadline) {
+                return deny(priority, "per-second");
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return deny(priority, "per-second");
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #tryAcquire}, but any wait for the per-second budget is spent on a
+     * timer rather than on the calling thread.
+     *
+     * @return completes with false if the call should not be made
+     */
+    public CompletableFuture<Boolean> acquireAsync(RequestPriority priority, int elements) {
+        CompletableFuture<Boolean> granted = new CompletableFuture<>();
+        retryAcquire(priority, elements, System.nanoTime() + maxWaitNanos.get(priority), granted);
+        return granted;
+    }
+
+    private void retryAcquire(RequestPriority priority, int elements, long deadline, CompletableFuture<Boolean> granted) {
+        long waitNanos = take(priority, elements);
+        if (waitNanos <= 0) {
+            granted.complete(waitNanos == 0);
+        } else if (System.nanoTime() + waitNanos > deadline) {
+            granted.complete(deny(priority, "per-second"));
+        } else {
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> retryAcquire(priority, elements, deadline, granted));
+        }
+    }
+
+    /**
+     * @return 0 if the budget was taken, -1 if the call was turned away, otherwise how long
+     *         until the per-second budget may have refilled enough to try again
+     */
+    private long take(RequestPriority priority, int elements) {
+        double reserve = reserves.get(priority);
+        long secondReserve = (long) Math.ceil(reserve * perSecondCapacity);
+        long dayReserve = (long) Math.ceil(reserve * perDayCapacity);
+        if (elements + secondReserve > perSecondCapacity) {
+            deny(priority, "per-second");
+            return -1;
+        }
+        synchronized (this) {
+            if (perDay.getAvailableTokens() - elements < dayReserve) {
+                deny(priority, "daily");
+                return -1;
+            }
+            if (perSecond.getAvailableTokens() - elements >= secondReserve) {
+                perSecond.tryConsume(elements);
+                perDay.tryConsume(elements);
+                return 0;
+            }
+            return Math.max(1, perSecond.estimateAbilityToConsume(elements + secondReserve).getNanosToWaitForRefill());
+        }
+    }
+
+    /**
+     * @return elements left in today's budget
+     */
+    public long remainingToday() {
+        return perDay.getAvailableTokens();
+    }
+
+    /**
+     * @return calls turned away at the given priority
+     */
+    public long denied(RequestPriority priority) {
+        return denied.get(priority).get();
+    }
+
+    private boolean deny(RequestPriority priority, String budget) {
+        long count = denied.get(priority).incrementAndGet();
+        if (count == 1 || count % 1000 == 0) {
+            log.warn("Google {} quota short for {} calls ({} turned away so far). Falling back to Haversine.",
+                    budget, priority, count);
+        }
+        return false;
+    }
+}
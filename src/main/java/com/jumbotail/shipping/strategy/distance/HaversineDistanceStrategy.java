@@ -3,10 +3,14 @@ package com.jumbotail.shipping.strategy.distance;
 import com.jumbotail.shipping.dto.distance.CalculationMode;
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
 import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.util.BatchDistanceCalculator;
 import com.jumbotail.shipping.util.DistanceCalculator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component("haversineDistanceStrategy")
 @Slf4j
 public class HaversineDistanceStrategy implements DistanceStrategy {
@@ -23,6 +27,27 @@ public class HaversineDistanceStrategy implements DistanceStrategy {
         
         double distanceKm = DistanceCalculator.calculateDistance(source, dest);
         
+        return toResponse(distanceKm);
+    }
+
+    /**
+     * Computes each origin's row with the batch kernel, vectorised when available.
+     */
+    @Override
+    public void calculateMatrix(double[] originLats, double[] originLngs,
+                                double[] destinationLats, double[] destinationLngs, RowHandler handler) {
+        double[] distances = new double[destinationLats.length];
+        for (int i = 0; i < originLats.length; i++) {
+            BatchDistanceCalculator.distancesFrom(originLats[i], originLngs[i], destinationLats, destinationLngs, distances);
+            List<DistanceResponse> row = new ArrayList<>(distances.length);
+            for (double distanceKm : distances) {
+                row.add(toResponse(distanceKm));
+            }
+            handler.onRow(i, row);
+        }
+    }
+
+    private static DistanceResponse toResponse(double distanceKm) {
         // Estimate duration based on distance and average speed
         int durationMinutes = (int) Math.round((distanceKm / AVERAGE_SPEED_KMH) * 60);
 
@@ -0,0 +1,159 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.routing.ContractionHierarchy;
+import com.jumbotail.shipping.routing.OsmRoadGraphReader;
+import com.jumbotail.shipping.routing.RoadGraph;
+import com.jumbotail.shipping.routing.RoadNetwork;
+import com.jumbotail.shipping.routing.RoadRoute;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Offline road distances from a local OpenStreetMap extract, with no network calls.
+ *
+ * Once the application is ready the extract is read and contracted into a
+ * {@link ContractionHierarchy} on a background thread, and written to the graph cache
+ * file; later starts read the cache instead, unless the extract has changed since. Until
+ * the hierarchy is ready, lookups are answered by Haversine rather than waiting for it.
+ * Points too far from any road, unreachable pairs and a missing extract also fall back to
+ * Haversine, like the Google strategy.
+ */
+@Component("roadNetworkDistanceStrategy")
+@RequiredArgsConstructor
+@Slf4j
+public class RoadNetworkDistanceStrategy implements DistanceStrategy {
+
+    private final HaversineDistanceStrategy fallbackStrategy;
+
+    @Value("${shipping.road-network.osm-file:}")
+    private String osmFile;
+
+    @Value("${shipping.road-network.graph-cache:data/road-network.ch}")
+    private String graphCache;
+
+    @Value("${shipping.road-network.max-snap-km:2.0}")
+    private double maxSnapKm;
+
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+    private final CompletableFuture<RoadNetwork> network = new CompletableFuture<>();
+
+    // Runs the load off the request path, on a daemon thread of its own
+    private Executor loader = task -> {
+        Thread thread = new Thread(task, "road-network-loader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    /**
+     * Start building or reading the road network as soon as the application is up, if
+     * an extract or a graph cache is there to load.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!osmFile.isBlank() || Files.exists(Path.of(graphCache))) {
+            startLoading();
+        }
+    }
+
+    @Override
+    public DistanceResponse calculate(double srcLat, double srcLng, double destLat, double destLng) {
+        RoadNetwork roads = network();
+        if (roads == null) {
+            return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
+        }
+
+        Optional<RoadRoute> route = roads.route(srcLat, srcLng, destLat, destLng, maxSnapKm);
+        if (route.isEmpty()) {
+            log.debug("No road route for [{},{}] to [{},{}]. Falling back to Haversine.", srcLat, srcLng, destLat, destLng);
+            return fallbackStrategy.calculate(srcLat, srcLng, destLat, destLng);
+        }
+
+        return DistanceResponse.builder()
+                .distanceKm(Math.round(route.get().metres() / 10.0) / 100.0)
+                .durationMinutes((int) Math.round(route.get().seconds() / 60))
+                .calculationMode(CalculationMode.ROAD_NETWORK.name())
+                .build();
+    }
+
+    /**
+     * @return the road network, or null while it is still loading or if none could be loaded
+     */
+    private RoadNetwork network() {
+        return startLoading().getNow(null);
+    }
+
+    /**
+     * Start the load once, unless it is already running or done.
+     *
+     * @return completes with the road network, or with null if none could be loaded
+     */
+    CompletableFuture<RoadNetwork> startLoading() {
+        if (loadStarted.compareAndSet(false, true)) {
+            loader.execute(() -> {
+                try {
+                    network.complete(load());
+                } catch (RuntimeException e) {
+                    log.error("Failed to load road network. Falling back to Haversine. Error: {}", e.toString());
+                    network.complete(null);
+                }
+            });
+        }
+        return network;
+    }
+
+    private RoadNetwork load() {
+        Path cache = Path.of(graphCache);
+        Path extract = osmFile.isBlank() ? null : Path.of(osmFile);
+        try {
+            Long fingerprint = extract != null && Files.exists(extract) ? RoadNetwork.fingerprint(extract) : null;
+
+            if (Files.exists(cache)) {
+                try {
+                    ContractionHierarchy hierarchy = ContractionHierarchy.read(cache);
+                    if (fingerprint == null || hierarchy.fingerprint() == fingerprint) {
+                        log.info("Loaded road network of {} nodes from {}", hierarchy.nodeCount(), cache);
+                        return new RoadNetwork(hierarchy);
+                    }
+                    log.info("Road network cache {} is older than {}; rebuilding", cache, extract);
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable road network cache {}: {}", cache, e.getMessage());
+                }
+            }
+
+            if (fingerprint == null) {
+                log.warn("No OpenStreetMap extract configured or found ({}). Falling back to Haversine calculation.",
+                        extract != null ? extract : "shipping.road-network.osm-file is unset");
+                return null;
+            }
+
+            long start = System.nanoTime();
+            RoadGraph graph = OsmRoadGraphReader.read(extract);
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, fingerprint);
+            log.info("Built road network of {} nodes and {} edges from {} in {} ms",
+                    graph.nodeCount(), graph.edgeCount(), extract, (System.nanoTime() - start) / 1_000_000);
+            try {
+                hierarchy.write(cache);
+            } catch (IOException e) {
+                log.warn("Could not write road network cache {}: {}", cache, e.getMessage());
+            }
+            return new RoadNetwork(hierarchy);
+        } catch (IOException e) {
+            log.error("Failed to load road network from {}. Falling back to Haversine. Error: {}", extract, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.jumbotail.shipping.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Haversine distances from one origin to many destinations held as primitive arrays.
+ *
+ * Uses a SIMD kernel built on the incubating {@code jdk.incubator.vector} module when the
+ * JVM was started with {@code --add-modules jdk.incubator.vector}, and a scalar loop
+ * otherwise. Both compute the same formula as {@link DistanceCalculator}.
+ */
+@Slf4j
+public final class BatchDistanceCalculator {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final boolean VECTORIZED = detectVectorSupport();
+
+    private BatchDistanceCalculator() {
+    }
+
+    /**
+     * Compute the great-circle distance from an origin to every destination.
+     *
+     * @param lat origin latitude in degrees
+     * @param lng origin longitude in degrees
+     * @param lats destination latitudes in degrees
+     * @param lngs destination longitudes in degrees, same length as lats
+     * @param out receives the distances in kilometers; at least as long as lats
+     */
+    public static void distancesFrom(double lat, double lng, double[] lats, double[] lngs, double[] out) {
+        if (lats.length != lngs.length || out.length < lats.length) {
+            throw new IllegalArgumentException("Destination and output arrays differ in length");
+        }
+        if (VECTORIZED) {
+            VectorDistanceKernel.distancesFrom(lat, lng, lats, lngs, out);
+        } else {
+            scalarDistancesFrom(lat, lng, lats, lngs, out, 0);
+        }
+    }
+
+    /**
+     * @return true if distances are computed with the SIMD kernel
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Scalar kernel, also used for the tail the SIMD kernel leaves over.
+     *
+     * @param from first destination index to compute
+     */
+    static void scalarDistancesFrom(double lat, double lng, double[] lats, double[] lngs, double[] out, int from) {
+        double lat1 = Math.toRadians(lat);
+        double lng1 = Math.toRadians(lng);
+        double cosLat1 = Math.cos(lat1);
+        for (int i = from; i < lats.length; i++) {
+            double lat2 = Math.toRadians(lats[i]);
+            double sinDLat = Math.sin((lat2 - lat1) * 0.5);
+            double sinDLng = Math.sin((Math.toRadians(lngs[i]) - lng1) * 0.5);
+            double a = sinDLat * sinDLat + cosLat1 * Math.cos(lat2) * sinDLng * sinDLng;
+            out[i] = 2.0 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1.0 - a));
+        }
+    }
+
+    private static boolean detectVectorSupport() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("jdk.incubator.vector not enabled; batch distances use the scalar kernel");
+            return false;
+        }
+        try {
+            // Touch the kernel so a broken or partial module fails here rather than mid-request
+            double[] probe = new double[1];
+            VectorDistanceKernel.distancesFrom(0.0, 0.0, probe, probe, new double[1]);
+            log.info("Batch distances use the SIMD kernel ({} lanes)", VectorDistanceKernel.lanes());
+            return true;
+        } catch (LinkageError e) {
+            log.warn("SIMD distance kernel unavailable, using the scalar kernel: {}", e.toString());
+            return false;
+        }
+    }
+}
@@ -12,6 +12,14 @@ public class DistanceCalculator {
     
     private static final double EARTH_RADIUS_KM = 6371.0;
     
+    /**
+     * Longest hop, in kilometers, that {@link DistanceMode#FAST} approximates (the MINI_VAN range)
+     */
+    public static final double SHORT_HOP_KM = 100.0;
+    
+    private static final double MAX_FAST_LAT = 80.0;
+    private static final double MIN_FAST_COS_LAT = Math.cos(Math.toRadians(MAX_FAST_LAT));
+    
     /**
      * Calculate distance between two locations in kilometers using Haversine formula
      * 
@@ -20,6 +28,18 @@ public class DistanceCalculator {
      * @return Distance in kilometers
      */
     public static double calculateDistance(Location location1, Location location2) {
+        return calculateDistance(location1, location2, DistanceMode.HAVERSINE);
+    }
+    
+    /**
+     * Calculate distance between two locations in kilometers
+     * 
+     * @param location1 First location
+     * @param location2 Second location
+     * @param mode Haversine, or the equirectangular fast mode for short hops
+     * @return Distance in kilometers
+     */
+    public static double calculateDistance(Location location1, Location location2, DistanceMode mode) {
         if (location1 == null || location2 == null) {
             throw new IllegalArgumentException("Locations cannot be null");
         }
@@ -29,26 +49,119 @@ public class DistanceCalculator {
             throw new IllegalArgumentException("Location coordinates cannot be null");
         }
         
-        double lat1 = Math.toRadians(location1.getLat());
-        double lon1 = Math.toRadians(location1.getLng());
-        double lat2 = Math.toRadians(location2.getLat());
-        double lon2 = Math.toRadians(location2.getLng());
+        double distance = calculateDistance(location1.getLat(), location1.getLng(),
+                                            location2.getLat(), location2.getLng(), mode);
+        
+        log.debug("Distance between ({}, {}) and ({}, {}): {} km ({})", 
+                  location1.getLat(), location1.getLng(),
+                  location2.getLat(), location2.getLng(), distance, mode);
+        
+        return distance;
+    }
+    
+    /**
+     * Calculate distance between two coordinates in kilometers using Haversine formula.
+     * Primitive variant for hot loops: no boxing, no null checks and no logging.
+     * 
+     * @param lat1 First latitude in degrees
+     * @param lng1 First longitude in degrees
+     * @param lat2 Second latitude in degrees
+     * @param lng2 Second longitude in degrees
+     * @return Distance in kilometers
+     */
+    public static double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
         
-        double dLat = lat2 - lat1;
-        double dLon = lon2 - lon1;
+        double dLat = lat2Rad - lat1Rad;
+        double dLon = Math.toRadians(lng2 - lng1);
         
         double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(lat1) * Math.cos(lat2) *
+                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
                    Math.sin(dLon / 2) * Math.sin(dLon / 2);
         
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
         
-        double distance = EARTH_RADIUS_KM * c;
+        return EARTH_RADIUS_KM * c;
+    }
+    
+    /**
+     * Primitive variant for hot loops with a selectable mode: no boxing, no null checks and no logging.
+     * 
+     * @param lat1 First latitude in degrees
+     * @param lng1 First longitude in degrees
+     * @param lat2 Second latitude in degrees
+     * @param lng2 Second longitude in degrees
+     * @param mode Haversine, or the equirectangular fast mode for short hops
+     * @return Distance in kilometers
+     */
+    public static double calculateDistance(double lat1, double lng1, double lat2, double lng2, DistanceMode mode) {
+        if (mode == DistanceMode.FAST && Math.abs(lat1) <= MAX_FAST_LAT && Math.abs(lat2) <= MAX_FAST_LAT) {
+            double lat1Rad = Math.toRadians(lat1);
+            double lat2Rad = Math.toRadians(lat2);
+            double distance = equirectangular(lat2Rad - lat1Rad, Math.toRadians(lng2 - lng1),
+                                              Math.cos((lat1Rad + lat2Rad) / 2));
+            if (distance <= SHORT_HOP_KM) {
+                return distance;
+            }
+        }
+        return calculateDistance(lat1, lng1, lat2, lng2);
+    }
+    
+    /**
+     * Calculate distance between two prepared locations in kilometers using Haversine formula.
+     * Reuses the cached radians and latitude cosines, so only the half-angle sines and the
+     * arctangent are computed per call.
+     * 
+     * @param location1 First location
+     * @param location2 Second location
+     * @return Distance in kilometers
+     */
+    public static double calculateDistance(PreparedLocation location1, PreparedLocation location2) {
+        double sinDLat = Math.sin((location2.latRad() - location1.latRad()) / 2);
+        double sinDLon = Math.sin((location2.lngRad() - location1.lngRad()) / 2);
         
-        log.debug("Distance between ({}, {}) and ({}, {}): {} km", 
-                  location1.getLat(), location1.getLng(),
-                  location2.getLat(), location2.getLng(), distance);
+        double a = sinDLat * sinDLat +
+                   location1.cosLat() * location2.cosLat() * sinDLon * sinDLon;
         
-        return distance;
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        
+        return EARTH_RADIUS_KM * c;
+    }
+    
+    /**
+     * Calculate distance between two prepared locations in kilometers with a selectable mode.
+     * In {@link DistanceMode#FAST} a short hop costs one square root and no trigonometry,
+     * since the mean latitude cosine is taken from the cached values.
+     * 
+     * @param location1 First location
+     * @param location2 Second location
+     * @param mode Haversine, or the equirectangular fast mode for short hops
+     * @return Distance in kilometers
+     */
+    public static double calculateDistance(PreparedLocation location1, PreparedLocation location2, DistanceMode mode) {
+        if (mode == DistanceMode.FAST
+                && location1.cosLat() >= MIN_FAST_COS_LAT && location2.cosLat() >= MIN_FAST_COS_LAT) {
+            double distance = equirectangular(location2.latRad() - location1.latRad(),
+                                              location2.lngRad() - location1.lngRad(),
+                                              (location1.cosLat() + location2.cosLat()) / 2);
+            if (distance <= SHORT_HOP_KM) {
+                return distance;
+            }
+        }
+        return calculateDistance(location1, location2);
+    }
+    
+    /**
+     * Flat-earth distance for a short hop, taking the shorter way around in longitude
+     */
+    private static double equirectangular(double dLat, double dLon, double cosLat) {
+        if (dLon > Math.PI) {
+            dLon -= 2 * Math.PI;
+        } else if (dLon < -Math.PI) {
+            dLon += 2 * Math.PI;
+        }
+        double x = dLon * cosLat;
+        return EARTH_RADIUS_KM * Math.sqrt(x * x + dLat * dLat);
     }
 }
@@ -0,0 +1,25 @@
+package com.jumbotail.shipping.util;
+
+/**
+ * How {@link DistanceCalculator} computes a great-circle distance.
+ */
+public enum DistanceMode {
+
+    /**
+     * Haversine formula; exact on the spherical earth model for any pair. The default.
+     */
+    HAVERSINE,
+
+    /**
+     * Equirectangular approximation for short hops, Haversine otherwise. Opt-in.
+     *
+     * The approximation treats the hop as flat, scaling the longitude difference by the mean
+     * of the two latitude cosines, and is used when it gives at most
+     * {@link DistanceCalculator#SHORT_HOP_KM} (the MINI_VAN range) and both ends lie within
+     * +/-80 degrees latitude. Against Haversine its error on such hops is at most 1 m
+     * (0.001 %) within +/-40 degrees latitude, which covers India, 4 m within +/-60 degrees
+     * and 35 m within +/-80 degrees. A pair within that error of a transport-mode boundary
+     * may therefore be classed on the other side of it.
+     */
+    FAST
+}
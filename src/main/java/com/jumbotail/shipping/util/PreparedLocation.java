@@ -0,0 +1,86 @@
+package com.jumbotail.shipping.util;
+
+import com.jumbotail.shipping.model.Location;
+
+/**
+ * Coordinate with its radians and latitude sine/cosine computed once, for points that take
+ * part in many distance calculations (warehouses, a customer compared against many sites).
+ * The Haversine overloads of {@link DistanceCalculator} taking prepared locations skip those
+ * per-call conversions, and the equirectangular fast mode needs no trigonometry at all.
+ */
+public final class PreparedLocation {
+
+    private final double lat;
+    private final double lng;
+    private final double latRad;
+    private final double lngRad;
+    private final double sinLat;
+    private final double cosLat;
+
+    private PreparedLocation(double lat, double lng) {
+        this.lat = lat;
+        this.lng = lng;
+        this.latRad = Math.toRadians(lat);
+        this.lngRad = Math.toRadians(lng);
+        this.sinLat = Math.sin(latRad);
+        this.cosLat = Math.cos(latRad);
+    }
+
+    /**
+     * @param lat latitude in degrees
+     * @param lng longitude in degrees
+     */
+    public static PreparedLocation of(double lat, double lng) {
+        return new PreparedLocation(lat, lng);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the location or either coordinate is null
+     */
+    public static PreparedLocation of(Location location) {
+        if (location == null || location.getLat() == null || location.getLng() == null) {
+            throw new IllegalArgumentException("Location coordinates cannot be null");
+        }
+        return new PreparedLocation(location.getLat(), location.getLng());
+    }
+
+    public double lat() {
+        return lat;
+    }
+
+    public double lng() {
+        return lng;
+    }
+
+    public double latRad() {
+        return latRad;
+    }
+
+    public double lngRad() {
+        return lngRad;
+    }
+
+    public double sinLat() {
+        return sinLat;
+    }
+
+    public double cosLat() {
+        return cosLat;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PreparedLocation other
+                && Double.compare(lat, other.lat) == 0 && Double.compare(lng, other.lng) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(lat) + Double.hashCode(lng);
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedLocation(" + lat + ", " + lng + ")";
+    }
+}
@@ -0,0 +1,43 @@
+package com.jumbotail.shipping.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD Haversine kernel. Only loaded once {@link BatchDistanceCalculator} has checked that
+ * the {@code jdk.incubator.vector} module is present, since referencing it otherwise fails
+ * at link time.
+ */
+final class VectorDistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+    private static final double DIAMETER_KM = 2.0 * BatchDistanceCalculator.EARTH_RADIUS_KM;
+
+    private VectorDistanceKernel() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static void distancesFrom(double lat, double lng, double[] lats, double[] lngs, double[] out) {
+        double lat1 = Math.toRadians(lat);
+        double lng1 = Math.toRadians(lng);
+        double cosLat1 = Math.cos(lat1);
+
+        int bound = SPECIES.loopBound(lats.length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector lat2 = DoubleVector.fromArray(SPECIES, lats, i).mul(DEGREES_TO_RADIANS);
+            DoubleVector lng2 = DoubleVector.fromArray(SPECIES, lngs, i).mul(DEGREES_TO_RADIANS);
+            DoubleVector sinDLat = lat2.sub(lat1).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector sinDLng = lng2.sub(lng1).mul(0.5).lanewise(VectorOperators.SIN);
+            DoubleVector a = sinDLat.mul(sinDLat)
+                    .add(lat2.lanewise(VectorOperators.COS).mul(cosLat1).mul(sinDLng).mul(sinDLng));
+            a.sqrt().min(1.0).lanewise(VectorOperators.ASIN).mul(DIAMETER_KM).intoArray(out, i);
+        }
+        BatchDistanceCalculator.scalarDistancesFrom(lat, lng, lats, lngs, out, i);
+    }
+}
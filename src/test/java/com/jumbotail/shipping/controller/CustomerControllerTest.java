@@ -0,0 +1,75 @@
+package com.jumbotail.shipping.controller;
+
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.NearbyCustomerResponse;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.service.CustomerCoverageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CustomerController.class)
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CustomerCoverageService customerCoverageService;
+
+    @Test
+    void testGetCustomersWithinRadius_Success() throws Exception {
+        NearbyCustomerResponse nearby = NearbyCustomerResponse.builder()
+                .customerId("Cust-123")
+                .customerLocation(new LocationDTO(12.98, 77.6))
+                .distanceKm(1.25)
+                .build();
+        when(customerCoverageService.findCustomersWithinRadius(12.97, 77.59, 10.0)).thenReturn(List.of(nearby));
+
+        mockMvc.perform(get("/api/v1/customers/within")
+                        .param("lat", "12.97")
+                        .param("lng", "77.59")
+                        .param("radiusKm", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerId").value("Cust-123"))
+                .andExpect(jsonPath("$[0].distanceKm").value(1.25));
+    }
+
+    @Test
+    void testGetCustomersInBoundingBox_OmitsDistance() throws Exception {
+        NearbyCustomerResponse inside = NearbyCustomerResponse.builder()
+                .customerId("Cust-123")
+                .customerLocation(new LocationDTO(12.98, 77.6))
+                .build();
+        when(customerCoverageService.findCustomersInBoundingBox(12.8, 77.4, 13.1, 77.8)).thenReturn(List.of(inside));
+
+        mockMvc.perform(get("/api/v1/customers/in-box")
+                        .param("minLat", "12.8")
+                        .param("minLng", "77.4")
+                        .param("maxLat", "13.1")
+                        .param("maxLng", "77.8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerId").value("Cust-123"))
+                .andExpect(jsonPath("$[0].distanceKm").doesNotExist());
+    }
+
+    @Test
+    void testGetCustomersNearWarehouse_NotFound() throws Exception {
+        when(customerCoverageService.findCustomersNearWarehouse("WH-404", 10.0))
+                .thenThrow(new ResourceNotFoundException("Warehouse not found with ID: WH-404"));
+
+        mockMvc.perform(get("/api/v1/customers/near-warehouse")
+                        .param("warehouseId", "WH-404")
+                        .param("radiusKm", "10"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Warehouse not found with ID: WH-404"));
+    }
+}
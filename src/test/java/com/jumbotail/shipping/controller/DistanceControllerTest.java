@@ -0,0 +1,143 @@
+package com.jumbotail.shipping.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceMatrixRequest;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import com.jumbotail.shipping.exception.InvalidRequestException;
+import com.jumbotail.shipping.service.DistanceService;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DistanceController.class)
+class DistanceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private DistanceService distanceService;
+
+    @Test
+    void testDistance_RunsAtRequestedPriority() throws Exception {
+        List<RequestPriority> priorities = new ArrayList<>();
+        when(distanceService.calculateDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(CalculationMode.GOOGLE)))
+                .thenAnswer(invocation -> {
+                    priorities.add(GoogleQuotaManager.currentPriority());
+                    return response(8.4, 21);
+                });
+
+        mockMvc.perform(get("/api/v1/logistics/distance")
+                .param("sourceLat", "12.97").param("sourceLng", "77.59")
+                .param("destLat", "13.03").param("destLng", "77.59")
+                .param("mode", "GOOGLE"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/logistics/distance")
+                .param("sourceLat", "12.97").param("sourceLng", "77.59")
+                .param("destLat", "13.03").param("destLng", "77.59")
+                .param("mode", "GOOGLE")
+                .header("X-Request-Priority", "BATCH"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(RequestPriority.INTERACTIVE, RequestPriority.BATCH), priorities);
+    }
+
+    @Test
+    void testDistanceMatrix_StreamsOneLinePerOrigin() throws Exception {
+        DistanceMatrixRequest request = DistanceMatrixRequest.builder()
+                .origins(List.of(new LocationDTO(12.97, 77.59), new LocationDTO(19.07, 72.87)))
+                .destinations(List.of(new LocationDTO(28.61, 77.20)))
+                .mode(CalculationMode.HAVERSINE)
+                .build();
+
+        doAnswer(invocation -> {
+            DistanceStrategy.RowHandler handler = invocation.getArgument(1);
+            handler.onRow(0, List.of(response(1740.0, 2610)));
+            handler.onRow(1, List.of(response(1150.5, 1726)));
+            return null;
+        }).when(distanceService).calculateMatrix(any(DistanceMatrixRequest.class), any(DistanceStrategy.RowHandler.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/logistics/distance-matrix")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"originIndex\":0,\"elements\":[{\"distanceKm\":1740.0,\"calculationMode\":\"HAVERSINE\",\"durationMinutes\":2610}]}\n"
+                        + "{\"originIndex\":1,\"elements\":[{\"distanceKm\":1150.5,\"calculationMode\":\"HAVERSINE\",\"durationMinutes\":1726}]}\n"));
+    }
+
+    @Test
+    void testDistanceMatrix_InvalidCoordinatesRejectedBeforeStreaming() throws Exception {
+        DistanceMatrixRequest request = DistanceMatrixRequest.builder()
+                .origins(List.of(new LocationDTO(95.0, 77.59)))
+                .destinations(List.of(new LocationDTO(28.61, 77.20)))
+                .build();
+
+        doThrow(new InvalidRequestException("Invalid coordinates: (95.0, 77.59)"))
+                .when(distanceService).validateMatrixRequest(any(DistanceMatrixRequest.class));
+
+        mockMvc.perform(post("/api/v1/logistics/distance-matrix")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(distanceService, never()).calculateMatrix(any(DistanceMatrixRequest.class), any(DistanceStrategy.RowHandler.class));
+    }
+
+    @Test
+    void testDistanceMatrix_EmptyOriginsRejected() throws Exception {
+        DistanceMatrixRequest request = DistanceMatrixRequest.builder()
+                .origins(List.of())
+                .destinations(List.of(new LocationDTO(28.61, 77.20)))
+                .build();
+
+        mockMvc.perform(post("/api/v1/logistics/distance-matrix")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static DistanceResponse response(double distanceKm, int durationMinutes) {
+        return DistanceResponse.builder()
+                .distanceKm(distanceKm)
+                .durationMinutes(durationMinutes)
+                .calculationMode(CalculationMode.HAVERSINE.name())
+                .build();
+    }
+}
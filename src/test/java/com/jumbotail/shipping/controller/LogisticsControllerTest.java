@@ -1,10 +1,13 @@
 package com.jumbotail.shipping.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.DailyOrderMatchResponse;
 import com.jumbotail.shipping.dto.LogisticsSimulationRequest;
 import com.jumbotail.shipping.dto.LogisticsSimulationResponse;
+import com.jumbotail.shipping.dto.OrderWarehouseMatch;
 import com.jumbotail.shipping.dto.TransportModeOption;
 import com.jumbotail.shipping.service.LogisticsSimulationService;
+import com.jumbotail.shipping.service.OrderMatchingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,10 +15,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -32,6 +37,9 @@ class LogisticsControllerTest {
     @MockBean
     private LogisticsSimulationService logisticsSimulationService;
 
+    @MockBean
+    private OrderMatchingService orderMatchingService;
+
     @Test
     void testSimulateLogistics_Success() throws Exception {
         LogisticsSimulationRequest request = new LogisticsSimulationRequest("ORD-123", "speed");
@@ -55,4 +63,23 @@ class LogisticsControllerTest {
                 .andExpect(jsonPath("$.priority").value("speed"))
                 .andExpect(jsonPath("$.recommendedOption.transportMode").value("Aeroplane"));
     }
+
+    @Test
+    void testMatchOrdersForDay_Success() throws Exception {
+        LocalDate date = LocalDate.of(2026, 10, 16);
+        DailyOrderMatchResponse response = DailyOrderMatchResponse.builder()
+                .date(date)
+                .orderCount(2)
+                .unmatchedCount(1)
+                .matches(List.of(new OrderWarehouseMatch("ORD-123", "789", 84.76, "Mini Van")))
+                .build();
+
+        when(orderMatchingService.matchOrdersForDay(date)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/logistics/order-matches").param("date", "2026-10-16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderCount").value(2))
+                .andExpect(jsonPath("$.matches[0].orderId").value("ORD-123"))
+                .andExpect(jsonPath("$.matches[0].warehouseId").value("789"));
+    }
 }
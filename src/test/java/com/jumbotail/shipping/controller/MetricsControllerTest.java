@@ -30,6 +30,7 @@ class MetricsControllerTest {
                 .cacheHits(5)
                 .mostUsedTransport("Truck")
                 .failedRequests(1)
+                .googleCircuitState("CLOSED")
                 .build();
 
         when(shippingMetricsService.getMetrics()).thenReturn(response);
@@ -40,6 +41,7 @@ class MetricsControllerTest {
                 .andExpect(jsonPath("$.avgLatencyMs").value(45))
                 .andExpect(jsonPath("$.cacheHits").value(5))
                 .andExpect(jsonPath("$.mostUsedTransport").value("Truck"))
-                .andExpect(jsonPath("$.failedRequests").value(1));
+                .andExpect(jsonPath("$.failedRequests").value(1))
+                .andExpect(jsonPath("$.googleCircuitState").value("CLOSED"));
     }
 }
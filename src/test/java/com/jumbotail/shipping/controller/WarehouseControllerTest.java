@@ -1,6 +1,10 @@
 package com.jumbotail.shipping.controller;
 
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.NearbyWarehouseResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.service.ServiceZoneService;
 import com.jumbotail.shipping.service.WarehouseService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,10 +13,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(WarehouseController.class)
@@ -24,6 +31,9 @@ class WarehouseControllerTest {
     @MockBean
     private WarehouseService warehouseService;
 
+    @MockBean
+    private ServiceZoneService serviceZoneService;
+
     @Test
     void testGetNearestWarehouse_NotFound() throws Exception {
         when(warehouseService.findNearestWarehouse(anyString(), anyString()))
@@ -53,4 +63,47 @@ class WarehouseControllerTest {
                 .andExpect(jsonPath("$.message").value(containsString("productId")))
                 .andExpect(jsonPath("$.timestamp").exists());
     }
+
+    @Test
+    void testGetNearestWarehouses_Success() throws Exception {
+        NearbyWarehouseResponse nearby = NearbyWarehouseResponse.builder()
+                .warehouseId("789")
+                .warehouseLocation(new LocationDTO(12.99999, 37.923273))
+                .distanceKm(12.5)
+                .build();
+        when(warehouseService.findNearestWarehouses(12.9, 37.9, 5)).thenReturn(List.of(nearby));
+
+        mockMvc.perform(get("/api/v1/warehouse/nearest-k")
+                        .param("lat", "12.9")
+                        .param("lng", "37.9")
+                        .param("k", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].warehouseId").value("789"))
+                .andExpect(jsonPath("$[0].distanceKm").value(12.5));
+    }
+
+    @Test
+    void testGetWarehousesWithinRadius_InvalidRadius() throws Exception {
+        when(warehouseService.findWarehousesWithinRadius(12.9, 37.9, -1.0))
+                .thenThrow(new InvalidRequestException("radiusKm must be greater than 0"));
+
+        mockMvc.perform(get("/api/v1/warehouse/within")
+                        .param("lat", "12.9")
+                        .param("lng", "37.9")
+                        .param("radiusKm", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Request"))
+                .andExpect(jsonPath("$.message").value("radiusKm must be greater than 0"));
+    }
+
+    @Test
+    void testCreateServiceZone_TooFewVertices() throws Exception {
+        mockMvc.perform(post("/api/v1/warehouse/789/zones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"BLR_City\",\"transportMode\":\"MINI_VAN\"," +
+                                 "\"boundary\":[{\"lat\":12.9,\"lng\":77.5},{\"lat\":13.0,\"lng\":77.6}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Failed"))
+                .andExpect(jsonPath("$.validationErrors.boundary").exists());
+    }
 }
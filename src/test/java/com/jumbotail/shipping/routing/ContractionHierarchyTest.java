@@ -0,0 +1,170 @@
+package com.jumbotail.shipping.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoute_MatchesDijkstraOnRandomRoadGrid() {
+        RoadGraph graph = randomGrid(20, 15, new Random(42));
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, 1L);
+
+        for (int source = 0; source < graph.nodeCount(); source += 7) {
+            double[][] expected = dijkstra(graph, source);
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                RoadRoute route = hierarchy.route(source, target);
+                if (expected[0][target] == Double.POSITIVE_INFINITY) {
+                    assertNull(route, source + " -> " + target);
+                } else {
+                    assertNotNull(route, source + " -> " + target);
+                    assertEquals(expected[0][target], route.seconds(), 1e-6, source + " -> " + target);
+                    assertEquals(expected[1][target], route.metres(), 1e-6, source + " -> " + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRoute_RespectsOneWayEdges() {
+        // 0 -> 1 one-way, 1 <-> 2
+        RoadGraph graph = new RoadGraph(
+                new double[]{12.0, 12.001, 12.002}, new double[]{77.0, 77.0, 77.0},
+                new int[]{0, 1, 2}, new int[]{1, 2, 1},
+                new double[]{100, 100, 100}, new double[]{10, 10, 10});
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, 1L);
+
+        assertEquals(new RoadRoute(200, 20), hierarchy.route(0, 2));
+        assertNull(hierarchy.route(2, 0));
+        assertEquals(new RoadRoute(0, 0), hierarchy.route(1, 1));
+    }
+
+    @Test
+    void testWriteRead_RoundTrip() throws IOException {
+        RoadGraph graph = randomGrid(8, 8, new Random(7));
+        ContractionHierarchy built = ContractionHierarchy.build(graph, 123L);
+        Path path = dir.resolve("roads.ch");
+
+        built.write(path);
+        ContractionHierarchy read = ContractionHierarchy.read(path);
+
+        assertEquals(123L, read.fingerprint());
+        assertEquals(graph.nodeCount(), read.nodeCount());
+        assertEquals(graph.lat(5), read.lat(5));
+        for (int target = 0; target < graph.nodeCount(); target++) {
+            assertEquals(built.route(0, target), read.route(0, target));
+        }
+    }
+
+    @Test
+    void testRead_RejectsForeignFile() throws IOException {
+        Path path = dir.resolve("roads.ch");
+        Files.writeString(path, "not a hierarchy");
+
+        assertThrows(IOException.class, () -> ContractionHierarchy.read(path));
+    }
+
+    /**
+     * Grid of perturbed nodes linked to their right and lower neighbours with random road
+     * speeds; some links are one-way and a few are missing.
+     */
+    private static RoadGraph randomGrid(int width, int height, Random random) {
+        int nodes = width * height;
+        double[] lats = new double[nodes];
+        double[] lngs = new double[nodes];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                lats[y * width + x] = 12.9 + y * 0.002 + random.nextDouble() * 0.0005;
+                lngs[y * width + x] = 77.5 + x * 0.002 + random.nextDouble() * 0.0005;
+            }
+        }
+        List<int[]> links = new ArrayList<>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (x + 1 < width) {
+                    links.add(new int[]{y * width + x, y * width + x + 1});
+                }
+                if (y + 1 < height) {
+                    links.add(new int[]{y * width + x, (y + 1) * width + x});
+                }
+            }
+        }
+
+        List<int[]> edges = new ArrayList<>();
+        List<double[]> costs = new ArrayList<>();
+        for (int[] link : links) {
+            double roll = random.nextDouble();
+            if (roll < 0.05) {
+                continue;
+            }
+            double metres = 150 + random.nextDouble() * 150;
+            double seconds = metres / (5 + random.nextDouble() * 20);
+            if (roll < 0.2) {
+                edges.add(random.nextBoolean() ? link : new int[]{link[1], link[0]});
+                costs.add(new double[]{metres, seconds});
+            } else {
+                edges.add(link);
+                costs.add(new double[]{metres, seconds});
+                edges.add(new int[]{link[1], link[0]});
+                costs.add(new double[]{metres, seconds});
+            }
+        }
+
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        double[] metres = new double[edges.size()];
+        double[] seconds = new double[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            from[e] = edges.get(e)[0];
+            to[e] = edges.get(e)[1];
+            metres[e] = costs.get(e)[0];
+            seconds[e] = costs.get(e)[1];
+        }
+        return new RoadGraph(lats, lngs, from, to, metres, seconds);
+    }
+
+    /**
+     * @return {seconds, metres} of the fastest route to every node
+     */
+    private static double[][] dijkstra(RoadGraph graph, int source) {
+        double[] seconds = new double[graph.nodeCount()];
+        double[] metres = new double[graph.nodeCount()];
+        Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+        seconds[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[]{0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[0] > seconds[node]) {
+                continue;
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                if (graph.edgeFrom(e) == node) {
+                    int next = graph.edgeTo(e);
+                    double arrival = entry[0] + graph.edgeSeconds(e);
+                    if (arrival < seconds[next]) {
+                        seconds[next] = arrival;
+                        metres[next] = metres[node] + graph.edgeMetres(e);
+                        queue.add(new double[]{arrival, next});
+                    }
+                }
+            }
+        }
+        return new double[][]{seconds, metres};
+    }
+}
@@ -0,0 +1,87 @@
+package com.jumbotail.shipping.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetourFactorTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pairKey_isUnorderedAndSeparatesCells() {
+        DetourFactorTable table = new DetourFactorTable(20);
+
+        long key = table.pairKey(12.97, 77.59, 19.07, 72.87);
+
+        assertEquals(key, table.pairKey(19.07, 72.87, 12.97, 77.59));
+        assertEquals(key, table.pairKey(12.9701, 77.5901, 19.0701, 72.8701));
+        assertNotEquals(key, table.pairKey(12.97, 77.59, 28.61, 77.20));
+    }
+
+    @Test
+    void estimate_requiresEnoughTightlyGroupedSamples() {
+        DetourFactorTable table = new DetourFactorTable(20);
+        long tight = table.pairKey(12.97, 77.59, 13.10, 77.80);
+        long scattered = table.pairKey(12.97, 77.59, 13.30, 78.00);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 29; i++) {
+            table.record(tight, 1.30 + random.nextGaussian() * 0.02, 70.0);
+            table.record(scattered, 1.30 + random.nextGaussian() * 0.40, 70.0);
+        }
+        assertNull(table.estimate(tight, 30, 0.15));
+
+        table.record(tight, 1.30, 70.0);
+        table.record(scattered, 1.30, 70.0);
+        DetourFactorTable.Estimate estimate = table.estimate(tight, 30, 0.15);
+
+        assertNotNull(estimate);
+        assertEquals(1.30, estimate.factor(), 0.02);
+        assertEquals(70.0, estimate.secondsPerKm(), 1e-9);
+        assertEquals(30, estimate.samples());
+        assertTrue(estimate.relativeError() < 0.15);
+        assertNull(table.estimate(scattered, 30, 0.15));
+        assertEquals(0, table.samples(table.pairKey(28.61, 77.20, 22.57, 88.36)));
+    }
+
+    @Test
+    void writeAndRead_roundTripsAllPairs() throws IOException {
+        DetourFactorTable table = new DetourFactorTable(16);
+        Random random = new Random(11);
+        long[] keys = new long[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = table.pairKey(8 + random.nextDouble() * 25, 68 + random.nextDouble() * 29,
+                    8 + random.nextDouble() * 25, 68 + random.nextDouble() * 29);
+            for (int s = 0; s < 5; s++) {
+                table.record(keys[i], 1.2 + random.nextDouble() * 0.1, 60 + random.nextDouble() * 20);
+            }
+        }
+        Path file = dir.resolve("factors.bin");
+
+        table.write(file);
+        DetourFactorTable read = DetourFactorTable.read(file);
+
+        assertEquals(16, read.cellBits());
+        assertEquals(table.size(), read.size());
+        for (long key : keys) {
+            assertEquals(table.samples(key), read.samples(key));
+            assertEquals(table.estimate(key, 2, 1.0).factor(), read.estimate(key, 2, 1.0).factor(), 1e-6);
+        }
+    }
+
+    @Test
+    void read_rejectsForeignFile() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+
+        assertThrows(IOException.class, () -> DetourFactorTable.read(file));
+    }
+}
@@ -0,0 +1,82 @@
+package com.jumbotail.shipping.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OsmRoadGraphReaderTest {
+
+    private static final String EXTRACT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <osm version="0.6">
+              <node id="1" lat="12.9700" lon="77.5900"/>
+              <node id="2" lat="12.9710" lon="77.5900"/>
+              <node id="3" lat="12.9720" lon="77.5900"/>
+              <node id="4" lat="12.9720" lon="77.5910"/>
+              <node id="5" lat="12.9800" lon="77.6000"/>
+              <node id="6" lat="12.9810" lon="77.6000"/>
+              <node id="7" lat="12.9700" lon="77.5910"/>
+              <way id="10">
+                <nd ref="1"/><nd ref="2"/><nd ref="3"/>
+                <tag k="highway" v="residential"/>
+              </way>
+              <way id="11">
+                <nd ref="3"/><nd ref="4"/>
+                <tag k="highway" v="primary"/>
+                <tag k="oneway" v="yes"/>
+                <tag k="maxspeed" v="50"/>
+              </way>
+              <way id="12">
+                <nd ref="1"/><nd ref="7"/>
+                <tag k="highway" v="footway"/>
+              </way>
+              <way id="13">
+                <nd ref="5"/><nd ref="6"/>
+                <tag k="highway" v="residential"/>
+              </way>
+              <way id="14">
+                <nd ref="2"/><nd ref="99"/>
+                <tag k="highway" v="service"/>
+              </way>
+            </osm>
+            """;
+
+    @Test
+    void testRead_KeepsLargestDrivableComponent() throws IOException {
+        RoadGraph graph = OsmRoadGraphReader.read(new ByteArrayInputStream(EXTRACT.getBytes(StandardCharsets.UTF_8)));
+
+        // Nodes 1-4; the footway node and the separate 5-6 street are dropped
+        assertEquals(4, graph.nodeCount());
+        // 1 <-> 2 <-> 3 both ways, 3 -> 4 one way; the way to a missing node adds nothing
+        assertEquals(5, graph.edgeCount());
+    }
+
+    @Test
+    void testRead_TravelTimeFromSpeed() throws IOException {
+        RoadGraph graph = OsmRoadGraphReader.read(new ByteArrayInputStream(EXTRACT.getBytes(StandardCharsets.UTF_8)));
+
+        int oneway = graph.edgeCount() - 1;
+        assertTrue(graph.lng(graph.edgeTo(oneway)) > graph.lng(graph.edgeFrom(oneway)));
+        assertEquals(graph.edgeMetres(oneway) / (50 / 3.6), graph.edgeSeconds(oneway), 1e-9);
+        assertEquals(graph.edgeMetres(0) / (25 / 3.6), graph.edgeSeconds(0), 1e-9);
+        assertEquals(111.2, graph.edgeMetres(0), 0.1);
+    }
+
+    @Test
+    void testRead_RejectsMalformedXml() {
+        assertThrows(IOException.class, () -> OsmRoadGraphReader.read(
+                new ByteArrayInputStream("<osm><node id=\"x\"".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testParseMaxSpeed() {
+        assertEquals(50.0, OsmRoadGraphReader.parseMaxSpeed("50", 30.0));
+        assertEquals(30 * 1.609344, OsmRoadGraphReader.parseMaxSpeed("30 mph", 30.0), 1e-9);
+        assertEquals(30.0, OsmRoadGraphReader.parseMaxSpeed("signals", 30.0));
+        assertEquals(30.0, OsmRoadGraphReader.parseMaxSpeed(null, 30.0));
+    }
+}
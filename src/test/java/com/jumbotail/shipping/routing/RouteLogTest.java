@@ -0,0 +1,103 @@
+package com.jumbotail.shipping.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLogTest {
+
+    private static final int TODAY = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void get_snapsNearbyPointsAndKeepsDirection() throws IOException {
+        // Centres of 50 m cells near Bengaluru, so a 10 m wobble stays in the same cell
+        double srcLat = centre(12.9716);
+        double srcLng = centre(77.5946);
+        double destLat = centre(13.0358);
+        double destLng = centre(77.5970);
+        try (RouteLog log = RouteLog.open(dir.resolve("routes.log"), 50)) {
+            log.put(srcLat, srcLng, destLat, destLng, new RoadRoute(9_400, 1_260), TODAY);
+
+            RoadRoute nearby = log.get(srcLat + 0.00007, srcLng - 0.00007, destLat - 0.00007, destLng + 0.00007, TODAY);
+            assertNotNull(nearby);
+            assertEquals(9_400, nearby.metres());
+            assertEquals(1_260, nearby.seconds());
+
+            assertNull(log.get(destLat, destLng, srcLat, srcLng, TODAY));
+            assertNull(log.get(srcLat + 0.001, srcLng, destLat, destLng, TODAY));
+        }
+    }
+
+    @Test
+    void get_ignoresRoutesOlderThanCutoff() throws IOException {
+        try (RouteLog log = RouteLog.open(dir.resolve("routes.log"), 50)) {
+            log.put(12.97, 77.59, 13.03, 77.59, new RoadRoute(9_400, 1_260), TODAY - 40);
+
+            assertNotNull(log.get(12.97, 77.59, 13.03, 77.59, TODAY - 40));
+            assertNull(log.get(12.97, 77.59, 13.03, 77.59, TODAY - 30));
+        }
+    }
+
+    @Test
+    void open_replaysLogWithLatestRecordWinning() throws IOException {
+        Path file = dir.resolve("routes.log");
+        try (RouteLog log = RouteLog.open(file, 50)) {
+            for (int i = 0; i < 3000; i++) {
+                log.put(12.0 + i * 0.001, 77.0, 13.0, 78.0, new RoadRoute(100_000 + i, 7_200), TODAY);
+            }
+            log.put(12.0, 77.0, 13.0, 78.0, new RoadRoute(99_000, 7_000), TODAY + 1);
+        }
+
+        try (RouteLog log = RouteLog.open(file, 50)) {
+            assertEquals(3000, log.size());
+            assertEquals(99_000, log.get(12.0, 77.0, 13.0, 78.0, TODAY).metres());
+            assertEquals(102_999, log.get(14.999, 77.0, 13.0, 78.0, TODAY).metres());
+        }
+    }
+
+    @Test
+    void open_dropsTornTailAndKeepsAppending() throws IOException {
+        Path file = dir.resolve("routes.log");
+        try (RouteLog log = RouteLog.open(file, 50)) {
+            log.put(12.0, 77.0, 13.0, 78.0, new RoadRoute(100_000, 7_200), TODAY);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}));
+        }
+
+        try (RouteLog log = RouteLog.open(file, 50)) {
+            assertEquals(1, log.size());
+            log.put(14.0, 77.0, 13.0, 78.0, new RoadRoute(200_000, 9_000), TODAY);
+        }
+        try (RouteLog log = RouteLog.open(file, 50)) {
+            assertEquals(2, log.size());
+            assertEquals(200_000, log.get(14.0, 77.0, 13.0, 78.0, TODAY).metres());
+        }
+    }
+
+    @Test
+    void open_rejectsOtherGridOrForeignFile() throws IOException {
+        Path file = dir.resolve("routes.log");
+        RouteLog.open(file, 50).close();
+        assertThrows(IOException.class, () -> RouteLog.open(file, 100));
+
+        Path foreign = dir.resolve("other.log");
+        Files.write(foreign, new byte[]{9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9, 9});
+        assertThrows(IOException.class, () -> RouteLog.open(foreign, 50));
+    }
+
+    private static double centre(double degrees) {
+        double cell = 50 / 111_320.0;
+        return (Math.floor((degrees + 90) / cell) + 0.5) * cell - 90;
+    }
+}
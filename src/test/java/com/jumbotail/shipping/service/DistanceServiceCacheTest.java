@@ -0,0 +1,76 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategyFactory;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig(DistanceServiceCacheTest.Config.class)
+class DistanceServiceCacheTest {
+
+    @Autowired
+    private DistanceService distanceService;
+
+    @Test
+    void calculateDistance_batchTurnedAwayByQuota_doesNotAnswerLaterInteractiveLookup() {
+        DistanceResponse batch = GoogleQuotaManager.callAs(RequestPriority.BATCH,
+                () -> distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE));
+        assertEquals("HAVERSINE", batch.getProvider());
+
+        DistanceResponse interactive = distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE);
+        assertEquals("GOOGLE", interactive.getProvider());
+        assertEquals(64.2, interactive.getDistanceKm());
+
+        // The Google answer is cached for the next caller of either priority
+        DistanceResponse again = GoogleQuotaManager.callAs(RequestPriority.BATCH,
+                () -> distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE));
+        assertEquals("GOOGLE", again.getProvider());
+    }
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("distanceCache");
+        }
+
+        @Bean
+        DistanceService distanceService(CacheManager cacheManager) {
+            // Batch must leave the whole budget untouched, so every batch call is turned away
+            GoogleQuotaManager quota = new GoogleQuotaManager(1000, 100_000, 1.0, 1.0, 0, 0, 0);
+            DistanceStrategy haversine = (srcLat, srcLng, destLat, destLng) -> response(50.0, "HAVERSINE");
+            DistanceStrategy google = (srcLat, srcLng, destLat, destLng) ->
+                    quota.tryAcquire(GoogleQuotaManager.currentPriority(), 1)
+                            ? response(64.2, "GOOGLE")
+                            : haversine.calculate(srcLat, srcLng, destLat, destLng);
+            // No latency budget, so the lookup runs on the caller's thread and keeps its priority
+            return new DistanceService(
+                    new DistanceStrategyFactory(Map.of("haversineDistanceStrategy", haversine, "googleDistanceStrategy", google)),
+                    cacheManager, 0, 1);
+        }
+
+        private static DistanceResponse response(double distanceKm, String mode) {
+            return DistanceResponse.builder()
+                    .distanceKm(distanceKm)
+                    .durationMinutes(60)
+                    .calculationMode(mode)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategyFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceServiceTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("distanceCache");
+    private final CountDownLatch googleReleased = new CountDownLatch(1);
+
+    private final DistanceStrategy haversine = (srcLat, srcLng, destLat, destLng) -> response(50.0, "HAVERSINE");
+    private final DistanceStrategy slowGoogle = (srcLat, srcLng, destLat, destLng) -> {
+        try {
+            googleReleased.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return response(64.2, "GOOGLE");
+    };
+
+    private final DistanceService distanceService = new DistanceService(
+            new DistanceStrategyFactory(Map.of("haversineDistanceStrategy", haversine, "googleDistanceStrategy", slowGoogle)),
+            cacheManager, 100, 2);
+
+    @AfterEach
+    void tearDown() {
+        googleReleased.countDown();
+        distanceService.shutdown();
+    }
+
+    @Test
+    void calculateDistance_providerWithinBudget_answersDirectly() {
+        googleReleased.countDown();
+
+        DistanceResponse response = distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE);
+
+        assertEquals(64.2, response.getDistanceKm());
+        assertEquals("GOOGLE", response.getProvider());
+    }
+
+    @Test
+    void calculateDistance_providerOverBudget_answersWithHaversineAndCachesLateAnswer() throws InterruptedException {
+        DistanceResponse response = distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE);
+
+        assertEquals(50.0, response.getDistanceKm());
+        assertEquals(DistanceService.LATENCY_BUDGET_FALLBACK, response.getProvider());
+
+        googleReleased.countDown();
+        Cache cache = cacheManager.getCache("distanceCache");
+        SimpleKey key = new SimpleKey(12.9, 77.5, 13.1, 78.1, CalculationMode.GOOGLE);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.get(key) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        DistanceResponse late = cache.get(key, DistanceResponse.class);
+        assertNotNull(late);
+        assertEquals(64.2, late.getDistanceKm());
+        assertEquals("GOOGLE", late.getProvider());
+    }
+
+    @Test
+    void calculateDistance_haversine_neverHedged() {
+        DistanceResponse response = distanceService.calculateDistance(12.9, 77.5, 13.1, 78.1, CalculationMode.HAVERSINE);
+
+        assertEquals("HAVERSINE", response.getProvider());
+    }
+
+    private static DistanceResponse response(double distanceKm, String mode) {
+        return DistanceResponse.builder()
+                .distanceKm(distanceKm)
+                .durationMinutes(60)
+                .calculationMode(mode)
+                .build();
+    }
+}
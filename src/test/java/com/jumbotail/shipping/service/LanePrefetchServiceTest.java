@@ -0,0 +1,125 @@
+package com.jumbotail.shipping.service;
+
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Order;
+import com.jumbotail.shipping.model.Seller;
+import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.routing.RoadRoute;
+import com.jumbotail.shipping.service.spatial.RouteCacheStore;
+import com.jumbotail.shipping.service.spatial.WarehouseSite;
+import com.jumbotail.shipping.service.spatial.WarehouseSpatialIndex;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategy;
+import com.jumbotail.shipping.strategy.distance.DistanceStrategyFactory;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LanePrefetchServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 2, 30);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final WarehouseSpatialIndex warehouseSpatialIndex = mock(WarehouseSpatialIndex.class);
+    private final List<String> calls = new ArrayList<>();
+    private final List<RequestPriority> priorities = new ArrayList<>();
+
+    // Records each matrix call as "origin lat -> destination lats" and answers every element
+    private final DistanceStrategy google = new DistanceStrategy() {
+        @Override
+        public DistanceResponse calculate(double srcLat, double srcLng, double destLat, double destLng) {
+            return DistanceResponse.builder().distanceKm(10.0).durationMinutes(20).calculationMode("GOOGLE").build();
+        }
+
+        @Override
+        public void calculateMatrix(double[] originLats, double[] originLngs,
+                                    double[] destinationLats, double[] destinationLngs, RowHandler handler) {
+            calls.add(originLats[0] + " -> " + Arrays.toString(destinationLats));
+            priorities.add(GoogleQuotaManager.currentPriority());
+            DistanceStrategy.super.calculateMatrix(originLats, originLngs, destinationLats, destinationLngs, handler);
+        }
+    };
+
+    @TempDir
+    Path dir;
+
+    private RouteCacheStore routeCache;
+
+    @BeforeEach
+    void setUp() {
+        routeCache = new RouteCacheStore(true, dir.resolve("routes.log").toString(), 50, 30);
+        when(warehouseSpatialIndex.sitesById()).thenReturn(Map.of(
+                1L, new WarehouseSite(1L, "WH1", 12.0, 77.0),
+                2L, new WarehouseSite(2L, "WH2", 19.0, 73.0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        routeCache.close();
+    }
+
+    @Test
+    void prefetch_fetchesUncachedLanesOncePerWarehouseAtPrefetchPriority() {
+        Seller bengaluruSeller = seller(1L, 12.1, 77.1);
+        Seller mumbaiSeller = seller(2L, 19.1, 73.1);
+        when(orderRepository.findByOrderDateGreaterThanEqualAndOrderDateLessThan(NOW.minusDays(14), NOW)).thenReturn(List.of(
+                order(bengaluruSeller, 13.0, 77.5),
+                order(bengaluruSeller, 13.0, 77.5),
+                order(bengaluruSeller, 14.0, 77.5),
+                order(bengaluruSeller, 15.0, 77.5),
+                order(mumbaiSeller, 18.5, 73.8)));
+        // Already cached lanes are not fetched again
+        routeCache.put(12.0, 77.0, 15.0, 77.5, new RoadRoute(350_000, 18_000));
+
+        int answered = service(100).prefetch(NOW);
+
+        assertEquals(3, answered);
+        assertEquals(List.of("12.0 -> [13.0, 14.0]", "19.0 -> [18.5]"), calls.stream().sorted().toList());
+        assertEquals(List.of(RequestPriority.PREFETCH, RequestPriority.PREFETCH), priorities);
+        assertEquals(RequestPriority.INTERACTIVE, GoogleQuotaManager.currentPriority());
+    }
+
+    @Test
+    void prefetch_takesBusiestLanesFirstUpToLimit() {
+        Seller seller = seller(1L, 12.1, 77.1);
+        when(orderRepository.findByOrderDateGreaterThanEqualAndOrderDateLessThan(NOW.minusDays(14), NOW)).thenReturn(List.of(
+                order(seller, 13.0, 77.5),
+                order(seller, 14.0, 77.5),
+                order(seller, 14.0, 77.5),
+                order(seller, 14.0, 77.5)));
+
+        int answered = service(1).prefetch(NOW);
+
+        assertEquals(1, answered);
+        assertEquals(List.of("12.0 -> [14.0]"), calls);
+    }
+
+    private LanePrefetchService service(int maxLanes) {
+        return new LanePrefetchService(orderRepository, warehouseSpatialIndex, routeCache,
+                new DistanceStrategyFactory(Map.of("googleDistanceStrategy", google)), true, 14, maxLanes);
+    }
+
+    private static Seller seller(Long id, double lat, double lng) {
+        return Seller.builder().id(id).sellerId("S" + id).location(new Location(lat, lng)).build();
+    }
+
+    private static Order order(Seller seller, double customerLat, double customerLng) {
+        Customer customer = Customer.builder().customerId("C").location(new Location(customerLat, customerLng)).build();
+        return Order.builder().orderId("O").seller(seller).customer(customer).build();
+    }
+}
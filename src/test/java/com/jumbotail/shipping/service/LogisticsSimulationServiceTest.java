@@ -7,6 +7,7 @@ import com.jumbotail.shipping.dto.TransportModeOption;
 import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.model.*;
 import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.spatial.DistanceMatrixStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -31,6 +32,9 @@ class LogisticsSimulationServiceTest {
     @Mock
     private WarehouseService warehouseService;
 
+    @Mock
+    private DistanceMatrixStore distanceMatrixStore;
+
     @InjectMocks
     private LogisticsSimulationService logisticsSimulationService;
 
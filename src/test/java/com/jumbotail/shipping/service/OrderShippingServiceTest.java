@@ -3,8 +3,11 @@ package com.jumbotail.shipping.service;
 import com.jumbotail.shipping.dto.LocationDTO;
 import com.jumbotail.shipping.dto.NearestWarehouseResponse;
 import com.jumbotail.shipping.dto.OrderShippingEstimateResponse;
+import com.jumbotail.shipping.exception.InvalidRequestException;
 import com.jumbotail.shipping.model.*;
 import com.jumbotail.shipping.repository.OrderRepository;
+import com.jumbotail.shipping.service.outage.CachedLaneIndex;
+import com.jumbotail.shipping.service.spatial.DistanceMatrixStore;
 import com.jumbotail.shipping.strategy.DeliverySpeed;
 import com.jumbotail.shipping.strategy.TransportMode;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +32,12 @@ class OrderShippingServiceTest {
     private WarehouseService warehouseService;
     @Mock
     private ShippingMetricsService shippingMetricsService;
+    @Mock
+    private ServiceZoneService serviceZoneService;
+    @Mock
+    private CachedLaneIndex cachedLaneIndex;
+    @Mock
+    private DistanceMatrixStore distanceMatrixStore;
 
     @InjectMocks
     private OrderShippingService orderShippingService;
@@ -96,4 +105,18 @@ class OrderShippingServiceTest {
         assertEquals("standard", response.getDeliverySpeed());
         assertTrue(response.getEstimatedDeliveryHours() > 24);
     }
+
+    @Test
+    void testGetShippingEstimate_OutsideServiceZone() {
+        when(orderRepository.findByOrderId("ORD1")).thenReturn(Optional.of(testOrder));
+        when(warehouseService.findNearestWarehouse("S1", "P1"))
+                .thenReturn(new NearestWarehouseResponse("WH1", new LocationDTO(10.1, 10.1)));
+        when(warehouseService.getWarehouseByWarehouseId("WH1")).thenReturn(testWarehouse);
+        doThrow(new InvalidRequestException("Location (10.5, 10.5) is outside the service zones of warehouse WH1"))
+                .when(serviceZoneService).checkServiceable(testWarehouse, testOrder.getCustomer().getLocation());
+
+        assertThrows(InvalidRequestException.class, () -> orderShippingService.getShippingEstimate("ORD1", "standard"));
+        verify(serviceZoneService, never()).checkServiceable(any(), any(), any());
+        verify(shippingMetricsService).recordMetrics(anyLong(), isNull(), eq(false));
+    }
 }
@@ -1,5 +1,7 @@
 package com.jumbotail.shipping.service;
 
+import com.jumbotail.shipping.dto.LocationDTO;
+import com.jumbotail.shipping.dto.ServiceZoneRequest;
 import com.jumbotail.shipping.dto.ShippingChargeRequest;
 import com.jumbotail.shipping.dto.ShippingChargeResponse;
 import com.jumbotail.shipping.exception.InvalidRequestException;
@@ -17,6 +19,8 @@ import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -45,6 +49,9 @@ class ShippingChargeServiceTest {
     @Autowired
     private WarehouseRepository warehouseRepository;
     
+    @Autowired
+    private ServiceZoneService serviceZoneService;
+    
     private Customer testCustomer;
     private Seller testSeller;
     private Product testProduct;
@@ -155,4 +162,48 @@ class ShippingChargeServiceTest {
             shippingChargeService.calculateShippingChargeForSellerAndCustomer(request);
         });
     }
+    
+    @Test
+    void testCalculateShippingCharge_OutsideServiceZone() {
+        // Mini Van zone around the warehouse that stops short of the customer at (13.0, 38.0)
+        serviceZoneService.createZone(testWarehouse.getWarehouseId(),
+                new ServiceZoneRequest("Warehouse Surroundings", "MINI_VAN", squareAround(12.6, 37.6, 0.2)));
+        
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class, () -> {
+            shippingChargeService.calculateShippingCharge(
+                    testWarehouse.getWarehouseId(), testCustomer.getCustomerId(), "standard", testProduct.getProductId());
+        });
+        assertTrue(ex.getMessage().contains("service zones"));
+    }
+    
+    @Test
+    void testCalculateShippingCharge_InsideServiceZone() {
+        serviceZoneService.createZone(testWarehouse.getWarehouseId(),
+                new ServiceZoneRequest("City Limits", "MINI_VAN", squareAround(12.8, 37.8, 0.5)));
+        
+        Double charge = shippingChargeService.calculateShippingCharge(
+                testWarehouse.getWarehouseId(), testCustomer.getCustomerId(), "standard", testProduct.getProductId());
+        
+        assertTrue(charge > 0);
+    }
+    
+    @Test
+    void testCalculateShippingCharge_ZoneForOtherModeDoesNotRestrict() {
+        // Only trucks are zoned; the ~62 km hop goes by Mini Van
+        serviceZoneService.createZone(testWarehouse.getWarehouseId(),
+                new ServiceZoneRequest("Truck Corridor", "TRUCK", squareAround(20.0, 20.0, 1.0)));
+        
+        Double charge = shippingChargeService.calculateShippingCharge(
+                testWarehouse.getWarehouseId(), testCustomer.getCustomerId(), "standard", testProduct.getProductId());
+        
+        assertTrue(charge > 0);
+    }
+    
+    private static List<LocationDTO> squareAround(double lat, double lng, double halfSide) {
+        return List.of(
+                new LocationDTO(lat - halfSide, lng - halfSide),
+                new LocationDTO(lat - halfSide, lng + halfSide),
+                new LocationDTO(lat + halfSide, lng + halfSide),
+                new LocationDTO(lat + halfSide, lng - halfSide));
+    }
 }
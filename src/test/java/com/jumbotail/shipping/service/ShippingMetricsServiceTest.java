@@ -2,6 +2,8 @@ package com.jumbotail.shipping.service;
 
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.jumbotail.shipping.dto.ShippingMetricsResponse;
+import com.jumbotail.shipping.strategy.distance.GoogleCircuitBreaker;
+import com.jumbotail.shipping.strategy.distance.GoogleQuotaManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +24,12 @@ class ShippingMetricsServiceTest {
     @Mock
     private CacheManager cacheManager;
 
+    @Mock
+    private GoogleCircuitBreaker googleCircuitBreaker;
+
+    @Mock
+    private GoogleQuotaManager googleQuotaManager;
+
     @InjectMocks
     private ShippingMetricsService shippingMetricsService;
 
@@ -43,4 +51,17 @@ class ShippingMetricsServiceTest {
         assertEquals("Truck", metrics.getMostUsedTransport());
         assertEquals(0, metrics.getCacheHits());
     }
+
+    @Test
+    void testGetMetrics_reportsGoogleCircuitAndQuota() {
+        when(googleCircuitBreaker.state()).thenReturn(GoogleCircuitBreaker.State.OPEN);
+        when(googleCircuitBreaker.shortCircuited()).thenReturn(42L);
+        when(googleQuotaManager.remainingToday()).thenReturn(99_000L);
+
+        ShippingMetricsResponse metrics = shippingMetricsService.getMetrics();
+
+        assertEquals("OPEN", metrics.getGoogleCircuitState());
+        assertEquals(42, metrics.getGoogleShortCircuited());
+        assertEquals(99_000, metrics.getGoogleQuotaRemainingToday());
+    }
 }
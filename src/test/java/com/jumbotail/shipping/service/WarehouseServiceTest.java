@@ -1,9 +1,11 @@
 package com.jumbotail.shipping.service;
 
+import com.jumbotail.shipping.dto.NearbyWarehouseResponse;
 import com.jumbotail.shipping.dto.NearestWarehouseResponse;
 import com.jumbotail.shipping.exception.ResourceNotFoundException;
 import com.jumbotail.shipping.model.*;
 import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.repository.InventoryRepository;
 import com.jumbotail.shipping.repository.ProductRepository;
 import com.jumbotail.shipping.repository.SellerRepository;
 import com.jumbotail.shipping.repository.WarehouseRepository;
@@ -37,6 +39,12 @@ class WarehouseServiceTest {
     @Autowired
     private WarehouseRepository warehouseRepository;
     
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
     private Seller testSeller;
     private Product testProduct;
     private Warehouse warehouse1;
@@ -109,4 +117,72 @@ class WarehouseServiceTest {
             warehouseService.findNearestWarehouse(testSeller.getSellerId(), "NON-EXISTENT");
         });
     }
+    
+    @Test
+    void testFindNearestWarehouseWithStock_SkipsCloserWarehouseWithoutStock() {
+        inventoryRepository.save(WarehouseInventory.builder()
+                .warehouseId(warehouse1.getId())
+                .productId(testProduct.getId())
+                .quantity(0)
+                .build());
+        inventoryRepository.save(WarehouseInventory.builder()
+                .warehouseId(warehouse2.getId())
+                .productId(testProduct.getId())
+                .quantity(50)
+                .build());
+        
+        NearestWarehouseResponse response = warehouseService.findNearestWarehouseWithStock(
+                testSeller.getSellerId(), testProduct.getProductId(), 10);
+        
+        assertEquals(warehouse2.getWarehouseId(), response.getWarehouseId());
+    }
+    
+    @Test
+    void testFindNearestWarehouseWithStock_NoWarehouseHasEnough() {
+        inventoryRepository.save(WarehouseInventory.builder()
+                .warehouseId(warehouse1.getId())
+                .productId(testProduct.getId())
+                .quantity(5)
+                .build());
+        
+        assertThrows(ResourceNotFoundException.class, () -> {
+            warehouseService.findNearestWarehouseWithStock(testSeller.getSellerId(), testProduct.getProductId(), 10);
+        });
+    }
+    
+    @Test
+    void testFindNearestWarehouse_FollowsWarehouseDeactivation() {
+        assertEquals(warehouse1.getWarehouseId(), warehouseService.findNearestWarehouse(
+                testSeller.getSellerId(), testProduct.getProductId()).getWarehouseId());
+        
+        warehouse1.setActive(false);
+        warehouseRepository.saveAndFlush(warehouse1);
+        cacheManager.getCache("nearestWarehouse").clear();
+        
+        assertEquals(warehouse2.getWarehouseId(), warehouseService.findNearestWarehouse(
+                testSeller.getSellerId(), testProduct.getProductId()).getWarehouseId());
+    }
+    
+    @Test
+    void testFindNearestWarehouseForCustomer_Success() {
+        Customer customer = customerRepository.save(Customer.builder()
+                .customerId("TEST-CUST-001")
+                .name("Test Customer")
+                .phoneNumber("9876543210")
+                .location(new Location(14.8, 39.8))
+                .active(true)
+                .build());
+        
+        NearbyWarehouseResponse response = warehouseService.findNearestWarehouseForCustomer(customer.getCustomerId());
+        
+        assertEquals(warehouse2.getWarehouseId(), response.getWarehouseId());
+        assertTrue(response.getDistanceKm() < 35.0);
+    }
+    
+    @Test
+    void testFindNearestWarehouseForCustomer_CustomerNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> {
+            warehouseService.findNearestWarehouseForCustomer("NON-EXISTENT");
+        });
+    }
 }
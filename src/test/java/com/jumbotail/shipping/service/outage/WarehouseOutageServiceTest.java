@@ -0,0 +1,124 @@
+package com.jumbotail.shipping.service.outage;
+
+import com.jumbotail.shipping.dto.NearestWarehouseResponse;
+import com.jumbotail.shipping.dto.ShippingChargeRequest;
+import com.jumbotail.shipping.exception.ResourceNotFoundException;
+import com.jumbotail.shipping.service.OrderShippingService;
+import com.jumbotail.shipping.service.ShippingChargeService;
+import com.jumbotail.shipping.service.WarehouseService;
+import com.jumbotail.shipping.service.spatial.WarehouseAssignmentIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarehouseOutageServiceTest {
+
+    @Mock
+    private WarehouseAssignmentIndex warehouseAssignmentIndex;
+    @Mock
+    private WarehouseService warehouseService;
+    @Mock
+    private OrderShippingService orderShippingService;
+    @Mock
+    private ShippingChargeService shippingChargeService;
+
+    private CachedLaneIndex cachedLaneIndex;
+    private CacheManager cacheManager;
+    private WarehouseOutageService outageService;
+
+    @BeforeEach
+    void setUp() {
+        cachedLaneIndex = new CachedLaneIndex();
+        cacheManager = new ConcurrentMapCacheManager("nearestWarehouse", "shippingCharge", "shippingEstimate");
+        outageService = new WarehouseOutageService(cachedLaneIndex, warehouseAssignmentIndex, cacheManager,
+                warehouseService, orderShippingService, shippingChargeService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outageService.shutdown();
+    }
+
+    @Test
+    void testReroute_EvictsAndReprimesLanesOfClosedWarehouse() throws Exception {
+        cache("nearestWarehouse", "S1_P1", "WH1", CachedLane.nearestWarehouse("S1", "P1"));
+        cache("shippingEstimate", "ORD1_standard", "WH1", CachedLane.shippingEstimate("ORD1", null));
+        cache("shippingCharge", "S1_C1_express", "WH1", CachedLane.sellerShippingCharge("S1", "C1", "express"));
+        cache("shippingCharge", "WH1_C1_standard_default", "WH1",
+                CachedLane.warehouseShippingCharge("WH1", "C1", "standard", null));
+        cache("nearestWarehouse", "S2_P2", "WH2", CachedLane.nearestWarehouse("S2", "P2"));
+        when(warehouseService.findNearestWarehouse("S1", "P1")).thenReturn(new NearestWarehouseResponse("WH2", null));
+
+        RerouteReport report = outageService.reroute(
+                new WarehouseDeactivatedEvent(1L, "WH1", Set.of(10L, 11L), Set.of(20L))).get();
+
+        assertEquals(2, report.customersReassigned());
+        assertEquals(1, report.sellersReassigned());
+        assertEquals(4, report.lanesEvicted());
+        assertEquals(3, report.lanesReprimed());
+        assertEquals(0, report.lanesFailed());
+
+        // Every lane that named WH1 is evicted; the WH2 lane is untouched
+        assertNull(cacheManager.getCache("nearestWarehouse").get("S1_P1"));
+        assertNull(cacheManager.getCache("shippingEstimate").get("ORD1_standard"));
+        assertNull(cacheManager.getCache("shippingCharge").get("WH1_C1_standard_default"));
+        assertNotNull(cacheManager.getCache("nearestWarehouse").get("S2_P2"));
+        assertTrue(cachedLaneIndex.lanesFor("WH1").isEmpty());
+
+        // Assignments are refreshed first, and nearest-warehouse answers are rebuilt before the lanes that read them
+        InOrder order = inOrder(warehouseAssignmentIndex, warehouseService, orderShippingService);
+        order.verify(warehouseAssignmentIndex).refresh();
+        order.verify(warehouseService).findNearestWarehouse("S1", "P1");
+        order.verify(orderShippingService).getShippingEstimate("ORD1", "standard");
+        verify(shippingChargeService).calculateShippingChargeForSellerAndCustomer(
+                new ShippingChargeRequest("S1", "C1", "express"));
+        verify(shippingChargeService, never()).calculateShippingCharge(any(), any(), any(), any());
+    }
+
+    @Test
+    void testReroute_CountsLanesThatCannotBeRebuilt() throws Exception {
+        cache("shippingEstimate", "ORD9_express", "WH1", CachedLane.shippingEstimate("ORD9", "express"));
+        when(orderShippingService.getShippingEstimate("ORD9", "express"))
+                .thenThrow(new ResourceNotFoundException("Order not found with ID: ORD9"));
+
+        RerouteReport report = outageService.reroute(
+                new WarehouseDeactivatedEvent(1L, "WH1", Set.of(), Set.of())).get();
+
+        assertEquals(1, report.lanesEvicted());
+        assertEquals(0, report.lanesReprimed());
+        assertEquals(1, report.lanesFailed());
+    }
+
+    @Test
+    void testCachedLaneIndex_RecordAndRemove() {
+        CachedLane lane = CachedLane.nearestWarehouse("S1", "P1");
+        cachedLaneIndex.record("WH1", lane);
+        assertEquals("S1_P1", lane.cacheKey());
+        assertEquals(1, cachedLaneIndex.lanesFor("WH1").size());
+
+        // Re-recording against another warehouse moves the lane
+        cachedLaneIndex.record("WH2", lane);
+        assertTrue(cachedLaneIndex.lanesFor("WH1").isEmpty());
+        assertEquals(1, cachedLaneIndex.lanesFor("WH2").size());
+
+        cachedLaneIndex.remove(lane);
+        assertTrue(cachedLaneIndex.lanesFor("WH2").isEmpty());
+    }
+
+    private void cache(String cacheName, String key, String warehouseId, CachedLane lane) {
+        cacheManager.getCache(cacheName).put(key, "cached");
+        cachedLaneIndex.record(warehouseId, lane);
+    }
+}
@@ -0,0 +1,75 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.spatial.Neighbor;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AssignmentTableTest {
+
+    private final WarehouseSpatialIndex warehouseSpatialIndex = mock(WarehouseSpatialIndex.class);
+    private final List<AssignmentTable.Point> points = new ArrayList<>();
+    private Map<Long, WarehouseSite> sites = Map.of();
+
+    private AssignmentTable table;
+
+    @BeforeEach
+    void setUp() {
+        when(warehouseSpatialIndex.sitesById()).thenAnswer(invocation -> sites);
+        table = new AssignmentTable("customer", warehouseSpatialIndex, () -> points);
+    }
+
+    @Test
+    void refresh_severalWarehousesAddedTogether_assignsNearestOfThem() {
+        sites = Map.of(1L, new WarehouseSite(1L, "W1", 0.0, 0.0));
+        points.add(new AssignmentTable.Point(100L, 0.0, 10.0));
+        assertEquals(1L, table.get(100L).orElseThrow().item().id());
+
+        // W2 takes the customer from W1, then W3 has to take it from W2
+        sites = Map.of(
+                1L, new WarehouseSite(1L, "W1", 0.0, 0.0),
+                2L, new WarehouseSite(2L, "W2", 0.0, 6.0),
+                3L, new WarehouseSite(3L, "W3", 0.0, 9.0));
+
+        Neighbor<WarehouseSite> assigned = table.get(100L).orElseThrow();
+        assertEquals(3L, assigned.item().id());
+        assertEquals(DistanceCalculator.calculateDistance(0.0, 10.0, 0.0, 9.0), assigned.distanceKm(), 1e-9);
+        assertTrue(table.assignedTo(2L).isEmpty());
+    }
+
+    @Test
+    void refresh_batchesOfAddedWarehouses_matchBruteForce() {
+        Random random = new Random(5);
+        for (long id = 0; id < 2_000; id++) {
+            points.add(new AssignmentTable.Point(id, 8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0));
+        }
+        Map<Long, WarehouseSite> current = new HashMap<>();
+        long nextSite = 1;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 1 + random.nextInt(5); i++, nextSite++) {
+                current.put(nextSite, new WarehouseSite(nextSite, "W" + nextSite,
+                        8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0));
+            }
+            sites = Map.copyOf(current);
+            table.refresh();
+
+            for (AssignmentTable.Point point : points) {
+                double nearest = Double.MAX_VALUE;
+                for (WarehouseSite site : current.values()) {
+                    nearest = Math.min(nearest, DistanceCalculator.calculateDistance(point.lat(), point.lng(), site.lat(), site.lng()));
+                }
+                assertEquals(nearest, table.get(point.id()).orElseThrow().distanceKm(), 1e-9, "round " + round);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.spatial.Neighbor;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerGeoIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @InjectMocks
+    private CustomerGeoIndex index;
+
+    @Test
+    void testFindWithin_MatchesBruteForceNearestFirst() {
+        Random random = new Random(7);
+        List<Customer> customers = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            customers.add(customer(id, 12.5 + random.nextDouble(), 77.0 + random.nextDouble()));
+        }
+        when(customerRepository.findByActiveTrue()).thenReturn(customers);
+
+        List<Neighbor<CustomerSite>> found = index.findWithin(12.97, 77.59, 15.0);
+
+        long expected = customers.stream()
+                .filter(c -> DistanceCalculator.calculateDistance(12.97, 77.59, c.getLocation().getLat(), c.getLocation().getLng()) <= 15.0)
+                .count();
+        assertEquals(expected, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            assertTrue(found.get(i - 1).distanceKm() <= found.get(i).distanceKm());
+        }
+    }
+
+    @Test
+    void testFindInBoundingBox_SkipsInactiveAndUnlocatedCustomers() {
+        Customer inactive = customer(2L, 12.98, 77.60);
+        inactive.setActive(false);
+        Customer unlocated = customer(3L, 12.98, 77.60);
+        unlocated.setLocation(null);
+        when(customerRepository.findByActiveTrue()).thenReturn(List.of(customer(1L, 12.98, 77.60), inactive, unlocated));
+
+        List<CustomerSite> found = index.findInBoundingBox(12.8, 77.4, 13.1, 77.8);
+
+        assertEquals(List.of("C1"), found.stream().map(CustomerSite::customerId).toList());
+    }
+
+    @Test
+    void testUpsert_BeforeFirstLoad_LeftToTheLoad() {
+        when(customerRepository.findByActiveTrue()).thenReturn(List.of(customer(1L, 12.98, 77.60)));
+
+        // Not in the table the load reads, so not indexed
+        index.upsert(customer(2L, 12.98, 77.60));
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[]{CustomerGeoIndex.cellOf(12.98, 77.60)}, index.occupiedCells());
+    }
+
+    private static Customer customer(Long id, double lat, double lng) {
+        return Customer.builder()
+                .id(id)
+                .customerId("C" + id)
+                .name("Kirana " + id)
+                .phoneNumber("98450" + id)
+                .location(new Location(lat, lng))
+                .active(true)
+                .build();
+    }
+}
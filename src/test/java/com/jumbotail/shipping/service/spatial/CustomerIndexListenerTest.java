@@ -0,0 +1,128 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomerIndexListenerTest {
+
+    private final List<Customer> table = new ArrayList<>();
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final CustomerGeoIndex index = new CustomerGeoIndex(customerRepository);
+    private final StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("customerGeoIndex", index));
+    private final CustomerIndexListener listener = new CustomerIndexListener(
+            beans.getBeanProvider(CustomerGeoIndex.class),
+            beans.getBeanProvider(WarehouseAssignmentIndex.class),
+            beans.getBeanProvider(DistanceMatrixStore.class));
+
+    @BeforeEach
+    void setUp() {
+        when(customerRepository.findByActiveTrue()).thenAnswer(invocation -> List.copyOf(table));
+        table.add(customer(1L, 12.9716, 77.5946, true));
+    }
+
+    @Test
+    void onCustomerSaved_appliesInsertUpdateAndDeactivationWithoutReloading() {
+        assertEquals(List.of("C1"), customersNear(12.9716, 77.5946));
+
+        Customer inserted = customer(2L, 12.9720, 77.5950, true);
+        listener.onCustomerSaved(inserted);
+        assertEquals(List.of("C1", "C2"), customersNear(12.9716, 77.5946));
+
+        inserted.setLocation(new Location(13.3409, 77.1010));
+        listener.onCustomerSaved(inserted);
+        assertEquals(List.of("C1"), customersNear(12.9716, 77.5946));
+        assertEquals(List.of("C2"), customersNear(13.3409, 77.1010));
+
+        inserted.setActive(false);
+        listener.onCustomerSaved(inserted);
+        assertTrue(customersNear(13.3409, 77.1010).isEmpty());
+
+        listener.onCustomerRemoved(table.get(0));
+        assertTrue(customersNear(12.9716, 77.5946).isEmpty());
+        assertEquals(0, index.size());
+
+        verify(customerRepository, times(1)).findByActiveTrue();
+    }
+
+    @Test
+    void onCustomerSaved_rolledBackTransaction_reloadsFromTable() {
+        assertEquals(1, index.size());
+
+        inTransactionThatRollsBack(() -> {
+            Customer moved = customer(1L, 13.3409, 77.1010, true);
+            listener.onCustomerSaved(moved);
+            listener.onCustomerSaved(customer(2L, 12.9720, 77.5950, true));
+            // The transaction sees its own changes
+            assertEquals(List.of("C2"), customersNear(12.9716, 77.5946));
+            assertEquals(List.of("C1"), customersNear(13.3409, 77.1010));
+        });
+
+        // Back to what the table holds
+        assertEquals(List.of("C1"), customersNear(12.9716, 77.5946));
+        assertTrue(customersNear(13.3409, 77.1010).isEmpty());
+        verify(customerRepository, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    void onCustomerSaved_committedTransaction_keepsChanges() {
+        assertEquals(1, index.size());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            listener.onCustomerSaved(customer(2L, 12.9720, 77.5950, true));
+            table.add(customer(2L, 12.9720, 77.5950, true));
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of("C1", "C2"), customersNear(12.9716, 77.5946));
+        verify(customerRepository, times(1)).findByActiveTrue();
+    }
+
+    private List<String> customersNear(double lat, double lng) {
+        return index.findWithin(lat, lng, 1.0).stream()
+                .map(neighbor -> neighbor.item().customerId())
+                .toList();
+    }
+
+    private static void inTransactionThatRollsBack(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static Customer customer(Long id, double lat, double lng, boolean active) {
+        return Customer.builder()
+                .id(id)
+                .customerId("C" + id)
+                .name("Kirana " + id)
+                .phoneNumber("98450" + id)
+                .location(new Location(lat, lng))
+                .active(active)
+                .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Customer;
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.repository.CustomerRepository;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DistanceMatrixStoreTest {
+
+    @Mock
+    private WarehouseSpatialIndex warehouseSpatialIndex;
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @TempDir
+    Path dir;
+
+    private final Map<Long, WarehouseSite> sites = new HashMap<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private DistanceMatrixStore store;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(warehouseSpatialIndex.sitesById()).thenAnswer(invocation -> Map.copyOf(sites));
+        lenient().when(customerRepository.findByActiveTrue()).thenAnswer(invocation -> List.copyOf(customers));
+        store = newStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testFind_ReturnsPrecomputedDistance() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        Customer mumbai = customer(10L, 19.0760, 72.8777);
+
+        OptionalDouble distance = store.find(bangalore, mumbai);
+
+        assertTrue(distance.isPresent());
+        assertEquals(DistanceCalculator.calculateDistance(bangalore.getLocation(), mumbai.getLocation()),
+                     distance.getAsDouble(), 0.0005);
+    }
+
+    @Test
+    void testFind_MissesWhenCallerCoordinatesDiffer() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        Customer mumbai = customer(10L, 19.0760, 72.8777);
+        store.find(bangalore, mumbai);
+
+        mumbai.setLocation(new Location(18.5, 73.8));
+
+        assertTrue(store.find(bangalore, mumbai).isEmpty());
+        assertTrue(store.find(bangalore, Customer.builder().id(99L).location(new Location(1.0, 1.0)).build()).isEmpty());
+    }
+
+    @Test
+    void testUpserts_AppliedIncrementally() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        store.find(bangalore, customer(10L, 19.0760, 72.8777));
+
+        Customer delhi = Customer.builder().id(11L).active(true).location(new Location(28.6139, 77.2090)).build();
+        store.upsertCustomer(delhi);
+        Warehouse chennai = Warehouse.builder().id(2L).active(true).location(new Location(13.0827, 80.2707)).build();
+        store.upsertWarehouse(chennai);
+
+        assertEquals(DistanceCalculator.calculateDistance(bangalore.getLocation(), delhi.getLocation()),
+                     store.find(bangalore, delhi).getAsDouble(), 0.0005);
+        assertEquals(DistanceCalculator.calculateDistance(chennai.getLocation(), delhi.getLocation()),
+                     store.find(chennai, delhi).getAsDouble(), 0.0005);
+        verify(customerRepository, times(1)).findByActiveTrue();
+
+        store.removeWarehouse(2L);
+        chennai.setActive(false);
+        store.upsertCustomer(Customer.builder().id(11L).active(false).location(delhi.getLocation()).build());
+
+        assertTrue(store.find(chennai, delhi).isEmpty());
+        assertTrue(store.find(bangalore, delhi).isEmpty());
+    }
+
+    @Test
+    void testReopen_KeepsDistancesAndDropsOwnersRemovedMeanwhile() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        Warehouse chennai = warehouse(2L, 13.0827, 80.2707);
+        Customer mumbai = customer(10L, 19.0760, 72.8777);
+        double expected = store.find(bangalore, mumbai).getAsDouble();
+        store.close();
+
+        sites.remove(2L);
+        store = newStore();
+
+        assertEquals(expected, store.find(bangalore, mumbai).getAsDouble());
+        assertTrue(store.find(chennai, mumbai).isEmpty());
+    }
+
+    @Test
+    void testReopen_ServesFileWhileReconcilingInBackground() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        warehouse(2L, 13.0827, 80.2707);
+        Customer mumbai = customer(10L, 19.0760, 72.8777);
+        double expected = store.find(bangalore, mumbai).getAsDouble();
+        store.close();
+
+        Warehouse chennai = warehouse(2L, 13.1, 80.3);
+        Customer pune = customer(11L, 18.5204, 73.8567);
+        List<Runnable> reconciles = new ArrayList<>();
+        store = newStore(reconciles::add);
+
+        assertEquals(expected, store.find(bangalore, mumbai).getAsDouble());
+        assertTrue(store.find(chennai, mumbai).isEmpty());
+        assertTrue(store.find(bangalore, pune).isEmpty());
+        assertEquals(1, reconciles.size());
+        verify(customerRepository, times(1)).findByActiveTrue();
+
+        reconciles.forEach(Runnable::run);
+
+        assertEquals(DistanceCalculator.calculateDistance(chennai.getLocation(), mumbai.getLocation()),
+                     store.find(chennai, mumbai).getAsDouble(), 0.0005);
+        assertTrue(store.find(bangalore, pune).isPresent());
+        verify(customerRepository, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    void testFind_GrowsPastInitialCapacity() {
+        Warehouse bangalore = warehouse(1L, 12.9716, 77.5946);
+        for (long id = 1; id <= 1500; id++) {
+            customer(id, 8.0 + id * 0.01, 70.0 + id * 0.01);
+        }
+
+        for (Customer customer : customers) {
+            assertEquals(DistanceCalculator.calculateDistance(bangalore.getLocation(), customer.getLocation()),
+                         store.find(bangalore, customer).getAsDouble(), 0.0005);
+        }
+    }
+
+    @Test
+    void testFind_EmptyWhenDisabled() {
+        DistanceMatrixStore disabled = new DistanceMatrixStore(warehouseSpatialIndex, customerRepository, false,
+                dir.resolve("disabled.bin").toString());
+
+        assertTrue(disabled.find(warehouse(1L, 12.9716, 77.5946), customer(10L, 19.0760, 72.8777)).isEmpty());
+        verifyNoInteractions(customerRepository);
+    }
+
+    private DistanceMatrixStore newStore() {
+        return newStore(Runnable::run);
+    }
+
+    private DistanceMatrixStore newStore(Executor reconciler) {
+        DistanceMatrixStore matrixStore = new DistanceMatrixStore(warehouseSpatialIndex, customerRepository, true,
+                dir.resolve("matrix.bin").toString());
+        ReflectionTestUtils.setField(matrixStore, "reconciler", reconciler);
+        return matrixStore;
+    }
+
+    private Warehouse warehouse(Long id, double lat, double lng) {
+        sites.put(id, new WarehouseSite(id, "WH" + id, lat, lng));
+        return Warehouse.builder().id(id).warehouseId("WH" + id).active(true).location(new Location(lat, lng)).build();
+    }
+
+    private Customer customer(Long id, double lat, double lng) {
+        Customer customer = Customer.builder().id(id).customerId("C" + id).active(true).location(new Location(lat, lng)).build();
+        customers.add(customer);
+        return customer;
+    }
+}
@@ -0,0 +1,144 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.strategy.DeliverySpeed;
+import com.jumbotail.shipping.strategy.TransportMode;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IsochroneIndexTest {
+
+    private static final WarehouseSite BANGALORE = new WarehouseSite(1L, "WH1", 12.9716, 77.5946);
+
+    @Mock
+    private WarehouseSpatialIndex warehouseSpatialIndex;
+    @Mock
+    private CustomerGeoIndex customerGeoIndex;
+
+    private final List<Runnable> builds = new ArrayList<>();
+    private IsochroneIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(warehouseSpatialIndex.sitesById()).thenReturn(Map.of(1L, BANGALORE));
+        index = new IsochroneIndex(warehouseSpatialIndex, customerGeoIndex);
+        ReflectionTestUtils.setField(index, "builder", (Executor) builds::add);
+    }
+
+    @Test
+    void testReachableMode_AppliesSlaPerSpeed() {
+        double[][] customers = {{13.3, 77.7}, {15.8, 78.0}, {28.6, 77.2}};
+        when(customerGeoIndex.occupiedCells()).thenReturn(cellsOf(customers));
+        build();
+
+        // ~38 km by mini van: within both SLAs
+        assertEquals(TransportMode.MINI_VAN, index.reachableMode(1L, 13.3, 77.7, DeliverySpeed.EXPRESS));
+        // ~316 km by truck: 4h + 316/60 * 0.8 misses the express SLA
+        assertNull(index.reachableMode(1L, 15.8, 78.0, DeliverySpeed.EXPRESS));
+        assertEquals(TransportMode.TRUCK, index.reachableMode(1L, 15.8, 78.0, DeliverySpeed.STANDARD));
+        // ~1740 km by air: within both SLAs
+        assertEquals(TransportMode.AEROPLANE, index.reachableMode(1L, 28.6, 77.2, DeliverySpeed.EXPRESS));
+    }
+
+    @Test
+    void testReachableMode_MatchesDirectEstimate() {
+        Random random = new Random(42);
+        double[][] customers = new double[2000][];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new double[]{8 + random.nextDouble() * 20, 70 + random.nextDouble() * 20};
+        }
+        when(customerGeoIndex.occupiedCells()).thenReturn(cellsOf(customers));
+        build();
+
+        int mismatches = 0;
+        for (double[] customer : customers) {
+            double distance = DistanceCalculator.calculateDistance(BANGALORE.lat(), BANGALORE.lng(), customer[0], customer[1]);
+            TransportMode mode = TransportMode.getTransportMode(distance);
+            for (DeliverySpeed speed : DeliverySpeed.values()) {
+                boolean expected = speed.estimateDeliveryHours(distance, mode) <= speed.getSlaHours();
+                if (index.isReachable(1L, customer[0], customer[1], speed) != expected) {
+                    mismatches++;
+                }
+            }
+        }
+        // Cells are judged at their centre, so only points right at a boundary may disagree
+        assertTrue(mismatches <= 10, "mismatches: " + mismatches);
+    }
+
+    @Test
+    void testReachableMode_EvaluatesUnindexedCellsDirectly() {
+        when(customerGeoIndex.occupiedCells()).thenReturn(new long[0]);
+        build();
+
+        assertEquals(TransportMode.MINI_VAN, index.reachableMode(1L, 13.3, 77.7, DeliverySpeed.EXPRESS));
+        assertNull(index.reachableMode(1L, 15.8, 78.0, DeliverySpeed.EXPRESS));
+    }
+
+    @Test
+    void testReachableMode_UnknownWarehouse() {
+        assertNull(index.reachableMode(99L, 13.3, 77.7, DeliverySpeed.STANDARD));
+    }
+
+    @Test
+    void testReachableMode_ServesPreviousBuildWhileRebuilding() {
+        double[][] customers = {{13.3, 77.7}, {15.8, 78.0}};
+        when(customerGeoIndex.occupiedCells()).thenReturn(cellsOf(customers));
+        build();
+
+        // A warehouse opens next to the customer at 15.8, 78.0; the lookup must not wait for the rebuild
+        WarehouseSite hyderabadRoad = new WarehouseSite(2L, "WH2", 15.7, 78.0);
+        when(warehouseSpatialIndex.sitesById()).thenReturn(Map.of(1L, BANGALORE, 2L, hyderabadRoad));
+
+        assertEquals(TransportMode.MINI_VAN, index.reachableMode(2L, 15.8, 78.0, DeliverySpeed.EXPRESS));
+        assertEquals(TransportMode.MINI_VAN, index.reachableMode(1L, 13.3, 77.7, DeliverySpeed.EXPRESS));
+        assertEquals(1, builds.size(), "one rebuild queued, however many lookups see the change");
+
+        build();
+        assertEquals(TransportMode.MINI_VAN, index.reachableMode(2L, 15.8, 78.0, DeliverySpeed.EXPRESS));
+        assertNull(index.reachableMode(1L, 15.8, 78.0, DeliverySpeed.EXPRESS));
+        assertTrue(builds.isEmpty());
+    }
+
+    @Test
+    void testReachableMode_RemovedWarehouseNotServedFromPreviousBuild() {
+        when(customerGeoIndex.occupiedCells()).thenReturn(cellsOf(new double[][]{{13.3, 77.7}}));
+        build();
+
+        when(warehouseSpatialIndex.sitesById()).thenReturn(Map.of());
+
+        assertNull(index.reachableMode(1L, 13.3, 77.7, DeliverySpeed.STANDARD));
+    }
+
+    /**
+     * Look a point up so that a stale index queues its rebuild, then run the queued rebuilds.
+     */
+    private void build() {
+        index.reachableMode(1L, 0.0, 0.0, DeliverySpeed.STANDARD);
+        while (!builds.isEmpty()) {
+            builds.remove(0).run();
+        }
+    }
+
+    private static long[] cellsOf(double[][] points) {
+        return Arrays.stream(points)
+                .mapToLong(point -> CustomerGeoIndex.cellOf(point[0], point[1]))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+}
@@ -0,0 +1,72 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.model.Warehouse;
+import com.jumbotail.shipping.service.outage.WarehouseDeactivatedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WarehouseIndexListenerTest {
+
+    private final List<Object> published = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private final WarehouseIndexListener listener = new WarehouseIndexListener(
+            mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), published::add);
+
+    @Test
+    void onWarehouseUpdated_publishesOnlyWhenWarehouseBecomesInactive() {
+        Warehouse warehouse = warehouse(true);
+        listener.onWarehouseLoaded(warehouse);
+
+        warehouse.setActive(false);
+        listener.onWarehouseUpdated(warehouse);
+        // A later edit of the already inactive warehouse
+        warehouse.setName("BLR_Warehouse_Old");
+        listener.onWarehouseUpdated(warehouse);
+
+        assertEquals(1, published.size());
+        assertEquals(1L, ((WarehouseDeactivatedEvent) published.get(0)).id());
+    }
+
+    @Test
+    void onWarehouseUpdated_loadedInactive_publishesNothing() {
+        Warehouse warehouse = warehouse(false);
+        listener.onWarehouseLoaded(warehouse);
+
+        warehouse.setName("BLR_Warehouse_Old");
+        listener.onWarehouseUpdated(warehouse);
+
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void onWarehouseUpdated_reactivatedThenDeactivated_publishesAgain() {
+        Warehouse warehouse = warehouse(false);
+        listener.onWarehouseCreated(warehouse);
+
+        warehouse.setActive(true);
+        listener.onWarehouseUpdated(warehouse);
+        warehouse.setActive(false);
+        listener.onWarehouseUpdated(warehouse);
+
+        assertEquals(1, published.size());
+    }
+
+    private static Warehouse warehouse(boolean active) {
+        return Warehouse.builder()
+                .id(1L)
+                .warehouseId("WH1")
+                .name("BLR_Warehouse")
+                .location(new Location(12.9716, 77.5946))
+                .active(active)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.jumbotail.shipping.service.spatial;
+
+import com.jumbotail.shipping.model.WarehouseInventory;
+import com.jumbotail.shipping.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WarehouseStockIndexTest {
+
+    private static final WarehouseSite BANGALORE = new WarehouseSite(1L, "WH1", 12.9716, 77.5946);
+    private static final WarehouseSite MYSORE = new WarehouseSite(2L, "WH2", 12.2958, 76.6394);
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final WarehouseSpatialIndex warehouseSpatialIndex = mock(WarehouseSpatialIndex.class);
+    private final WarehouseStockIndex index = new WarehouseStockIndex(inventoryRepository, warehouseSpatialIndex);
+
+    private final List<WarehouseInventory> table = new ArrayList<>();
+    private Map<Long, WarehouseSite> sites = Map.of(1L, BANGALORE, 2L, MYSORE);
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryRepository.findByQuantityGreaterThan(0)).thenAnswer(invocation -> List.copyOf(table));
+        when(warehouseSpatialIndex.sitesById()).thenAnswer(invocation -> sites);
+        table.add(row(10L, 1L, 100L, 5));
+        table.add(row(11L, 2L, 100L, 50));
+    }
+
+    @Test
+    void upsert_appliesQuantityChangesWithoutRescanning() {
+        assertEquals(2L, nearestFromMysoreHolding(100L, 10));
+
+        WarehouseInventory mysore = row(11L, 2L, 100L, 3);
+        index.upsert(mysore);
+        assertNull(nearestFromMysoreHolding(100L, 10));
+        assertEquals(1L, nearestFromMysoreHolding(100L, 5));
+
+        index.upsert(row(12L, 2L, 100L, 7));
+        assertEquals(2L, nearestFromMysoreHolding(100L, 10));
+
+        index.upsert(row(11L, 2L, 200L, 3));
+        index.remove(row(12L, 2L, 100L, 7));
+        assertEquals(1L, nearestFromMysoreHolding(100L, 1));
+        assertEquals(List.of(MYSORE), index.findStockedWarehouses(Map.of(200L, 3)));
+        assertTrue(index.findStockedWarehouses(Map.of(100L, 1, 200L, 4)).isEmpty());
+
+        verify(inventoryRepository, times(1)).findByQuantityGreaterThan(0);
+    }
+
+    @Test
+    void findNearestStocked_warehouseDeactivated_skippedWithoutRescanning() {
+        assertEquals(2L, nearestFromMysoreHolding(100L, 1));
+
+        sites = Map.of(1L, BANGALORE);
+
+        assertEquals(1L, nearestFromMysoreHolding(100L, 1));
+        verify(inventoryRepository, times(1)).findByQuantityGreaterThan(0);
+    }
+
+    @Test
+    void upsert_rolledBackTransaction_reloadsFromTable() {
+        assertEquals(2L, nearestFromMysoreHolding(100L, 10));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.upsert(row(11L, 2L, 100L, 0));
+            assertEquals(1L, nearestFromMysoreHolding(100L, 1));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(2L, nearestFromMysoreHolding(100L, 10));
+        verify(inventoryRepository, times(2)).findByQuantityGreaterThan(0);
+    }
+
+    private Long nearestFromMysoreHolding(Long productId, int quantity) {
+        return index.findNearestStocked(MYSORE.lat(), MYSORE.lng(), Map.of(productId, quantity))
+                .map(neighbor -> neighbor.item().id())
+                .orElse(null);
+    }
+
+    private static WarehouseInventory row(Long id, Long warehouseId, Long productId, int quantity) {
+        return WarehouseInventory.builder()
+                .id(id)
+                .warehouseId(warehouseId)
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+}
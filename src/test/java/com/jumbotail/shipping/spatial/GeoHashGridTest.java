@@ -0,0 +1,125 @@
+package com.jumbotail.shipping.spatial;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoHashGridTest {
+
+    @Test
+    void testEncode_MatchesBase32Geohash() {
+        // Well-known reference: (57.64911, 10.40744) -> u4pruydqqvj
+        long hash = GeoHash.encode(57.64911, 10.40744, 55);
+
+        assertEquals("u4pruydqqvj", GeoHash.toBase32(hash, 55));
+    }
+
+    @Test
+    void testWithin_MatchesLinearScan() {
+        Random random = new Random(42);
+        GeoHashGrid<Integer, Location> grid = new GeoHashGrid<>(30);
+        List<Location> points = randomIndiaLocations(random, 5000);
+        for (int i = 0; i < points.size(); i++) {
+            grid.put(i, points.get(i), points.get(i).getLat(), points.get(i).getLng());
+        }
+
+        for (double radiusKm : new double[]{1.0, 25.0, 300.0}) {
+            for (int i = 0; i < 50; i++) {
+                Location query = randomIndiaLocations(random, 1).get(0);
+
+                List<Neighbor<Location>> within = grid.within(query.getLat(), query.getLng(), radiusKm);
+
+                long expected = points.stream()
+                        .filter(p -> DistanceCalculator.calculateDistance(query, p) <= radiusKm)
+                        .count();
+                assertEquals(expected, within.size());
+                for (int j = 1; j < within.size(); j++) {
+                    assertTrue(within.get(j - 1).distanceKm() <= within.get(j).distanceKm());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPut_MovesExistingKey() {
+        GeoHashGrid<String, String> grid = new GeoHashGrid<>(30);
+        grid.put("CUST-1", "Shree Kirana", 12.9716, 77.5946);
+
+        grid.put("CUST-1", "Shree Kirana", 28.7041, 77.1025);
+
+        assertEquals(1, grid.size());
+        assertTrue(grid.within(12.9716, 77.5946, 10.0).isEmpty());
+        assertEquals(1, grid.within(28.7041, 77.1025, 10.0).size());
+    }
+
+    @Test
+    void testRemove_DropsPoint() {
+        GeoHashGrid<String, String> grid = new GeoHashGrid<>(30);
+        grid.put("CUST-1", "Shree Kirana", 12.9716, 77.5946);
+
+        assertTrue(grid.remove("CUST-1"));
+        assertFalse(grid.remove("CUST-1"));
+        assertEquals(0, grid.size());
+        assertTrue(grid.within(12.9716, 77.5946, 10.0).isEmpty());
+    }
+
+    @Test
+    void testWithin_AcrossAntimeridian() {
+        GeoHashGrid<String, String> grid = new GeoHashGrid<>(30);
+        grid.put("east", "east", 0.0, 179.95);
+        grid.put("west", "west", 0.0, -150.0);
+
+        List<Neighbor<String>> within = grid.within(0.0, -179.95, 20.0);
+
+        assertEquals(1, within.size());
+        assertEquals("east", within.get(0).item());
+    }
+
+    @Test
+    void testInBoundingBox_MatchesLinearScan() {
+        Random random = new Random(11);
+        GeoHashGrid<Integer, Location> grid = new GeoHashGrid<>(30);
+        List<Location> points = randomIndiaLocations(random, 5000);
+        for (int i = 0; i < points.size(); i++) {
+            grid.put(i, points.get(i), points.get(i).getLat(), points.get(i).getLng());
+        }
+
+        Set<Location> inBox = new HashSet<>(grid.inBoundingBox(12.0, 76.0, 14.5, 79.0));
+
+        Set<Location> expected = new HashSet<>();
+        for (Location p : points) {
+            if (p.getLat() >= 12.0 && p.getLat() <= 14.5 && p.getLng() >= 76.0 && p.getLng() <= 79.0) {
+                expected.add(p);
+            }
+        }
+        assertEquals(expected, inBox);
+    }
+
+    @Test
+    void testInBoundingBox_AcrossAntimeridian() {
+        GeoHashGrid<String, String> grid = new GeoHashGrid<>(30);
+        grid.put("east", "east", 10.0, 179.5);
+        grid.put("west", "west", 10.0, -179.5);
+        grid.put("outside", "outside", 10.0, 0.0);
+
+        List<String> inBox = grid.inBoundingBox(5.0, 170.0, 15.0, -170.0);
+
+        assertEquals(Set.of("east", "west"), new HashSet<>(inBox));
+    }
+
+    private static List<Location> randomIndiaLocations(Random random, int count) {
+        List<Location> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Location(8.0 + random.nextDouble() * 27.0, 68.0 + random.nextDouble() * 29.0));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jumbotail.shipping.spatial;
+
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HilbertCurveTest {
+
+    @Test
+    void testEncode_VisitsEveryCellOnceThroughAdjacentSteps() {
+        int order = 5;
+        int side = 1 << order;
+        int[][] cellAt = new int[side * side][];
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                int d = (int) HilbertCurve.encode(x, y, order);
+                assertNull(cellAt[d], "key " + d + " assigned twice");
+                cellAt[d] = new int[]{x, y};
+            }
+        }
+        for (int d = 1; d < cellAt.length; d++) {
+            int step = Math.abs(cellAt[d][0] - cellAt[d - 1][0]) + Math.abs(cellAt[d][1] - cellAt[d - 1][1]);
+            assertEquals(1, step, "keys " + (d - 1) + " and " + d + " are not neighbouring cells");
+        }
+    }
+
+    @Test
+    void testKey_CoversWholeGlobe() {
+        assertEquals(0L, HilbertCurve.key(-90.0, -180.0));
+        long max = (1L << (2 * HilbertCurve.ORDER)) - 1;
+        assertTrue(HilbertCurve.key(90.0, 180.0) <= max);
+        assertTrue(HilbertCurve.key(12.9716, 77.5946) >= 0);
+    }
+
+    @Test
+    void testSort_OrdersByKey() {
+        Random random = new Random(42);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            points.add(new double[]{8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0});
+        }
+
+        List<double[]> sorted = HilbertCurve.sort(points, p -> p[0], p -> p[1]);
+
+        assertEquals(points.size(), sorted.size());
+        assertTrue(sorted.containsAll(points));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(HilbertCurve.key(sorted.get(i - 1)[0], sorted.get(i - 1)[1])
+                    <= HilbertCurve.key(sorted.get(i)[0], sorted.get(i)[1]));
+        }
+    }
+
+    @Test
+    void testSort_OrdersKeysFromBothHalvesOfTheCurve() {
+        Random random = new Random(11);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            points.add(new double[]{-90.0 + random.nextDouble() * 180.0, -180.0 + random.nextDouble() * 360.0});
+        }
+
+        List<double[]> sorted = HilbertCurve.sort(points, p -> p[0], p -> p[1]);
+
+        long half = 1L << (2 * HilbertCurve.ORDER - 1);
+        assertTrue(HilbertCurve.key(sorted.get(0)[0], sorted.get(0)[1]) < half);
+        assertTrue(HilbertCurve.key(sorted.get(sorted.size() - 1)[0], sorted.get(sorted.size() - 1)[1]) >= half);
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(HilbertCurve.key(sorted.get(i - 1)[0], sorted.get(i - 1)[1])
+                    <= HilbertCurve.key(sorted.get(i)[0], sorted.get(i)[1]));
+        }
+    }
+
+    @Test
+    void testSort_KeepsConsecutiveItemsClose() {
+        Random random = new Random(7);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            points.add(new double[]{8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0});
+        }
+
+        double shuffledStep = averageStepKm(points);
+        double sortedStep = averageStepKm(HilbertCurve.sort(points, p -> p[0], p -> p[1]));
+
+        assertTrue(sortedStep * 20 < shuffledStep, "sorted " + sortedStep + " km vs shuffled " + shuffledStep + " km");
+    }
+
+    private static double averageStepKm(List<double[]> points) {
+        double total = 0.0;
+        for (int i = 1; i < points.size(); i++) {
+            total += DistanceCalculator.calculateDistance(
+                    points.get(i - 1)[0], points.get(i - 1)[1], points.get(i)[0], points.get(i)[1]);
+        }
+        return total / (points.size() - 1);
+    }
+}
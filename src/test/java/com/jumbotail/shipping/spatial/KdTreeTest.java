@@ -0,0 +1,141 @@
+package com.jumbotail.shipping.spatial;
+
+import com.jumbotail.shipping.model.Location;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+
+    @Test
+    void testNearest_EmptyTree() {
+        KdTree<Location> tree = KdTree.build(Collections.emptyList(), Location::getLat, Location::getLng);
+
+        assertTrue(tree.nearest(12.9716, 77.5946).isEmpty());
+    }
+
+    @Test
+    void testNearest_MatchesLinearScan() {
+        Random random = new Random(42);
+        List<Location> points = randomLocations(random, 2000);
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+
+        for (int i = 0; i < 500; i++) {
+            Location query = new Location(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+
+            Neighbor<Location> nearest = tree.nearest(query.getLat(), query.getLng()).orElseThrow();
+
+            double expected = points.stream()
+                    .mapToDouble(p -> DistanceCalculator.calculateDistance(query, p))
+                    .min()
+                    .orElseThrow();
+            assertEquals(expected, nearest.distanceKm(), 1e-6);
+            assertEquals(expected, DistanceCalculator.calculateDistance(query, nearest.item()), 1e-6);
+        }
+    }
+
+    @Test
+    void testNearest_WithFilterMatchesFilteredScan() {
+        Random random = new Random(7);
+        List<Location> points = randomLocations(random, 2000);
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+
+        for (int i = 0; i < 200; i++) {
+            Location query = new Location(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+
+            Neighbor<Location> nearest = tree.nearest(query.getLat(), query.getLng(),
+                    p -> p.getLng() > 100.0).orElseThrow();
+
+            double expected = points.stream()
+                    .filter(p -> p.getLng() > 100.0)
+                    .mapToDouble(p -> DistanceCalculator.calculateDistance(query, p))
+                    .min()
+                    .orElseThrow();
+            assertEquals(expected, nearest.distanceKm(), 1e-6);
+        }
+    }
+
+    @Test
+    void testNearest_FilterRejectsEverything() {
+        List<Location> points = List.of(new Location(12.9716, 77.5946), new Location(19.0760, 72.8777));
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+
+        assertTrue(tree.nearest(12.0, 77.0, p -> false).isEmpty());
+    }
+
+    @Test
+    void testNearestK_MatchesSortedScan() {
+        Random random = new Random(11);
+        List<Location> points = randomLocations(random, 2000);
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+        Location query = new Location(12.9716, 77.5946);
+
+        List<Neighbor<Location>> nearest = tree.nearest(query.getLat(), query.getLng(), 5);
+
+        double[] expected = points.stream()
+                .mapToDouble(p -> DistanceCalculator.calculateDistance(query, p))
+                .sorted()
+                .limit(5)
+                .toArray();
+        assertEquals(5, nearest.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], nearest.get(i).distanceKm(), 1e-6);
+        }
+    }
+
+    @Test
+    void testNearestK_MoreThanSize() {
+        List<Location> points = List.of(new Location(12.9716, 77.5946), new Location(19.0760, 72.8777));
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+
+        assertEquals(2, tree.nearest(12.0, 77.0, 10).size());
+        assertTrue(tree.nearest(12.0, 77.0, 0).isEmpty());
+    }
+
+    @Test
+    void testWithin_MatchesFilteredScan() {
+        Random random = new Random(13);
+        List<Location> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Location(8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0));
+        }
+        KdTree<Location> tree = KdTree.build(points, Location::getLat, Location::getLng);
+        Location query = new Location(19.0760, 72.8777);
+
+        List<Neighbor<Location>> within = tree.within(query.getLat(), query.getLng(), 250.0);
+
+        long expected = points.stream()
+                .filter(p -> DistanceCalculator.calculateDistance(query, p) <= 250.0)
+                .count();
+        assertEquals(expected, within.size());
+        for (int i = 1; i < within.size(); i++) {
+            assertTrue(within.get(i - 1).distanceKm() <= within.get(i).distanceKm());
+        }
+    }
+
+    @Test
+    void testNearest_AcrossAntimeridian() {
+        Location east = new Location(0.0, 179.9);
+        Location west = new Location(0.0, -150.0);
+        KdTree<Location> tree = KdTree.build(List.of(east, west), Location::getLat, Location::getLng);
+
+        Neighbor<Location> nearest = tree.nearest(0.0, -179.9).orElseThrow();
+
+        assertSame(east, nearest.item());
+        assertEquals(22.24, nearest.distanceKm(), 0.01);
+    }
+
+    private static List<Location> randomLocations(Random random, int count) {
+        List<Location> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new Location(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        return points;
+    }
+}
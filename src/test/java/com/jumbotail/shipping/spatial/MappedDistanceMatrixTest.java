@@ -0,0 +1,104 @@
+package com.jumbotail.shipping.spatial;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedDistanceMatrixTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testNewFile_CellsUnknownAndNotCleanlyClosed() throws IOException {
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(dir.resolve("m.bin"), 4, 8)) {
+            assertFalse(matrix.wasCleanlyClosed());
+            assertEquals(4, matrix.rowCapacity());
+            assertEquals(8, matrix.colCapacity());
+            assertEquals(MappedDistanceMatrix.UNKNOWN, matrix.get(3, 7));
+            assertEquals(0L, matrix.rowId(0));
+        }
+    }
+
+    @Test
+    void testReopen_KeepsSlotsAndCells() throws IOException {
+        Path path = dir.resolve("m.bin");
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 4, 8)) {
+            matrix.markOpen();
+            matrix.setRow(1, 42L, 12.97, 77.59);
+            matrix.setCol(5, 7L, 19.07, 72.87);
+            matrix.put(1, 5, 845_123);
+        }
+
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 1, 1)) {
+            assertTrue(matrix.wasCleanlyClosed());
+            assertEquals(8, matrix.colCapacity());
+            assertEquals(42L, matrix.rowId(1));
+            assertEquals(12.97, matrix.rowLat(1));
+            assertEquals(72.87, matrix.colLng(5));
+            assertEquals(845_123, matrix.get(1, 5));
+        }
+    }
+
+    @Test
+    void testOpen_DetectsUncleanShutdown() throws IOException {
+        Path path = dir.resolve("m.bin");
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 2, 2)) {
+            matrix.markOpen();
+            // A second open in the same JVM is refused while the first holds the lock
+            assertThrows(IOException.class, () -> MappedDistanceMatrix.open(path, 2, 2));
+        }
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 2, 2)) {
+            matrix.markOpen();
+            byte[] snapshot = Files.readAllBytes(path);
+            Files.write(dir.resolve("crashed.bin"), snapshot);
+        }
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(dir.resolve("crashed.bin"), 2, 2)) {
+            assertFalse(matrix.wasCleanlyClosed());
+        }
+    }
+
+    @Test
+    void testEnsureCapacity_CopiesSlotsAndCells() throws IOException {
+        Path path = dir.resolve("m.bin");
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 2, 3)) {
+            matrix.setRow(1, 9L, 1.0, 2.0);
+            matrix.setCol(2, 11L, 3.0, 4.0);
+            matrix.putRow(1, new int[]{10, 20, 30});
+
+            assertTrue(matrix.ensureCapacity(4, 6));
+
+            assertEquals(4, matrix.rowCapacity());
+            assertEquals(6, matrix.colCapacity());
+            assertEquals(9L, matrix.rowId(1));
+            assertEquals(11L, matrix.colId(2));
+            assertEquals(4.0, matrix.colLng(2));
+            assertEquals(30, matrix.get(1, 2));
+            assertEquals(MappedDistanceMatrix.UNKNOWN, matrix.get(1, 5));
+            assertEquals(MappedDistanceMatrix.UNKNOWN, matrix.get(3, 0));
+        }
+        assertEquals(MappedDistanceMatrix.bytesFor(4, 6), Files.size(path));
+    }
+
+    @Test
+    void testEnsureCapacity_RefusesBeyondSingleMapping() throws IOException {
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(dir.resolve("m.bin"), 2, 2)) {
+            assertFalse(matrix.ensureCapacity(100_000, 100_000));
+            assertEquals(2, matrix.rowCapacity());
+        }
+    }
+
+    @Test
+    void testOpen_ReplacesForeignFile() throws IOException {
+        Path path = dir.resolve("m.bin");
+        Files.writeString(path, "not a matrix");
+        try (MappedDistanceMatrix matrix = MappedDistanceMatrix.open(path, 2, 2)) {
+            assertEquals(MappedDistanceMatrix.UNKNOWN, matrix.get(1, 1));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.jumbotail.shipping.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RTreeTest {
+
+    @Test
+    void testSearch_EmptyTree() {
+        RTree<Polygon> tree = RTree.build(Collections.emptyList(), Polygon::bounds);
+
+        assertTrue(tree.isEmpty());
+        assertTrue(tree.search(12.9716, 77.5946).isEmpty());
+    }
+
+    @Test
+    void testSearch_MatchesLinearScan() {
+        Random random = new Random(42);
+        List<Polygon> polygons = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            polygons.add(randomTriangle(random));
+        }
+        RTree<Polygon> tree = RTree.build(polygons, Polygon::bounds);
+
+        for (int i = 0; i < 500; i++) {
+            double lat = 8.0 + random.nextDouble() * 27.0;
+            double lng = 68.0 + random.nextDouble() * 29.0;
+
+            Set<Polygon> found = new HashSet<>(tree.search(lat, lng));
+
+            Set<Polygon> expected = new HashSet<>();
+            for (Polygon polygon : polygons) {
+                if (polygon.bounds().contains(lat, lng)) {
+                    expected.add(polygon);
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    void testContains_ConcavePolygon() {
+        // U-shaped zone: the notch between the arms is outside
+        Polygon polygon = Polygon.of(
+                new double[]{12.0, 12.0, 13.0, 13.0, 12.5, 12.5, 13.0, 13.0},
+                new double[]{77.0, 78.0, 78.0, 77.7, 77.7, 77.3, 77.3, 77.0});
+
+        assertTrue(polygon.contains(12.2, 77.5));
+        assertTrue(polygon.contains(12.8, 77.1));
+        assertTrue(polygon.contains(12.8, 77.9));
+        assertFalse(polygon.contains(12.8, 77.5));
+        assertFalse(polygon.contains(11.9, 77.5));
+    }
+
+    @Test
+    void testOf_RejectsDegeneratePolygon() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Polygon.of(new double[]{12.0, 13.0}, new double[]{77.0, 78.0}));
+    }
+
+    private static Polygon randomTriangle(Random random) {
+        double lat = 8.0 + random.nextDouble() * 27.0;
+        double lng = 68.0 + random.nextDouble() * 29.0;
+        double size = 0.1 + random.nextDouble() * 2.0;
+        return Polygon.of(
+                new double[]{lat, lat + random.nextDouble() * size, lat - random.nextDouble() * size},
+                new double[]{lng, lng + random.nextDouble() * size, lng + random.nextDouble() * size});
+    }
+}
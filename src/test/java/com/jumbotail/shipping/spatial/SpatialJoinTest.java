@@ -0,0 +1,66 @@
+package com.jumbotail.shipping.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialJoinTest {
+
+    @Test
+    void testNearest_MatchesPerQuerySearch() {
+        Random random = new Random(42);
+        List<double[]> sites = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            sites.add(new double[]{8.0 + random.nextDouble() * 29.0, 68.0 + random.nextDouble() * 29.0});
+        }
+        int n = 20000;
+        double[] lats = new double[n];
+        double[] lngs = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Mostly clustered like real orders, with some far-away outliers
+            boolean outlier = random.nextInt(50) == 0;
+            lats[i] = outlier ? -60.0 + random.nextDouble() * 120.0 : 8.0 + random.nextDouble() * 29.0;
+            lngs[i] = outlier ? -180.0 + random.nextDouble() * 360.0 : 68.0 + random.nextDouble() * 29.0;
+        }
+
+        SpatialJoin.Result result = SpatialJoin.nearest(sites, s -> s[0], s -> s[1], lats, lngs);
+
+        KdTree<double[]> tree = KdTree.build(sites, s -> s[0], s -> s[1]);
+        for (int i = 0; i < n; i++) {
+            Neighbor<double[]> expected = tree.nearest(lats[i], lngs[i]).orElseThrow();
+            assertEquals(expected.distanceKm(), result.distancesKm()[i], 1e-6, "query " + i);
+        }
+    }
+
+    @Test
+    void testNearest_SharedCellAndSingleSite() {
+        List<double[]> sites = List.of(new double[]{12.9716, 77.5946});
+        double[] lats = {12.97, 12.98, 28.61};
+        double[] lngs = {77.59, 77.60, 77.20};
+
+        SpatialJoin.Result result = SpatialJoin.nearest(sites, s -> s[0], s -> s[1], lats, lngs);
+
+        assertArrayEquals(new int[]{0, 0, 0}, result.siteIndexes());
+        assertTrue(result.distancesKm()[2] > 1700.0);
+    }
+
+    @Test
+    void testNearest_NoSites() {
+        SpatialJoin.Result result = SpatialJoin.nearest(Collections.<double[]>emptyList(), s -> s[0], s -> s[1],
+                new double[]{12.97}, new double[]{77.59});
+
+        assertEquals(-1, result.siteIndexes()[0]);
+        assertTrue(Double.isNaN(result.distancesKm()[0]));
+    }
+
+    @Test
+    void testNearest_RejectsMismatchedArrays() {
+        assertThrows(IllegalArgumentException.class, () -> SpatialJoin.nearest(
+                List.of(new double[]{12.97, 77.59}), s -> s[0], s -> s[1], new double[2], new double[1]));
+    }
+}
@@ -0,0 +1,112 @@
+package com.jumbotail.shipping.standin;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+import com.jumbotail.shipping.util.DistanceCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixStandInTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private DistanceMatrixStandIn standIn;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    void get_synthesisesRoadDistancesFromGreatCircle() throws Exception {
+        standIn = DistanceMatrixStandIn.start(0, DistanceMatrixStandIn.Behaviour.ideal(), null, null, null);
+
+        HttpResponse<String> response = get("12.9716,77.5946", "13.0358,77.5970|19.0760,72.8777");
+        GoogleDistanceMatrixResponse matrix = objectMapper.readValue(response.body(), GoogleDistanceMatrixResponse.class);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("OK", matrix.getStatus());
+        GoogleDistanceMatrixResponse.Element element = matrix.getRows().get(0).getElements().get(1);
+        double roadKm = DistanceCalculator.calculateDistance(12.9716, 77.5946, 19.0760, 72.8777) * 1.3;
+        assertEquals((int) Math.round(roadKm * 1000), element.getDistance().getValue().intValue());
+        assertEquals((int) Math.round(roadKm / 40 * 3600), element.getDuration().getValue().intValue());
+        assertEquals(1, standIn.requests());
+        assertEquals(2, standIn.elements());
+    }
+
+    @Test
+    void get_replaysRecordedElementsBeforeSynthesising() throws Exception {
+        Path recordings = dir.resolve("recordings.ndjson");
+        Files.writeString(recordings, "{\"origin\":[12.9716,77.5946],\"destination\":[13.0358,77.597],"
+                + "\"element\":{\"status\":\"OK\",\"distance\":{\"value\":9400,\"text\":\"9.4 km\"},"
+                + "\"duration\":{\"value\":1260,\"text\":\"21 mins\"}}}\n");
+        standIn = DistanceMatrixStandIn.start(0, DistanceMatrixStandIn.Behaviour.ideal(), recordings, null, null);
+
+        GoogleDistanceMatrixResponse matrix = objectMapper.readValue(
+                get("12.9716,77.5946", "13.0358,77.5970|13.0400,77.6000").body(), GoogleDistanceMatrixResponse.class);
+
+        assertEquals(9400, matrix.getRows().get(0).getElements().get(0).getDistance().getValue());
+        assertNotEquals(9400, matrix.getRows().get(0).getElements().get(1).getDistance().getValue().intValue());
+    }
+
+    @Test
+    void get_enforcesApiLimits() throws Exception {
+        standIn = DistanceMatrixStandIn.start(0, DistanceMatrixStandIn.Behaviour.ideal(), null, null, null);
+        StringBuilder destinations = new StringBuilder("13.0,77.0");
+        for (int i = 1; i < 11; i++) {
+            destinations.append('|').append(13.0 + i * 0.01).append(",77.0");
+        }
+
+        GoogleDistanceMatrixResponse matrix = objectMapper.readValue(
+                get("12.0,77.0|12.1,77.0|12.2,77.0|12.3,77.0|12.4,77.0|12.5,77.0|12.6,77.0|12.7,77.0|12.8,77.0|12.9,77.0",
+                        destinations.toString()).body(), GoogleDistanceMatrixResponse.class);
+
+        assertEquals("MAX_ELEMENTS_EXCEEDED", matrix.getStatus());
+        assertEquals(0, standIn.elements());
+    }
+
+    @Test
+    void get_injectsConfiguredFaultsAndLatency() throws Exception {
+        standIn = DistanceMatrixStandIn.start(0, new DistanceMatrixStandIn.Behaviour(1.3, 40, 0, 0, 1.0, 0, 0, 0),
+                null, null, null);
+        assertEquals(500, get("12.0,77.0", "13.0,77.0").statusCode());
+        standIn.close();
+
+        standIn = DistanceMatrixStandIn.start(0, new DistanceMatrixStandIn.Behaviour(1.3, 40, 0, 0, 0, 1.0, 0, 0),
+                null, null, null);
+        assertTrue(get("12.0,77.0", "13.0,77.0").body().contains("OVER_QUERY_LIMIT"));
+        standIn.close();
+
+        standIn = DistanceMatrixStandIn.start(0, new DistanceMatrixStandIn.Behaviour(1.3, 40, 200, 200, 0, 0, 0, 0),
+                null, null, null);
+        long started = System.nanoTime();
+        assertEquals(200, get("12.0,77.0", "13.0,77.0").statusCode());
+        assertTrue(System.nanoTime() - started >= 190_000_000L, "reply should be delayed by the fixed latency");
+    }
+
+    private HttpResponse<String> get(String origins, String destinations) throws IOException, InterruptedException {
+        URI uri = URI.create(standIn.url()
+                + "?origins=" + URLEncoder.encode(origins, StandardCharsets.UTF_8)
+                + "&destinations=" + URLEncoder.encode(destinations, StandardCharsets.UTF_8)
+                + "&key=test");
+        return httpClient.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
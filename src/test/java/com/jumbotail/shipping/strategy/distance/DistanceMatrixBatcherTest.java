@@ -0,0 +1,100 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixBatcherTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> shapes = new ArrayList<>();
+    private DistanceMatrixBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void submit_pairsSharingAnOrigin_shareOneCall() {
+        batcher = new DistanceMatrixBatcher(this::fakeMatrix, 50_000, 1.0, 2, 25, 100);
+
+        List<CompletableFuture<DistanceMatrixDecoder.Element>> results = new ArrayList<>();
+        for (int j = 0; j < 10; j++) {
+            results.add(batcher.submit(12.0, 77.0, 13.0 + j, 78.0));
+        }
+
+        for (int j = 0; j < 10; j++) {
+            assertEquals(12_000 + 13 + j, results.get(j).join().metres());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(List.of("1x10"), shapes);
+    }
+
+    @Test
+    void submit_unrelatedPairs_areNotPaddedIntoOneGridAtFullFill() {
+        batcher = new DistanceMatrixBatcher(this::fakeMatrix, 50_000, 1.0, 2, 25, 100);
+
+        CompletableFuture<DistanceMatrixDecoder.Element> first = batcher.submit(12.0, 77.0, 13.0, 78.0);
+        CompletableFuture<DistanceMatrixDecoder.Element> second = batcher.submit(14.0, 77.0, 15.0, 78.0);
+
+        assertEquals(12_013, first.join().metres());
+        assertEquals(14_015, second.join().metres());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void submit_lowerFill_packsUnrelatedPairsIntoOneGrid() {
+        batcher = new DistanceMatrixBatcher(this::fakeMatrix, 50_000, 0.5, 2, 25, 100);
+
+        CompletableFuture<DistanceMatrixDecoder.Element> first = batcher.submit(12.0, 77.0, 13.0, 78.0);
+        CompletableFuture<DistanceMatrixDecoder.Element> second = batcher.submit(14.0, 77.0, 15.0, 78.0);
+        CompletableFuture<DistanceMatrixDecoder.Element> duplicate = batcher.submit(12.0, 77.0, 13.0, 78.0);
+
+        assertEquals(12_013, first.join().metres());
+        assertEquals(14_015, second.join().metres());
+        assertEquals(12_013, duplicate.join().metres());
+        assertEquals(1, calls.get());
+        assertEquals(List.of("2x2"), shapes);
+    }
+
+    @Test
+    void submit_failedCall_completesWithNull() {
+        batcher = new DistanceMatrixBatcher((originLats, originLngs, destinationLats, destinationLngs) -> {
+            throw new IllegalStateException("connection refused");
+        }, 1_000, 1.0, 1, 25, 100);
+
+        assertNull(batcher.submit(12.0, 77.0, 13.0, 78.0).join());
+    }
+
+    // Element distance encodes the origin and destination latitudes it answers
+    private synchronized CompletableFuture<DistanceMatrixDecoder.Matrix> fakeMatrix(double[] originLats, double[] originLngs,
+                                                                                    double[] destinationLats, double[] destinationLngs) {
+        calls.incrementAndGet();
+        shapes.add(originLats.length + "x" + destinationLats.length);
+        StringJoiner rows = new StringJoiner(",", "{\"rows\":[", "],\"status\":\"OK\"}");
+        for (double originLat : originLats) {
+            StringJoiner elements = new StringJoiner(",", "{\"elements\":[", "]}");
+            for (double destinationLat : destinationLats) {
+                elements.add("{\"distance\":{\"value\":" + ((int) originLat * 1000 + (int) destinationLat)
+                        + "},\"duration\":{\"value\":60},\"status\":\"OK\"}");
+            }
+            rows.add(elements.toString());
+        }
+        try {
+            return CompletableFuture.completedFuture(DistanceMatrixDecoder.decode(
+                    rows.toString().getBytes(StandardCharsets.UTF_8), originLats.length, destinationLats.length));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
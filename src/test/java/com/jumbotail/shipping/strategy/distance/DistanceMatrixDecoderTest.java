@@ -0,0 +1,84 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixDecoderTest {
+
+    private static final String REPLY = """
+            {
+              "destination_addresses": ["Mumbai, Maharashtra, India", "Unknown"],
+              "origin_addresses": ["Bengaluru, Karnataka, India", "Chennai, Tamil Nadu, India"],
+              "rows": [
+                {"elements": [
+                  {"distance": {"text": "984 km", "value": 984123}, "duration": {"text": "16 hours", "value": 57600}, "status": "OK"},
+                  {"status": "NOT_FOUND"}
+                ]},
+                {"elements": [
+                  {"status": "OK", "duration": {"value": 72000, "text": "20 hours"}, "distance": {"value": 1336000, "text": "1,336 km"}},
+                  {"status": "ZERO_RESULTS"}
+                ]}
+              ],
+              "status": "OK"
+            }
+            """;
+
+    @Test
+    void decode_readsValuesAndStatusesInAnyFieldOrder() throws IOException {
+        DistanceMatrixDecoder.Matrix matrix = decode(REPLY, 2, 2);
+
+        assertEquals("OK", matrix.status());
+        assertTrue(matrix.isOk(0, 0));
+        assertEquals(984123, matrix.metres(0, 0));
+        assertEquals(57600, matrix.seconds(0, 0));
+        assertTrue(matrix.isOk(1, 0));
+        assertEquals(1336000, matrix.metres(1, 0));
+        assertEquals(72000, matrix.seconds(1, 0));
+        assertFalse(matrix.isOk(0, 1));
+        assertEquals("NOT_FOUND", matrix.elementStatus(0, 1));
+        assertEquals("ZERO_RESULTS", matrix.elementStatus(1, 1));
+    }
+
+    @Test
+    void decode_elementsMissingFromReply_areNotOk() throws IOException {
+        DistanceMatrixDecoder.Matrix matrix = decode(REPLY, 3, 3);
+
+        assertTrue(matrix.isOk(0, 0));
+        assertEquals("MISSING", matrix.elementStatus(0, 2));
+        assertFalse(matrix.isOk(2, 0));
+    }
+
+    @Test
+    void decode_okElementWithoutDuration_isNotOk() throws IOException {
+        DistanceMatrixDecoder.Matrix matrix = decode(
+                "{\"rows\":[{\"elements\":[{\"status\":\"OK\",\"distance\":{\"value\":1200}},{\"status\":\"FOO\"}]}],\"status\":\"OK\"}", 1, 2);
+
+        assertFalse(matrix.isOk(0, 0));
+        assertEquals(1200, matrix.metres(0, 0));
+        assertEquals("UNKNOWN", matrix.elementStatus(0, 1));
+    }
+
+    @Test
+    void decode_errorReply_keepsStatusOnly() throws IOException {
+        DistanceMatrixDecoder.Matrix matrix = decode(
+                "{\"destination_addresses\":[],\"origin_addresses\":[],\"rows\":[],"
+                        + "\"error_message\":\"You have exceeded your daily request quota.\",\"status\":\"OVER_QUERY_LIMIT\"}", 1, 1);
+
+        assertEquals("OVER_QUERY_LIMIT", matrix.status());
+        assertFalse(matrix.isOk(0, 0));
+    }
+
+    @Test
+    void decode_malformedReply_throws() {
+        assertThrows(IOException.class, () -> decode("[\"OK\"]", 1, 1));
+        assertThrows(IOException.class, () -> decode("{\"rows\":[{\"elements\":[{\"status\":\"OK\"", 1, 1));
+    }
+
+    private static DistanceMatrixDecoder.Matrix decode(String body, int rows, int columns) throws IOException {
+        return DistanceMatrixDecoder.decode(body.getBytes(StandardCharsets.UTF_8), rows, columns);
+    }
+}
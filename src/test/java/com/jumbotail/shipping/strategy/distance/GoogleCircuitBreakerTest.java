@@ -0,0 +1,95 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(3000);
+
+    private long now;
+
+    // Window of 10, opens at 50% failures or 80% slow calls once 5 calls are in, probes 2 calls after 30 s
+    private final GoogleCircuitBreaker breaker = new GoogleCircuitBreaker(10, 5, 0.5, 2000, 0.8, 30_000, 2, () -> now);
+
+    @Test
+    void record_failuresBelowMinimumCalls_keepCircuitClosed() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.record(false, FAST);
+        }
+
+        assertEquals(GoogleCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void record_failureRateReached_opensAndShortCircuits() {
+        call(true, FAST, 3);
+        call(false, FAST, 3);
+
+        assertEquals(GoogleCircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breaker.shortCircuited());
+    }
+
+    @Test
+    void record_oldFailuresRollOutOfWindow() {
+        call(false, FAST, 1);
+        call(true, FAST, 9);
+        // The first failure has left the window, so 4 of the last 10 failed
+        call(false, FAST, 4);
+
+        assertEquals(GoogleCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void record_mostlySlowCalls_opens() {
+        call(true, SLOW, 4);
+        call(true, FAST, 1);
+        assertEquals(GoogleCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void tryAcquire_afterOpenPeriod_letsProbesThroughAndClosesOnSuccess() {
+        call(false, FAST, 5);
+        now += TimeUnit.SECONDS.toNanos(30);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(GoogleCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.record(true, FAST);
+        breaker.record(true, FAST);
+        assertEquals(GoogleCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void record_failedOrSlowProbe_reopens() {
+        call(false, FAST, 5);
+        now += TimeUnit.SECONDS.toNanos(30);
+        assertTrue(breaker.tryAcquire());
+        breaker.record(true, SLOW);
+
+        assertEquals(GoogleCircuitBreaker.State.OPEN, breaker.state());
+        now += TimeUnit.SECONDS.toNanos(29);
+        assertFalse(breaker.tryAcquire());
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertTrue(breaker.tryAcquire());
+        breaker.record(false, FAST);
+        assertEquals(GoogleCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void call(boolean success, long elapsedNanos, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.record(success, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleDistanceMatrixClientTest {
+
+    private static final String OK_BODY = "{\"destination_addresses\":[\"Pune\"],\"origin_addresses\":[\"Mumbai\"],"
+            + "\"rows\":[{\"elements\":[{\"distance\":{\"text\":\"149 km\",\"value\":149310},"
+            + "\"duration\":{\"text\":\"2 hours 51 mins\",\"value\":10260},\"status\":\"OK\"}]}],\"status\":\"OK\"}";
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final ExecutorService serverThreads = Executors.newFixedThreadPool(16);
+    private HttpServer server;
+    private String url;
+    private volatile int status = 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/maps/api/distancematrix/json", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            active.decrementAndGet();
+            byte[] body = OK_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/maps/api/distancematrix/json";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void fetch_parsesResponse() {
+        GoogleDistanceMatrixClient client = client(4, 10);
+
+        DistanceMatrixDecoder.Matrix response = client.fetch(new double[]{19.07}, new double[]{72.87},
+                new double[]{18.52}, new double[]{73.85}).join();
+
+        assertEquals("OK", response.status());
+        assertEquals(149310, response.metres(0, 0));
+        assertEquals(10260, response.seconds(0, 0));
+        assertEquals(0, client.inFlight());
+    }
+
+    @Test
+    void fetch_boundsCallsInFlight() {
+        GoogleDistanceMatrixClient client = client(2, 100);
+
+        List<CompletableFuture<DistanceMatrixDecoder.Matrix>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(client.fetch(new double[]{19.07}, new double[]{72.87}, new double[]{18.52 + i}, new double[]{73.85}));
+        }
+        calls.forEach(CompletableFuture::join);
+
+        assertTrue(maxActive.get() <= 2, "at most 2 calls in flight, saw " + maxActive.get());
+        assertEquals(0, client.inFlight());
+    }
+
+    @Test
+    void fetch_fullQueue_rejects() {
+        GoogleDistanceMatrixClient client = client(1, 1);
+
+        CompletableFuture<DistanceMatrixDecoder.Matrix> running = client.fetch(new double[]{1}, new double[]{1}, new double[]{2}, new double[]{2});
+        CompletableFuture<DistanceMatrixDecoder.Matrix> queued = client.fetch(new double[]{1}, new double[]{1}, new double[]{3}, new double[]{3});
+        CompletableFuture<DistanceMatrixDecoder.Matrix> rejected = client.fetch(new double[]{1}, new double[]{1}, new double[]{4}, new double[]{4});
+
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertNotNull(running.join());
+        assertNotNull(queued.join());
+    }
+
+    @Test
+    void fetch_httpError_completesExceptionally() {
+        status = 503;
+        GoogleDistanceMatrixClient client = client(4, 10);
+
+        CompletableFuture<DistanceMatrixDecoder.Matrix> call = client.fetch(new double[]{19.07}, new double[]{72.87},
+                new double[]{18.52}, new double[]{73.85});
+
+        assertThrows(CompletionException.class, call::join);
+        assertEquals(0, client.inFlight());
+    }
+
+    @Test
+    void fetch_sendThrows_completesExceptionallyAndFreesSlot() {
+        GoogleDistanceMatrixClient client = new GoogleDistanceMatrixClient(new RejectingHttpClient(2), url,
+                "test-key", 2000, 1, 10);
+
+        CompletableFuture<DistanceMatrixDecoder.Matrix> first = client.fetch(new double[]{1}, new double[]{1}, new double[]{2}, new double[]{2});
+        CompletableFuture<DistanceMatrixDecoder.Matrix> second = client.fetch(new double[]{1}, new double[]{1}, new double[]{3}, new double[]{3});
+
+        CompletionException error = assertThrows(CompletionException.class, first::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals(0, client.inFlight());
+        // The single slot is still usable once the client accepts calls again
+        assertEquals("OK", client.fetch(new double[]{19.07}, new double[]{72.87},
+                new double[]{18.52}, new double[]{73.85}).join().status());
+        assertEquals(0, client.inFlight());
+    }
+
+    private GoogleDistanceMatrixClient client(int maxConcurrent, int maxQueued) {
+        return new GoogleDistanceMatrixClient(HttpClient.newHttpClient(), url, "test-key",
+                2000, maxConcurrent, maxQueued);
+    }
+
+    /**
+     * Throws from sendAsync for the first calls, as a client whose executor is shut down
+     * does, then sends normally.
+     */
+    private static final class RejectingHttpClient extends HttpClient {
+
+        private final HttpClient delegate = HttpClient.newHttpClient();
+        private final AtomicInteger rejections;
+
+        RejectingHttpClient(int rejections) {
+            this.rejections = new AtomicInteger(rejections);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            if (rejections.getAndDecrement() > 0) {
+                throw new RejectedExecutionException("client executor is shut down");
+            }
+            return delegate.sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+                throws IOException, InterruptedException {
+            return delegate.send(request, handler);
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return delegate.cookieHandler();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return delegate.connectTimeout();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return delegate.followRedirects();
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return delegate.proxy();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return delegate.sslContext();
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return delegate.sslParameters();
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return delegate.authenticator();
+        }
+
+        @Override
+        public Version version() {
+            return delegate.version();
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return delegate.executor();
+        }
+    }
+}
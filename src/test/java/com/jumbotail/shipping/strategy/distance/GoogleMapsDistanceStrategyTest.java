@@ -1,21 +1,33 @@
 package com.jumbotail.shipping.strategy.distance;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jumbotail.shipping.dto.distance.CalculationMode;
 import com.jumbotail.shipping.dto.distance.DistanceResponse;
 import com.jumbotail.shipping.dto.distance.GoogleDistanceMatrixResponse;
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import com.jumbotail.shipping.routing.DetourFactorTable;
+import com.jumbotail.shipping.routing.RoadRoute;
+import com.jumbotail.shipping.service.spatial.DetourFactorStore;
+import com.jumbotail.shipping.service.spatial.RouteCacheStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -29,6 +41,21 @@ class GoogleMapsDistanceStrategyTest {
     @Mock
     private HaversineDistanceStrategy fallbackStrategy;
 
+    @Mock
+    private DetourFactorStore detourFactors;
+
+    @Mock
+    private GoogleDistanceMatrixClient matrixClient;
+
+    @Mock
+    private RouteCacheStore routeCache;
+
+    @Spy
+    private GoogleCircuitBreaker circuitBreaker = new GoogleCircuitBreaker(10, 5, 0.5, 2000, 0.8, 30_000, 1);
+
+    @Spy
+    private GoogleQuotaManager quota = new GoogleQuotaManager(1000, 100_000, 0.2, 0.5, 100, 100, 100);
+
     @InjectMocks
     private GoogleMapsDistanceStrategy strategy;
 
@@ -71,6 +98,83 @@ class GoogleMapsDistanceStrategyTest {
         assertEquals(CalculationMode.GOOGLE.name(), response.getCalculationMode());
         
         verify(fallbackStrategy, never()).calculate(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(detourFactors, times(1)).record(12.9, 77.5, 13.1, 78.1, 142.34, 168.0);
+        verify(routeCache, times(1)).put(12.9, 77.5, 13.1, 78.1, new RoadRoute(142340, 10080));
+    }
+
+    @Test
+    void calculate_cachedRoute_skipsApiCall() {
+        // Arrange
+        when(routeCache.get(12.9, 77.5, 13.1, 78.1)).thenReturn(Optional.of(new RoadRoute(142340, 10080)));
+
+        // Act
+        DistanceResponse response = strategy.calculate(12.9, 77.5, 13.1, 78.1);
+
+        // Assert
+        assertEquals(142.34, response.getDistanceKm());
+        assertEquals(168, response.getDurationMinutes());
+        assertEquals(CalculationMode.GOOGLE.name(), response.getCalculationMode());
+        verify(restTemplate, never()).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
+        verify(detourFactors, never()).estimate(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void calculate_confidentDetourFactor_skipsApiCall() {
+        // Arrange
+        when(detourFactors.estimate(12.9, 77.5, 13.1, 78.1))
+                .thenReturn(Optional.of(new DetourFactorTable.Estimate(1.3, 72.0, 40, 0.05)));
+
+        // Act
+        DistanceResponse response = strategy.calculate(12.9, 77.5, 13.1, 78.1);
+
+        // Assert: 68.71 km great-circle x 1.3, at 72 s per km
+        assertEquals(89.32, response.getDistanceKm());
+        assertEquals(107, response.getDurationMinutes());
+        assertEquals(GoogleMapsDistanceStrategy.LEARNED_DETOUR, response.getCalculationMode());
+        verify(restTemplate, never()).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
+        verify(fallbackStrategy, never()).calculate(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void calculateAsync_success_usesNonBlockingClient() throws Exception {
+        // Arrange
+        GoogleDistanceMatrixResponse mockResponse = new GoogleDistanceMatrixResponse();
+        mockResponse.setStatus("OK");
+        GoogleDistanceMatrixResponse.Row row = new GoogleDistanceMatrixResponse.Row();
+        row.setElements(List.of(element("OK", 142340, 10080)));
+        mockResponse.setRows(List.of(row));
+
+        when(matrixClient.fetch(any(double[].class), any(double[].class), any(double[].class), any(double[].class)))
+                .thenReturn(CompletableFuture.completedFuture(decoded(mockResponse, 1, 1)));
+
+        // Act
+        DistanceResponse response = strategy.calculateAsync(12.9, 77.5, 13.1, 78.1, Runnable::run).join();
+
+        // Assert
+        assertEquals(142.34, response.getDistanceKm());
+        assertEquals(CalculationMode.GOOGLE.name(), response.getCalculationMode());
+        verify(restTemplate, never()).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
+    }
+
+    @Test
+    void calculateAsync_clientFailure_usesFallback() {
+        // Arrange
+        when(matrixClient.fetch(any(double[].class), any(double[].class), any(double[].class), any(double[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("HTTP 503")));
+
+        DistanceResponse fallbackResponse = DistanceResponse.builder()
+                .distanceKm(50.0)
+                .durationMinutes(75)
+                .calculationMode(CalculationMode.HAVERSINE.name())
+                .build();
+        when(fallbackStrategy.calculate(12.9, 77.5, 13.1, 78.1))
+                .thenReturn(fallbackResponse);
+
+        // Act
+        DistanceResponse response = strategy.calculateAsync(12.9, 77.5, 13.1, 78.1, Runnable::run).join();
+
+        // Assert
+        assertEquals(CalculationMode.HAVERSINE.name(), response.getCalculationMode());
     }
 
     @Test
@@ -98,6 +202,53 @@ class GoogleMapsDistanceStrategyTest {
         verify(fallbackStrategy, times(1)).calculate(12.9, 77.5, 13.1, 78.1);
     }
     
+    @Test
+    void calculate_repeatedApiErrors_openCircuitAndSkipApiCall() {
+        // Arrange
+        when(restTemplate.getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class)))
+                .thenThrow(new RuntimeException("API Connection Refused"));
+        DistanceResponse fallbackResponse = DistanceResponse.builder()
+                .distanceKm(50.0)
+                .durationMinutes(75)
+                .calculationMode(CalculationMode.HAVERSINE.name())
+                .build();
+        when(fallbackStrategy.calculate(12.9, 77.5, 13.1, 78.1))
+                .thenReturn(fallbackResponse);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            assertEquals(CalculationMode.HAVERSINE.name(), strategy.calculate(12.9, 77.5, 13.1, 78.1).getCalculationMode());
+        }
+
+        // Assert: five failures open the circuit, the other fifteen lookups never reach Google
+        assertEquals(GoogleCircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertEquals(15, circuitBreaker.shortCircuited());
+        verify(restTemplate, times(5)).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
+        verify(fallbackStrategy, times(20)).calculate(12.9, 77.5, 13.1, 78.1);
+    }
+
+    @Test
+    void calculate_quotaSpentForCallerPriority_skipsApiCall() {
+        // Arrange
+        doReturn(false).when(quota).tryAcquire(RequestPriority.PREFETCH, 1);
+        DistanceResponse fallbackResponse = DistanceResponse.builder()
+                .distanceKm(50.0)
+                .durationMinutes(75)
+                .calculationMode(CalculationMode.HAVERSINE.name())
+                .build();
+        when(fallbackStrategy.calculate(12.9, 77.5, 13.1, 78.1))
+                .thenReturn(fallbackResponse);
+
+        // Act
+        DistanceResponse response = GoogleQuotaManager.callAs(RequestPriority.PREFETCH,
+                () -> strategy.calculate(12.9, 77.5, 13.1, 78.1));
+
+        // Assert
+        assertEquals(CalculationMode.HAVERSINE.name(), response.getCalculationMode());
+        verify(restTemplate, never()).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
+        assertEquals(GoogleCircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
     @Test
     void calculate_missingApiKey_usesFallbackImmediately() {
         // Arrange
@@ -122,4 +273,76 @@ class GoogleMapsDistanceStrategyTest {
         verify(restTemplate, never()).getForObject(any(URI.class), eq(GoogleDistanceMatrixResponse.class));
         verify(fallbackStrategy, times(1)).calculate(12.9, 77.5, 13.1, 78.1);
     }
+
+    @Test
+    void calculateMatrix_batchesRequestsAndFallsBackPerElement() throws Exception {
+        // Arrange: 3 x 40 splits into two requests of 3 x 25 and 3 x 15
+        GoogleDistanceMatrixResponse mockResponse = new GoogleDistanceMatrixResponse();
+        mockResponse.setStatus("OK");
+        List<GoogleDistanceMatrixResponse.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<GoogleDistanceMatrixResponse.Element> elements = new ArrayList<>();
+            for (int j = 0; j < 25; j++) {
+                elements.add(element(i == 1 && j == 3 ? "ZERO_RESULTS" : "OK", 142340, 10080));
+            }
+            GoogleDistanceMatrixResponse.Row row = new GoogleDistanceMatrixResponse.Row();
+            row.setElements(elements);
+            rows.add(row);
+        }
+        mockResponse.setRows(rows);
+
+        // Matrix blocks are fetched as raw bytes and decoded by DistanceMatrixDecoder
+        when(restTemplate.getForObject(any(URI.class), eq(byte[].class)))
+                .thenReturn(new ObjectMapper().writeValueAsBytes(mockResponse));
+        DistanceResponse fallbackResponse = DistanceResponse.builder()
+                .distanceKm(50.0)
+                .durationMinutes(75)
+                .calculationMode(CalculationMode.HAVERSINE.name())
+                .build();
+        when(fallbackStrategy.calculate(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(fallbackResponse);
+
+        double[] originLats = {12.9, 13.0, 13.1};
+        double[] originLngs = {77.5, 77.6, 77.7};
+        double[] destinationLats = new double[40];
+        double[] destinationLngs = new double[40];
+        for (int j = 0; j < 40; j++) {
+            destinationLats[j] = 19.0 + j * 0.01;
+            destinationLngs[j] = 72.8 + j * 0.01;
+        }
+        List<List<DistanceResponse>> received = new ArrayList<>(Collections.nCopies(3, null));
+
+        // Act
+        strategy.calculateMatrix(originLats, originLngs, destinationLats, destinationLngs, received::set);
+
+        // Assert
+        verify(restTemplate, times(2)).getForObject(any(URI.class), eq(byte[].class));
+        for (List<DistanceResponse> row : received) {
+            assertNotNull(row);
+            assertEquals(40, row.size());
+        }
+        assertEquals(142.34, received.get(0).get(39).getDistanceKm());
+        assertEquals(168, received.get(2).get(0).getDurationMinutes());
+        assertEquals(CalculationMode.HAVERSINE.name(), received.get(1).get(3).getCalculationMode());
+        assertEquals(CalculationMode.HAVERSINE.name(), received.get(1).get(28).getCalculationMode());
+        verify(fallbackStrategy, times(1)).calculate(13.0, 77.6, destinationLats[3], destinationLngs[3]);
+        verify(fallbackStrategy, times(1)).calculate(13.0, 77.6, destinationLats[28], destinationLngs[28]);
+    }
+
+    private static DistanceMatrixDecoder.Matrix decoded(GoogleDistanceMatrixResponse response, int rows, int columns)
+            throws Exception {
+        return DistanceMatrixDecoder.decode(new ObjectMapper().writeValueAsBytes(response), rows, columns);
+    }
+
+    private static GoogleDistanceMatrixResponse.Element element(String status, int metres, int seconds) {
+        GoogleDistanceMatrixResponse.Distance distance = new GoogleDistanceMatrixResponse.Distance();
+        distance.setValue(metres);
+        GoogleDistanceMatrixResponse.Duration duration = new GoogleDistanceMatrixResponse.Duration();
+        duration.setValue(seconds);
+        GoogleDistanceMatrixResponse.Element element = new GoogleDistanceMatrixResponse.Element();
+        element.setStatus(status);
+        element.setDistance(distance);
+        element.setDuration(duration);
+        return element;
+    }
 }
@@ -0,0 +1,75 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.jumbotail.shipping.dto.distance.RequestPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleQuotaManagerTest {
+
+    @Test
+    void tryAcquire_dailyBudgetRunningLow_turnsAwayLowerPrioritiesFirst() {
+        // 100 elements a day; batch leaves 20 and prefetch 50 for the classes above them
+        GoogleQuotaManager quota = new GoogleQuotaManager(1000, 100, 0.2, 0.5, 0, 0, 0);
+
+        assertTrue(quota.tryAcquire(RequestPriority.PREFETCH, 50));
+        assertFalse(quota.tryAcquire(RequestPriority.PREFETCH, 1));
+        assertTrue(quota.tryAcquire(RequestPriority.BATCH, 30));
+        assertFalse(quota.tryAcquire(RequestPriority.BATCH, 1));
+        assertTrue(quota.tryAcquire(RequestPriority.INTERACTIVE, 20));
+        assertFalse(quota.tryAcquire(RequestPriority.INTERACTIVE, 1));
+
+        assertEquals(0, quota.remainingToday());
+        assertEquals(1, quota.denied(RequestPriority.PREFETCH));
+        assertEquals(1, quota.denied(RequestPriority.BATCH));
+        assertEquals(1, quota.denied(RequestPriority.INTERACTIVE));
+    }
+
+    @Test
+    void tryAcquire_perSecondBudgetSpent_waitsForRefillWithinLimit() {
+        GoogleQuotaManager quota = new GoogleQuotaManager(100, 100_000, 0.2, 0.5, 0, 500, 0);
+
+        assertTrue(quota.tryAcquire(RequestPriority.INTERACTIVE, 100));
+        // Interactive may not wait here; batch waits for the bucket to refill past its reserve
+        assertFalse(quota.tryAcquire(RequestPriority.INTERACTIVE, 1));
+        long started = System.nanoTime();
+        assertTrue(quota.tryAcquire(RequestPriority.BATCH, 10));
+        assertTrue(System.nanoTime() - started >= 200_000_000L, "batch should have waited for the refill");
+        assertFalse(quota.tryAcquire(RequestPriority.PREFETCH, 10));
+    }
+
+    @Test
+    void acquireAsync_perSecondBudgetSpent_waitsWithoutHoldingCaller() {
+        GoogleQuotaManager quota = new GoogleQuotaManager(100, 100_000, 0.2, 0.5, 0, 500, 0);
+        assertTrue(quota.tryAcquire(RequestPriority.INTERACTIVE, 100));
+
+        long started = System.nanoTime();
+        CompletableFuture<Boolean> batch = quota.acquireAsync(RequestPriority.BATCH, 10);
+        assertTrue(System.nanoTime() - started < 100_000_000L, "caller should not wait for the refill");
+        assertFalse(batch.isDone());
+
+        assertTrue(batch.join());
+        assertTrue(System.nanoTime() - started >= 200_000_000L, "batch should have waited for the refill");
+        assertFalse(quota.acquireAsync(RequestPriority.PREFETCH, 10).join());
+    }
+
+    @Test
+    void tryAcquire_moreElementsThanAPrioritySecondAllows_isTurnedAway() {
+        GoogleQuotaManager quota = new GoogleQuotaManager(100, 100_000, 0.2, 0.5, 1000, 1000, 1000);
+
+        assertFalse(quota.tryAcquire(RequestPriority.PREFETCH, 60));
+        assertTrue(quota.tryAcquire(RequestPriority.INTERACTIVE, 100));
+    }
+
+    @Test
+    void callAs_setsPriorityForTheTaskOnly() {
+        assertEquals(RequestPriority.INTERACTIVE, GoogleQuotaManager.currentPriority());
+
+        RequestPriority inside = GoogleQuotaManager.callAs(RequestPriority.BATCH, GoogleQuotaManager::currentPriority);
+
+        assertEquals(RequestPriority.BATCH, inside);
+        assertEquals(RequestPriority.INTERACTIVE, GoogleQuotaManager.currentPriority());
+    }
+}
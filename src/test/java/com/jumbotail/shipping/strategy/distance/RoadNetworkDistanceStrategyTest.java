@@ -0,0 +1,120 @@
+package com.jumbotail.shipping.strategy.distance;
+
+import com.jumbotail.shipping.dto.distance.CalculationMode;
+import com.jumbotail.shipping.dto.distance.DistanceResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadNetworkDistanceStrategyTest {
+
+    // An L-shaped street: 1 km north, then 1 km east
+    private static final String EXTRACT = """
+            <osm version="0.6">
+              <node id="1" lat="12.9700" lon="77.5900"/>
+              <node id="2" lat="12.9790" lon="77.5900"/>
+              <node id="3" lat="12.9790" lon="77.5992"/>
+              <way id="10">
+                <nd ref="1"/><nd ref="2"/><nd ref="3"/>
+                <tag k="highway" v="primary"/>
+              </way>
+            </osm>
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final HaversineDistanceStrategy haversine = new HaversineDistanceStrategy();
+    private Path extract;
+    private Path cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        extract = dir.resolve("city.osm");
+        cache = dir.resolve("city.ch");
+        Files.writeString(extract, EXTRACT);
+    }
+
+    @Test
+    void calculate_routesAlongRoadsAndCachesGraph() {
+        RoadNetworkDistanceStrategy strategy = loaded(strategy(extract.toString()));
+
+        DistanceResponse response = strategy.calculate(12.9700, 77.5900, 12.9790, 77.5992);
+
+        assertEquals(CalculationMode.ROAD_NETWORK.name(), response.getCalculationMode());
+        assertEquals(2.0, response.getDistanceKm(), 0.01);
+        // 2 km at the 60 km/h primary speed
+        assertEquals(2, response.getDurationMinutes());
+        assertTrue(response.getDistanceKm() > haversine.calculate(12.9700, 77.5900, 12.9790, 77.5992).getDistanceKm());
+        assertTrue(Files.exists(cache));
+    }
+
+    @Test
+    void calculate_readsCacheWithoutExtract() throws IOException {
+        loaded(strategy(extract.toString()));
+        Files.delete(extract);
+
+        DistanceResponse response = loaded(strategy(extract.toString())).calculate(12.9700, 77.5900, 12.9790, 77.5992);
+
+        assertEquals(CalculationMode.ROAD_NETWORK.name(), response.getCalculationMode());
+        assertEquals(2.0, response.getDistanceKm(), 0.01);
+    }
+
+    @Test
+    void calculate_farFromRoads_usesFallback() {
+        RoadNetworkDistanceStrategy strategy = loaded(strategy(extract.toString()));
+
+        DistanceResponse response = strategy.calculate(12.9700, 77.5900, 19.0760, 72.8777);
+
+        assertEquals(CalculationMode.HAVERSINE.name(), response.getCalculationMode());
+    }
+
+    @Test
+    void calculate_noExtractConfigured_usesFallback() {
+        RoadNetworkDistanceStrategy strategy = strategy("");
+
+        DistanceResponse response = strategy.calculate(12.9700, 77.5900, 12.9790, 77.5992);
+
+        assertEquals(CalculationMode.HAVERSINE.name(), response.getCalculationMode());
+        assertFalse(Files.exists(cache));
+    }
+
+    @Test
+    void calculate_whileNetworkLoads_usesFallbackWithoutWaiting() {
+        RoadNetworkDistanceStrategy strategy = strategy(extract.toString());
+        List<Runnable> loads = new ArrayList<>();
+        ReflectionTestUtils.setField(strategy, "loader", (Executor) loads::add);
+
+        strategy.loadOnStartup();
+        DistanceResponse whileLoading = strategy.calculate(12.9700, 77.5900, 12.9790, 77.5992);
+        loads.forEach(Runnable::run);
+        DistanceResponse loaded = strategy.calculate(12.9700, 77.5900, 12.9790, 77.5992);
+
+        assertEquals(1, loads.size());
+        assertEquals(CalculationMode.HAVERSINE.name(), whileLoading.getCalculationMode());
+        assertEquals(CalculationMode.ROAD_NETWORK.name(), loaded.getCalculationMode());
+    }
+
+    private static RoadNetworkDistanceStrategy loaded(RoadNetworkDistanceStrategy strategy) {
+        strategy.startLoading().join();
+        return strategy;
+    }
+
+    private RoadNetworkDistanceStrategy strategy(String osmFile) {
+        RoadNetworkDistanceStrategy strategy = new RoadNetworkDistanceStrategy(haversine);
+        ReflectionTestUtils.setField(strategy, "osmFile", osmFile);
+        ReflectionTestUtils.setField(strategy, "graphCache", cache.toString());
+        ReflectionTestUtils.setField(strategy, "maxSnapKm", 2.0);
+        return strategy;
+    }
+}
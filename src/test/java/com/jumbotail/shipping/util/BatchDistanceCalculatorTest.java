@@ -0,0 +1,56 @@
+package com.jumbotail.shipping.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchDistanceCalculatorTest {
+    
+    @Test
+    void testDistancesFrom_MatchesSinglePairCalculation() {
+        Random random = new Random(42);
+        // Odd lengths exercise the scalar tail after the SIMD lanes
+        for (int n : new int[]{0, 1, 3, 17, 1000}) {
+            double[] lats = new double[n];
+            double[] lngs = new double[n];
+            for (int i = 0; i < n; i++) {
+                lats[i] = -89.0 + random.nextDouble() * 178.0;
+                lngs[i] = -180.0 + random.nextDouble() * 360.0;
+            }
+            double[] out = new double[n];
+            
+            BatchDistanceCalculator.distancesFrom(12.9716, 77.5946, lats, lngs, out);
+            
+            for (int i = 0; i < n; i++) {
+                assertEquals(DistanceCalculator.calculateDistance(12.9716, 77.5946, lats[i], lngs[i]), out[i], 1e-6);
+            }
+        }
+    }
+    
+    @Test
+    void testDistancesFrom_SimdAndScalarKernelsAgree() {
+        Random random = new Random(7);
+        double[] lats = new double[257];
+        double[] lngs = new double[257];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = 8.0 + random.nextDouble() * 29.0;
+            lngs[i] = 68.0 + random.nextDouble() * 29.0;
+        }
+        double[] scalar = new double[lats.length];
+        double[] batch = new double[lats.length];
+        
+        BatchDistanceCalculator.scalarDistancesFrom(19.0760, 72.8777, lats, lngs, scalar, 0);
+        BatchDistanceCalculator.distancesFrom(19.0760, 72.8777, lats, lngs, batch);
+        
+        assertArrayEquals(scalar, batch, 1e-6);
+    }
+    
+    @Test
+    void testDistancesFrom_MismatchedArrays() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            BatchDistanceCalculator.distancesFrom(0.0, 0.0, new double[2], new double[1], new double[2]);
+        });
+    }
+}
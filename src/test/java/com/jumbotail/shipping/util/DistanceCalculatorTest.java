@@ -3,6 +3,8 @@ package com.jumbotail.shipping.util;
 import com.jumbotail.shipping.model.Location;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DistanceCalculatorTest {
@@ -36,4 +38,49 @@ class DistanceCalculatorTest {
             DistanceCalculator.calculateDistance(loc1, null);
         });
     }
+    
+    @Test
+    void testCalculateDistance_PreparedMatchesPrimitive() {
+        PreparedLocation bangalore = PreparedLocation.of(12.9716, 77.5946);
+        PreparedLocation mumbai = PreparedLocation.of(19.0760, 72.8777);
+        
+        assertEquals(DistanceCalculator.calculateDistance(12.9716, 77.5946, 19.0760, 72.8777),
+                     DistanceCalculator.calculateDistance(bangalore, mumbai), 1e-9);
+    }
+    
+    @Test
+    void testCalculateDistance_FastModeWithinDocumentedErrorOnShortHops() {
+        Random random = new Random(12);
+        for (int i = 0; i < 10_000; i++) {
+            double lat1 = 8.0 + random.nextDouble() * 29.0;
+            double lng1 = 68.0 + random.nextDouble() * 29.0;
+            double lat2 = lat1 + (random.nextDouble() - 0.5) * 1.2;
+            double lng2 = lng1 + (random.nextDouble() - 0.5) * 1.2;
+            
+            double exact = DistanceCalculator.calculateDistance(lat1, lng1, lat2, lng2);
+            double fast = DistanceCalculator.calculateDistance(lat1, lng1, lat2, lng2, DistanceMode.FAST);
+            double preparedFast = DistanceCalculator.calculateDistance(
+                    PreparedLocation.of(lat1, lng1), PreparedLocation.of(lat2, lng2), DistanceMode.FAST);
+            
+            assertEquals(exact, fast, 0.001);
+            assertEquals(exact, preparedFast, 0.001);
+        }
+    }
+    
+    @Test
+    void testCalculateDistance_FastModeFallsBackToHaversineBeyondShortHops() {
+        PreparedLocation bangalore = PreparedLocation.of(12.9716, 77.5946);
+        PreparedLocation mumbai = PreparedLocation.of(19.0760, 72.8777);
+        
+        assertEquals(DistanceCalculator.calculateDistance(bangalore, mumbai),
+                     DistanceCalculator.calculateDistance(bangalore, mumbai, DistanceMode.FAST));
+    }
+    
+    @Test
+    void testCalculateDistance_FastModeAcrossAntimeridian() {
+        double exact = DistanceCalculator.calculateDistance(-16.5, 179.9, -16.5, -179.9);
+        
+        assertEquals(exact, DistanceCalculator.calculateDistance(-16.5, 179.9, -16.5, -179.9, DistanceMode.FAST), 0.001);
+        assertTrue(exact < 25);
+    }
 }